@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.annotation.handler;
+
+import cn.dev33.satoken.router.SaRouter;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 注解校验计划：预先解析好一个 Method （及其所属 Class）上需要执行的所有注解处理器，
+ * 拦截器每次请求只需按顺序执行，不必再反射读取注解
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaAnnotationCheckPlan {
+
+	/**
+	 * 标注了 @SaIgnore 的校验计划：直接跳过整个校验过程
+	 */
+	public static final SaAnnotationCheckPlan IGNORE = new SaAnnotationCheckPlan(true, Collections.emptyList());
+
+	/**
+	 * 是否忽略校验
+	 */
+	public final boolean ignore;
+
+	/**
+	 * 需要依次执行的校验项 （先 Class 后 Method，不可修改）
+	 */
+	public final List<Item> items;
+
+	/**
+	 * 构建一个注解校验计划
+	 *
+	 * @param ignore 是否忽略校验
+	 * @param items 需要依次执行的校验项
+	 */
+	public SaAnnotationCheckPlan(boolean ignore, List<Item> items) {
+		this.ignore = ignore;
+		this.items = Collections.unmodifiableList(items);
+	}
+
+	/**
+	 * 执行校验计划
+	 */
+	public void check() {
+		if(ignore) {
+			SaRouter.stop();
+		}
+		for (Item item : items) {
+			item.check();
+		}
+	}
+
+	/**
+	 * 校验计划中的一项：注解处理器 + 注解对象 + 被标注的元素
+	 */
+	public static class Item {
+
+		/**
+		 * 注解处理器
+		 */
+		public final SaAnnotationHandlerInterface<?> handler;
+
+		/**
+		 * 注解对象
+		 */
+		public final Annotation annotation;
+
+		/**
+		 * 被标注的注解的元素(方法/类)引用
+		 */
+		public final AnnotatedElement element;
+
+		/**
+		 * 预先展开的 @SaCheckOr 候选注解集合 （为 null 时表示直接交给 handler 校验）
+		 */
+		public final List<Annotation> orAnnotationList;
+
+		public Item(SaAnnotationHandlerInterface<?> handler, Annotation annotation, AnnotatedElement element, List<Annotation> orAnnotationList) {
+			this.handler = handler;
+			this.annotation = annotation;
+			this.element = element;
+			this.orAnnotationList = orAnnotationList == null ? null : Collections.unmodifiableList(orAnnotationList);
+		}
+
+		/**
+		 * 执行此项校验
+		 */
+		public void check() {
+			if(orAnnotationList != null) {
+				SaCheckOrHandler.checkAnnotationList(orAnnotationList, element);
+			} else {
+				handler.check(annotation, element);
+			}
+		}
+
+	}
+
+}
@@ -53,6 +53,31 @@ public class SaCheckOrHandler implements SaAnnotationHandlerInterface<SaCheckOr>
             SaCheckDisable[] disable,
             Class<? extends Annotation>[] append,
             AnnotatedElement element
+    ) {
+        checkAnnotationList(getAnnotationList(login, role, permission, safe, httpBasic, httpDigest, disable, append, element), element);
+    }
+
+    /**
+     * 展开 @SaCheckOr 中的所有候选注解
+     *
+     * @param at 注解对象
+     * @param element 被标注的注解的元素(方法/类)引用
+     * @return /
+     */
+    public static List<Annotation> getAnnotationList(SaCheckOr at, AnnotatedElement element) {
+        return getAnnotationList(at.login(), at.role(), at.permission(), at.safe(), at.httpBasic(), at.httpDigest(), at.disable(), at.append(), element);
+    }
+
+    public static List<Annotation> getAnnotationList(
+            SaCheckLogin[] login,
+            SaCheckRole[] role,
+            SaCheckPermission[] permission,
+            SaCheckSafe[] safe,
+            SaCheckHttpBasic[] httpBasic,
+            SaCheckHttpDigest[] httpDigest,
+            SaCheckDisable[] disable,
+            Class<? extends Annotation>[] append,
+            AnnotatedElement element
     ) {
         // 先把所有注解塞到一个 list 里
         List<Annotation> annotationList = new ArrayList<>();
@@ -69,7 +94,16 @@ public class SaCheckOrHandler implements SaAnnotationHandlerInterface<SaCheckOr>
                 annotationList.add(annotation);
             }
         }
+        return annotationList;
+    }
 
+    /**
+     * 依次校验候选注解，只要有一个校验通过即可
+     *
+     * @param annotationList 候选注解集合
+     * @param element 被标注的注解的元素(方法/类)引用
+     */
+    public static void checkAnnotationList(List<Annotation> annotationList, AnnotatedElement element) {
         // 如果 atList 为空，说明 SaCheckOr 上不包含任何注解校验，我们直接跳过即可
         if(annotationList.isEmpty()) {
             return;
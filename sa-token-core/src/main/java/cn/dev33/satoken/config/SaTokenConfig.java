@@ -15,12 +15,19 @@
  */
 package cn.dev33.satoken.config;
 
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.error.SaErrorCode;
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.router.SaRouteRule;
 import cn.dev33.satoken.stp.parameter.enums.SaLogoutMode;
 import cn.dev33.satoken.stp.parameter.enums.SaLogoutRange;
 import cn.dev33.satoken.stp.parameter.enums.SaReplacedRange;
 import cn.dev33.satoken.util.SaFoxUtil;
+import cn.dev33.satoken.util.SaTokenConsts;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Sa-Token 配置类 Model
@@ -141,6 +148,106 @@ public class SaTokenConfig implements Serializable {
 	 */
 	private int dataRefreshPeriod = 30;
 
+	/**
+	 * 默认 SaTokenDao 实现类中，定时清理过期数据时是否使用过期时间索引（true=只处理已到期的 key，false=每次全量扫描所有 key）
+	 */
+	private Boolean dataRefreshUseIndex = false;
+
+	/**
+	 * 默认 SaTokenDao 实现类中，会话检索时是否使用有序 key 索引（true=只扫描前缀所在的区间并按字典序排列，false=每次全量扫描所有 key）
+	 */
+	private Boolean dataSearchUseIndex = false;
+
+	/**
+	 * 默认 SaTokenDao 实现类中，最多存储多少条数据，超出时按近似 LRU 算法淘汰数据，默认 -1 代表不限制
+	 */
+	private long dataMaxCount = -1;
+
+	/**
+	 * 默认 SaTokenDao 实现类中，最多占用多少字节内存（预估值），超出时按近似 LRU 算法淘汰数据，默认 -1 代表不限制
+	 */
+	private long dataMaxBytes = -1;
+
+	/**
+	 * 是否开启请求级持久层读缓存（同一次请求内，同一个 key 只读取一次持久层，写入时自动失效）
+	 */
+	private Boolean daoRequestMemo = false;
+
+	/**
+	 * SaSession 是否使用字段级存储（持久层支持时，修改挂载数据只写入变动的字段，而不是整个 SaSession 重新序列化写入），切换此配置前需要清空已有的 SaSession 数据
+	 */
+	private Boolean sessionFieldStore = false;
+
+	/**
+	 * 是否开启 SaSession 请求级延迟写入（同一次请求内对 SaSession 的多次修改，只在请求结束时统一写入一次持久层，需要注册 Sa-Token 上下文过滤器）
+	 */
+	private Boolean sessionWriteBehind = false;
+
+	/**
+	 * 权限码、角色码集合的本地缓存有效期（单位: 秒），默认 0 代表不缓存，每次校验都从 StpInterface 加载，-1 代表永不过期（只能通过 refreshPermission、refreshRole 主动刷新）
+	 */
+	private long permissionCacheTimeout = 0;
+
+	/**
+	 * 是否将权限缓存的版本号保存在 SaTokenDao 中（集群部署时开启，任一节点调用 refreshPermission、refreshRole 都会使所有节点的本地缓存失效）
+	 */
+	private Boolean permissionCacheUseDao = false;
+
+	/**
+	 * 权限码、角色码集合的本地缓存最多存储多少个集合，超出时按近似 LRU 算法淘汰，-1 代表不限制
+	 */
+	private long permissionCacheMaxCount = 10000;
+
+	/**
+	 * 限流：每个统计周期内允许通过的最大请求数，默认 0 代表不限流
+	 */
+	private long rateLimitCapacity = 0;
+
+	/**
+	 * 限流：统计周期（单位: 秒）
+	 */
+	private long rateLimitPeriod = 1;
+
+	/**
+	 * 限流算法，可选值：token-bucket=令牌桶（允许短时突发，平均速率不超过 capacity/period），sliding-window=滑动窗口（任意一个统计周期内的请求数不超过 capacity）
+	 */
+	private String rateLimitAlgorithm = SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET;
+
+	/**
+	 * 限流维度，可选值：ip、loginId、token、route，多个维度用逗号隔开表示组合限流，例如 ip,route 代表每个 IP 访问每个接口分别计数
+	 */
+	private String rateLimitKeyType = "ip";
+
+	/**
+	 * 是否使用持久层进行限流计数（持久层支持时，例如 sa-token-redis-template 插件，通过原子脚本在所有节点间共享计数，否则只在本机内存中计数）
+	 */
+	private Boolean rateLimitUseDao = false;
+
+	/**
+	 * 登录失败限制：同一账号（或 IP）累计失败多少次后自动锁定登录，默认 0 代表不开启
+	 */
+	private int loginFailThreshold = 0;
+
+	/**
+	 * 登录失败限制：失败次数的统计周期（单位: 秒），超过此时间没有新的失败记录则重新计数
+	 */
+	private long loginFailWindow = 60 * 60;
+
+	/**
+	 * 登录失败限制：首次锁定的时长（单位: 秒），之后每多失败一次，锁定时长翻倍（-1=永久锁定）
+	 */
+	private long loginFailLockTime = 60;
+
+	/**
+	 * 登录失败限制：最长锁定时长（单位: 秒）
+	 */
+	private long loginFailMaxLockTime = 60 * 60 * 24;
+
+	/**
+	 * 声明式路由规则：路由匹配符 -> 需要的登录、角色、权限，修改后无需重启即可生效
+	 */
+	private List<SaRouteRule> routeRules = new ArrayList<>();
+
 	/**
 	 * 获取 Token-Session 时是否必须登录（如果配置为true，会在每次获取 getTokenSession() 时校验当前是否登录）
 	 */
@@ -191,6 +298,26 @@ public class SaTokenConfig implements Serializable {
 	 */
 	private String jwtSecretKey;
 
+	/**
+	 * jwt 解析结果的本地缓存最长有效期（单位: 秒，同时不会超过 jwt 自身的有效期），开启后同一个 jwt 在有效期内只会验签、解析一次，默认 0 代表不开启
+	 */
+	private long jwtParseCacheTimeout = 0;
+
+	/**
+	 * jwt 解析结果的本地缓存最多存储多少个 jwt，超出时按近似 LRU 算法淘汰，-1 代表不限制
+	 */
+	private long jwtParseCacheMaxCount = 10000;
+
+	/**
+	 * jwt stateless 模式下是否启用 token 吊销列表，启用后 logout、kickout 等操作会将 token 写入吊销列表，校验时先经过本地布隆过滤器探测，只有疑似吊销的 token 才会查询持久层
+	 */
+	private Boolean isJwtRevoke = false;
+
+	/**
+	 * jwt 吊销列表从持久层同步到本地布隆过滤器的周期（单位: 秒），用于感知其它节点吊销的 token，小于等于 0 代表不定时同步
+	 */
+	private int jwtRevokeSyncPeriod = 30;
+
 	/**
 	 * Http Basic 认证的默认账号和密码，冒号隔开，例如：sa:123456
 	 */
@@ -467,6 +594,329 @@ public class SaTokenConfig implements Serializable {
 		return this;
 	}
 
+	/**
+	 * @return 默认 SaTokenDao 实现类中，定时清理过期数据时是否使用过期时间索引（true=只处理已到期的 key，false=每次全量扫描所有 key）
+	 */
+	public Boolean getDataRefreshUseIndex() {
+		return dataRefreshUseIndex;
+	}
+
+	/**
+	 * @param dataRefreshUseIndex 默认 SaTokenDao 实现类中，定时清理过期数据时是否使用过期时间索引（true=只处理已到期的 key，false=每次全量扫描所有 key）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setDataRefreshUseIndex(Boolean dataRefreshUseIndex) {
+		this.dataRefreshUseIndex = dataRefreshUseIndex;
+		return this;
+	}
+
+	/**
+	 * @return 默认 SaTokenDao 实现类中，会话检索时是否使用有序 key 索引（true=只扫描前缀所在的区间并按字典序排列，false=每次全量扫描所有 key）
+	 */
+	public Boolean getDataSearchUseIndex() {
+		return dataSearchUseIndex;
+	}
+
+	/**
+	 * @param dataSearchUseIndex 默认 SaTokenDao 实现类中，会话检索时是否使用有序 key 索引（true=只扫描前缀所在的区间并按字典序排列，false=每次全量扫描所有 key）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setDataSearchUseIndex(Boolean dataSearchUseIndex) {
+		this.dataSearchUseIndex = dataSearchUseIndex;
+		return this;
+	}
+
+	/**
+	 * @return 默认 SaTokenDao 实现类中，最多存储多少条数据，超出时按近似 LRU 算法淘汰数据，默认 -1 代表不限制
+	 */
+	public long getDataMaxCount() {
+		return dataMaxCount;
+	}
+
+	/**
+	 * @param dataMaxCount 默认 SaTokenDao 实现类中，最多存储多少条数据，超出时按近似 LRU 算法淘汰数据，默认 -1 代表不限制
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setDataMaxCount(long dataMaxCount) {
+		this.dataMaxCount = dataMaxCount;
+		return this;
+	}
+
+	/**
+	 * @return 默认 SaTokenDao 实现类中，最多占用多少字节内存（预估值），超出时按近似 LRU 算法淘汰数据，默认 -1 代表不限制
+	 */
+	public long getDataMaxBytes() {
+		return dataMaxBytes;
+	}
+
+	/**
+	 * @param dataMaxBytes 默认 SaTokenDao 实现类中，最多占用多少字节内存（预估值），超出时按近似 LRU 算法淘汰数据，默认 -1 代表不限制
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setDataMaxBytes(long dataMaxBytes) {
+		this.dataMaxBytes = dataMaxBytes;
+		return this;
+	}
+
+	/**
+	 * @return 是否开启请求级持久层读缓存（同一次请求内，同一个 key 只读取一次持久层，写入时自动失效）
+	 */
+	public Boolean getDaoRequestMemo() {
+		return daoRequestMemo;
+	}
+
+	/**
+	 * @param daoRequestMemo 是否开启请求级持久层读缓存（同一次请求内，同一个 key 只读取一次持久层，写入时自动失效）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setDaoRequestMemo(Boolean daoRequestMemo) {
+		this.daoRequestMemo = daoRequestMemo;
+		return this;
+	}
+
+	/**
+	 * @return SaSession 是否使用字段级存储（持久层支持时，修改挂载数据只写入变动的字段，而不是整个 SaSession 重新序列化写入），切换此配置前需要清空已有的 SaSession 数据
+	 */
+	public Boolean getSessionFieldStore() {
+		return sessionFieldStore;
+	}
+
+	/**
+	 * @param sessionFieldStore SaSession 是否使用字段级存储（持久层支持时，修改挂载数据只写入变动的字段，而不是整个 SaSession 重新序列化写入），切换此配置前需要清空已有的 SaSession 数据
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setSessionFieldStore(Boolean sessionFieldStore) {
+		this.sessionFieldStore = sessionFieldStore;
+		return this;
+	}
+
+	/**
+	 * @return 是否开启 SaSession 请求级延迟写入（同一次请求内对 SaSession 的多次修改，只在请求结束时统一写入一次持久层，需要注册 Sa-Token 上下文过滤器）
+	 */
+	public Boolean getSessionWriteBehind() {
+		return sessionWriteBehind;
+	}
+
+	/**
+	 * @param sessionWriteBehind 是否开启 SaSession 请求级延迟写入（同一次请求内对 SaSession 的多次修改，只在请求结束时统一写入一次持久层，需要注册 Sa-Token 上下文过滤器）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setSessionWriteBehind(Boolean sessionWriteBehind) {
+		this.sessionWriteBehind = sessionWriteBehind;
+		return this;
+	}
+
+	/**
+	 * @return 权限码、角色码集合的本地缓存有效期（单位: 秒），默认 0 代表不缓存，每次校验都从 StpInterface 加载，-1 代表永不过期（只能通过 refreshPermission、refreshRole 主动刷新）
+	 */
+	public long getPermissionCacheTimeout() {
+		return permissionCacheTimeout;
+	}
+
+	/**
+	 * @param permissionCacheTimeout 权限码、角色码集合的本地缓存有效期（单位: 秒），默认 0 代表不缓存，每次校验都从 StpInterface 加载，-1 代表永不过期（只能通过 refreshPermission、refreshRole 主动刷新）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setPermissionCacheTimeout(long permissionCacheTimeout) {
+		this.permissionCacheTimeout = permissionCacheTimeout;
+		return this;
+	}
+
+	/**
+	 * @return 是否将权限缓存的版本号保存在 SaTokenDao 中（集群部署时开启，任一节点调用 refreshPermission、refreshRole 都会使所有节点的本地缓存失效）
+	 */
+	public Boolean getPermissionCacheUseDao() {
+		return permissionCacheUseDao;
+	}
+
+	/**
+	 * @param permissionCacheUseDao 是否将权限缓存的版本号保存在 SaTokenDao 中（集群部署时开启，任一节点调用 refreshPermission、refreshRole 都会使所有节点的本地缓存失效）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setPermissionCacheUseDao(Boolean permissionCacheUseDao) {
+		this.permissionCacheUseDao = permissionCacheUseDao;
+		return this;
+	}
+
+	/**
+	 * @return 权限码、角色码集合的本地缓存最多存储多少个集合，超出时按近似 LRU 算法淘汰，-1 代表不限制
+	 */
+	public long getPermissionCacheMaxCount() {
+		return permissionCacheMaxCount;
+	}
+
+	/**
+	 * @param permissionCacheMaxCount 权限码、角色码集合的本地缓存最多存储多少个集合，超出时按近似 LRU 算法淘汰，-1 代表不限制
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setPermissionCacheMaxCount(long permissionCacheMaxCount) {
+		this.permissionCacheMaxCount = permissionCacheMaxCount;
+		return this;
+	}
+
+	/**
+	 * @return 限流：每个统计周期内允许通过的最大请求数，默认 0 代表不限流
+	 */
+	public long getRateLimitCapacity() {
+		return rateLimitCapacity;
+	}
+
+	/**
+	 * @param rateLimitCapacity 限流：每个统计周期内允许通过的最大请求数，默认 0 代表不限流
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setRateLimitCapacity(long rateLimitCapacity) {
+		this.rateLimitCapacity = rateLimitCapacity;
+		return this;
+	}
+
+	/**
+	 * @return 限流：统计周期（单位: 秒）
+	 */
+	public long getRateLimitPeriod() {
+		return rateLimitPeriod;
+	}
+
+	/**
+	 * @param rateLimitPeriod 限流：统计周期（单位: 秒）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setRateLimitPeriod(long rateLimitPeriod) {
+		this.rateLimitPeriod = rateLimitPeriod;
+		return this;
+	}
+
+	/**
+	 * @return 限流算法，可选值：token-bucket=令牌桶（允许短时突发，平均速率不超过 capacity/period），sliding-window=滑动窗口（任意一个统计周期内的请求数不超过 capacity）
+	 */
+	public String getRateLimitAlgorithm() {
+		return rateLimitAlgorithm;
+	}
+
+	/**
+	 * @param rateLimitAlgorithm 限流算法，可选值：token-bucket=令牌桶（允许短时突发，平均速率不超过 capacity/period），sliding-window=滑动窗口（任意一个统计周期内的请求数不超过 capacity）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setRateLimitAlgorithm(String rateLimitAlgorithm) {
+		this.rateLimitAlgorithm = rateLimitAlgorithm;
+		return this;
+	}
+
+	/**
+	 * @return 限流维度，可选值：ip、loginId、token、route，多个维度用逗号隔开表示组合限流，例如 ip,route 代表每个 IP 访问每个接口分别计数
+	 */
+	public String getRateLimitKeyType() {
+		return rateLimitKeyType;
+	}
+
+	/**
+	 * @param rateLimitKeyType 限流维度，可选值：ip、loginId、token、route，多个维度用逗号隔开表示组合限流，例如 ip,route 代表每个 IP 访问每个接口分别计数
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setRateLimitKeyType(String rateLimitKeyType) {
+		this.rateLimitKeyType = rateLimitKeyType;
+		return this;
+	}
+
+	/**
+	 * @return 是否使用持久层进行限流计数（持久层支持时，例如 sa-token-redis-template 插件，通过原子脚本在所有节点间共享计数，否则只在本机内存中计数）
+	 */
+	public Boolean getRateLimitUseDao() {
+		return rateLimitUseDao;
+	}
+
+	/**
+	 * @param rateLimitUseDao 是否使用持久层进行限流计数（持久层支持时，例如 sa-token-redis-template 插件，通过原子脚本在所有节点间共享计数，否则只在本机内存中计数）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setRateLimitUseDao(Boolean rateLimitUseDao) {
+		this.rateLimitUseDao = rateLimitUseDao;
+		return this;
+	}
+
+	/**
+	 * @return 登录失败限制：同一账号（或 IP）累计失败多少次后自动锁定登录，默认 0 代表不开启
+	 */
+	public int getLoginFailThreshold() {
+		return loginFailThreshold;
+	}
+
+	/**
+	 * @param loginFailThreshold 登录失败限制：同一账号（或 IP）累计失败多少次后自动锁定登录，默认 0 代表不开启
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setLoginFailThreshold(int loginFailThreshold) {
+		this.loginFailThreshold = loginFailThreshold;
+		return this;
+	}
+
+	/**
+	 * @return 登录失败限制：失败次数的统计周期（单位: 秒），超过此时间没有新的失败记录则重新计数
+	 */
+	public long getLoginFailWindow() {
+		return loginFailWindow;
+	}
+
+	/**
+	 * @param loginFailWindow 登录失败限制：失败次数的统计周期（单位: 秒），超过此时间没有新的失败记录则重新计数
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setLoginFailWindow(long loginFailWindow) {
+		this.loginFailWindow = loginFailWindow;
+		return this;
+	}
+
+	/**
+	 * @return 登录失败限制：首次锁定的时长（单位: 秒），之后每多失败一次，锁定时长翻倍（-1=永久锁定）
+	 */
+	public long getLoginFailLockTime() {
+		return loginFailLockTime;
+	}
+
+	/**
+	 * @param loginFailLockTime 登录失败限制：首次锁定的时长（单位: 秒），之后每多失败一次，锁定时长翻倍（-1=永久锁定）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setLoginFailLockTime(long loginFailLockTime) {
+		if(loginFailLockTime <= 0 && loginFailLockTime != SaTokenDao.NEVER_EXPIRE) {
+			throw new SaTokenException("loginFailLockTime 只能为正数或 -1，当前值：" + loginFailLockTime).setCode(SaErrorCode.CODE_10023);
+		}
+		this.loginFailLockTime = loginFailLockTime;
+		return this;
+	}
+
+	/**
+	 * @return 登录失败限制：最长锁定时长（单位: 秒）
+	 */
+	public long getLoginFailMaxLockTime() {
+		return loginFailMaxLockTime;
+	}
+
+	/**
+	 * @param loginFailMaxLockTime 登录失败限制：最长锁定时长（单位: 秒）
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setLoginFailMaxLockTime(long loginFailMaxLockTime) {
+		this.loginFailMaxLockTime = loginFailMaxLockTime;
+		return this;
+	}
+
+	/**
+	 * @return 声明式路由规则：路由匹配符 -> 需要的登录、角色、权限，修改后无需重启即可生效
+	 */
+	public List<SaRouteRule> getRouteRules() {
+		return routeRules;
+	}
+
+	/**
+	 * @param routeRules 声明式路由规则：路由匹配符 -> 需要的登录、角色、权限，修改后无需重启即可生效
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setRouteRules(List<SaRouteRule> routeRules) {
+		this.routeRules = routeRules;
+		return this;
+	}
+
 	/**
 	 * @return 获取 Token-Session 时是否必须登录（如果配置为true，会在每次获取 getTokenSession() 时校验当前是否登录）
 	 */
@@ -633,6 +1083,70 @@ public class SaTokenConfig implements Serializable {
 		return this;
 	}
 
+	/**
+	 * @return jwt 解析结果的本地缓存最长有效期（单位: 秒，同时不会超过 jwt 自身的有效期），开启后同一个 jwt 在有效期内只会验签、解析一次，默认 0 代表不开启
+	 */
+	public long getJwtParseCacheTimeout() {
+		return jwtParseCacheTimeout;
+	}
+
+	/**
+	 * @param jwtParseCacheTimeout jwt 解析结果的本地缓存最长有效期（单位: 秒，同时不会超过 jwt 自身的有效期），开启后同一个 jwt 在有效期内只会验签、解析一次，默认 0 代表不开启
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setJwtParseCacheTimeout(long jwtParseCacheTimeout) {
+		this.jwtParseCacheTimeout = jwtParseCacheTimeout;
+		return this;
+	}
+
+	/**
+	 * @return jwt 解析结果的本地缓存最多存储多少个 jwt，超出时按近似 LRU 算法淘汰，-1 代表不限制
+	 */
+	public long getJwtParseCacheMaxCount() {
+		return jwtParseCacheMaxCount;
+	}
+
+	/**
+	 * @param jwtParseCacheMaxCount jwt 解析结果的本地缓存最多存储多少个 jwt，超出时按近似 LRU 算法淘汰，-1 代表不限制
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setJwtParseCacheMaxCount(long jwtParseCacheMaxCount) {
+		this.jwtParseCacheMaxCount = jwtParseCacheMaxCount;
+		return this;
+	}
+
+	/**
+	 * @return jwt stateless 模式下是否启用 token 吊销列表，启用后 logout、kickout 等操作会将 token 写入吊销列表，校验时先经过本地布隆过滤器探测，只有疑似吊销的 token 才会查询持久层
+	 */
+	public Boolean getIsJwtRevoke() {
+		return isJwtRevoke;
+	}
+
+	/**
+	 * @param isJwtRevoke jwt stateless 模式下是否启用 token 吊销列表，启用后 logout、kickout 等操作会将 token 写入吊销列表，校验时先经过本地布隆过滤器探测，只有疑似吊销的 token 才会查询持久层
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setIsJwtRevoke(Boolean isJwtRevoke) {
+		this.isJwtRevoke = isJwtRevoke;
+		return this;
+	}
+
+	/**
+	 * @return jwt 吊销列表从持久层同步到本地布隆过滤器的周期（单位: 秒），用于感知其它节点吊销的 token，小于等于 0 代表不定时同步
+	 */
+	public int getJwtRevokeSyncPeriod() {
+		return jwtRevokeSyncPeriod;
+	}
+
+	/**
+	 * @param jwtRevokeSyncPeriod jwt 吊销列表从持久层同步到本地布隆过滤器的周期（单位: 秒），用于感知其它节点吊销的 token，小于等于 0 代表不定时同步
+	 * @return 对象自身
+	 */
+	public SaTokenConfig setJwtRevokeSyncPeriod(int jwtRevokeSyncPeriod) {
+		this.jwtRevokeSyncPeriod = jwtRevokeSyncPeriod;
+		return this;
+	}
+
 	/**
 	 * @return Http Basic 认证的默认账号和密码，冒号隔开，例如：sa:123456
 	 */
@@ -874,6 +1388,26 @@ public class SaTokenConfig implements Serializable {
 				+ ", rightNowCreateTokenSession=" + rightNowCreateTokenSession
 				+ ", tokenStyle=" + tokenStyle
 				+ ", dataRefreshPeriod=" + dataRefreshPeriod 
+				+ ", dataRefreshUseIndex=" + dataRefreshUseIndex
+				+ ", dataSearchUseIndex=" + dataSearchUseIndex
+				+ ", dataMaxCount=" + dataMaxCount
+				+ ", dataMaxBytes=" + dataMaxBytes
+				+ ", daoRequestMemo=" + daoRequestMemo
+				+ ", sessionFieldStore=" + sessionFieldStore
+				+ ", sessionWriteBehind=" + sessionWriteBehind
+				+ ", permissionCacheTimeout=" + permissionCacheTimeout
+				+ ", permissionCacheUseDao=" + permissionCacheUseDao
+				+ ", permissionCacheMaxCount=" + permissionCacheMaxCount
+				+ ", rateLimitCapacity=" + rateLimitCapacity
+				+ ", rateLimitPeriod=" + rateLimitPeriod
+				+ ", rateLimitAlgorithm=" + rateLimitAlgorithm
+				+ ", rateLimitKeyType=" + rateLimitKeyType
+				+ ", rateLimitUseDao=" + rateLimitUseDao
+				+ ", loginFailThreshold=" + loginFailThreshold
+				+ ", loginFailWindow=" + loginFailWindow
+				+ ", loginFailLockTime=" + loginFailLockTime
+				+ ", loginFailMaxLockTime=" + loginFailMaxLockTime
+				+ ", routeRules=" + routeRules
 				+ ", tokenSessionCheckLogin=" + tokenSessionCheckLogin
 				+ ", autoRenew=" + autoRenew
 				+ ", tokenPrefix=" + tokenPrefix
@@ -883,7 +1417,11 @@ public class SaTokenConfig implements Serializable {
 				+ ", logLevel=" + logLevel 
 				+ ", logLevelInt=" + logLevelInt
 				+ ", isColorLog=" + isColorLog
-				+ ", jwtSecretKey=" + jwtSecretKey 
+				+ ", jwtSecretKey=" + jwtSecretKey
+				+ ", jwtParseCacheTimeout=" + jwtParseCacheTimeout
+				+ ", jwtParseCacheMaxCount=" + jwtParseCacheMaxCount
+				+ ", isJwtRevoke=" + isJwtRevoke
+				+ ", jwtRevokeSyncPeriod=" + jwtRevokeSyncPeriod
 				+ ", httpBasic=" + httpBasic
 				+ ", httpDigest=" + httpDigest
 				+ ", currDomain=" + currDomain 
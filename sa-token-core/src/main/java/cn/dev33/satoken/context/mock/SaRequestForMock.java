@@ -37,6 +37,7 @@ public class SaRequestForMock implements SaRequest {
 	public String url;
 	public String method;
 	public String host;
+	public String remoteAddr;
 	public String forwardTo;
 
 	/**
@@ -139,6 +140,14 @@ public class SaRequestForMock implements SaRequest {
 		return host;
 	}
 
+	/**
+	 * 查询客户端 IP 地址
+	 */
+	@Override
+	public String getRemoteAddr() {
+		return remoteAddr;
+	}
+
 	/**
 	 * 转发请求 
 	 */
@@ -196,6 +196,14 @@ public interface SaRequest {
 	 */
 	String getHost();
 
+	/**
+	 * 查询客户端 IP 地址（直连地址，不解析 X-Forwarded-For 等代理请求头），不支持时返回 null
+	 * @return /
+	 */
+	default String getRemoteAddr() {
+		return null;
+	}
+
 	/**
 	 * 判断此请求是否为 Ajax 异步请求
 	 * @return /
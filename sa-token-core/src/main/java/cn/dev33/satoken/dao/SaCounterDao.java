@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao;
+
+import cn.dev33.satoken.util.SaFoxUtil;
+
+/**
+ * 原子计数 - 持久层接口
+ *
+ * <p> SaTokenDao 实现类可选实现此接口（例如 sa-token-redis-template 插件通过原子脚本实现），未实现时框架退化为先 get 再 set 的非原子计数 </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public interface SaCounterDao {
+
+	/**
+	 * 将指定 key 的计数 +1，并将有效期重置为 timeout（key 不存在或已过期时从 0 开始计数），整个过程是原子的
+	 *
+	 * @param key 键名称
+	 * @param timeout 数据有效期（值大于0时限时存储，值=-1时永久存储，值=0或小于-2时不存储）
+	 * @return 自增后的计数（timeout 无效时返回 0）
+	 */
+	long increment(String key, long timeout);
+
+	/**
+	 * 非原子的计数 +1：先 get 再 set，供未实现 SaCounterDao 的持久层使用，并发时可能丢失计数
+	 *
+	 * @param dao 持久层
+	 * @param key 键名称
+	 * @param timeout 数据有效期
+	 * @return 自增后的计数（timeout 无效时返回 0）
+	 */
+	static long incrementByGetSet(SaTokenDao dao, String key, long timeout) {
+		if(timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE) {
+			return 0;
+		}
+		String value = dao.get(key);
+		long count = (SaFoxUtil.isEmpty(value) ? 0 : Long.parseLong(value)) + 1;
+		dao.set(key, String.valueOf(count), timeout);
+		return count;
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao;
+
+import cn.dev33.satoken.fun.SaParamFunction;
+
+import java.util.Collection;
+
+/**
+ * 近端缓存失效广播器：在多节点部署时，通知其它节点丢弃本地缓存中的指定 key
+ *
+ * <p> 常见实现为 Redis 发布/订阅，参考 sa-token-redis-template 插件中的 SaNearCacheBroadcasterForRedisTemplate </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public interface SaNearCacheBroadcaster {
+
+	/**
+	 * 广播：指定 key 已被修改或删除，各节点需要丢弃本地缓存
+	 *
+	 * @param key 键名称
+	 */
+	void publish(String key);
+
+	/**
+	 * 广播：多个 key 已被修改或删除，各节点需要丢弃本地缓存（默认逐个广播，实现类可重写为一次广播）
+	 *
+	 * @param keys 键名称集合
+	 */
+	default void publishBatch(Collection<String> keys) {
+		keys.forEach(this::publish);
+	}
+
+	/**
+	 * 订阅失效广播
+	 *
+	 * @param listener 收到广播时的处理函数，参数为失效的 key
+	 */
+	void subscribe(SaParamFunction<String> listener);
+
+	/**
+	 * 关闭广播器，取消订阅
+	 */
+	default void close() {
+	}
+
+}
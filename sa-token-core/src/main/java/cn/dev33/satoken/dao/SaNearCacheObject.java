@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao;
+
+/**
+ * 两级缓存中，本地缓存存放对象时使用的包装，用于和字符串读写的缓存区分开
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+class SaNearCacheObject {
+
+	/**
+	 * 被缓存的对象
+	 */
+	final Object value;
+
+	SaNearCacheObject(Object value) {
+		this.value = value;
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao;
+
+/**
+ * 限流计数 - 持久层接口
+ *
+ * <p> SaTokenDao 实现类可选实现此接口（例如 sa-token-redis-template 插件通过原子脚本实现），在开启 rateLimitUseDao 配置后，所有节点共享同一份限流计数 </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public interface SaRateLimitDao {
+
+	/**
+	 * 尝试为指定 key 获取一次访问许可
+	 *
+	 * @param key 限流 key
+	 * @param algorithm 限流算法，参考 SaTokenConsts.RATE_LIMIT_*
+	 * @param capacity 每个统计周期内允许通过的最大请求数
+	 * @param periodMillis 统计周期（单位: 毫秒）
+	 * @return 是否允许本次访问
+	 */
+	boolean tryAcquire(String key, String algorithm, long capacity, long periodMillis);
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao;
+
+import cn.dev33.satoken.error.SaErrorCode;
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.util.SaTokenConsts;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+
+/**
+ * 限流计数 - 默认实现 （本机内存，无锁）
+ *
+ * <p>
+ *     令牌桶采用 GCRA 算法，每个 key 只保存一个 "理论到达时间"，通过 CAS 更新；
+ *     滑动窗口采用双窗口加权计数（上一窗口计数按剩余比例折算 + 当前窗口计数），每个 key 保存一个不可变的窗口快照，通过 CAS 替换。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaRateLimitDaoDefaultImpl implements SaRateLimitDao {
+
+	/**
+	 * 最多同时记录多少个 key，超出时先清理已经空闲的 key，清理后依然超出则淘汰最久未活跃的一批 key（淘汰至上限的 90%）
+	 *
+	 * <p> 清理在后台线程中进行，不阻塞触发清理的请求，清理完成之前 key 数量可能短暂超出上限 </p>
+	 */
+	public int maxKeyCount = 100000;
+
+	/**
+	 * 是否正在清理，同一时间最多只有一个清理任务
+	 */
+	public final AtomicBoolean cleaning = new AtomicBoolean(false);
+
+	/**
+	 * 令牌桶：key -> 理论到达时间（System.nanoTime 时间轴）
+	 */
+	public final Map<String, AtomicLong> tokenBucketMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 滑动窗口：key -> 窗口快照
+	 */
+	public final Map<String, AtomicReference<SlidingWindow>> slidingWindowMap = new ConcurrentHashMap<>();
+
+	@Override
+	public boolean tryAcquire(String key, String algorithm, long capacity, long periodMillis) {
+		if(SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET.equals(algorithm)) {
+			return tryAcquireByTokenBucket(key, capacity, periodMillis);
+		}
+		if(SaTokenConsts.RATE_LIMIT_SLIDING_WINDOW.equals(algorithm)) {
+			return tryAcquireBySlidingWindow(key, capacity, periodMillis);
+		}
+		throw new SaTokenException("无效的限流算法：" + algorithm).setCode(SaErrorCode.CODE_12502);
+	}
+
+	/**
+	 * 令牌桶：每隔 period/capacity 补充一个令牌，桶内最多 capacity 个令牌
+	 *
+	 * @param key 限流 key
+	 * @param capacity 桶容量
+	 * @param periodMillis 补满整个桶所需的时间（单位: 毫秒）
+	 * @return 是否允许本次访问
+	 */
+	public boolean tryAcquireByTokenBucket(String key, long capacity, long periodMillis) {
+		long now = System.nanoTime();
+		long periodNanos = periodMillis * 1000000L;
+		long interval = Math.max(periodNanos / capacity, 1);
+		AtomicLong tat = tokenBucketMap.get(key);
+		if(tat == null) {
+			checkKeyCount(tokenBucketMap.size());
+			tat = tokenBucketMap.computeIfAbsent(key, k -> new AtomicLong(now));
+		}
+		for (;;) {
+			long oldTat = tat.get();
+			long newTat = (oldTat - now > 0 ? oldTat : now) + interval;
+			if(newTat - now > periodNanos) {
+				return false;
+			}
+			if(tat.compareAndSet(oldTat, newTat)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * 滑动窗口：任意一个统计周期内的请求数不超过 capacity （以上一窗口计数按比例折算的方式近似计算）
+	 *
+	 * @param key 限流 key
+	 * @param capacity 每个统计周期内允许通过的最大请求数
+	 * @param periodMillis 统计周期（单位: 毫秒）
+	 * @return 是否允许本次访问
+	 */
+	public boolean tryAcquireBySlidingWindow(String key, long capacity, long periodMillis) {
+		long now = System.currentTimeMillis();
+		long index = now / periodMillis;
+		double prevWeight = 1 - (double) (now - index * periodMillis) / periodMillis;
+		AtomicReference<SlidingWindow> ref = slidingWindowMap.get(key);
+		if(ref == null) {
+			checkKeyCount(slidingWindowMap.size());
+			ref = slidingWindowMap.computeIfAbsent(key, k -> new AtomicReference<>(new SlidingWindow(index, periodMillis, 0, 0)));
+		}
+		for (;;) {
+			SlidingWindow old = ref.get();
+			long prevCount = 0;
+			long currCount = 0;
+			if(old.index == index) {
+				prevCount = old.prevCount;
+				currCount = old.currCount;
+			} else if(old.index == index - 1) {
+				prevCount = old.currCount;
+			}
+			if(prevCount * prevWeight + currCount + 1 > capacity) {
+				return false;
+			}
+			if(ref.compareAndSet(old, new SlidingWindow(index, periodMillis, prevCount, currCount + 1))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * 记录的 key 数量超出上限时，提交一个后台清理任务（已有任务在执行时不重复提交）
+	 *
+	 * @param size 当前 key 数量
+	 */
+	protected void checkKeyCount(int size) {
+		if(size < maxKeyCount || ! cleaning.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			runCleanTask(() -> {
+				try {
+					cleanKeys();
+				} finally {
+					cleaning.set(false);
+				}
+			});
+		} catch (RuntimeException e) {
+			cleaning.set(false);
+			throw e;
+		}
+	}
+
+	/**
+	 * 执行清理任务，默认在一个新的守护线程中执行（只在 key 数量超出上限时触发，频率很低）
+	 *
+	 * @param task 清理任务
+	 */
+	protected void runCleanTask(Runnable task) {
+		Thread thread = new Thread(task, "sa-token-rate-limit-clean");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * 清理 key：先清理已经空闲的 key，依然超出上限时淘汰最久未活跃的 key
+	 */
+	public void cleanKeys() {
+		clearIdle();
+		int limit = maxKeyCount - Math.max(maxKeyCount / 10, 1);
+		// 令牌桶：理论到达时间越早，桶内令牌越满，淘汰后重新计数的影响越小
+		evictOldest(tokenBucketMap, limit, AtomicLong::get);
+		// 滑动窗口：窗口序号越小，最近一次访问越早
+		evictOldest(slidingWindowMap, limit, ref -> ref.get().index);
+	}
+
+	/**
+	 * 淘汰最久未活跃的 key，直到 map 中的 key 数量不超过 limit
+	 *
+	 * @param map 计数 map
+	 * @param limit 淘汰后保留的最大 key 数量
+	 * @param activeTime 计算 key 的最近活跃时间（值越小代表越久未活跃）
+	 * @param <V> /
+	 */
+	protected <V> void evictOldest(Map<String, V> map, int limit, ToLongFunction<V> activeTime) {
+		int overflow = map.size() - limit;
+		if(overflow <= 0) {
+			return;
+		}
+		// 先对活跃时间取快照再排序，避免排序过程中计数被并发修改导致比较结果不一致
+		List<Map.Entry<String, Long>> snapshot = new ArrayList<>(map.size());
+		for (Map.Entry<String, V> entry : map.entrySet()) {
+			snapshot.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), activeTime.applyAsLong(entry.getValue())));
+		}
+		snapshot.sort(Map.Entry.comparingByValue());
+		for (int i = 0; i < overflow && i < snapshot.size(); i++) {
+			map.remove(snapshot.get(i).getKey());
+		}
+	}
+
+	/**
+	 * 清理已经空闲的 key：令牌桶已经补满、滑动窗口已经完整度过两个周期，此时删除与保留效果完全一致
+	 */
+	public void clearIdle() {
+		long nanoNow = System.nanoTime();
+		tokenBucketMap.values().removeIf(tat -> tat.get() - nanoNow <= 0);
+		long now = System.currentTimeMillis();
+		slidingWindowMap.values().removeIf(ref -> ref.get().index < now / ref.get().periodMillis - 1);
+	}
+
+	/**
+	 * 滑动窗口快照 （不可变）
+	 */
+	public static class SlidingWindow {
+
+		/**
+		 * 当前窗口序号
+		 */
+		public final long index;
+
+		/**
+		 * 统计周期（单位: 毫秒）
+		 */
+		public final long periodMillis;
+
+		/**
+		 * 上一窗口的请求数
+		 */
+		public final long prevCount;
+
+		/**
+		 * 当前窗口的请求数
+		 */
+		public final long currCount;
+
+		public SlidingWindow(long index, long periodMillis, long prevCount, long currCount) {
+			this.index = index;
+			this.periodMillis = periodMillis;
+			this.prevCount = prevCount;
+			this.currCount = currCount;
+		}
+
+	}
+
+}
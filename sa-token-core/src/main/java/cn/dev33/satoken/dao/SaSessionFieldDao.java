@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao;
+
+import cn.dev33.satoken.session.SaSession;
+
+/**
+ * SaTokenDao 扩展能力：SaSession 字段级写入
+ *
+ * <p>
+ *     默认情况下，SaSession 每次 set / delete 挂载数据，都会调用 updateSession 将整个 SaSession 重新序列化写入持久层；
+ *     如果 SaTokenDao 同时实现了此接口，并且 isSessionFieldEnabled() 返回 true，SaSession 将改为调用此接口只写入变动的单个字段。
+ * </p>
+ *
+ * <p> 注意：字段级写入只用于修改已存在的 SaSession，如果 SaSession 在持久层中已不存在，则应忽略此次写入 </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public interface SaSessionFieldDao {
+
+	/**
+	 * 当前是否启用字段级写入（返回 false 时，SaSession 仍使用 updateSession 整体写入）
+	 *
+	 * @return /
+	 */
+	default boolean isSessionFieldEnabled() {
+		return true;
+	}
+
+	/**
+	 * 写入 SaSession 的单个挂载数据 （过期时间不变）
+	 *
+	 * @param session 要写入的 SaSession 对象 （此时其 dataMap 中已包含新值）
+	 * @param key 挂载数据的 key
+	 * @param value 挂载数据的值
+	 */
+	void setSessionField(SaSession session, String key, Object value);
+
+	/**
+	 * 删除 SaSession 的单个挂载数据 （过期时间不变）
+	 *
+	 * @param session 要写入的 SaSession 对象 （此时其 dataMap 中已移除此 key）
+	 * @param key 挂载数据的 key
+	 */
+	void deleteSessionField(SaSession session, String key);
+
+}
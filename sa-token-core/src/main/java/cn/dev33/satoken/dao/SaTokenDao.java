@@ -15,9 +15,13 @@
  */
 package cn.dev33.satoken.dao;
 
+import cn.dev33.satoken.fun.SaParamFunction;
 import cn.dev33.satoken.session.SaSession;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Sa-Token 持久层接口
@@ -58,6 +62,27 @@ public interface SaTokenDao {
 	 */
 	void set(String key, String value, long timeout);
 
+	/**
+	 * 当 key 不存在时写入 value，并设定存活时间（单位: 秒），key 已存在时不做任何修改
+	 *
+	 * <p>
+	 *     默认实现为先 get 再 set，并不是原子操作，并发时可能有多个调用方同时写入成功，
+	 *     持久层实现类应重写为原子操作（如 Redis 的 SET key value NX EX timeout）。
+	 * </p>
+	 *
+	 * @param key 键名称
+	 * @param value 值
+	 * @param timeout 数据有效期（值大于0时限时存储，值=-1时永久存储，值=0或小于-2时不存储）
+	 * @return 是否写入成功（key 已存在、或 timeout 无效时返回 false）
+	 */
+	default boolean setIfAbsent(String key, String value, long timeout) {
+		if(timeout == 0 || timeout <= NOT_VALUE_EXPIRE || get(key) != null) {
+			return false;
+		}
+		set(key, value, timeout);
+		return true;
+	}
+
 	/**
 	 * 更新 value （过期时间不变）
 	 * @param key 键名称 
@@ -184,6 +209,69 @@ public interface SaTokenDao {
 	void updateSessionTimeout(String sessionId, long timeout);
 	
 	
+	// --------------------- 批量读写 （默认逐个调用单 key 方法，实现类可覆盖为 pipeline 等批量命令，以减少网络往返次数） ---------------------
+
+	/**
+	 * 批量获取 value
+	 *
+	 * @param keys 键名称集合
+	 * @return value 集合，与 keys 的顺序一一对应，不存在的 key 在对应位置上为 null
+	 */
+	default List<String> getBatch(List<String> keys) {
+		List<String> list = new ArrayList<>(keys.size());
+		for (String key : keys) {
+			list.add(get(key));
+		}
+		return list;
+	}
+
+	/**
+	 * 批量写入 value，并设定相同的存活时间（单位: 秒）
+	 *
+	 * @param map 键值对集合
+	 * @param timeout 数据有效期（值大于0时限时存储，值=-1时永久存储，值=0或小于-2时不存储）
+	 */
+	default void setBatch(Map<String, String> map, long timeout) {
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			set(entry.getKey(), entry.getValue(), timeout);
+		}
+	}
+
+	/**
+	 * 批量更新 value （各自的过期时间不变，不存在的 key 将被忽略）
+	 *
+	 * @param map 键值对集合
+	 */
+	default void updateBatch(Map<String, String> map) {
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			update(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * 批量删除 value
+	 *
+	 * @param keys 键名称集合
+	 */
+	default void deleteBatch(Collection<String> keys) {
+		for (String key : keys) {
+			delete(key);
+		}
+	}
+
+	/**
+	 * 批量修改 value 的剩余存活时间（单位: 秒）
+	 *
+	 * @param keys 键名称集合
+	 * @param timeout 过期时间（单位: 秒）
+	 */
+	default void updateTimeoutBatch(Collection<String> keys, long timeout) {
+		for (String key : keys) {
+			updateTimeout(key, timeout);
+		}
+	}
+
+
 	// --------------------- 会话管理 ---------------------
 
 	/**
@@ -198,6 +286,24 @@ public interface SaTokenDao {
 	 */
 	List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType);
 
+	/**
+	 * 遍历数据：将所有以 prefix 开头且包含 keyword 的 key 依次交给 consumer 处理，不排序、不分页
+	 *
+	 * <p>
+	 *     与 searchData 不同，此方法不要求一次性取出全部 key，Redis 等实现类会使用 SCAN 游标分批遍历，不会长时间阻塞服务端；
+	 *     默认实现直接复用 searchData。注意：遍历期间有数据变动时，同一个 key 可能被处理多次。
+	 * </p>
+	 *
+	 * @param prefix 前缀
+	 * @param keyword 关键字
+	 * @param consumer 处理每个 key 的函数
+	 */
+	default void scanData(String prefix, String keyword, SaParamFunction<String> consumer) {
+		for (String key : searchData(prefix, keyword, 0, -1, true)) {
+			consumer.run(key);
+		}
+	}
+
 
 	// --------------------- 生命周期 ---------------------
 
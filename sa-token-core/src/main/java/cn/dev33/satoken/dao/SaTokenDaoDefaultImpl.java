@@ -16,10 +16,13 @@
 package cn.dev33.satoken.dao;
 
 
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.config.SaTokenConfig;
 import cn.dev33.satoken.dao.auto.SaTokenDaoByStringFollowObject;
 import cn.dev33.satoken.dao.timedcache.SaMapPackageForConcurrentHashMap;
 import cn.dev33.satoken.dao.timedcache.SaTimedCache;
-import cn.dev33.satoken.util.SaFoxUtil;
+import cn.dev33.satoken.fun.SaParamFunction;
+import cn.dev33.satoken.session.SaSession;
 
 import java.util.List;
 
@@ -29,13 +32,25 @@ import java.util.List;
  * @author click33
  * @since 1.10.0
  */
-public class SaTokenDaoDefaultImpl implements SaTokenDaoByStringFollowObject {
+public class SaTokenDaoDefaultImpl implements SaTokenDaoByStringFollowObject, SaSessionFieldDao, SaCounterDao {
 
 	public SaTimedCache timedCache = new SaTimedCache(
-			new SaMapPackageForConcurrentHashMap<>(),
 			new SaMapPackageForConcurrentHashMap<>()
 	);
 	
+	// ------------------------ String 读写操作
+
+	@Override
+	public boolean setIfAbsent(String key, String value, long timeout) {
+		return timedCache.setObjectIfAbsent(key, value, timeout);
+	}
+
+	@Override
+	public long increment(String key, long timeout) {
+		return timedCache.incrementObject(key, timeout);
+	}
+
+
 	// ------------------------ Object 读写操作 
 	
 	@Override
@@ -75,11 +90,39 @@ public class SaTokenDaoDefaultImpl implements SaTokenDaoByStringFollowObject {
 	}
 
 
+	// --------- SaSession 字段级写入
+
+	@Override
+	public boolean isSessionFieldEnabled() {
+		return Boolean.TRUE.equals(SaManager.getConfig().getSessionFieldStore());
+	}
+
+	@Override
+	public void setSessionField(SaSession session, String key, Object value) {
+		// 内存中存储的就是 SaSession 对象本身，dataMap 已被修改，无需再次写入
+		if(timedCache.getObject(session.getId()) != session) {
+			updateSession(session);
+		}
+	}
+
+	@Override
+	public void deleteSessionField(SaSession session, String key) {
+		if(timedCache.getObject(session.getId()) != session) {
+			updateSession(session);
+		}
+	}
+
+
 	// --------- 会话管理
 
 	@Override
 	public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
-		return SaFoxUtil.searchList(timedCache.keySet(), prefix, keyword, start, size, sortType);
+		return timedCache.searchKeys(prefix, keyword, start, size, sortType);
+	}
+
+	@Override
+	public void scanData(String prefix, String keyword, SaParamFunction<String> consumer) {
+		timedCache.scanKeys(prefix, keyword, consumer);
 	}
 
 
@@ -90,6 +133,19 @@ public class SaTokenDaoDefaultImpl implements SaTokenDaoByStringFollowObject {
 	 */
 	@Override
 	public void init() {
+		// 如果配置了使用过期时间索引，则定时清理时只处理已到期的 key
+		SaTokenConfig config = SaManager.getConfig();
+		if(Boolean.TRUE.equals(config.getDataRefreshUseIndex()) && config.getDataRefreshPeriod() > 0) {
+			timedCache.enableExpireIndex(config.getDataRefreshPeriod() * 1000L);
+		}
+		// 如果配置了使用有序 key 索引，则会话检索时只扫描前缀所在的区间
+		if(Boolean.TRUE.equals(config.getDataSearchUseIndex())) {
+			timedCache.enableKeyIndex();
+		}
+		// 如果配置了容量上限，则超出时按近似 LRU 算法淘汰数据
+		if(config.getDataMaxCount() > 0 || config.getDataMaxBytes() > 0) {
+			timedCache.enableBound(config.getDataMaxCount(), config.getDataMaxBytes());
+		}
 		timedCache.initRefreshThread();
 	}
 
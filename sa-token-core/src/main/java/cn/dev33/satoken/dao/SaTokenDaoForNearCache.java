@@ -0,0 +1,516 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao;
+
+import cn.dev33.satoken.dao.auto.SaTokenDaoBySessionFollowObject;
+import cn.dev33.satoken.dao.timedcache.SaMapPackageForConcurrentHashMap;
+import cn.dev33.satoken.dao.timedcache.SaTimedCache;
+import cn.dev33.satoken.fun.SaParamFunction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sa-Token 持久层实现，两级缓存：本地短时缓存 (L1) + 任意 SaTokenDao (L2，例如 Redis)
+ *
+ * <p>
+ *     读操作优先命中本地缓存，未命中时再读取 L2 并在本地缓存一小段时间（不存在的 key 也会被缓存，避免封禁校验等场景反复穿透）；
+ *     写操作直接写入 L2，同时丢弃本地缓存，并通过 SaNearCacheBroadcaster 通知其它节点丢弃本地缓存。
+ * </p>
+ *
+ * <p>
+ *     注意：本地缓存的数据最多可能比 L2 滞后 localTimeout 秒，请根据业务对一致性的要求设置一个较短的值；
+ *     SaSession 在 L2 中始终以 Object 形式整体读写，不使用字段级存储 (sa-token.session-field-store)。
+ * </p>
+ *
+ * <p>
+ *     对象类型的本地缓存保存的是对象引用而非副本：同一节点上并发的请求读取同一个 SaSession 时拿到的是同一个实例，
+ *     通过 SaSession 的 set、delete 等方法修改数据时会立即写回 L2 并丢弃本地缓存，
+ *     但直接修改 SaSession 中取出的可变对象（例如 List、Map）而不调用 update 时，修改对本节点的其它请求立即可见、对其它节点不可见。
+ * </p>
+ *
+ * <p>
+ *     每次请求都会写入的 key（例如 token 最后活跃时间）不经过本地缓存，直接读写 L2，也不会发布失效广播，参考 isLocalCacheable 方法。
+ *     使用示例：
+ * </p>
+ * <pre>
+ *     SaTokenDaoForNearCache dao = new SaTokenDaoForNearCache(new SaTokenDaoForRedisTemplate(), 5, 100000);
+ *     dao.setBroadcaster(new SaNearCacheBroadcasterForRedisTemplate(connectionFactory));
+ *     SaManager.setSaTokenDao(dao);
+ * </pre>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaTokenDaoForNearCache implements SaTokenDaoBySessionFollowObject, SaCounterDao {
+
+	/**
+	 * 本地缓存中表示 "L2 中不存在此 key" 的占位值
+	 */
+	static final Object NULL_VALUE = new Object();
+
+	/**
+	 * 二级缓存（被代理的 SaTokenDao）
+	 */
+	public final SaTokenDao target;
+
+	/**
+	 * 本地缓存有效期（单位: 秒）
+	 */
+	public final long localTimeout;
+
+	/**
+	 * 本地缓存
+	 */
+	public final SaTimedCache localCache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+
+	/**
+	 * 正在从 L2 加载的 key -> 本次加载的标记，key 在加载期间被丢弃时标记会被移除，加载结果不再写入本地缓存
+	 */
+	public final ConcurrentHashMap<String, Object> loadingMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 失效广播器（为 null 时代表单节点部署，不进行广播）
+	 */
+	public SaNearCacheBroadcaster broadcaster;
+
+	/**
+	 * 本地缓存命中次数
+	 */
+	public final LongAdder hitCount = new LongAdder();
+
+	/**
+	 * 本地缓存未命中次数
+	 */
+	public final LongAdder missCount = new LongAdder();
+
+	/**
+	 * 构建一个两级缓存 SaTokenDao
+	 *
+	 * @param target 二级缓存（被代理的 SaTokenDao）
+	 * @param localTimeout 本地缓存有效期（单位: 秒）
+	 * @param localMaxCount 本地缓存最多存储多少条数据（小于等于 0 代表不限制）
+	 */
+	public SaTokenDaoForNearCache(SaTokenDao target, long localTimeout, long localMaxCount) {
+		this.target = target;
+		this.localTimeout = localTimeout;
+		if(localMaxCount > 0) {
+			// 本地缓存只是 L2 的副本，被淘汰时无需发布全局事件
+			localCache.enableBound(localMaxCount, -1);
+			localCache.bound.evictListener = (key, value) -> {};
+		}
+	}
+
+	/**
+	 * 设置失效广播器
+	 *
+	 * @param broadcaster /
+	 * @return 对象自身
+	 */
+	public SaTokenDaoForNearCache setBroadcaster(SaNearCacheBroadcaster broadcaster) {
+		this.broadcaster = broadcaster;
+		return this;
+	}
+
+
+	// --------------------- 字符串读写 ---------------------
+
+	@Override
+	public String get(String key) {
+		if( ! isLocalCacheable(key)) {
+			return target.get(key);
+		}
+		Object value = localCache.getObject(key);
+		if(value instanceof String) {
+			hitCount.increment();
+			return (String) value;
+		}
+		if(value == NULL_VALUE) {
+			hitCount.increment();
+			return null;
+		}
+		missCount.increment();
+		Object marker = beginLoad(key);
+		String str = target.get(key);
+		endLoad(key, marker, str == null ? NULL_VALUE : str);
+		return str;
+	}
+
+	@Override
+	public void set(String key, String value, long timeout) {
+		target.set(key, value, timeout);
+		invalidate(key);
+	}
+
+	@Override
+	public boolean setIfAbsent(String key, String value, long timeout) {
+		boolean result = target.setIfAbsent(key, value, timeout);
+		if(result) {
+			invalidate(key);
+		}
+		return result;
+	}
+
+	@Override
+	public long increment(String key, long timeout) {
+		long count = (target instanceof SaCounterDao) ?
+				((SaCounterDao) target).increment(key, timeout) :
+				SaCounterDao.incrementByGetSet(target, key, timeout);
+		invalidate(key);
+		return count;
+	}
+
+	@Override
+	public void update(String key, String value) {
+		target.update(key, value);
+		invalidate(key);
+	}
+
+	@Override
+	public void delete(String key) {
+		target.delete(key);
+		invalidate(key);
+	}
+
+	@Override
+	public long getTimeout(String key) {
+		return target.getTimeout(key);
+	}
+
+	@Override
+	public void updateTimeout(String key, long timeout) {
+		target.updateTimeout(key, timeout);
+		invalidateByTimeout(key, timeout);
+	}
+
+
+	// --------------------- 对象读写 ---------------------
+
+	@Override
+	public Object getObject(String key) {
+		if( ! isLocalCacheable(key)) {
+			return target.getObject(key);
+		}
+		Object value = localCache.getObject(key);
+		if(value instanceof SaNearCacheObject) {
+			hitCount.increment();
+			return ((SaNearCacheObject) value).value;
+		}
+		if(value == NULL_VALUE) {
+			hitCount.increment();
+			return null;
+		}
+		missCount.increment();
+		Object marker = beginLoad(key);
+		Object obj = target.getObject(key);
+		endLoad(key, marker, obj == null ? NULL_VALUE : new SaNearCacheObject(obj));
+		return obj;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T getObject(String key, Class<T> classType) {
+		if( ! isLocalCacheable(key)) {
+			return target.getObject(key, classType);
+		}
+		Object value = localCache.getObject(key);
+		if(value instanceof SaNearCacheObject && classType.isInstance(((SaNearCacheObject) value).value)) {
+			hitCount.increment();
+			return (T) ((SaNearCacheObject) value).value;
+		}
+		if(value == NULL_VALUE) {
+			hitCount.increment();
+			return null;
+		}
+		missCount.increment();
+		Object marker = beginLoad(key);
+		T obj = target.getObject(key, classType);
+		endLoad(key, marker, obj == null ? NULL_VALUE : new SaNearCacheObject(obj));
+		return obj;
+	}
+
+	@Override
+	public void setObject(String key, Object object, long timeout) {
+		target.setObject(key, object, timeout);
+		invalidate(key);
+	}
+
+	@Override
+	public void updateObject(String key, Object object) {
+		target.updateObject(key, object);
+		invalidate(key);
+	}
+
+	@Override
+	public void deleteObject(String key) {
+		target.deleteObject(key);
+		invalidate(key);
+	}
+
+	@Override
+	public long getObjectTimeout(String key) {
+		return target.getObjectTimeout(key);
+	}
+
+	@Override
+	public void updateObjectTimeout(String key, long timeout) {
+		target.updateObjectTimeout(key, timeout);
+		invalidateByTimeout(key, timeout);
+	}
+
+
+	// --------------------- 批量读写 ---------------------
+
+	@Override
+	public List<String> getBatch(List<String> keys) {
+		// 先从本地缓存中取，未命中的 key 再合并为一次 L2 批量读取
+		List<String> list = new ArrayList<>(keys.size());
+		List<Integer> missIndexes = new ArrayList<>();
+		List<String> missKeys = new ArrayList<>();
+		for (int i = 0; i < keys.size(); i++) {
+			Object value = isLocalCacheable(keys.get(i)) ? localCache.getObject(keys.get(i)) : null;
+			if(value instanceof String || value == NULL_VALUE) {
+				hitCount.increment();
+				list.add(value == NULL_VALUE ? null : (String) value);
+			} else {
+				missCount.increment();
+				list.add(null);
+				missIndexes.add(i);
+				missKeys.add(keys.get(i));
+			}
+		}
+		if( ! missKeys.isEmpty()) {
+			List<Object> markers = new ArrayList<>(missKeys.size());
+			missKeys.forEach(key -> markers.add(isLocalCacheable(key) ? beginLoad(key) : null));
+			List<String> missValues = target.getBatch(missKeys);
+			for (int i = 0; i < missKeys.size(); i++) {
+				String str = missValues.get(i);
+				if(markers.get(i) != null) {
+					endLoad(missKeys.get(i), markers.get(i), str == null ? NULL_VALUE : str);
+				}
+				list.set(missIndexes.get(i), str);
+			}
+		}
+		return list;
+	}
+
+	@Override
+	public void setBatch(Map<String, String> map, long timeout) {
+		target.setBatch(map, timeout);
+		invalidateBatch(map.keySet());
+	}
+
+	@Override
+	public void updateBatch(Map<String, String> map) {
+		target.updateBatch(map);
+		invalidateBatch(map.keySet());
+	}
+
+	@Override
+	public void deleteBatch(Collection<String> keys) {
+		target.deleteBatch(keys);
+		invalidateBatch(keys);
+	}
+
+	@Override
+	public void updateTimeoutBatch(Collection<String> keys, long timeout) {
+		target.updateTimeoutBatch(keys, timeout);
+		if(isTimeoutShorterThanLocal(timeout)) {
+			invalidateBatch(keys);
+		} else {
+			keys.forEach(this::onInvalidate);
+		}
+	}
+
+
+	// --------------------- 会话管理 ---------------------
+
+	@Override
+	public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
+		return target.searchData(prefix, keyword, start, size, sortType);
+	}
+
+	@Override
+	public void scanData(String prefix, String keyword, SaParamFunction<String> consumer) {
+		target.scanData(prefix, keyword, consumer);
+	}
+
+
+	// --------------------- 本地缓存 ---------------------
+
+	/**
+	 * 丢弃本地缓存中的指定 key，并通知其它节点
+	 *
+	 * @param key 键名称
+	 */
+	public void invalidate(String key) {
+		if( ! isLocalCacheable(key)) {
+			return;
+		}
+		onInvalidate(key);
+		SaNearCacheBroadcaster broadcaster = this.broadcaster;
+		if(broadcaster != null) {
+			broadcaster.publish(key);
+		}
+	}
+
+	/**
+	 * 批量丢弃本地缓存中的指定 key，并通过一次广播通知其它节点
+	 *
+	 * @param keys 键名称集合
+	 */
+	public void invalidateBatch(Collection<String> keys) {
+		List<String> cacheableKeys = new ArrayList<>(keys.size());
+		for (String key : keys) {
+			if(isLocalCacheable(key)) {
+				onInvalidate(key);
+				cacheableKeys.add(key);
+			}
+		}
+		SaNearCacheBroadcaster broadcaster = this.broadcaster;
+		if(broadcaster != null && ! cacheableKeys.isEmpty()) {
+			broadcaster.publishBatch(cacheableKeys);
+		}
+	}
+
+	/**
+	 * 修改指定 key 的剩余存活时间后，处理本地缓存
+	 *
+	 * <p>
+	 *     本节点的本地缓存总是丢弃；只有新的存活时间短于 localTimeout 时，其它节点的本地缓存才可能比 L2 中的数据活得更久，此时才发布失效广播，
+	 *     常见的续期操作（延长存活时间）不产生广播。
+	 * </p>
+	 *
+	 * @param key 键名称
+	 * @param timeout 新的剩余存活时间
+	 */
+	protected void invalidateByTimeout(String key, long timeout) {
+		if(isTimeoutShorterThanLocal(timeout)) {
+			invalidate(key);
+		} else {
+			onInvalidate(key);
+		}
+	}
+
+	/**
+	 * 判断指定的存活时间是否短于本地缓存有效期
+	 *
+	 * @param timeout 存活时间（单位: 秒）
+	 * @return /
+	 */
+	protected boolean isTimeoutShorterThanLocal(long timeout) {
+		return timeout != SaTokenDao.NEVER_EXPIRE && timeout < localTimeout;
+	}
+
+	/**
+	 * 判断指定 key 是否使用本地缓存
+	 *
+	 * <p>
+	 *     默认情况下，token 最后活跃时间每次请求都会写入，缓存在本地几乎不会命中，反而会在每次写入时产生一次失效广播，因此直接读写 L2；
+	 *     不使用本地缓存的 key 在任何节点上都不会被缓存，写入时也无需广播。可重写此方法排除更多的 key
+	 * </p>
+	 *
+	 * @param key 键名称
+	 * @return /
+	 */
+	protected boolean isLocalCacheable(String key) {
+		return ! key.contains(":last-active:");
+	}
+
+	/**
+	 * 收到其它节点的失效广播时，丢弃本地缓存中的指定 key
+	 *
+	 * @param key 键名称
+	 */
+	public void onInvalidate(String key) {
+		loadingMap.remove(key);
+		localCache.deleteObject(key);
+	}
+
+	/**
+	 * 开始从 L2 加载指定 key：在读取 L2 之前登记一个加载标记
+	 *
+	 * @param key 键名称
+	 * @return 本次加载的标记
+	 */
+	protected Object beginLoad(String key) {
+		Object marker = new Object();
+		loadingMap.put(key, marker);
+		return marker;
+	}
+
+	/**
+	 * 结束从 L2 加载指定 key：将加载结果写入本地缓存
+	 *
+	 * <p>
+	 *     如果加载期间此 key 被丢弃（本节点写入、或收到失效广播），加载标记已被移除，说明读到的可能是写入前的旧值，此时撤销本次写入；
+	 *     先写入再检查标记，保证检查之后才到达的丢弃操作一定排在写入之后执行。
+	 * </p>
+	 *
+	 * @param key 键名称
+	 * @param marker beginLoad 返回的加载标记
+	 * @param localValue 要写入本地缓存的值
+	 */
+	protected void endLoad(String key, Object marker, Object localValue) {
+		localCache.setObject(key, localValue, localTimeout);
+		if( ! loadingMap.remove(key, marker)) {
+			localCache.deleteObject(key);
+		}
+	}
+
+	/**
+	 * 获取本地缓存命中率（0~1，尚无读取时返回 0）
+	 *
+	 * @return /
+	 */
+	public double getHitRate() {
+		long hit = hitCount.sum();
+		long total = hit + missCount.sum();
+		return total == 0 ? 0 : (double) hit / total;
+	}
+
+
+	// --------------------- 生命周期 ---------------------
+
+	/**
+	 * 组件被安装时，初始化二级缓存，开始清理本地过期数据，并订阅失效广播
+	 */
+	@Override
+	public void init() {
+		target.init();
+		localCache.initRefreshThread();
+		if(broadcaster != null) {
+			broadcaster.subscribe(this::onInvalidate);
+		}
+	}
+
+	/**
+	 * 组件被卸载时，停止清理本地过期数据，关闭广播器，并卸载二级缓存
+	 */
+	@Override
+	public void destroy() {
+		localCache.endRefreshThread();
+		if(broadcaster != null) {
+			broadcaster.close();
+		}
+		target.destroy();
+	}
+
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.context.SaTokenContext;
+import cn.dev33.satoken.context.model.SaStorage;
+import cn.dev33.satoken.fun.SaParamFunction;
+import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.util.SaTokenConsts;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SaTokenDao 请求级读缓存：在同一次请求内，同一个 key 只读取一次持久层，写入时自动失效
+ *
+ * <p>
+ *     一次请求中的 checkLogin、checkPermission、checkDisable 等校验会反复读取 token 映射、最后活跃时间、封禁标记、Account-Session 等数据，
+ *     开启 sa-token.dao-request-memo 后，StpLogic 与 SaSession 的所有持久层操作都会经过此类，重复的读取直接返回本次请求内已读到的结果。
+ * </p>
+ *
+ * <p> 此对象保存在 SaStorage 中，随请求结束而释放，不会在请求之间共享数据 </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaTokenDaoForRequestMemo implements SaTokenDao, SaSessionFieldDao, SaCounterDao {
+
+	/**
+	 * 表示 "持久层中不存在此 key" 的占位值
+	 */
+	static final Object NULL_VALUE = new Object();
+
+	/**
+	 * 被代理的 SaTokenDao
+	 */
+	public final SaTokenDao target;
+
+	/**
+	 * 已读取的字符串
+	 */
+	final Map<String, Object> stringMemo = new HashMap<>();
+
+	/**
+	 * 已读取的对象 （包括 SaSession）
+	 */
+	final Map<String, Object> objectMemo = new HashMap<>();
+
+	/**
+	 * 已读取的剩余存活时间
+	 */
+	final Map<String, Long> timeoutMemo = new HashMap<>();
+
+	public SaTokenDaoForRequestMemo(SaTokenDao target) {
+		this.target = target;
+	}
+
+	/**
+	 * 获取当前请求使用的 SaTokenDao：如果开启了请求级读缓存且当前处于 Web 上下文中，则返回绑定在本次请求上的 SaTokenDaoForRequestMemo，否则原样返回 target
+	 *
+	 * @param target 被代理的 SaTokenDao
+	 * @return /
+	 */
+	public static SaTokenDao current(SaTokenDao target) {
+		if( ! SaManager.getConfig().getDaoRequestMemo()) {
+			return target;
+		}
+		SaTokenContext context = SaManager.getSaTokenContext();
+		if( ! context.isValid()) {
+			return target;
+		}
+		SaStorage storage = context.getStorage();
+		Object memo = storage.get(SaTokenConsts.DAO_REQUEST_MEMO_KEY);
+		if(memo instanceof SaTokenDaoForRequestMemo && ((SaTokenDaoForRequestMemo) memo).target == target) {
+			return (SaTokenDaoForRequestMemo) memo;
+		}
+		SaTokenDaoForRequestMemo newMemo = new SaTokenDaoForRequestMemo(target);
+		storage.set(SaTokenConsts.DAO_REQUEST_MEMO_KEY, newMemo);
+		return newMemo;
+	}
+
+	/**
+	 * 丢弃指定 key 已读取的所有结果
+	 *
+	 * @param key 键名称
+	 */
+	public void invalidate(String key) {
+		stringMemo.remove(key);
+		objectMemo.remove(key);
+		timeoutMemo.remove(key);
+	}
+
+
+	// --------------------- 字符串读写 ---------------------
+
+	@Override
+	public String get(String key) {
+		Object value = stringMemo.get(key);
+		if(value == null) {
+			String str = target.get(key);
+			stringMemo.put(key, str == null ? NULL_VALUE : str);
+			return str;
+		}
+		return value == NULL_VALUE ? null : (String) value;
+	}
+
+	@Override
+	public void set(String key, String value, long timeout) {
+		invalidate(key);
+		target.set(key, value, timeout);
+	}
+
+	@Override
+	public boolean setIfAbsent(String key, String value, long timeout) {
+		invalidate(key);
+		return target.setIfAbsent(key, value, timeout);
+	}
+
+	@Override
+	public long increment(String key, long timeout) {
+		invalidate(key);
+		if(target instanceof SaCounterDao) {
+			return ((SaCounterDao) target).increment(key, timeout);
+		}
+		return SaCounterDao.incrementByGetSet(target, key, timeout);
+	}
+
+	@Override
+	public void update(String key, String value) {
+		invalidate(key);
+		target.update(key, value);
+	}
+
+	@Override
+	public void delete(String key) {
+		invalidate(key);
+		target.delete(key);
+	}
+
+	@Override
+	public long getTimeout(String key) {
+		Long timeout = timeoutMemo.get(key);
+		if(timeout == null) {
+			timeout = target.getTimeout(key);
+			timeoutMemo.put(key, timeout);
+		}
+		return timeout;
+	}
+
+	@Override
+	public void updateTimeout(String key, long timeout) {
+		timeoutMemo.remove(key);
+		target.updateTimeout(key, timeout);
+	}
+
+
+	// --------------------- 对象读写 ---------------------
+
+	@Override
+	public Object getObject(String key) {
+		Object value = objectMemo.get(key);
+		if(value == null) {
+			Object obj = target.getObject(key);
+			objectMemo.put(key, obj == null ? NULL_VALUE : obj);
+			return obj;
+		}
+		return value == NULL_VALUE ? null : value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T getObject(String key, Class<T> classType) {
+		Object value = objectMemo.get(key);
+		if(value == NULL_VALUE) {
+			return null;
+		}
+		if(classType.isInstance(value)) {
+			return (T) value;
+		}
+		T obj = target.getObject(key, classType);
+		objectMemo.put(key, obj == null ? NULL_VALUE : obj);
+		return obj;
+	}
+
+	@Override
+	public void setObject(String key, Object object, long timeout) {
+		invalidate(key);
+		target.setObject(key, object, timeout);
+	}
+
+	@Override
+	public void updateObject(String key, Object object) {
+		invalidate(key);
+		target.updateObject(key, object);
+	}
+
+	@Override
+	public void deleteObject(String key) {
+		invalidate(key);
+		target.deleteObject(key);
+	}
+
+	@Override
+	public long getObjectTimeout(String key) {
+		Long timeout = timeoutMemo.get(key);
+		if(timeout == null) {
+			timeout = target.getObjectTimeout(key);
+			timeoutMemo.put(key, timeout);
+		}
+		return timeout;
+	}
+
+	@Override
+	public void updateObjectTimeout(String key, long timeout) {
+		timeoutMemo.remove(key);
+		target.updateObjectTimeout(key, timeout);
+	}
+
+
+	// --------------------- SaSession 读写 ---------------------
+
+	@Override
+	public SaSession getSession(String sessionId) {
+		Object value = objectMemo.get(sessionId);
+		if(value == NULL_VALUE) {
+			return null;
+		}
+		if(value instanceof SaSession) {
+			return (SaSession) value;
+		}
+		SaSession session = target.getSession(sessionId);
+		objectMemo.put(sessionId, session == null ? NULL_VALUE : session);
+		return session;
+	}
+
+	@Override
+	public void setSession(SaSession session, long timeout) {
+		invalidate(session.getId());
+		target.setSession(session, timeout);
+	}
+
+	@Override
+	public void updateSession(SaSession session) {
+		invalidate(session.getId());
+		target.updateSession(session);
+	}
+
+	@Override
+	public void deleteSession(String sessionId) {
+		invalidate(sessionId);
+		target.deleteSession(sessionId);
+	}
+
+	@Override
+	public long getSessionTimeout(String sessionId) {
+		Long timeout = timeoutMemo.get(sessionId);
+		if(timeout == null) {
+			timeout = target.getSessionTimeout(sessionId);
+			timeoutMemo.put(sessionId, timeout);
+		}
+		return timeout;
+	}
+
+	@Override
+	public void updateSessionTimeout(String sessionId, long timeout) {
+		timeoutMemo.remove(sessionId);
+		target.updateSessionTimeout(sessionId, timeout);
+	}
+
+
+	// --------------------- SaSession 字段级写入 ---------------------
+
+	@Override
+	public boolean isSessionFieldEnabled() {
+		return target instanceof SaSessionFieldDao && ((SaSessionFieldDao) target).isSessionFieldEnabled();
+	}
+
+	@Override
+	public void setSessionField(SaSession session, String key, Object value) {
+		invalidate(session.getId());
+		((SaSessionFieldDao) target).setSessionField(session, key, value);
+	}
+
+	@Override
+	public void deleteSessionField(SaSession session, String key) {
+		invalidate(session.getId());
+		((SaSessionFieldDao) target).deleteSessionField(session, key);
+	}
+
+
+	// --------------------- 批量读写 ---------------------
+
+	@Override
+	public List<String> getBatch(List<String> keys) {
+		// 只向持久层查询尚未读取过的 key
+		List<String> missKeys = new ArrayList<>();
+		for (String key : keys) {
+			if( ! stringMemo.containsKey(key)) {
+				missKeys.add(key);
+			}
+		}
+		if( ! missKeys.isEmpty()) {
+			List<String> missValues = target.getBatch(missKeys);
+			for (int i = 0; i < missKeys.size(); i++) {
+				String str = missValues.get(i);
+				stringMemo.put(missKeys.get(i), str == null ? NULL_VALUE : str);
+			}
+		}
+		List<String> list = new ArrayList<>(keys.size());
+		for (String key : keys) {
+			Object value = stringMemo.get(key);
+			list.add(value == NULL_VALUE ? null : (String) value);
+		}
+		return list;
+	}
+
+	@Override
+	public void setBatch(Map<String, String> map, long timeout) {
+		map.keySet().forEach(this::invalidate);
+		target.setBatch(map, timeout);
+	}
+
+	@Override
+	public void updateBatch(Map<String, String> map) {
+		map.keySet().forEach(this::invalidate);
+		target.updateBatch(map);
+	}
+
+	@Override
+	public void deleteBatch(Collection<String> keys) {
+		keys.forEach(this::invalidate);
+		target.deleteBatch(keys);
+	}
+
+	@Override
+	public void updateTimeoutBatch(Collection<String> keys, long timeout) {
+		keys.forEach(timeoutMemo::remove);
+		target.updateTimeoutBatch(keys, timeout);
+	}
+
+
+	// --------------------- 会话管理 ---------------------
+
+	@Override
+	public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
+		return target.searchData(prefix, keyword, start, size, sortType);
+	}
+
+	@Override
+	public void scanData(String prefix, String keyword, SaParamFunction<String> consumer) {
+		target.scanData(prefix, keyword, consumer);
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao.timedcache;
+
+import cn.dev33.satoken.fun.SaParamFunction;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 过期时间索引：将 key 按照到期时间划分到有序的时间桶中，定时清理时只需处理已经到期的桶，而不必全量扫描所有 key
+ *
+ * <p>
+ *     注意：索引只负责提供 "可能已过期" 的候选 key，真正是否过期仍需调用方根据实际到期时间再次判断，
+ *     因此即使索引中残留了已被续期或删除的 key，也不会造成数据被误删。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaExpireIndex {
+
+	/**
+	 * 每个时间桶覆盖的时间跨度（单位: 毫秒）
+	 */
+	public final long tickMillis;
+
+	/**
+	 * 时间桶集合，桶序号 -> 在此时段内到期的 key 集合 （按桶序号升序排列）
+	 */
+	public final ConcurrentSkipListMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
+
+	/**
+	 * 构建一个过期时间索引
+	 *
+	 * @param tickMillis 每个时间桶覆盖的时间跨度（单位: 毫秒），小于 1 时按 1 处理
+	 */
+	public SaExpireIndex(long tickMillis) {
+		this.tickMillis = Math.max(tickMillis, 1);
+	}
+
+	/**
+	 * 计算指定到期时间所属的桶序号
+	 *
+	 * @param expireTime 到期时间戳（单位: 毫秒）
+	 * @return 桶序号
+	 */
+	public long getTick(long expireTime) {
+		return expireTime / tickMillis;
+	}
+
+	/**
+	 * 登记一个 key 的到期时间
+	 *
+	 * @param key 指定 key
+	 * @param expireTime 到期时间戳（单位: 毫秒）
+	 */
+	public void add(String key, long expireTime) {
+		buckets.computeIfAbsent(getTick(expireTime), k -> ConcurrentHashMap.newKeySet()).add(key);
+	}
+
+	/**
+	 * 移除一个 key 的到期时间登记
+	 *
+	 * <p> 此处不会顺带删除变空的桶，以免和并发的 add 操作互相覆盖，空桶会在到期后被 pollExpired 统一回收 </p>
+	 *
+	 * @param key 指定 key
+	 * @param expireTime 登记时的到期时间戳（单位: 毫秒）
+	 */
+	public void remove(String key, long expireTime) {
+		Set<String> bucket = buckets.get(getTick(expireTime));
+		if(bucket != null) {
+			bucket.remove(key);
+		}
+	}
+
+	/**
+	 * 弹出所有已经完整度过的时间桶，并将其中的 key 依次交给 consumer 处理
+	 *
+	 * <p> 只处理桶序号小于当前桶序号的桶，由于新写入的 key 其到期时间一定不早于当前时间，所以正在被弹出的桶不会再有新 key 写入 </p>
+	 *
+	 * @param now 当前时间戳（单位: 毫秒）
+	 * @param consumer 处理每个候选 key 的函数
+	 * @return 本次弹出的候选 key 数量
+	 */
+	public int pollExpired(long now, SaParamFunction<String> consumer) {
+		long currTick = getTick(now);
+		int count = 0;
+		for (;;) {
+			Map.Entry<Long, Set<String>> first = buckets.firstEntry();
+			if(first == null || first.getKey() >= currTick) {
+				return count;
+			}
+			buckets.remove(first.getKey());
+			for (String key : first.getValue()) {
+				consumer.run(key);
+				count++;
+			}
+		}
+	}
+
+	/**
+	 * 清空索引
+	 */
+	public void clear() {
+		buckets.clear();
+	}
+
+	/**
+	 * 获取当前时间桶的数量
+	 *
+	 * @return /
+	 */
+	public int getBucketCount() {
+		return buckets.size();
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao.timedcache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * 有序 key 索引：将所有 key 按字典序保存在跳表中，按前缀检索时只需定位到前缀所在的区间，而不必全量扫描所有 key
+ *
+ * <p>
+ *     Sa-Token 的 key 都带有固定的命名空间前缀（例如 satoken:login:token:），因此按前缀 + 分页检索时，
+ *     时间复杂度从全量扫描的 O(n) 降为 O(log n + 页大小)。
+ * </p>
+ *
+ * <p>
+ *     注意：与 SaExpireIndex 一样，索引只负责提供候选 key，是否真实存在仍由调用方判断，
+ *     因此即使索引中残留了已被删除的 key，也不会返回错误的数据。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaKeyIndex {
+
+	/**
+	 * 所有 key，按字典序升序排列
+	 */
+	public final ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<>();
+
+	/**
+	 * 登记一个 key
+	 *
+	 * @param key 指定 key
+	 */
+	public void add(String key) {
+		keys.add(key);
+	}
+
+	/**
+	 * 批量登记 key
+	 *
+	 * @param keyList key 集合
+	 */
+	public void addAll(Collection<String> keyList) {
+		keys.addAll(keyList);
+	}
+
+	/**
+	 * 移除一个 key 的登记
+	 *
+	 * @param key 指定 key
+	 */
+	public void remove(String key) {
+		keys.remove(key);
+	}
+
+	/**
+	 * 获取以指定前缀开头的所有 key 所在的有序区间
+	 *
+	 * @param prefix 前缀
+	 * @return 有序区间视图 （不复制数据）
+	 */
+	public NavigableSet<String> range(String prefix) {
+		if(prefix == null || prefix.isEmpty()) {
+			return keys;
+		}
+		// 上界为：将前缀的最后一个字符 +1，例如 "abc" 的区间为 ["abc", "abd")
+		char last = prefix.charAt(prefix.length() - 1);
+		if(last == Character.MAX_VALUE) {
+			return keys.tailSet(prefix, true);
+		}
+		String end = prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+		return keys.subSet(prefix, true, end, false);
+	}
+
+	/**
+	 * 按前缀、关键字分页检索 key
+	 *
+	 * @param prefix 前缀
+	 * @param keyword 关键字
+	 * @param start 开始处索引
+	 * @param size 获取数量 (-1代表从 start 处一直取到末尾)
+	 * @param sortType 排序类型（true=字典序正序，false=字典序反序）
+	 * @param exists 判断候选 key 是否真实存在的函数，返回 false 的 key 将被跳过
+	 * @return 查询到的数据集合
+	 */
+	public List<String> search(String prefix, String keyword, int start, int size, boolean sortType, Predicate<String> exists) {
+		String pre = (prefix == null ? "" : prefix);
+		String kw = (keyword == null ? "" : keyword);
+		int skip = Math.max(start, 0);
+		List<String> list = new ArrayList<>();
+		if(size == 0) {
+			return list;
+		}
+		NavigableSet<String> range = range(pre);
+		for (String key : (sortType ? range : range.descendingSet())) {
+			if( ! key.startsWith(pre) || ! key.contains(kw) || ! exists.test(key)) {
+				continue;
+			}
+			if(skip > 0) {
+				skip--;
+				continue;
+			}
+			list.add(key);
+			if(size != -1 && list.size() >= size) {
+				break;
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * 清空索引
+	 */
+	public void clear() {
+		keys.clear();
+	}
+
+	/**
+	 * 获取索引中登记的 key 数量 （此操作需要遍历跳表，请勿频繁调用）
+	 *
+	 * @return /
+	 */
+	public int size() {
+		return keys.size();
+	}
+
+}
@@ -55,6 +55,58 @@ public interface SaMapPackage<V> {
 	 */
 	void remove(String key);
 
+	/**
+	 * 当 key 不存在时写入（默认实现在当前包装对象上加锁，底层为并发 Map 的实现类应重写为原子操作）
+	 *
+	 * @param key /
+	 * @param value /
+	 * @return 已存在的值，写入成功时返回 null
+	 */
+	default V putIfAbsent(String key, V value) {
+		synchronized (this) {
+			V oldValue = get(key);
+			if(oldValue == null) {
+				put(key, value);
+			}
+			return oldValue;
+		}
+	}
+
+	/**
+	 * 当 key 当前的值为指定值时删除（默认实现在当前包装对象上加锁，底层为并发 Map 的实现类应重写为原子操作）
+	 *
+	 * @param key /
+	 * @param value 期望的当前值
+	 * @return 是否删除成功
+	 */
+	default boolean remove(String key, V value) {
+		synchronized (this) {
+			if(get(key) != value) {
+				return false;
+			}
+			remove(key);
+			return true;
+		}
+	}
+
+	/**
+	 * 当 key 当前的值为指定值时替换为新值（默认实现在当前包装对象上加锁，底层为并发 Map 的实现类应重写为原子操作）
+	 *
+	 * @param key /
+	 * @param oldValue 期望的当前值
+	 * @param newValue 新值
+	 * @return 是否替换成功
+	 */
+	default boolean replace(String key, V oldValue, V newValue) {
+		synchronized (this) {
+			if(get(key) != oldValue) {
+				return false;
+			}
+			put(key, newValue);
+			return true;
+		}
+	}
+
 	/**
 	 * 所有 key
 	 */
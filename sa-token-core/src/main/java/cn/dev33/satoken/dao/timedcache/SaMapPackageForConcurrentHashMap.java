@@ -48,6 +48,21 @@ public class SaMapPackageForConcurrentHashMap<V> implements SaMapPackage<V> {
 		map.remove(key);
 	}
 
+	@Override
+	public V putIfAbsent(String key, V value) {
+		return map.putIfAbsent(key, value);
+	}
+
+	@Override
+	public boolean remove(String key, V value) {
+		return map.remove(key, value);
+	}
+
+	@Override
+	public boolean replace(String key, V oldValue, V newValue) {
+		return map.replace(key, oldValue, newValue);
+	}
+
 	@Override
 	public Set<String> keySet() {
 		return map.keySet();
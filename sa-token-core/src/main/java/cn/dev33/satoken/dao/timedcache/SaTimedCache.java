@@ -18,58 +18,168 @@ package cn.dev33.satoken.dao.timedcache;
 
 import cn.dev33.satoken.SaManager;
 import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.fun.SaParamFunction;
+import cn.dev33.satoken.util.SaFoxUtil;
 
+import java.util.List;
 import java.util.Set;
 
 /**
  * 一个定时缓存的简单实现，采用：惰性检查 + 异步循环扫描
  *
+ * <p> 值与到期时间合并存储在同一个 SaTimedCacheEntry 中，每次读取只需一次 Map 查找 </p>
+ *
  * @author click33
  * @since 1.41.0
  */
 public class SaTimedCache {
 
 	/**
-	 * 存储数据的集合
+	 * 存储数据的集合，每个 key 对应一个 SaTimedCacheEntry，同时记录值与到期时间
 	 */
-	public SaMapPackage<Object> dataMap;
+	public SaMapPackage<SaTimedCacheEntry> dataMap;
 
 	/**
-	 * 存储数据过期时间的集合（单位: 毫秒）, 记录所有 key 的到期时间 （注意存储的是到期时间，不是剩余存活时间）
+	 * 过期时间索引（为 null 时代表未启用，定时清理时将全量扫描所有 key）
 	 */
-	public SaMapPackage<Long> expireMap;
+	public SaExpireIndex expireIndex;
 
-	public SaTimedCache(SaMapPackage<Object> dataMap, SaMapPackage<Long> expireMap) {
+	/**
+	 * 容量上限控制（为 null 时代表不限制容量）
+	 */
+	public SaTimedCacheBound bound;
+
+	/**
+	 * 有序 key 索引（为 null 时代表未启用，按前缀检索 key 时将全量扫描所有 key）
+	 */
+	public SaKeyIndex keyIndex;
+
+	public SaTimedCache(SaMapPackage<SaTimedCacheEntry> dataMap) {
 		this.dataMap = dataMap;
-		this.expireMap = expireMap;
 	}
 
 	
 	// ------------------------ 基础 API 读写操作
 
 	public Object getObject(String key) {
-		clearKeyByTimeout(key);
-		return dataMap.get(key);
+		SaTimedCacheEntry entry = getEntry(key);
+		return entry == null ? null : entry.value;
 	}
 
 	public void setObject(String key, Object object, long timeout) {
 		if(timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE)  {
 			return;
 		}
-		dataMap.put(key, object);
-		expireMap.put(key, (timeout == SaTokenDao.NEVER_EXPIRE) ? (SaTokenDao.NEVER_EXPIRE) : (System.currentTimeMillis() + timeout * 1000));
+		SaTimedCacheBound bound = this.bound;
+		SaTimedCacheEntry entry = createEntry(bound, key, object, toExpireTime(timeout));
+		SaExpireIndex index = expireIndex;
+		if(index == null) {
+			dataMap.put(key, entry);
+		} else {
+			SaTimedCacheEntry oldEntry = dataMap.get(key);
+			dataMap.put(key, entry);
+			if(oldEntry != null) {
+				removeIndex(index, key, oldEntry.expireTime);
+			}
+			addIndex(index, key, entry.expireTime);
+		}
+		SaKeyIndex keyIndex = this.keyIndex;
+		if(keyIndex != null) {
+			keyIndex.add(key);
+		}
+		if(bound != null) {
+			bound.add((SaTimedCacheBoundEntry) entry);
+			bound.evictIfOverflow(this);
+		}
+	}
+
+	/**
+	 * 当 key 不存在（或已过期）时写入，整个判断 + 写入过程是原子的
+	 *
+	 * @param key 键名称
+	 * @param object 值
+	 * @param timeout 存活时间（单位: 秒）
+	 * @return 是否写入成功
+	 */
+	public boolean setObjectIfAbsent(String key, Object object, long timeout) {
+		if(timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE)  {
+			return false;
+		}
+		SaTimedCacheBound bound = this.bound;
+		SaTimedCacheEntry entry = createEntry(bound, key, object, toExpireTime(timeout));
+		for (;;) {
+			SaTimedCacheEntry oldEntry = dataMap.putIfAbsent(key, entry);
+			if(oldEntry == null) {
+				break;
+			}
+			if( ! oldEntry.isExpired(System.currentTimeMillis())) {
+				return false;
+			}
+			// 已过期但尚未被清理的旧数据：只删除这一个旧值，然后重试，避免误删并发写入的新值
+			if(dataMap.remove(key, oldEntry)) {
+				SaExpireIndex index = expireIndex;
+				if(index != null) {
+					removeIndex(index, key, oldEntry.expireTime);
+				}
+			}
+		}
+		SaExpireIndex index = expireIndex;
+		if(index != null) {
+			addIndex(index, key, entry.expireTime);
+		}
+		SaKeyIndex keyIndex = this.keyIndex;
+		if(keyIndex != null) {
+			keyIndex.add(key);
+		}
+		if(bound != null) {
+			bound.add((SaTimedCacheBoundEntry) entry);
+			bound.evictIfOverflow(this);
+		}
+		return true;
+	}
+
+	/**
+	 * 将 key 的计数 +1 并将有效期重置为 timeout（key 不存在或已过期时从 0 开始），通过 CAS 替换整个缓存项保证原子性
+	 *
+	 * @param key 键名称
+	 * @param timeout 存活时间（单位: 秒）
+	 * @return 自增后的计数（timeout 无效时返回 0）
+	 */
+	public long incrementObject(String key, long timeout) {
+		if(timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE)  {
+			return 0;
+		}
+		for (;;) {
+			SaTimedCacheEntry oldEntry = dataMap.get(key);
+			if(oldEntry == null || oldEntry.isExpired(System.currentTimeMillis())) {
+				if(setObjectIfAbsent(key, "1", timeout)) {
+					return 1;
+				}
+				continue;
+			}
+			long count = Long.parseLong(String.valueOf(oldEntry.value)) + 1;
+			if(replaceEntry(key, oldEntry, String.valueOf(count), toExpireTime(timeout))) {
+				return count;
+			}
+		}
 	}
 
 	public void updateObject(String key, Object object) {
-		if(getKeyTimeout(key) == SaTokenDao.NOT_VALUE_EXPIRE) {
-			return;
+		for (;;) {
+			SaTimedCacheEntry oldEntry = getEntry(key);
+			if(oldEntry == null || replaceEntry(key, oldEntry, object, oldEntry.expireTime)) {
+				return;
+			}
 		}
-		dataMap.put(key, object);
 	}
 
 	public void deleteObject(String key) {
-		dataMap.remove(key);
-		expireMap.remove(key);
+		for (;;) {
+			SaTimedCacheEntry entry = dataMap.get(key);
+			if(entry == null || removeEntry(key, entry)) {
+				return;
+			}
+		}
 	}
 
 	public long getObjectTimeout(String key) {
@@ -77,29 +187,88 @@ public class SaTimedCache {
 	}
 
 	public void updateObjectTimeout(String key, long timeout) {
-		expireMap.put(key, (timeout == SaTokenDao.NEVER_EXPIRE) ? (SaTokenDao.NEVER_EXPIRE) : (System.currentTimeMillis() + timeout * 1000));
+		for (;;) {
+			SaTimedCacheEntry oldEntry = dataMap.get(key);
+			if(oldEntry == null || replaceEntry(key, oldEntry, oldEntry.value, toExpireTime(timeout))) {
+				return;
+			}
+		}
 	}
 
 	public Set<String> keySet() {
 		return dataMap.keySet();
 	}
 
+	/**
+	 * 按前缀、关键字分页检索 key，启用了有序 key 索引时只扫描前缀所在的区间，否则全量扫描
+	 *
+	 * @param prefix 前缀
+	 * @param keyword 关键字
+	 * @param start 开始处索引
+	 * @param size 获取数量 (-1代表从 start 处一直取到末尾)
+	 * @param sortType 排序类型（true=正序，false=反序，启用索引时按字典序排列）
+	 * @return 查询到的数据集合
+	 */
+	public List<String> searchKeys(String prefix, String keyword, int start, int size, boolean sortType) {
+		SaKeyIndex index = keyIndex;
+		if(index == null) {
+			return SaFoxUtil.searchList(keySet(), prefix, keyword, start, size, sortType);
+		}
+		return index.search(prefix, keyword, start, size, sortType, key -> isIndexKeyAlive(index, key));
+	}
+
+	/**
+	 * 遍历以指定前缀开头且包含指定关键字的所有 key，启用了有序 key 索引时只扫描前缀所在的区间，否则全量扫描
+	 *
+	 * @param prefix 前缀
+	 * @param keyword 关键字
+	 * @param consumer 处理每个 key 的函数
+	 */
+	public void scanKeys(String prefix, String keyword, SaParamFunction<String> consumer) {
+		String pre = (prefix == null ? "" : prefix);
+		String kw = (keyword == null ? "" : keyword);
+		SaKeyIndex index = keyIndex;
+		for (String key : (index == null ? keySet() : index.range(pre))) {
+			if (key.startsWith(pre) && key.contains(kw) && (index == null || isIndexKeyAlive(index, key))) {
+				consumer.run(key);
+			}
+		}
+	}
+
 
 	// --------- 过期时间相关操作
 
+	/**
+	 * 获取指定 key 的缓存数据，如果已经过期，则立即清除它并返回 null
+	 * @param key 指定 key
+	 * @return 未过期的缓存数据
+	 */
+	SaTimedCacheEntry getEntry(String key) {
+		SaTimedCacheEntry entry = dataMap.get(key);
+		if(entry == null) {
+			return null;
+		}
+		if(entry.isExpired(System.currentTimeMillis())) {
+			removeEntry(key, entry);
+			return null;
+		}
+		if(entry instanceof SaTimedCacheBoundEntry) {
+			((SaTimedCacheBoundEntry) entry).markAccessed();
+		}
+		return entry;
+	}
+
 	/**
 	 * 如果指定的 key 已经过期，则立即清除它
+	 *
+	 * <p> 此处不能复用 getEntry，定时清理不属于对数据的访问，不应标记访问位，否则会使容量淘汰的 CLOCK 二次机会失效 </p>
+	 *
 	 * @param key 指定 key
 	 */
 	void clearKeyByTimeout(String key) {
-		Long expirationTime = expireMap.get(key);
-		// 清除条件：
-		// 		1、数据存在。
-		// 		2、不是 [ 永不过期 ]。
-		// 		3、已经超过过期时间。
-		if(expirationTime != null && expirationTime != SaTokenDao.NEVER_EXPIRE && expirationTime < System.currentTimeMillis()) {
-			dataMap.remove(key);
-			expireMap.remove(key);
+		SaTimedCacheEntry entry = dataMap.get(key);
+		if(entry != null && entry.isExpired(System.currentTimeMillis())) {
+			removeEntry(key, entry);
 		}
 	}
 
@@ -110,17 +279,15 @@ public class SaTimedCache {
 	 */
 	long getKeyTimeout(String key) {
 		// 由于数据过期检测属于惰性扫描，很可能此时这个 key 已经是过期状态了，所以这里需要先检查一下
-		clearKeyByTimeout(key);
+		SaTimedCacheEntry entry = getEntry(key);
 
-		// 获取这个 key 的过期时间
-		Long expire = expireMap.get(key);
-
-		// 如果 expire 数据不存在，说明框架没有存储这个 key，此时返回 NOT_VALUE_EXPIRE
-		if(expire == null) {
+		// 如果数据不存在，说明框架没有存储这个 key，此时返回 NOT_VALUE_EXPIRE
+		if(entry == null) {
 			return SaTokenDao.NOT_VALUE_EXPIRE;
 		}
 
-		// 如果 expire 被标注为永不过期，则返回 NEVER_EXPIRE
+		// 如果被标注为永不过期，则返回 NEVER_EXPIRE
+		long expire = entry.expireTime;
 		if(expire == SaTokenDao.NEVER_EXPIRE) {
 			return SaTokenDao.NEVER_EXPIRE;
 		}
@@ -132,13 +299,150 @@ public class SaTimedCache {
 
 		// 小于零时，视为不存在 
 		if(timeout < 0) {
-			dataMap.remove(key);
-			expireMap.remove(key);
+			removeEntry(key, entry);
 			return SaTokenDao.NOT_VALUE_EXPIRE;
 		}
 		return timeout;
 	}
 
+	/**
+	 * 将剩余存活时间换算为到期时间戳
+	 * @param timeout 剩余存活时间（单位: 秒）
+	 * @return 到期时间戳（单位: 毫秒）
+	 */
+	long toExpireTime(long timeout) {
+		return (timeout == SaTokenDao.NEVER_EXPIRE) ? (SaTokenDao.NEVER_EXPIRE) : (System.currentTimeMillis() + timeout * 1000);
+	}
+
+	/**
+	 * 创建一条缓存数据，启用了容量上限时创建带有淘汰信息的缓存数据
+	 *
+	 * @param bound 当前的容量上限控制器
+	 * @param key 指定 key
+	 * @param value 值
+	 * @param expireTime 到期时间戳（单位: 毫秒）
+	 * @return /
+	 */
+	SaTimedCacheEntry createEntry(SaTimedCacheBound bound, String key, Object value, long expireTime) {
+		return (bound == null) ? new SaTimedCacheEntry(value, expireTime) : new SaTimedCacheBoundEntry(key, value, expireTime);
+	}
+
+	/**
+	 * 以新的值、到期时间替换指定 key 的缓存数据：只有当 key 当前的值仍是 oldEntry 时才会替换，并同步修正过期时间索引与容量统计
+	 *
+	 * @param key 指定 key
+	 * @param oldEntry 该 key 当前的缓存数据
+	 * @param value 新的值
+	 * @param expireTime 新的到期时间戳（单位: 毫秒）
+	 * @return 是否替换成功，失败时说明期间有并发修改，调用方应重新读取后重试
+	 */
+	boolean replaceEntry(String key, SaTimedCacheEntry oldEntry, Object value, long expireTime) {
+		SaTimedCacheBound bound = this.bound;
+		SaTimedCacheEntry entry = createEntry(bound, key, value, expireTime);
+		// 替换不属于新写入，保留旧数据的访问标记，避免刚被修改的热点数据先于冷数据被淘汰
+		if(entry instanceof SaTimedCacheBoundEntry && oldEntry instanceof SaTimedCacheBoundEntry) {
+			((SaTimedCacheBoundEntry) entry).accessed = ((SaTimedCacheBoundEntry) oldEntry).accessed;
+		}
+		if( ! dataMap.replace(key, oldEntry, entry)) {
+			return false;
+		}
+		SaExpireIndex index = expireIndex;
+		if(index != null && oldEntry.expireTime != expireTime) {
+			removeIndex(index, key, oldEntry.expireTime);
+			addIndex(index, key, expireTime);
+		}
+		if(bound != null) {
+			bound.add((SaTimedCacheBoundEntry) entry);
+			bound.evictIfOverflow(this);
+		}
+		return true;
+	}
+
+	/**
+	 * 移除指定 key 的缓存数据，如果启用了过期时间索引，则同步移除索引
+	 *
+	 * <p> 只有当 key 当前的值仍是 entry 时才会移除，如果在此期间有并发写入的新值，则新值与其索引登记都保持不变 </p>
+	 *
+	 * @param key 指定 key
+	 * @param entry 该 key 当前的缓存数据
+	 * @return 是否移除成功
+	 */
+	boolean removeEntry(String key, SaTimedCacheEntry entry) {
+		if( ! dataMap.remove(key, entry)) {
+			return false;
+		}
+		SaExpireIndex index = expireIndex;
+		if(index != null) {
+			removeIndex(index, key, entry.expireTime);
+		}
+		SaKeyIndex keyIndex = this.keyIndex;
+		if(keyIndex != null) {
+			removeKeyIndex(keyIndex, key);
+		}
+		return true;
+	}
+
+	/**
+	 * 从有序 key 索引中移除指定 key
+	 *
+	 * <p> 移除后再检查一次，如果此时有并发写入的新数据，则重新登记，保证索引中不会遗漏仍然存在的 key </p>
+	 *
+	 * @param keyIndex 有序 key 索引
+	 * @param key 指定 key
+	 */
+	void removeKeyIndex(SaKeyIndex keyIndex, String key) {
+		keyIndex.remove(key);
+		if(dataMap.get(key) != null) {
+			keyIndex.add(key);
+		}
+	}
+
+	/**
+	 * 判断索引中的 key 是否仍然有效，对于已经不存在的 key （例如被底层 Map 自行淘汰），顺带将其移出索引
+	 *
+	 * @param keyIndex 有序 key 索引
+	 * @param key 指定 key
+	 * @return /
+	 */
+	boolean isIndexKeyAlive(SaKeyIndex keyIndex, String key) {
+		SaTimedCacheEntry entry = dataMap.get(key);
+		if(entry == null) {
+			removeKeyIndex(keyIndex, key);
+			return false;
+		}
+		return ! entry.isExpired(System.currentTimeMillis());
+	}
+
+	/**
+	 * 将指定 key 登记到过期时间索引中（永不过期的 key 不登记）
+	 * @param index 过期时间索引
+	 * @param key 指定 key
+	 * @param expireTime 到期时间戳（单位: 毫秒）
+	 */
+	void addIndex(SaExpireIndex index, String key, long expireTime) {
+		if(expireTime != SaTokenDao.NEVER_EXPIRE) {
+			index.add(key, expireTime);
+		}
+	}
+
+	/**
+	 * 从过期时间索引中移除指定 key 的登记
+	 * @param index 过期时间索引
+	 * @param key 指定 key
+	 * @param expireTime 登记时的到期时间戳（单位: 毫秒）
+	 */
+	void removeIndex(SaExpireIndex index, String key, long expireTime) {
+		if(expireTime == SaTokenDao.NEVER_EXPIRE) {
+			return;
+		}
+		index.remove(key, expireTime);
+		// 移除后再检查一次：如果并发写入的新数据恰好登记在同一个时间桶中，则重新登记，避免其从索引中遗漏、永远不会被定时清理
+		SaTimedCacheEntry current = dataMap.get(key);
+		if(current != null && ! current.isNeverExpire() && index.getTick(current.expireTime) == index.getTick(expireTime)) {
+			index.add(key, current.expireTime);
+		}
+	}
+
 	// --------- 定时清理过期数据
 	
 	/**
@@ -155,10 +459,84 @@ public class SaTimedCache {
 	 * 清理所有已经过期的 key
 	 */
 	public void refreshDataMap() {
-		for (String s : expireMap.keySet()) {
+		// 如果启用了过期时间索引，则只处理已经到期的 key，否则全量扫描
+		SaExpireIndex index = expireIndex;
+		if(index != null) {
+			index.pollExpired(System.currentTimeMillis(), this::clearKeyByTimeout);
+			return;
+		}
+		for (String s : dataMap.keySet()) {
 			clearKeyByTimeout(s);
 		}
 	}
+
+	/**
+	 * 启用过期时间索引，启用后定时清理只会处理已经到期的 key，而不再全量扫描所有 key
+	 *
+	 * <p> 启用时会将已存在的 key 全部登记到索引中 </p>
+	 *
+	 * @param tickMillis 每个时间桶覆盖的时间跨度（单位: 毫秒）
+	 */
+	public void enableExpireIndex(long tickMillis) {
+		SaExpireIndex index = new SaExpireIndex(tickMillis);
+		this.expireIndex = index;
+		for (String key : dataMap.keySet()) {
+			SaTimedCacheEntry entry = dataMap.get(key);
+			if(entry != null) {
+				addIndex(index, key, entry.expireTime);
+			}
+		}
+	}
+
+	/**
+	 * 关闭过期时间索引，恢复为每次定时清理时全量扫描所有 key
+	 */
+	public void disableExpireIndex() {
+		this.expireIndex = null;
+	}
+
+	/**
+	 * 启用有序 key 索引，启用后按前缀检索 key 时只扫描前缀所在的区间
+	 *
+	 * <p> 启用时会将已存在的 key 全部登记到索引中 </p>
+	 */
+	public void enableKeyIndex() {
+		SaKeyIndex index = new SaKeyIndex();
+		this.keyIndex = index;
+		index.addAll(dataMap.keySet());
+	}
+
+	/**
+	 * 关闭有序 key 索引，恢复为每次检索时全量扫描所有 key
+	 */
+	public void disableKeyIndex() {
+		this.keyIndex = null;
+	}
+
+	/**
+	 * 启用容量上限控制，超出上限时按 CLOCK 算法淘汰数据
+	 *
+	 * <p> 启用时会将已存在的 key 全部登记到淘汰队列中 </p>
+	 *
+	 * @param maxCount 最大数据条数（小于等于 0 代表不限制）
+	 * @param maxBytes 最大预估字节数（小于等于 0 代表不限制）
+	 */
+	public void enableBound(long maxCount, long maxBytes) {
+		SaTimedCacheBound bound = new SaTimedCacheBound(maxCount, maxBytes);
+		this.bound = bound;
+		for (String key : dataMap.keySet()) {
+			SaTimedCacheEntry entry = dataMap.get(key);
+			if(entry == null) {
+				continue;
+			}
+			SaTimedCacheBoundEntry boundEntry = new SaTimedCacheBoundEntry(key, entry.value, entry.expireTime);
+			// 只替换遍历时读到的这一个值，期间被并发覆盖的 key 已经以新的缓存数据登记
+			if(dataMap.replace(key, entry, boundEntry)) {
+				bound.add(boundEntry);
+			}
+		}
+		bound.evictIfOverflow(this);
+	}
 	
 	/**
 	 * 初始化定时任务，定时清理过期数据
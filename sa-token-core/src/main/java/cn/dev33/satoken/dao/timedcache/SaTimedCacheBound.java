@@ -0,0 +1,252 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao.timedcache;
+
+import cn.dev33.satoken.fun.SaTwoParamFunction;
+import cn.dev33.satoken.listener.SaTokenEventCenter;
+import cn.dev33.satoken.session.SaSession;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SaTimedCache 容量上限控制：限制最大数据条数与最大预估字节数，超出时按 CLOCK（二次机会）算法淘汰数据
+ *
+ * <p>
+ *     淘汰策略：所有数据按写入顺序排成一个环形队列，淘汰时从队首开始扫描，被访问过的数据清除访问标记后放回队尾（获得二次机会），
+ *     未被访问过的数据直接淘汰，效果近似 LRU，但读取时只需写一个标记位，不需要加锁调整链表。
+ * </p>
+ *
+ * <p>
+ *     准入策略：新写入的数据不带访问标记，因此大量 "写入后再也不读" 的数据（例如撞库流量产生的匿名 Session）
+ *     会先于任何被读取过的数据被淘汰，不会把正常用户的活跃会话挤出缓存。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaTimedCacheBound {
+
+	/**
+	 * 最大数据条数（小于等于 0 代表不限制）
+	 */
+	public final long maxCount;
+
+	/**
+	 * 最大预估字节数（小于等于 0 代表不限制）
+	 */
+	public final long maxBytes;
+
+	/**
+	 * 淘汰队列，按写入顺序排列（可能包含已被删除或覆盖的数据，会在淘汰扫描时被顺带清理）
+	 */
+	public final ConcurrentLinkedQueue<SaTimedCacheBoundEntry> queue = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * 淘汰队列中的数据条数
+	 */
+	public final AtomicLong queueCount = new AtomicLong();
+
+	/**
+	 * 淘汰队列中的数据预估字节数
+	 */
+	public final AtomicLong queueBytes = new AtomicLong();
+
+	/**
+	 * 累计因容量超限被淘汰的数据条数
+	 */
+	public final LongAdder evictCount = new LongAdder();
+
+	/**
+	 * 累计因容量超限被淘汰的数据预估字节数
+	 */
+	public final LongAdder evictBytes = new LongAdder();
+
+	/**
+	 * 数据被淘汰时的回调函数，参数为被淘汰的键和值，默认发布全局侦听器 doEvictData 事件
+	 */
+	public SaTwoParamFunction<String, Object> evictListener = SaTokenEventCenter::doEvictData;
+
+	/**
+	 * 同一时刻只允许一个线程执行淘汰扫描
+	 */
+	final ReentrantLock evictLock = new ReentrantLock();
+
+	/**
+	 * 构建一个容量上限控制器
+	 *
+	 * @param maxCount 最大数据条数（小于等于 0 代表不限制）
+	 * @param maxBytes 最大预估字节数（小于等于 0 代表不限制）
+	 */
+	public SaTimedCacheBound(long maxCount, long maxBytes) {
+		this.maxCount = maxCount;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * 登记一条新写入的数据
+	 *
+	 * @param entry /
+	 */
+	public void add(SaTimedCacheBoundEntry entry) {
+		entry.weight = estimateBytes(entry.key, entry.value);
+		queueCount.incrementAndGet();
+		queueBytes.addAndGet(entry.weight);
+		queue.offer(entry);
+	}
+
+	/**
+	 * 当前是否已超出容量上限
+	 *
+	 * @return /
+	 */
+	public boolean isOverflow() {
+		return (maxCount > 0 && queueCount.get() > maxCount) || (maxBytes > 0 && queueBytes.get() > maxBytes);
+	}
+
+	/**
+	 * 如果已超出容量上限，则淘汰数据直至回到上限以内
+	 *
+	 * @param cache 所属的 SaTimedCache
+	 */
+	public void evictIfOverflow(SaTimedCache cache) {
+		if( ! isOverflow() || ! evictLock.tryLock()) {
+			return;
+		}
+		try {
+			// 最多给予的二次机会次数，防止数据在扫描期间被持续访问导致无法结束
+			long chances = queueCount.get();
+			while (isOverflow()) {
+				SaTimedCacheBoundEntry entry = queue.poll();
+				if(entry == null) {
+					return;
+				}
+
+				// 已被删除或覆盖的数据，只需释放其占用的额度
+				if(cache.dataMap.get(entry.key) != entry) {
+					release(entry);
+					continue;
+				}
+
+				// 被访问过的数据，清除标记后放回队尾
+				if(entry.accessed && chances-- > 0) {
+					entry.accessed = false;
+					queue.offer(entry);
+					continue;
+				}
+
+				// 淘汰
+				cache.removeEntry(entry.key, entry);
+				release(entry);
+				evictCount.increment();
+				evictBytes.add(entry.weight);
+				evictListener.run(entry.key, entry.value);
+			}
+		} finally {
+			evictLock.unlock();
+		}
+	}
+
+	/**
+	 * 释放一条数据占用的额度
+	 *
+	 * @param entry /
+	 */
+	void release(SaTimedCacheBoundEntry entry) {
+		queueCount.decrementAndGet();
+		queueBytes.addAndGet(-entry.weight);
+	}
+
+	/**
+	 * 预估一条数据占用的字节数，只需量级准确即可，如需更精确的估算可重写此方法
+	 *
+	 * @param key 键
+	 * @param value 值
+	 * @return 预估字节数
+	 */
+	public long estimateBytes(String key, Object value) {
+		// Map 节点 + 缓存数据对象本身
+		long bytes = 96 + estimateStringBytes(key);
+		if(value instanceof String) {
+			bytes += estimateStringBytes((String) value);
+		}
+		else if(value instanceof SaSession) {
+			SaSession session = (SaSession) value;
+			bytes += 256 + estimateStringBytes(session.getId());
+			for (Map.Entry<String, Object> item : session.getDataMap().entrySet()) {
+				bytes += 64 + estimateStringBytes(item.getKey());
+				if(item.getValue() instanceof String) {
+					bytes += estimateStringBytes((String) item.getValue());
+				}
+			}
+			bytes += 128L * session.getTerminalList().size();
+		}
+		else if(value != null) {
+			bytes += 64;
+		}
+		return bytes;
+	}
+
+	/**
+	 * 预估一个字符串占用的字节数
+	 *
+	 * @param str /
+	 * @return /
+	 */
+	long estimateStringBytes(String str) {
+		return str == null ? 0 : 40 + 2L * str.length();
+	}
+
+	/**
+	 * 获取当前数据条数（包含尚未被清理的已删除数据）
+	 *
+	 * @return /
+	 */
+	public long getCount() {
+		return queueCount.get();
+	}
+
+	/**
+	 * 获取当前数据预估字节数（包含尚未被清理的已删除数据）
+	 *
+	 * @return /
+	 */
+	public long getBytes() {
+		return queueBytes.get();
+	}
+
+	/**
+	 * 获取累计淘汰的数据条数
+	 *
+	 * @return /
+	 */
+	public long getEvictCount() {
+		return evictCount.sum();
+	}
+
+	/**
+	 * 获取累计淘汰的数据预估字节数
+	 *
+	 * @return /
+	 */
+	public long getEvictBytes() {
+		return evictBytes.sum();
+	}
+
+}
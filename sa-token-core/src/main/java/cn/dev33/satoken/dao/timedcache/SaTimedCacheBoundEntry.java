@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao.timedcache;
+
+/**
+ * SaTimedCache 在启用容量上限时使用的缓存数据，额外记录淘汰算法所需的信息
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaTimedCacheBoundEntry extends SaTimedCacheEntry {
+
+	/**
+	 * 此数据对应的 key
+	 */
+	public final String key;
+
+	/**
+	 * 此数据的预估占用字节数
+	 */
+	public volatile long weight;
+
+	/**
+	 * 自上次被淘汰算法扫描以来，是否被访问过
+	 */
+	public volatile boolean accessed;
+
+	public SaTimedCacheBoundEntry(String key, Object value, long expireTime) {
+		super(value, expireTime);
+		this.key = key;
+	}
+
+	/**
+	 * 标记此数据被访问过（已标记时不再重复写入，减少热点 key 上的并发写）
+	 */
+	public void markAccessed() {
+		if( ! accessed) {
+			accessed = true;
+		}
+	}
+
+}
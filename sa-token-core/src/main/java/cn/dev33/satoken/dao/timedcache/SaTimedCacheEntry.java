@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao.timedcache;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+
+/**
+ * SaTimedCache 中的单条缓存数据：值 + 到期时间，合并存储在同一个对象中，一次查找即可同时拿到两者
+ *
+ * <p> 值与到期时间均不可变，修改时创建新的缓存数据并通过 CAS 替换，保证并发读取时两者始终来自同一次写入 </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaTimedCacheEntry {
+
+	/**
+	 * 缓存的值
+	 */
+	public final Object value;
+
+	/**
+	 * 到期时间戳（单位: 毫秒），注意存储的是到期时间，不是剩余存活时间，值为 SaTokenDao.NEVER_EXPIRE 时代表永不过期
+	 */
+	public final long expireTime;
+
+	public SaTimedCacheEntry(Object value, long expireTime) {
+		this.value = value;
+		this.expireTime = expireTime;
+	}
+
+	/**
+	 * 是否为永不过期
+	 *
+	 * @return /
+	 */
+	public boolean isNeverExpire() {
+		return expireTime == SaTokenDao.NEVER_EXPIRE;
+	}
+
+	/**
+	 * 在指定时间点是否已经过期
+	 *
+	 * @param now 当前时间戳（单位: 毫秒）
+	 * @return /
+	 */
+	public boolean isExpired(long now) {
+		return expireTime != SaTokenDao.NEVER_EXPIRE && expireTime < now;
+	}
+
+}
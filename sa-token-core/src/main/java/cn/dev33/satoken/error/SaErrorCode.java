@@ -49,6 +49,9 @@ public interface SaErrorCode {
 	/** 配置文件属性无法正常读取 */
 	int CODE_10022 = 10022;
 
+	/** 配置项的值无效 */
+	int CODE_10023 = 10023;
+
 	/** 重置的侦听器集合不可以为空 */
 	int CODE_10031 = 10031;
 
@@ -69,6 +72,9 @@ public interface SaErrorCode {
 	/** 提供的 HttpMethod 是无效的 */
 	int CODE_10321 = 10321;
 
+	/** 提供的路由规则是无效的 */
+	int CODE_10331 = 10331;
+
 	// 1100x StpLogic
 
 	/** 未能读取到有效Token */
@@ -199,4 +205,22 @@ public interface SaErrorCode {
 	/** 未实现具体的路由匹配策略 */
 	int CODE_12401 = 12401;
 
+	/** 无效的路由前缀树配置 */
+	int CODE_12402 = 12402;
+
+
+	// ------------
+
+	/** 请求过于频繁，已被限流 */
+	int CODE_12501 = 12501;
+
+	/** 无效的限流算法 */
+	int CODE_12502 = 12502;
+
+	/** 无效的限流维度 */
+	int CODE_12503 = 12503;
+
+	/** 无效的限流配置 */
+	int CODE_12504 = 12504;
+
 }
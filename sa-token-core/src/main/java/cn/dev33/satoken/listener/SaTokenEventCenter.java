@@ -278,6 +278,17 @@ public class SaTokenEventCenter {
 		}
 	}
 
+	/**
+	 * 事件发布：内存型 SaTokenDao 因容量超限淘汰了一条数据
+	 * @param key 被淘汰的键
+	 * @param value 被淘汰的值（可能是 SaSession）
+	 */
+	public static void doEvictData(String key, Object value) {
+		for (SaTokenListener listener : listenerList) {
+			listener.doEvictData(key, value);
+		}
+	}
+
 	/**
 	 * 事件发布：有新的全局组件载入到框架中
 	 * @param compName 组件名称
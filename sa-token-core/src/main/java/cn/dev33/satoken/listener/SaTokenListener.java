@@ -120,6 +120,14 @@ public interface SaTokenListener {
 	 */
 	void doRenewTimeout(String loginType, Object loginId, String tokenValue, long timeout);
 
+	/**
+	 * 每次内存型 SaTokenDao 因容量超限淘汰数据时触发
+	 *
+	 * @param key 被淘汰的键
+	 * @param value 被淘汰的值（可能是 SaSession）
+	 */
+	default void doEvictData(String key, Object value) {}
+
 	/**
 	 * 全局组件载入 
 	 * @param compName 组件名称
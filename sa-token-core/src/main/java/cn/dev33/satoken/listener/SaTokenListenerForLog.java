@@ -17,6 +17,7 @@ package cn.dev33.satoken.listener;
 
 import cn.dev33.satoken.annotation.handler.SaAnnotationHandlerInterface;
 import cn.dev33.satoken.config.SaTokenConfig;
+import cn.dev33.satoken.session.SaSession;
 import cn.dev33.satoken.stp.StpLogic;
 import cn.dev33.satoken.stp.parameter.SaLoginParameter;
 import cn.dev33.satoken.util.SaFoxUtil;
@@ -119,6 +120,18 @@ public class SaTokenListenerForLog implements SaTokenListener {
 		log.info("token 续期成功, {} 秒后到期, 帐号={}, token值={} ", timeout, loginId, tokenValue);
 	}
 
+	/**
+	 * 每次内存型 SaTokenDao 因容量超限淘汰数据时触发
+	 */
+	@Override
+	public void doEvictData(String key, Object value) {
+		if(value instanceof SaSession) {
+			log.warn("SaSession [{}] 因缓存容量超限被淘汰", key);
+		} else {
+			log.debug("数据 [{}] 因缓存容量超限被淘汰", key);
+		}
+	}
+
 	/**
 	 * 全局组件载入 
 	 * @param compName 组件名称
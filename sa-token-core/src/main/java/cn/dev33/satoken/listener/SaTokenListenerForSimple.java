@@ -82,5 +82,10 @@ public class SaTokenListenerForSimple implements SaTokenListener {
 
 	}
 
+	@Override
+	public void doEvictData(String key, Object value) {
+
+	}
+
 	
 }
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.router;
+
+import cn.dev33.satoken.annotation.SaMode;
+import cn.dev33.satoken.stp.StpUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 声明式路由规则：一组路由匹配符 -> 访问这些路由需要满足的条件（登录、角色、权限）
+ *
+ * <p> 可在配置文件中通过 sa-token.route-rules 配置，也可调用 SaRouteRuleRegistry.instance.load(rules) 在运行时整体替换 </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaRouteRule {
+
+	/**
+	 * 要匹配的路由匹配符，例如：/user/**
+	 */
+	private List<String> path = new ArrayList<>();
+
+	/**
+	 * 要排除的路由匹配符
+	 */
+	private List<String> excludePath = new ArrayList<>();
+
+	/**
+	 * 要匹配的请求方式，例如：GET、POST，不配置代表匹配所有请求方式
+	 */
+	private List<String> method = new ArrayList<>();
+
+	/**
+	 * 使用的账号体系，例如：login、user、admin
+	 */
+	private String loginType = StpUtil.TYPE;
+
+	/**
+	 * 是否需要登录（配置了角色、权限时，即使此项为 false 也需要登录）
+	 */
+	private Boolean checkLogin = false;
+
+	/**
+	 * 需要具有的角色
+	 */
+	private List<String> role = new ArrayList<>();
+
+	/**
+	 * 需要具有的权限
+	 */
+	private List<String> permission = new ArrayList<>();
+
+	/**
+	 * 配置了多个角色、权限时的验证模式：AND=必须全部具有，OR=具有其一即可
+	 */
+	private SaMode mode = SaMode.AND;
+
+	/**
+	 * @return 要匹配的路由匹配符，例如：/user/**
+	 */
+	public List<String> getPath() {
+		return path;
+	}
+
+	/**
+	 * @param path 要匹配的路由匹配符，例如：/user/**
+	 * @return 对象自身
+	 */
+	public SaRouteRule setPath(List<String> path) {
+		this.path = path;
+		return this;
+	}
+
+	/**
+	 * @return 要排除的路由匹配符
+	 */
+	public List<String> getExcludePath() {
+		return excludePath;
+	}
+
+	/**
+	 * @param excludePath 要排除的路由匹配符
+	 * @return 对象自身
+	 */
+	public SaRouteRule setExcludePath(List<String> excludePath) {
+		this.excludePath = excludePath;
+		return this;
+	}
+
+	/**
+	 * @return 要匹配的请求方式，例如：GET、POST，不配置代表匹配所有请求方式
+	 */
+	public List<String> getMethod() {
+		return method;
+	}
+
+	/**
+	 * @param method 要匹配的请求方式，例如：GET、POST，不配置代表匹配所有请求方式
+	 * @return 对象自身
+	 */
+	public SaRouteRule setMethod(List<String> method) {
+		this.method = method;
+		return this;
+	}
+
+	/**
+	 * @return 使用的账号体系，例如：login、user、admin
+	 */
+	public String getLoginType() {
+		return loginType;
+	}
+
+	/**
+	 * @param loginType 使用的账号体系，例如：login、user、admin
+	 * @return 对象自身
+	 */
+	public SaRouteRule setLoginType(String loginType) {
+		this.loginType = loginType;
+		return this;
+	}
+
+	/**
+	 * @return 是否需要登录（配置了角色、权限时，即使此项为 false 也需要登录）
+	 */
+	public Boolean getCheckLogin() {
+		return checkLogin;
+	}
+
+	/**
+	 * @param checkLogin 是否需要登录（配置了角色、权限时，即使此项为 false 也需要登录）
+	 * @return 对象自身
+	 */
+	public SaRouteRule setCheckLogin(Boolean checkLogin) {
+		this.checkLogin = checkLogin;
+		return this;
+	}
+
+	/**
+	 * @return 需要具有的角色
+	 */
+	public List<String> getRole() {
+		return role;
+	}
+
+	/**
+	 * @param role 需要具有的角色
+	 * @return 对象自身
+	 */
+	public SaRouteRule setRole(List<String> role) {
+		this.role = role;
+		return this;
+	}
+
+	/**
+	 * @return 需要具有的权限
+	 */
+	public List<String> getPermission() {
+		return permission;
+	}
+
+	/**
+	 * @param permission 需要具有的权限
+	 * @return 对象自身
+	 */
+	public SaRouteRule setPermission(List<String> permission) {
+		this.permission = permission;
+		return this;
+	}
+
+	/**
+	 * @return 配置了多个角色、权限时的验证模式：AND=必须全部具有，OR=具有其一即可
+	 */
+	public SaMode getMode() {
+		return mode;
+	}
+
+	/**
+	 * @param mode 配置了多个角色、权限时的验证模式：AND=必须全部具有，OR=具有其一即可
+	 * @return 对象自身
+	 */
+	public SaRouteRule setMode(SaMode mode) {
+		this.mode = mode;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "SaRouteRule ["
+				+ "path=" + path
+				+ ", excludePath=" + excludePath
+				+ ", method=" + method
+				+ ", loginType=" + loginType
+				+ ", checkLogin=" + checkLogin
+				+ ", role=" + role
+				+ ", permission=" + permission
+				+ ", mode=" + mode
+				+ "]";
+	}
+
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.router;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.annotation.SaMode;
+import cn.dev33.satoken.context.SaHolder;
+import cn.dev33.satoken.context.model.SaRequest;
+import cn.dev33.satoken.error.SaErrorCode;
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.stp.StpLogic;
+import cn.dev33.satoken.util.SaFoxUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 声明式路由规则注册表：将 SaRouteRule 列表编译为不可变的匹配结构，每次请求只需读取一次 volatile 引用即可完成匹配，
+ * 规则变化时整体编译出新结构后原子替换，无需重建拦截器，也不存在请求间的锁竞争
+ *
+ * <p> 规则来源有两种：</p>
+ * <ul>
+ *     <li>默认使用全局配置 sa-token.route-rules，配置中心刷新配置（替换了规则列表或列表长度发生变化）后，会在下一次请求时自动重新编译。</li>
+ *     <li>调用 load(rules) 手动加载，此后不再跟随全局配置，直到调用 reset()。</li>
+ * </ul>
+ *
+ * <p>
+ *     全局配置中的规则编译失败时（例如规则缺少 path），失败结果同样会被缓存，直到配置再次变化，不会在每次请求时重复编译：
+ *     如果此前有编译成功的规则，则继续沿用并打印警告日志；如果没有，则每次请求都抛出编译时的异常，而不是放行请求。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaRouteRuleRegistry {
+
+	/**
+	 * 全局默认实例
+	 */
+	public static SaRouteRuleRegistry instance = new SaRouteRuleRegistry();
+
+	/**
+	 * 当前生效的编译结果
+	 */
+	final AtomicReference<CompiledRules> compiled = new AtomicReference<>();
+
+	/**
+	 * 手动加载一组路由规则，编译成功后原子替换当前规则（编译失败时抛出异常，当前规则保持不变）
+	 *
+	 * @param rules 路由规则列表
+	 */
+	public void load(List<SaRouteRule> rules) {
+		this.compiled.set(new CompiledRules(rules, true));
+	}
+
+	/**
+	 * 放弃手动加载的规则，重新跟随全局配置 sa-token.route-rules
+	 */
+	public void reset() {
+		this.compiled.set(null);
+	}
+
+	/**
+	 * 获取当前生效的路由规则（编译时的副本）
+	 *
+	 * @return /
+	 */
+	public List<SaRouteRule> getRules() {
+		List<SaRouteRule> source = getCompiled().source;
+		return source == null ? Collections.emptyList() : Collections.unmodifiableList(source);
+	}
+
+	/**
+	 * 使用当前请求校验所有路由规则，未通过时抛出相应异常
+	 */
+	public void check() {
+		CompiledRules c = getCompiled();
+		if(c.rules.length == 0) {
+			return;
+		}
+		check(c, SaHolder.getRequest());
+	}
+
+	/**
+	 * 使用指定请求校验所有路由规则，未通过时抛出相应异常
+	 *
+	 * @param request 请求对象
+	 */
+	public void check(SaRequest request) {
+		check(getCompiled(), request);
+	}
+
+	/**
+	 * 逐个校验与请求匹配的路由规则
+	 *
+	 * @param c 编译结果
+	 * @param request 请求对象
+	 */
+	protected void check(CompiledRules c, SaRequest request) {
+		String path = request.getRequestPath();
+		String method = request.getMethod();
+		for (CompiledRule rule : c.rules) {
+			if(rule.isMatch(path, method)) {
+				rule.check();
+			}
+		}
+	}
+
+	/**
+	 * 获取当前生效的编译结果，如果跟随的全局配置已经变化，则重新编译
+	 *
+	 * @return /
+	 */
+	CompiledRules getCompiled() {
+		for (;;) {
+			CompiledRules c = this.compiled.get();
+			if(c != null && (c.manual || c.isFollow(SaManager.getConfig().getRouteRules()))) {
+				return c.ensureValid();
+			}
+			CompiledRules next = compileConfig(c);
+			// CAS 失败说明其它线程已经替换了编译结果（重新编译或手动加载），以最新的编译结果为准
+			if(this.compiled.compareAndSet(c, next)) {
+				return next.ensureValid();
+			}
+		}
+	}
+
+	/**
+	 * 编译全局配置中的路由规则，编译失败时保留上一次编译成功的规则，或者记录失败原因
+	 *
+	 * @param last 上一次的编译结果
+	 * @return /
+	 */
+	CompiledRules compileConfig(CompiledRules last) {
+		List<SaRouteRule> configRules = SaManager.getConfig().getRouteRules();
+		try {
+			return new CompiledRules(configRules, false);
+		} catch (RuntimeException e) {
+			CompiledRules lastGood = (last == null || last.manual || last.error != null) ? null : last;
+			if(lastGood != null) {
+				SaManager.getLog().warn("路由规则编译失败，继续沿用上一次编译成功的规则：" + e.getMessage());
+			} else {
+				SaManager.getLog().error("路由规则编译失败，所有请求将被拒绝，直到修正配置：" + e.getMessage());
+			}
+			return new CompiledRules(configRules, lastGood, e);
+		}
+	}
+
+	static int size(List<?> list) {
+		return list == null ? 0 : list.size();
+	}
+
+	/**
+	 * 一组路由规则的编译结果（不可变）
+	 */
+	static class CompiledRules {
+
+		/**
+		 * 编译时的规则来源（全局配置中的原始列表，用于判断配置是否已变化）
+		 */
+		final List<SaRouteRule> configRules;
+
+		/**
+		 * 编译时规则来源的长度
+		 */
+		final int configSize;
+
+		/**
+		 * 编译时的规则副本
+		 */
+		final List<SaRouteRule> source;
+
+		/**
+		 * 是否为手动加载
+		 */
+		final boolean manual;
+
+		/**
+		 * 编译后的规则
+		 */
+		final CompiledRule[] rules;
+
+		/**
+		 * 编译失败且没有可沿用的规则时，记录编译时的异常
+		 */
+		final RuntimeException error;
+
+		CompiledRules(List<SaRouteRule> rules, boolean manual) {
+			this.configRules = rules;
+			this.configSize = size(rules);
+			this.source = rules == null ? null : new ArrayList<>(rules);
+			this.manual = manual;
+			List<CompiledRule> list = new ArrayList<>();
+			if(source != null) {
+				for (SaRouteRule rule : source) {
+					list.add(new CompiledRule(rule));
+				}
+			}
+			this.rules = list.toArray(new CompiledRule[0]);
+			this.error = null;
+		}
+
+		/**
+		 * 构建一个编译失败的结果：跟随新的规则来源，沿用上一次编译成功的规则，或者记录编译时的异常
+		 *
+		 * @param rules 编译失败的规则来源
+		 * @param lastGood 上一次编译成功的结果，可以为 null
+		 * @param error 编译时的异常
+		 */
+		CompiledRules(List<SaRouteRule> rules, CompiledRules lastGood, RuntimeException error) {
+			this.configRules = rules;
+			this.configSize = size(rules);
+			this.source = lastGood == null ? null : lastGood.source;
+			this.manual = false;
+			this.rules = lastGood == null ? new CompiledRule[0] : lastGood.rules;
+			this.error = lastGood == null ? error : null;
+		}
+
+		/**
+		 * 判断此编译结果是否仍然跟随指定的规则来源
+		 *
+		 * @param rules 全局配置中的规则来源
+		 * @return /
+		 */
+		boolean isFollow(List<SaRouteRule> rules) {
+			return configRules == rules && configSize == size(rules);
+		}
+
+		/**
+		 * 如果编译失败且没有可沿用的规则，抛出编译时的异常
+		 *
+		 * @return 对象自身
+		 */
+		CompiledRules ensureValid() {
+			if(error != null) {
+				throw error;
+			}
+			return this;
+		}
+
+	}
+
+	/**
+	 * 单条路由规则的编译结果（不可变）
+	 */
+	static class CompiledRule {
+
+		final String[] path;
+		final SaRouteTrie pathTrie;
+		final String[] excludePath;
+		final SaRouteTrie excludePathTrie;
+		final SaHttpMethod[] method;
+		final String loginType;
+		final boolean checkLogin;
+		final String[] role;
+		final String[] permission;
+		final SaMode mode;
+
+		CompiledRule(SaRouteRule rule) {
+			if(rule == null || SaFoxUtil.isEmptyList(rule.getPath())) {
+				throw new SaTokenException("路由规则必须指定 path：" + rule).setCode(SaErrorCode.CODE_10331);
+			}
+			this.path = toArray(rule.getPath());
+			this.pathTrie = compile(rule.getPath());
+			this.excludePath = toArray(rule.getExcludePath());
+			this.excludePathTrie = compile(rule.getExcludePath());
+			this.method = SaFoxUtil.isEmptyList(rule.getMethod()) ? null : SaHttpMethod.toEnumArray(toArray(rule.getMethod()));
+			this.loginType = rule.getLoginType();
+			this.checkLogin = Boolean.TRUE.equals(rule.getCheckLogin());
+			this.role = toArray(rule.getRole());
+			this.permission = toArray(rule.getPermission());
+			this.mode = rule.getMode() == null ? SaMode.AND : rule.getMode();
+		}
+
+		/**
+		 * 判断请求是否与此规则匹配
+		 *
+		 * @param requestPath 请求路径
+		 * @param requestMethod 请求方式
+		 * @return /
+		 */
+		boolean isMatch(String requestPath, String requestMethod) {
+			if(method != null && ! SaRouter.isMatch(method, requestMethod)) {
+				return false;
+			}
+			if( ! isMatch(path, pathTrie, requestPath)) {
+				return false;
+			}
+			return ! isMatch(excludePath, excludePathTrie, requestPath);
+		}
+
+		/**
+		 * 执行此规则要求的校验
+		 */
+		void check() {
+			StpLogic stpLogic = SaManager.getStpLogic(loginType, false);
+			if(checkLogin) {
+				stpLogic.checkLogin();
+			}
+			if(role.length > 0 || permission.length > 0) {
+				stpLogic.checkRoleAndPermission(mode, role, permission);
+			}
+		}
+
+		static boolean isMatch(String[] patterns, SaRouteTrie trie, String requestPath) {
+			return trie != null && SaRouteTrie.isEnable() ? trie.isMatch(requestPath) : SaRouter.isMatch(patterns, requestPath);
+		}
+
+		static SaRouteTrie compile(List<String> patterns) {
+			if( ! SaRouteTrie.isEnable() || patterns == null || patterns.size() < SaRouteTrie.getCompileThreshold()) {
+				return null;
+			}
+			return new SaRouteTrie(patterns);
+		}
+
+		static String[] toArray(List<String> list) {
+			return list == null ? new String[0] : list.toArray(new String[0]);
+		}
+
+	}
+
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.router;
+
+import cn.dev33.satoken.error.SaErrorCode;
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.strategy.SaStrategy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 路由匹配符集合的预编译结构：按路由匹配符开头的字面量路径段构建前缀树，匹配时只需沿请求路径的各个路径段向下查找
+ *
+ * <p>
+ *     前缀树只负责筛选出 "可能匹配" 的候选路由匹配符，候选者仍交给 SaStrategy.instance.routeMatcher 做最终判断，
+ *     因此匹配结果与逐个调用 routeMatcher 完全一致，只是大量不可能匹配的路由匹配符无需再调用 routeMatcher。
+ * </p>
+ *
+ * <p>
+ *     例如：/user/**、/user/info、/admin/*.html 三个路由匹配符，请求路径 /user/info 只会对前两个调用 routeMatcher，
+ *     而以通配符开头的路由匹配符（例如 /**、*.js）对所有请求路径都是候选者。
+ * </p>
+ *
+ * <p>
+ *     为保证候选者只多不少：字面量路径段只包含字母、数字与 - _ ~ 字符，并且忽略大小写比较；请求路径中出现其它字符时（例如 . ; % 空格），
+ *     不同 routeMatcher 可能对其做后缀匹配、解码、去除矩阵变量等处理，此时直接逐个调用 routeMatcher，不使用前缀树。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaRouteTrie {
+
+	/**
+	 * 是否在 SaRouter 中使用前缀树进行匹配
+	 */
+	private static volatile boolean enable = true;
+
+	/**
+	 * 路由匹配符数量达到此值时，SaRouter 才使用预编译结构进行匹配，数量较少时直接逐个匹配反而更快
+	 */
+	private static volatile int compileThreshold = 8;
+
+	/**
+	 * 预编译结构的缓存上限，超出时随机淘汰一个
+	 */
+	private static volatile int cacheMaxSize = 256;
+
+	/**
+	 * 预编译结构缓存，路由匹配符集合（按对象引用区分） -> 预编译结构，或者 PENDING（只出现过一次，尚未编译）
+	 */
+	static final Map<IdentityKey, Object> CACHE = new ConcurrentHashMap<>();
+
+	/**
+	 * 缓存占位：集合第一次出现时只做记录，第二次出现时才编译，避免为每次请求都新建的集合做无用的编译
+	 */
+	static final Object PENDING = new Object();
+
+	/**
+	 * 根节点
+	 */
+	final Node root = new Node();
+
+	/**
+	 * 编译的路由匹配符集合（副本）
+	 */
+	final String[] patterns;
+
+	/**
+	 * 前缀树节点
+	 */
+	static class Node {
+
+		/**
+		 * 子节点，字面量路径段（小写） -> 节点
+		 */
+		final Map<String, Node> children = new HashMap<>();
+
+		/**
+		 * 字面量前缀到此节点为止、其后还有非字面量路径段的路由匹配符
+		 */
+		final List<String> prefixPatterns = new ArrayList<>();
+
+		/**
+		 * 全部由字面量组成、恰好在此节点结束的路由匹配符
+		 */
+		final List<String> exactPatterns = new ArrayList<>();
+
+	}
+
+	/**
+	 * 缓存 key：按对象引用区分路由匹配符集合，避免每次查找缓存都对集合内容计算 hashCode
+	 */
+	static class IdentityKey {
+
+		final Object target;
+
+		IdentityKey(Object target) {
+			this.target = target;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(target);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof IdentityKey && ((IdentityKey) obj).target == target;
+		}
+
+	}
+
+	/**
+	 * 编译一个路由匹配符集合
+	 *
+	 * @param patterns 路由匹配符集合
+	 */
+	public SaRouteTrie(List<String> patterns) {
+		this.patterns = patterns.toArray(new String[0]);
+		for (String pattern : this.patterns) {
+			add(pattern);
+		}
+	}
+
+	/**
+	 * 获取指定路由匹配符集合的预编译结构（同一个集合对象共用同一个预编译结构，集合内容变化后会自动重新编译）
+	 *
+	 * @param patterns 路由匹配符集合
+	 * @return /
+	 */
+	public static SaRouteTrie of(List<String> patterns) {
+		SaRouteTrie trie = lookup(patterns);
+		if(trie == null) {
+			trie = new SaRouteTrie(patterns);
+			putCache(new IdentityKey(patterns), trie);
+		}
+		return trie;
+	}
+
+	/**
+	 * 查找指定路由匹配符集合的预编译结构，查找不加锁：集合第一次出现时只做记录并返回 null，第二次出现时才编译
+	 *
+	 * @param patterns 路由匹配符集合
+	 * @return 尚未编译时返回 null
+	 */
+	public static SaRouteTrie lookup(List<String> patterns) {
+		IdentityKey key = new IdentityKey(patterns);
+		Object value = CACHE.get(key);
+		if(value instanceof SaRouteTrie && ((SaRouteTrie) value).isSnapshotOf(patterns)) {
+			return (SaRouteTrie) value;
+		}
+		if(value == null) {
+			putCache(key, PENDING);
+			return null;
+		}
+		// 第二次出现，或者集合内容已经变化：重新编译
+		SaRouteTrie trie = new SaRouteTrie(patterns);
+		putCache(key, trie);
+		return trie;
+	}
+
+	/**
+	 * 写入缓存，超出上限时随机淘汰一个
+	 *
+	 * @param key /
+	 * @param value /
+	 */
+	static void putCache(IdentityKey key, Object value) {
+		if(CACHE.size() >= cacheMaxSize && ! CACHE.containsKey(key)) {
+			Iterator<IdentityKey> it = CACHE.keySet().iterator();
+			if(it.hasNext()) {
+				it.next();
+				it.remove();
+			}
+		}
+		CACHE.put(key, value);
+	}
+
+	/**
+	 * 判断此预编译结构是否仍是指定集合的副本（只比较元素引用，不比较字符串内容）
+	 *
+	 * @param list 路由匹配符集合
+	 * @return /
+	 */
+	boolean isSnapshotOf(List<String> list) {
+		if(list.size() != patterns.length) {
+			return false;
+		}
+		int i = 0;
+		for (String pattern : list) {
+			if(pattern != patterns[i++]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 将一个路由匹配符加入前缀树
+	 *
+	 * @param pattern 路由匹配符
+	 */
+	void add(String pattern) {
+		if(pattern == null) {
+			return;
+		}
+		Node node = root;
+		for (String segment : splitPath(pattern)) {
+			if( ! isPlain(segment, false)) {
+				node.prefixPatterns.add(pattern);
+				return;
+			}
+			node = node.children.computeIfAbsent(toLowerCase(segment), k -> new Node());
+		}
+		node.exactPatterns.add(pattern);
+	}
+
+	/**
+	 * 判断请求路径是否与任意一个路由匹配符匹配
+	 *
+	 * @param path 请求路径
+	 * @return 是否匹配成功
+	 */
+	public boolean isMatch(String path) {
+		if(path == null) {
+			return false;
+		}
+		// 请求路径含有特殊字符时，不同 routeMatcher 的处理方式不一，直接逐个匹配
+		if( ! isPlain(path, true)) {
+			for (String pattern : patterns) {
+				if(pattern != null && SaStrategy.instance.routeMatcher.apply(pattern, path)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		Node node = root;
+		for (String segment : splitPath(path)) {
+			if(matchAny(node.prefixPatterns, path)) {
+				return true;
+			}
+			node = node.children.get(toLowerCase(segment));
+			if(node == null) {
+				return false;
+			}
+		}
+		return matchAny(node.prefixPatterns, path) || matchAny(node.exactPatterns, path);
+	}
+
+	/**
+	 * 获取编译的路由匹配符数量
+	 *
+	 * @return /
+	 */
+	public int getSize() {
+		return patterns.length;
+	}
+
+	/**
+	 * 逐个调用 routeMatcher 判断候选路由匹配符
+	 *
+	 * @param patterns 候选路由匹配符
+	 * @param path 请求路径
+	 * @return 是否匹配成功
+	 */
+	static boolean matchAny(List<String> patterns, String path) {
+		for (String pattern : patterns) {
+			if(SaStrategy.instance.routeMatcher.apply(pattern, path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 判断字符串是否只包含字母、数字与 - _ ~ 字符
+	 *
+	 * @param str 路径段或路径
+	 * @param allowSlash 是否允许出现 /
+	 * @return /
+	 */
+	static boolean isPlain(String str, boolean allowSlash) {
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			boolean plain = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+					|| c == '-' || c == '_' || c == '~' || (allowSlash && c == '/');
+			if( ! plain) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 转为小写（只处理 ASCII 字母，调用前已确认不含其它字母）
+	 *
+	 * @param segment 路径段
+	 * @return /
+	 */
+	static String toLowerCase(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if(c >= 'A' && c <= 'Z') {
+				char[] chars = segment.toCharArray();
+				for (int j = i; j < chars.length; j++) {
+					if(chars[j] >= 'A' && chars[j] <= 'Z') {
+						chars[j] = (char) (chars[j] + 32);
+					}
+				}
+				return new String(chars);
+			}
+		}
+		return segment;
+	}
+
+	/**
+	 * 按 / 拆分路径，忽略空的路径段
+	 *
+	 * @param path 路径
+	 * @return /
+	 */
+	static List<String> splitPath(String path) {
+		List<String> list = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i <= path.length(); i++) {
+			if(i == path.length() || path.charAt(i) == '/') {
+				if(i > start) {
+					list.add(path.substring(start, i));
+				}
+				start = i + 1;
+			}
+		}
+		return list;
+	}
+
+	// ------------------- 配置 -------------------
+
+	/**
+	 * 是否在 SaRouter 中使用前缀树进行匹配（默认开启）
+	 *
+	 * @return /
+	 */
+	public static boolean isEnable() {
+		return enable;
+	}
+
+	/**
+	 * 设置是否在 SaRouter 中使用前缀树进行匹配
+	 *
+	 * @param enable /
+	 */
+	public static void setEnable(boolean enable) {
+		SaRouteTrie.enable = enable;
+	}
+
+	/**
+	 * 获取路由匹配符数量达到多少时才使用预编译结构
+	 *
+	 * @return /
+	 */
+	public static int getCompileThreshold() {
+		return compileThreshold;
+	}
+
+	/**
+	 * 设置路由匹配符数量达到多少时才使用预编译结构（必须大于 0）
+	 *
+	 * @param compileThreshold /
+	 */
+	public static void setCompileThreshold(int compileThreshold) {
+		if(compileThreshold <= 0) {
+			throw new SaTokenException("compileThreshold 必须大于 0：" + compileThreshold).setCode(SaErrorCode.CODE_12402);
+		}
+		SaRouteTrie.compileThreshold = compileThreshold;
+	}
+
+	/**
+	 * 获取预编译结构的缓存上限
+	 *
+	 * @return /
+	 */
+	public static int getCacheMaxSize() {
+		return cacheMaxSize;
+	}
+
+	/**
+	 * 设置预编译结构的缓存上限（必须大于 0）
+	 *
+	 * @param cacheMaxSize /
+	 */
+	public static void setCacheMaxSize(int cacheMaxSize) {
+		if(cacheMaxSize <= 0) {
+			throw new SaTokenException("cacheMaxSize 必须大于 0：" + cacheMaxSize).setCode(SaErrorCode.CODE_12402);
+		}
+		SaRouteTrie.cacheMaxSize = cacheMaxSize;
+	}
+
+}
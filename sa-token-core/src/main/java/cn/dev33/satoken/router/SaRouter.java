@@ -68,6 +68,13 @@ public class SaRouter {
 		if(patterns == null) {
 			return false;
 		}
+		// 路由匹配符较多时，使用预编译的前缀树先筛选出候选者，避免对每个路由匹配符都调用一次 routeMatcher
+		if(SaRouteTrie.isEnable() && patterns.size() >= SaRouteTrie.getCompileThreshold()) {
+			SaRouteTrie trie = SaRouteTrie.lookup(patterns);
+			if(trie != null) {
+				return trie.isMatch(path);
+			}
+		}
 		for (String pattern : patterns) {
 			if(isMatch(pattern, path)) {
 				return true;
@@ -17,7 +17,9 @@ package cn.dev33.satoken.session;
 
 import cn.dev33.satoken.SaManager;
 import cn.dev33.satoken.application.SaSetValueInterface;
+import cn.dev33.satoken.dao.SaSessionFieldDao;
 import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.dao.SaTokenDaoForRequestMemo;
 import cn.dev33.satoken.fun.SaTwoParamFunction;
 import cn.dev33.satoken.listener.SaTokenEventCenter;
 import cn.dev33.satoken.util.SaFoxUtil;
@@ -354,6 +356,24 @@ public class SaSession implements SaSetValueInterface, Serializable {
 		}
 	}
 
+	/**
+	 * 批量移除终端信息 （无论移除多少个，最多只写入持久层一次）
+	 *
+	 * @param tokenValueList token值 集合
+	 */
+	public void removeTerminalList(Collection<String> tokenValueList) {
+		boolean removed = false;
+		for (String tokenValue : tokenValueList) {
+			SaTerminalInfo terminalInfo = getTerminal(tokenValue);
+			if (terminalList.remove(terminalInfo)) {
+				removed = true;
+			}
+		}
+		if (removed) {
+			update();
+		}
+	}
+
 	/**
 	 * 获取 当前账号历史总计登录设备数量 （当此 SaSession 属于 Account-Session 时，此值有效）
 	 *
@@ -404,16 +424,52 @@ public class SaSession implements SaSetValueInterface, Serializable {
 
 	// ----------------------- 一些操作
 
+	/**
+	 * 返回此 Session 读写时使用的持久化对象 （如果开启了请求级读缓存，则返回绑定在本次请求上的读缓存代理）
+	 *
+	 * @return /
+	 */
+	protected SaTokenDao currentSaTokenDao() {
+		return SaTokenDaoForRequestMemo.current(SaManager.getSaTokenDao());
+	}
+
 	/**
 	 * 更新Session（从持久库更新刷新一下）
 	 */
 	public void update() {
-		SaManager.getSaTokenDao().updateSession(this);
+		// 如果当前请求开启了延迟写入，则只标记为 "脏"，在请求结束时统一写入
+		if(SaSessionWriteBehind.markDirty(this)) {
+			return;
+		}
+		currentSaTokenDao().updateSession(this);
+	}
+
+	/**
+	 * 将单个挂载数据的变动写入持久库（如果持久层支持字段级写入，则只写入此字段，否则整体更新 Session）
+	 *
+	 * @param key 挂载数据的 key
+	 * @param value 新值，为 null 时代表删除此 key
+	 */
+	protected void updateField(String key, Object value) {
+		if(SaSessionWriteBehind.markDirty(this, key, value)) {
+			return;
+		}
+		SaTokenDao dao = currentSaTokenDao();
+		if(dao instanceof SaSessionFieldDao && ((SaSessionFieldDao) dao).isSessionFieldEnabled()) {
+			if(value == null) {
+				((SaSessionFieldDao) dao).deleteSessionField(this, key);
+			} else {
+				((SaSessionFieldDao) dao).setSessionField(this, key, value);
+			}
+			return;
+		}
+		dao.updateSession(this);
 	}
 
 	/** 注销Session (从持久库删除) */
 	public void logout() {
-		SaManager.getSaTokenDao().deleteSession(this.id);
+		SaSessionWriteBehind.discard(this.id);
+		currentSaTokenDao().deleteSession(this.id);
  		// $$ 发布事件 
 		SaTokenEventCenter.doLogoutSession(id);
 	}
@@ -430,7 +486,7 @@ public class SaSession implements SaSetValueInterface, Serializable {
 	 * @return 此Session的剩余存活时间 (单位: 秒)
 	 */
 	public long timeout() {
-		return SaManager.getSaTokenDao().getSessionTimeout(this.id);
+		return currentSaTokenDao().getSessionTimeout(this.id);
 	}
 	
 	/**
@@ -438,7 +494,7 @@ public class SaSession implements SaSetValueInterface, Serializable {
 	 * @param timeout 过期时间 (单位: 秒) 
 	 */
 	public void updateTimeout(long timeout) {
-		SaManager.getSaTokenDao().updateSessionTimeout(this.id, timeout);
+		currentSaTokenDao().updateSessionTimeout(this.id, timeout);
 	}
 	
 	/**
@@ -498,7 +554,7 @@ public class SaSession implements SaSetValueInterface, Serializable {
 	@Override
 	public SaSession set(String key, Object value) {
 		dataMap.put(key, value);
-		update();
+		updateField(key, value);
 		return this;
 	}
 
@@ -512,7 +568,7 @@ public class SaSession implements SaSetValueInterface, Serializable {
 	public SaSession setByNull(String key, Object value) {
 		if( ! has(key)) {
 			dataMap.put(key, value);
-			update();
+			updateField(key, value);
 		}
 		return this;
 	}
@@ -525,7 +581,7 @@ public class SaSession implements SaSetValueInterface, Serializable {
 	@Override
 	public SaSession delete(String key) {
 		dataMap.remove(key);
-		update();
+		updateField(key, null);
 		return this;
 	}
 
@@ -75,7 +75,7 @@ public class SaSessionCustomUtil {
 	 * @return SaSession 对象
 	 */
 	public static SaSession getSessionById(String sessionId, boolean isCreate) {
-		SaSession session = SaManager.getSaTokenDao().getSession(splicingSessionKey(sessionId));
+		SaSession session = SaSessionWriteBehind.getSession(SaManager.getSaTokenDao(), splicingSessionKey(sessionId));
 		if (session == null && isCreate) {
 			session = SaStrategy.instance.createSession.apply(splicingSessionKey(sessionId));
 			session.setType(SaTokenConsts.SESSION_TYPE__CUSTOM);
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.session;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.context.SaTokenContext;
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.util.SaTokenConsts;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SaSession 请求级延迟写入：同一次请求内对 SaSession 的多次修改只标记为 "脏"，在请求结束时统一写入一次持久层
+ *
+ * <p>
+ *     开启 sa-token.session-write-behind 后，由上下文过滤器在请求开始时调用 begin()，请求结束时调用 flush()；
+ *     没有经过上下文过滤器的调用（例如定时任务、未注册过滤器的请求）不会被延迟，仍然立即写入持久层。
+ * </p>
+ *
+ * <p>
+ *     注意：延迟写入期间，其它请求读取到的仍是修改前的数据，请求结束前如果进程异常退出，本次请求的修改将会丢失。
+ * </p>
+ *
+ * <p>
+ *     flush() 在响应处理完成之后才执行，并且每次写入的是整个 SaSession，因此并发请求修改同一个 SaSession 时 "后写入者覆盖先写入者" 的窗口，
+ *     会从立即写入时的一次写操作，扩大为整个请求的处理时长。对同一 SaSession 存在高并发修改的场景（例如同一账号多端同时操作 Account-Session），不建议开启此功能。
+ * </p>
+ *
+ * <p>
+ *     同一次请求内，如果同一个 SaSession 出现了多个实例（例如绕过框架直接从持久层读取），以第一个被标记的实例为准：
+ *     后续实例的单字段修改会合并到第一个实例上；整体更新时先将第一个实例立即写入，再以后续实例为准，并输出警告日志。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaSessionWriteBehind {
+
+	/**
+	 * 本次请求内被标记为 "脏" 的 SaSession，sessionId -> SaSession
+	 */
+	final Map<String, SaSession> dirtyMap = new LinkedHashMap<>();
+
+	/**
+	 * 在当前请求上开启延迟写入（未开启配置或不处于 Web 上下文中时不做任何处理）
+	 */
+	public static void begin() {
+		if( ! Boolean.TRUE.equals(SaManager.getConfig().getSessionWriteBehind())) {
+			return;
+		}
+		SaTokenContext context = SaManager.getSaTokenContext();
+		if(context.isValid()) {
+			context.getStorage().set(SaTokenConsts.SESSION_WRITE_BEHIND_KEY, new SaSessionWriteBehind());
+		}
+	}
+
+	/**
+	 * 获取当前请求上的延迟写入对象，当前请求未开启延迟写入时返回 null
+	 *
+	 * @return /
+	 */
+	public static SaSessionWriteBehind current() {
+		SaTokenContext context = SaManager.getSaTokenContext();
+		if( ! context.isValid()) {
+			return null;
+		}
+		Object value = context.getStorage().get(SaTokenConsts.SESSION_WRITE_BEHIND_KEY);
+		return value instanceof SaSessionWriteBehind ? (SaSessionWriteBehind) value : null;
+	}
+
+	/**
+	 * 将 SaSession 标记为 "脏"，等待请求结束时统一写入
+	 *
+	 * @param session /
+	 * @return 是否已被延迟（返回 false 时代表当前请求未开启延迟写入，调用方应立即写入持久层）
+	 */
+	public static boolean markDirty(SaSession session) {
+		SaSessionWriteBehind writeBehind = current();
+		if(writeBehind == null) {
+			return false;
+		}
+		SaSession first = writeBehind.dirtyMap.putIfAbsent(session.getId(), session);
+		if(first != null && first != session) {
+			// 无法得知两个实例各自修改了哪些数据，先将第一个实例写入，避免其修改被静默丢弃
+			SaManager.getLog().warn("同一次请求内 SaSession 出现了多个实例，延迟写入将先写入先前的实例，再以当前实例为准：" + session.getId());
+			first.currentSaTokenDao().updateSession(first);
+			writeBehind.dirtyMap.put(session.getId(), session);
+		}
+		return true;
+	}
+
+	/**
+	 * 将 SaSession 的单个挂载数据变动标记为 "脏"，如果本次请求内已有同一 SaSession 的其它实例被标记，则将此变动合并到该实例上
+	 *
+	 * @param session /
+	 * @param key 挂载数据的 key
+	 * @param value 新值，为 null 时代表删除此 key
+	 * @return 是否已被延迟（返回 false 时代表当前请求未开启延迟写入，调用方应立即写入持久层）
+	 */
+	public static boolean markDirty(SaSession session, String key, Object value) {
+		SaSessionWriteBehind writeBehind = current();
+		if(writeBehind == null) {
+			return false;
+		}
+		SaSession first = writeBehind.dirtyMap.putIfAbsent(session.getId(), session);
+		if(first != null && first != session) {
+			if(value == null) {
+				first.getDataMap().remove(key);
+			} else {
+				first.getDataMap().put(key, value);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 丢弃指定 SaSession 尚未写入的修改（SaSession 被注销时调用）
+	 *
+	 * @param sessionId /
+	 */
+	public static void discard(String sessionId) {
+		SaSessionWriteBehind writeBehind = current();
+		if(writeBehind != null) {
+			writeBehind.dirtyMap.remove(sessionId);
+		}
+	}
+
+	/**
+	 * 获取 SaSession：优先返回本次请求内尚未写入的 SaSession，保证同一次请求内读到的是修改后的数据
+	 *
+	 * @param dao 持久层
+	 * @param sessionId /
+	 * @return /
+	 */
+	public static SaSession getSession(SaTokenDao dao, String sessionId) {
+		SaSessionWriteBehind writeBehind = current();
+		if(writeBehind != null) {
+			SaSession session = writeBehind.dirtyMap.get(sessionId);
+			if(session != null) {
+				return session;
+			}
+		}
+		return dao.getSession(sessionId);
+	}
+
+	/**
+	 * 将本次请求内所有被标记为 "脏" 的 SaSession 写入持久层，每个 SaSession 只写入一次
+	 */
+	public static void flush() {
+		SaSessionWriteBehind writeBehind = current();
+		if(writeBehind == null || writeBehind.dirtyMap.isEmpty()) {
+			return;
+		}
+		List<SaSession> list = new ArrayList<>(writeBehind.dirtyMap.values());
+		writeBehind.dirtyMap.clear();
+		for (SaSession session : list) {
+			session.currentSaTokenDao().updateSession(session);
+		}
+	}
+
+	/**
+	 * 获取本次请求内被标记为 "脏" 的 SaSession 数量
+	 *
+	 * @return /
+	 */
+	public int getDirtyCount() {
+		return dirtyMap.size();
+	}
+
+}
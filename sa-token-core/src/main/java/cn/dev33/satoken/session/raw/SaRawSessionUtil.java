@@ -17,6 +17,7 @@ package cn.dev33.satoken.session.raw;
 
 import cn.dev33.satoken.SaManager;
 import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.session.SaSessionWriteBehind;
 import cn.dev33.satoken.strategy.SaStrategy;
 
 /**
@@ -62,7 +63,7 @@ public class SaRawSessionUtil {
 	 */
 	public static SaSession getSessionById(String type, Object valueId, boolean isCreate) {
 		String sessionId = splicingSessionKey(type, valueId);
-		SaSession session = SaManager.getSaTokenDao().getSession(sessionId);
+		SaSession session = SaSessionWriteBehind.getSession(SaManager.getSaTokenDao(), sessionId);
 		if (session == null && isCreate) {
 			session = SaStrategy.instance.createSession.apply(sessionId);
 			session.setType(type);
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.stp;
+
+import cn.dev33.satoken.config.SaTokenConfig;
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.dao.timedcache.SaMapPackageForConcurrentHashMap;
+import cn.dev33.satoken.dao.timedcache.SaTimedCache;
+import cn.dev33.satoken.fun.SaParamRetFunction;
+import cn.dev33.satoken.fun.SaRetGenericFunction;
+import cn.dev33.satoken.util.SaElementSet;
+import cn.dev33.satoken.util.SaFoxUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 权限码、角色码集合的本地缓存，包裹在 StpInterface 外层，每个 StpLogic 持有一份
+ *
+ * <p>
+ *     开启 sa-token.permission-cache-timeout 后，同一个账号的权限码、角色码集合在有效期内只会从 StpInterface 加载一次；
+ *     可调用 StpUtil.refreshPermission(loginId)、StpUtil.refreshRole(loginId) 主动丢弃缓存。
+ * </p>
+ *
+ * <p>
+ *     集群部署时可再开启 sa-token.permission-cache-use-dao，每个账号的缓存版本号将保存在 SaTokenDao 中，
+ *     任一节点调用 refresh 方法都会生成新的版本号，其它节点读取缓存时发现版本号不一致便会重新加载，从而实现全局失效。
+ * </p>
+ *
+ * <p>
+ *     本节点内还维护一组代数计数器：每次 refresh 都会使对应 key 的代数加一，
+ *     加载开始前记下代数，加载完成后若代数已变化，说明加载期间发生过刷新，加载结果只返回给本次调用方，不写入缓存。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaPermissionCache {
+
+	/**
+	 * 缓存类型：权限码
+	 */
+	public static final String TYPE_PERMISSION = "permission";
+
+	/**
+	 * 缓存类型：角色码
+	 */
+	public static final String TYPE_ROLE = "role";
+
+	/**
+	 * 所属的 StpLogic
+	 */
+	public final StpLogic stpLogic;
+
+	/**
+	 * 本地缓存，缓存类型 + ":" + loginId -> SaPermissionCacheEntry
+	 */
+	public final SaTimedCache localCache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+
+	/**
+	 * 代数计数器的槽位数
+	 */
+	static final int GENERATION_SLOTS = 64;
+
+	/**
+	 * 本地代数计数器，按缓存 key 的 hash 分槽，refresh 时对应槽位加一（不同 key 落在同一槽位时只会多丢弃一次写入，不影响正确性）
+	 */
+	final AtomicLongArray generations = new AtomicLongArray(GENERATION_SLOTS);
+
+	/**
+	 * 缓存项：版本号 + 不可修改的集合
+	 */
+	public static class SaPermissionCacheEntry {
+
+		/**
+		 * 加载时的版本号
+		 */
+		public final String version;
+
+		/**
+		 * 权限码或角色码集合
+		 */
+		public final List<String> list;
+
+		public SaPermissionCacheEntry(String version, List<String> list) {
+			this.version = version;
+			this.list = list;
+		}
+
+	}
+
+	/**
+	 * 构建一个权限缓存
+	 *
+	 * @param stpLogic 所属的 StpLogic
+	 * @param maxCount 本地缓存最多存储多少个集合（小于等于 0 代表不限制）
+	 */
+	public SaPermissionCache(StpLogic stpLogic, long maxCount) {
+		this.stpLogic = stpLogic;
+		if(maxCount > 0) {
+			// 本地缓存只是 StpInterface 数据的副本，被淘汰时无需发布全局事件
+			localCache.enableBound(maxCount, -1);
+			localCache.bound.evictListener = (key, value) -> {};
+		}
+	}
+
+	/**
+	 * 获取指定账号的集合，缓存不存在或版本号不一致时，调用 loader 重新加载
+	 *
+	 * @param type 缓存类型
+	 * @param loginId 账号id
+	 * @param loader 加载函数
+	 * @return 不可修改的集合
+	 */
+	public List<String> get(String type, Object loginId, SaRetGenericFunction<List<String>> loader) {
+		String cacheKey = type + ":" + loginId;
+		long generation = currentGeneration(cacheKey);
+		String version = currentVersion(type, loginId);
+		List<String> list = getCached(cacheKey, version);
+		if(list != null) {
+			return list;
+		}
+		return put(cacheKey, version, generation, loader.run());
+	}
+
+	/**
+	 * 获取指定账号的集合（异步），缓存不存在或版本号不一致时，调用 loader 重新加载，并在加载完成后写入缓存
+	 *
+	 * @param type 缓存类型
+	 * @param loginId 账号id
+	 * @param loader 异步加载函数
+	 * @return 不可修改的集合
+	 */
+	public CompletableFuture<List<String>> getAsync(String type, Object loginId, SaRetGenericFunction<CompletableFuture<List<String>>> loader) {
+		String cacheKey = type + ":" + loginId;
+		long generation = currentGeneration(cacheKey);
+		String version = currentVersion(type, loginId);
+		List<String> list = getCached(cacheKey, version);
+		if(list != null) {
+			return CompletableFuture.completedFuture(list);
+		}
+		return loader.run().thenApply(loaded -> put(cacheKey, version, generation, loaded));
+	}
+
+	/**
+	 * 批量获取多个账号的集合，只把缓存未命中的账号交给 loader 一次性加载（版本号也通过 SaTokenDao.getBatch 一次性读取）
+	 *
+	 * @param type 缓存类型
+	 * @param loginIds 账号id集合
+	 * @param loader 批量加载函数，参数为缓存未命中的账号id集合
+	 * @return 账号id -> 不可修改的集合 （顺序与 loginIds 一致）
+	 */
+	public Map<Object, List<String>> getBatch(String type, List<Object> loginIds, SaParamRetFunction<List<Object>, Map<Object, List<String>>> loader) {
+		long[] generationArr = new long[loginIds.size()];
+		for (int i = 0; i < loginIds.size(); i++) {
+			generationArr[i] = currentGeneration(type + ":" + loginIds.get(i));
+		}
+		List<String> versions = currentVersions(type, loginIds);
+		Map<Object, List<String>> map = new LinkedHashMap<>();
+		List<Object> missIds = new ArrayList<>();
+		for (int i = 0; i < loginIds.size(); i++) {
+			List<String> list = getCached(type + ":" + loginIds.get(i), versions.get(i));
+			if(list == null) {
+				missIds.add(loginIds.get(i));
+			}
+			map.put(loginIds.get(i), list);
+		}
+		if( ! missIds.isEmpty()) {
+			Map<Object, List<String>> loadedMap = loader.run(missIds);
+			for (int i = 0; i < loginIds.size(); i++) {
+				Object loginId = loginIds.get(i);
+				if(map.get(loginId) == null) {
+					map.put(loginId, put(type + ":" + loginId, versions.get(i), generationArr[i], loadedMap == null ? null : loadedMap.get(loginId)));
+				}
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * 读取本地缓存，版本号不一致时视为未命中
+	 *
+	 * @param cacheKey 缓存 key
+	 * @param version 当前版本号
+	 * @return 未命中时返回 null
+	 */
+	protected List<String> getCached(String cacheKey, String version) {
+		Object value = localCache.getObject(cacheKey);
+		if(value instanceof SaPermissionCacheEntry && ((SaPermissionCacheEntry) value).version.equals(version)) {
+			return ((SaPermissionCacheEntry) value).list;
+		}
+		return null;
+	}
+
+	/**
+	 * 写入本地缓存，如果加载期间发生过 refresh，则不写入
+	 *
+	 * @param cacheKey 缓存 key
+	 * @param version 加载时的版本号
+	 * @param generation 加载前读取的本地代数
+	 * @param loaded 加载到的集合
+	 * @return 不可修改的集合
+	 */
+	protected List<String> put(String cacheKey, String version, long generation, List<String> loaded) {
+		// 缓存的集合会被多次匹配，在写入时预编译一次，之后的 hasElement 直接使用
+		List<String> list = loaded == null ? Collections.emptyList() : SaElementSet.toCompiledList(loaded);
+		if(currentGeneration(cacheKey) != generation) {
+			return list;
+		}
+		SaPermissionCacheEntry entry = new SaPermissionCacheEntry(version, list);
+		localCache.setObject(cacheKey, entry, stpLogic.getConfigOrGlobal().getPermissionCacheTimeout());
+
+		// 写入后再检查一次：refresh 先增加代数再删除缓存，如果代数在检查与写入之间发生了变化，则由这里撤回刚刚写入的旧数据
+		if(currentGeneration(cacheKey) != generation && localCache.getObject(cacheKey) == entry) {
+			localCache.deleteObject(cacheKey);
+		}
+		return list;
+	}
+
+	/**
+	 * 获取指定缓存 key 当前的本地代数
+	 *
+	 * @param cacheKey 缓存 key
+	 * @return /
+	 */
+	protected long currentGeneration(String cacheKey) {
+		return generations.get(generationSlot(cacheKey));
+	}
+
+	/**
+	 * 计算缓存 key 所在的代数槽位
+	 *
+	 * @param cacheKey 缓存 key
+	 * @return /
+	 */
+	protected int generationSlot(String cacheKey) {
+		return (cacheKey.hashCode() & 0x7fffffff) % GENERATION_SLOTS;
+	}
+
+	/**
+	 * 丢弃指定账号的缓存（开启 permissionCacheUseDao 时，同时生成新的版本号，使所有节点的缓存失效）
+	 *
+	 * @param type 缓存类型
+	 * @param loginId 账号id
+	 */
+	public void refresh(String type, Object loginId) {
+		String cacheKey = type + ":" + loginId;
+		// 先增加代数再删除缓存，正在进行中的加载将不会把旧数据写回
+		generations.incrementAndGet(generationSlot(cacheKey));
+		localCache.deleteObject(cacheKey);
+		SaTokenConfig config = stpLogic.getConfigOrGlobal();
+		if(Boolean.TRUE.equals(config.getPermissionCacheUseDao())) {
+			// 版本号的存活时间须长于本地缓存，保证版本号过期时，所有在此之前加载的本地缓存都已经过期
+			long timeout = config.getPermissionCacheTimeout();
+			long versionTimeout = timeout == SaTokenDao.NEVER_EXPIRE ? SaTokenDao.NEVER_EXPIRE : timeout * 2;
+			stpLogic.getSaTokenDao().set(stpLogic.splicingKeyPermissionCacheVersion(type, loginId), SaFoxUtil.getRandomString(16), versionTimeout);
+		}
+	}
+
+	/**
+	 * 清空所有本地缓存
+	 */
+	public void clear() {
+		for (int i = 0; i < GENERATION_SLOTS; i++) {
+			generations.incrementAndGet(i);
+		}
+		new ArrayList<>(localCache.keySet()).forEach(localCache::deleteObject);
+	}
+
+	/**
+	 * 获取指定账号缓存当前的版本号（未开启 permissionCacheUseDao 时，版本号固定为空字符串）
+	 *
+	 * @param type 缓存类型
+	 * @param loginId 账号id
+	 * @return /
+	 */
+	public String currentVersion(String type, Object loginId) {
+		if( ! Boolean.TRUE.equals(stpLogic.getConfigOrGlobal().getPermissionCacheUseDao())) {
+			return "";
+		}
+		String version = stpLogic.getSaTokenDao().get(stpLogic.splicingKeyPermissionCacheVersion(type, loginId));
+		return version == null ? "" : version;
+	}
+
+	/**
+	 * 批量获取多个账号缓存当前的版本号
+	 *
+	 * @param type 缓存类型
+	 * @param loginIds 账号id集合
+	 * @return 与 loginIds 顺序一致的版本号集合
+	 */
+	public List<String> currentVersions(String type, List<Object> loginIds) {
+		List<String> versions = new ArrayList<>(loginIds.size());
+		if( ! Boolean.TRUE.equals(stpLogic.getConfigOrGlobal().getPermissionCacheUseDao())) {
+			for (int i = 0; i < loginIds.size(); i++) {
+				versions.add("");
+			}
+			return versions;
+		}
+		List<String> keys = new ArrayList<>(loginIds.size());
+		for (Object loginId : loginIds) {
+			keys.add(stpLogic.splicingKeyPermissionCacheVersion(type, loginId));
+		}
+		for (String version : stpLogic.getSaTokenDao().getBatch(keys)) {
+			versions.add(version == null ? "" : version);
+		}
+		return versions;
+	}
+
+}
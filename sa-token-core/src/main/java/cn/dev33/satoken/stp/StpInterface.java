@@ -17,7 +17,10 @@ package cn.dev33.satoken.stp;
 
 import cn.dev33.satoken.model.wrapperInfo.SaDisableWrapperInfo;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 权限数据源加载接口
@@ -50,6 +53,66 @@ public interface StpInterface {
 	 */
 	List<String> getRoleList(Object loginId, String loginType);
 
+	/**
+	 * 返回指定账号id所拥有的权限码集合（异步）
+	 *
+	 * <p> 默认在当前线程同步加载，如果你的数据源支持异步查询，可重写此方法，使权限码与角色标识的加载互相重叠 </p>
+	 *
+	 * @param loginId  账号id
+	 * @param loginType 账号类型
+	 * @return 该账号id具有的权限码集合
+	 */
+	default CompletableFuture<List<String>> getPermissionListAsync(Object loginId, String loginType) {
+		return CompletableFuture.completedFuture(getPermissionList(loginId, loginType));
+	}
+
+	/**
+	 * 返回指定账号id所拥有的角色标识集合（异步）
+	 *
+	 * <p> 默认在当前线程同步加载，如果你的数据源支持异步查询，可重写此方法，使权限码与角色标识的加载互相重叠 </p>
+	 *
+	 * @param loginId  账号id
+	 * @param loginType 账号类型
+	 * @return 该账号id具有的角色标识集合
+	 */
+	default CompletableFuture<List<String>> getRoleListAsync(Object loginId, String loginType) {
+		return CompletableFuture.completedFuture(getRoleList(loginId, loginType));
+	}
+
+	/**
+	 * 批量返回多个账号id所拥有的权限码集合
+	 *
+	 * <p> 默认逐个调用 getPermissionList，如果你的数据源支持批量查询（例如一条 SQL 查询多个账号），可重写此方法 </p>
+	 *
+	 * @param loginIds  账号id集合
+	 * @param loginType 账号类型
+	 * @return 账号id -> 该账号id具有的权限码集合（未包含的账号id视为没有任何权限码）
+	 */
+	default Map<Object, List<String>> getPermissionListBatch(List<Object> loginIds, String loginType) {
+		Map<Object, List<String>> map = new LinkedHashMap<>();
+		for (Object loginId : loginIds) {
+			map.put(loginId, getPermissionList(loginId, loginType));
+		}
+		return map;
+	}
+
+	/**
+	 * 批量返回多个账号id所拥有的角色标识集合
+	 *
+	 * <p> 默认逐个调用 getRoleList，如果你的数据源支持批量查询（例如一条 SQL 查询多个账号），可重写此方法 </p>
+	 *
+	 * @param loginIds  账号id集合
+	 * @param loginType 账号类型
+	 * @return 账号id -> 该账号id具有的角色标识集合（未包含的账号id视为没有任何角色）
+	 */
+	default Map<Object, List<String>> getRoleListBatch(List<Object> loginIds, String loginType) {
+		Map<Object, List<String>> map = new LinkedHashMap<>();
+		for (Object loginId : loginIds) {
+			map.put(loginId, getRoleList(loginId, loginType));
+		}
+		return map;
+	}
+
 	/**
 	 * 返回指定账号 id 是否被封禁
 	 *
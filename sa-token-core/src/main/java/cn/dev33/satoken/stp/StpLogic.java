@@ -16,6 +16,7 @@
 package cn.dev33.satoken.stp;
 
 import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.annotation.SaMode;
 import cn.dev33.satoken.config.SaCookieConfig;
 import cn.dev33.satoken.config.SaTokenConfig;
 import cn.dev33.satoken.context.SaHolder;
@@ -23,14 +24,18 @@ import cn.dev33.satoken.context.model.SaCookie;
 import cn.dev33.satoken.context.model.SaRequest;
 import cn.dev33.satoken.context.model.SaResponse;
 import cn.dev33.satoken.context.model.SaStorage;
+import cn.dev33.satoken.dao.SaCounterDao;
 import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.dao.SaTokenDaoForRequestMemo;
 import cn.dev33.satoken.error.SaErrorCode;
 import cn.dev33.satoken.exception.*;
 import cn.dev33.satoken.fun.SaFunction;
+import cn.dev33.satoken.fun.SaParamFunction;
 import cn.dev33.satoken.fun.SaTwoParamFunction;
 import cn.dev33.satoken.listener.SaTokenEventCenter;
 import cn.dev33.satoken.model.wrapperInfo.SaDisableWrapperInfo;
 import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.session.SaSessionWriteBehind;
 import cn.dev33.satoken.session.SaTerminalInfo;
 import cn.dev33.satoken.stp.parameter.SaLoginParameter;
 import cn.dev33.satoken.stp.parameter.SaLogoutParameter;
@@ -42,9 +47,17 @@ import cn.dev33.satoken.util.SaFoxUtil;
 import cn.dev33.satoken.util.SaTokenConsts;
 import cn.dev33.satoken.util.SaValue2Box;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 
 import static cn.dev33.satoken.exception.NotLoginException.*;
@@ -142,6 +155,24 @@ public class StpLogic {
 		return SaManager.getConfig();
 	}
 
+	private volatile SaPermissionCache permissionCache;
+
+	/**
+	 * 获取当前 StpLogic 使用的权限缓存（首次调用时创建）
+	 *
+	 * @return /
+	 */
+	public SaPermissionCache getPermissionCache() {
+		if(permissionCache == null) {
+			synchronized (this) {
+				if(permissionCache == null) {
+					permissionCache = new SaPermissionCache(this, getConfigOrGlobal().getPermissionCacheMaxCount());
+				}
+			}
+		}
+		return permissionCache;
+	}
+
 
 
 	// ------------------- 获取 token 相关 -------------------
@@ -457,11 +488,22 @@ public class StpLogic {
 	 * @param loginParameter 此次登录的参数Model
 	 */
 	public void login(Object id, SaLoginParameter loginParameter) {
+		// 0、如果开启了登录失败限制，则先检查此账号是否因失败次数过多而被锁定，登录成功后清除失败次数
+		boolean loginFailEnabled = getConfigOrGlobal().getLoginFailThreshold() > 0;
+		if(loginFailEnabled) {
+			checkLoginFail(id);
+		}
+
 		// 1、创建会话
 		String token = createLoginSession(id, loginParameter);
 
 		// 2、在当前客户端注入 token
 		setTokenValue(token, loginParameter);
+
+		// 3、清除失败次数
+		if(loginFailEnabled) {
+			clearLoginFail(id);
+		}
 	}
 
 	/**
@@ -915,9 +957,9 @@ public class StpLogic {
 		SaSession session = getSessionByLoginId(loginId, false);
 		if(session != null) {
 
-			// 2、遍历此 SaTerminalInfo 客户端列表，清除相关数据
-			List<SaTerminalInfo> terminalList = session.terminalListCopy();
-			for (SaTerminalInfo terminal: terminalList) {
+			// 2、遍历此 SaTerminalInfo 客户端列表，筛选出需要注销的客户端，批量清除相关数据
+			List<SaTerminalInfo> removeList = new ArrayList<>();
+			for (SaTerminalInfo terminal: session.terminalListCopy()) {
 				// 不符合 deviceType 的跳过
 				if( ! SaFoxUtil.isEmpty(logoutParameter.getDeviceType()) && ! logoutParameter.getDeviceType().equals(terminal.getDeviceType())) {
 					continue;
@@ -926,8 +968,9 @@ public class StpLogic {
 				if( ! SaFoxUtil.isEmpty(logoutParameter.getDeviceId()) && ! logoutParameter.getDeviceId().equals(terminal.getDeviceId())) {
 					continue;
 				}
-				_removeTerminal(session, terminal, logoutParameter);
+				removeList.add(terminal);
 			}
+			_removeTerminalList(session, removeList, logoutParameter);
 
 			// 3、如果代码走到这里的时候，此账号已经没有客户端在登录了，则直接注销掉这个 Account-Session
 			if(logoutParameter.getMode() == SaLogoutMode.REPLACED) {
@@ -1011,6 +1054,68 @@ public class StpLogic {
 		}
 	}
 
+	/**
+	 * 在 Account-Session 上批量移除 Terminal 信息 (内部方法，效果等同于对每个 Terminal 依次调用 _removeTerminal，
+	 * 但 Account-Session 只写入一次，token 相关数据通过 SaTokenDao 的批量方法一次性清理，以减少持久层的访问次数)
+	 *
+	 * @param session Account-Session
+	 * @param terminalList 设备信息集合
+	 * @param logoutParameter 注销参数
+	 */
+	public void _removeTerminalList(SaSession session, List<SaTerminalInfo> terminalList, SaLogoutParameter logoutParameter) {
+		if(terminalList.isEmpty()) {
+			return;
+		}
+		// 只有一个时直接走单个移除的逻辑
+		if(terminalList.size() == 1) {
+			_removeTerminal(session, terminalList.get(0), logoutParameter);
+			return;
+		}
+
+		Object loginId = session.getLoginId();
+		List<String> tokenValueList = new ArrayList<>();
+		for (SaTerminalInfo terminal : terminalList) {
+			tokenValueList.add(terminal.getTokenValue());
+		}
+
+		// 1、从 Account-Session 上清除这些设备信息
+		session.removeTerminalList(tokenValueList);
+
+		// 2、批量清除这些 token 的最后活跃时间记录
+		if(isOpenCheckActiveTimeout()) {
+			clearLastActiveBatch(tokenValueList);
+		}
+
+		// 3、批量清除这些 token 的 Token-Session 对象
+		if( ! logoutParameter.getIsKeepTokenSession()) {
+			deleteTokenSessionBatch(tokenValueList);
+		}
+
+		// 4、批量清理或更改 Token 映射
+		if(logoutParameter.getMode() == SaLogoutMode.LOGOUT) {
+			deleteTokenToIdMappingBatch(tokenValueList);
+		}
+		if(logoutParameter.getMode() == SaLogoutMode.KICKOUT) {
+			updateTokenToIdMappingBatch(tokenValueList, NotLoginException.KICK_OUT);
+		}
+		if(logoutParameter.getMode() == SaLogoutMode.REPLACED) {
+			updateTokenToIdMappingBatch(tokenValueList, NotLoginException.BE_REPLACED);
+		}
+
+		// 5、发布事件通知
+		for (String tokenValue : tokenValueList) {
+			if(logoutParameter.getMode() == SaLogoutMode.LOGOUT) {
+				SaTokenEventCenter.doLogout(loginType, loginId, tokenValue);
+			}
+			if(logoutParameter.getMode() == SaLogoutMode.KICKOUT) {
+				SaTokenEventCenter.doKickout(loginType, loginId, tokenValue);
+			}
+			if(logoutParameter.getMode() == SaLogoutMode.REPLACED) {
+				SaTokenEventCenter.doReplaced(loginType, loginId, tokenValue);
+			}
+		}
+	}
+
 	/**
 	 * 如果指定账号 id、设备类型的登录客户端已经超过了指定数量，则按照登录时间顺序，把最开始登录的给注销掉
 	 *
@@ -1034,8 +1139,8 @@ public class StpLogic {
 		List<SaTerminalInfo> list = session.getTerminalListByDeviceType(deviceType);
 
 		// 3、按照登录时间倒叙，超过 maxLoginCount 数量的，全部注销掉
-		for (int i = 0; i < list.size() - maxLoginCount; i++) {
-			_removeTerminal(session, list.get(i), createSaLogoutParameter().setMode(logoutMode));
+		if(list.size() > maxLoginCount) {
+			_removeTerminalList(session, list.subList(0, list.size() - maxLoginCount), createSaLogoutParameter().setMode(logoutMode));
 		}
 
 		// 4、如果代码走到这里的时候，此账号已经没有客户端在登录了，则直接注销掉这个 Account-Session
@@ -1338,6 +1443,50 @@ public class StpLogic {
 		getSaTokenDao().delete(splicingKeyTokenValue(tokenValue));
 	}
 
+	/**
+	 * 批量更改 token - id 映射关系
+	 *
+	 * <p> 如果子类重写了 updateTokenToIdMapping，则逐个调用 updateTokenToIdMapping，以保证自定义逻辑生效 </p>
+	 *
+	 * @param tokenValueList token值集合
+	 * @param loginId 新的账号Id值
+	 */
+	protected void updateTokenToIdMappingBatch(List<String> tokenValueList, Object loginId) {
+		if(isOverrideTokenHook("updateTokenToIdMapping")) {
+			for (String tokenValue : tokenValueList) {
+				updateTokenToIdMapping(tokenValue, loginId);
+			}
+			return;
+		}
+		SaTokenException.notTrue(SaFoxUtil.isEmpty(loginId), "loginId 不能为空", SaErrorCode.CODE_11003);
+		Map<String, String> updateMap = new LinkedHashMap<>();
+		for (String tokenValue : tokenValueList) {
+			updateMap.put(splicingKeyTokenValue(tokenValue), loginId.toString());
+		}
+		getSaTokenDao().updateBatch(updateMap);
+	}
+
+	/**
+	 * 批量删除 token - id 映射
+	 *
+	 * <p> 如果子类重写了 deleteTokenToIdMapping，则逐个调用 deleteTokenToIdMapping，以保证自定义逻辑生效 </p>
+	 *
+	 * @param tokenValueList token值集合
+	 */
+	protected void deleteTokenToIdMappingBatch(List<String> tokenValueList) {
+		if(isOverrideTokenHook("deleteTokenToIdMapping")) {
+			for (String tokenValue : tokenValueList) {
+				deleteTokenToIdMapping(tokenValue);
+			}
+			return;
+		}
+		List<String> keyList = new ArrayList<>();
+		for (String tokenValue : tokenValueList) {
+			keyList.add(splicingKeyTokenValue(tokenValue));
+		}
+		getSaTokenDao().deleteBatch(keyList);
+	}
+
 
 	// ------------------- Account-Session 相关 -------------------
 
@@ -1358,7 +1507,7 @@ public class StpLogic {
 		}
 
 		// 先检查这个 SaSession 是否已经存在，如果不存在且 isCreate=true，则新建并返回
-		SaSession session = getSaTokenDao().getSession(sessionId);
+		SaSession session = SaSessionWriteBehind.getSession(getSaTokenDao(), sessionId);
 
 		if(session == null && isCreate) {
 			// 创建这个 SaSession
@@ -1478,7 +1627,7 @@ public class StpLogic {
 
 		// 2、如果能查询到旧记录，则直接返回
 		String sessionId = splicingKeyTokenSession(tokenValue);
-		SaSession tokenSession = getSaTokenDao().getSession(sessionId);
+		SaSession tokenSession = SaSessionWriteBehind.getSession(getSaTokenDao(), sessionId);
 		if(tokenSession != null) {
 			return tokenSession;
 		}
@@ -1628,6 +1777,27 @@ public class StpLogic {
 		getSaTokenDao().delete(splicingKeyTokenSession(tokenValue));
 	}
 
+	/**
+	 * 批量删除指定 token 的 Token-Session
+	 *
+	 * <p> 如果子类重写了 deleteTokenSession，则逐个调用 deleteTokenSession，以保证自定义逻辑生效 </p>
+	 *
+	 * @param tokenValueList token值集合
+	 */
+	protected void deleteTokenSessionBatch(List<String> tokenValueList) {
+		if(isOverrideTokenHook("deleteTokenSession")) {
+			for (String tokenValue : tokenValueList) {
+				deleteTokenSession(tokenValue);
+			}
+			return;
+		}
+		List<String> keyList = new ArrayList<>();
+		for (String tokenValue : tokenValueList) {
+			keyList.add(splicingKeyTokenSession(tokenValue));
+		}
+		getSaTokenDao().deleteBatch(keyList);
+	}
+
 
 	// ------------------- Active-Timeout token 最低活跃度 验证相关 -------------------
 
@@ -1687,6 +1857,27 @@ public class StpLogic {
 		getSaTokenDao().delete(splicingKeyLastActiveTime(tokenValue));
 	}
 
+	/**
+	 * 批量清除指定 Token 的 [ 最后活跃时间记录 ]
+	 *
+	 * <p> 如果子类重写了 clearLastActive，则逐个调用 clearLastActive，以保证自定义逻辑生效 </p>
+	 *
+	 * @param tokenValueList token值集合
+	 */
+	protected void clearLastActiveBatch(List<String> tokenValueList) {
+		if(isOverrideTokenHook("clearLastActive")) {
+			for (String tokenValue : tokenValueList) {
+				clearLastActive(tokenValue);
+			}
+			return;
+		}
+		List<String> keyList = new ArrayList<>();
+		for (String tokenValue : tokenValueList) {
+			keyList.add(splicingKeyLastActiveTime(tokenValue));
+		}
+		getSaTokenDao().deleteBatch(keyList);
+	}
+
 	/**
 	 * 判断指定 token 是否已被冻结
 	 *
@@ -2024,9 +2215,54 @@ public class StpLogic {
 	 * @return /
 	 */
 	public List<String> getRoleList(Object loginId) {
+		// 如果开启了权限缓存，则在有效期内只从 StpInterface 加载一次
+		if(getConfigOrGlobal().getPermissionCacheTimeout() != 0) {
+			return getPermissionCache().get(SaPermissionCache.TYPE_ROLE, loginId, () -> SaManager.getStpInterface().getRoleList(loginId, loginType));
+		}
 		return SaManager.getStpInterface().getRoleList(loginId, loginType);
 	}
 
+	/**
+	 * 刷新：丢弃指定账号已缓存的角色集合，下次校验时重新从 StpInterface 加载（未开启权限缓存时调用此方法无任何效果）
+	 *
+	 * @param loginId 指定账号id
+	 */
+	public void refreshRole(Object loginId) {
+		getPermissionCache().refresh(SaPermissionCache.TYPE_ROLE, loginId);
+	}
+
+	/**
+	 * 获取：指定账号的角色集合（异步），可与其它数据的加载互相重叠，加载完成后同样会写入权限缓存
+	 *
+	 * @param loginId 指定账号id
+	 * @return /
+	 */
+	public CompletableFuture<List<String>> getRoleListAsync(Object loginId) {
+		if(getConfigOrGlobal().getPermissionCacheTimeout() != 0) {
+			return getPermissionCache().getAsync(SaPermissionCache.TYPE_ROLE, loginId, () -> SaManager.getStpInterface().getRoleListAsync(loginId, loginType));
+		}
+		return SaManager.getStpInterface().getRoleListAsync(loginId, loginType);
+	}
+
+	/**
+	 * 获取：多个账号的角色集合（批量），开启权限缓存时只加载缓存未命中的账号
+	 *
+	 * @param loginIds 账号id集合
+	 * @return 账号id -> 角色集合 （顺序与 loginIds 一致）
+	 */
+	public Map<Object, List<String>> getRoleListBatch(List<Object> loginIds) {
+		if(getConfigOrGlobal().getPermissionCacheTimeout() != 0) {
+			return getPermissionCache().getBatch(SaPermissionCache.TYPE_ROLE, loginIds, ids -> SaManager.getStpInterface().getRoleListBatch(ids, loginType));
+		}
+		Map<Object, List<String>> loadedMap = SaManager.getStpInterface().getRoleListBatch(loginIds, loginType);
+		Map<Object, List<String>> map = new LinkedHashMap<>();
+		for (Object loginId : loginIds) {
+			List<String> list = loadedMap == null ? null : loadedMap.get(loginId);
+			map.put(loginId, list == null ? Collections.emptyList() : list);
+		}
+		return map;
+	}
+
 	/**
 	 * 判断：当前账号是否拥有指定角色, 返回 true 或 false
 	 *
@@ -2162,9 +2398,54 @@ public class StpLogic {
 	 * @return /
 	 */
 	public List<String> getPermissionList(Object loginId) {
+		// 如果开启了权限缓存，则在有效期内只从 StpInterface 加载一次
+		if(getConfigOrGlobal().getPermissionCacheTimeout() != 0) {
+			return getPermissionCache().get(SaPermissionCache.TYPE_PERMISSION, loginId, () -> SaManager.getStpInterface().getPermissionList(loginId, loginType));
+		}
 		return SaManager.getStpInterface().getPermissionList(loginId, loginType);
 	}
 
+	/**
+	 * 刷新：丢弃指定账号已缓存的权限码集合，下次校验时重新从 StpInterface 加载（未开启权限缓存时调用此方法无任何效果）
+	 *
+	 * @param loginId 指定账号id
+	 */
+	public void refreshPermission(Object loginId) {
+		getPermissionCache().refresh(SaPermissionCache.TYPE_PERMISSION, loginId);
+	}
+
+	/**
+	 * 获取：指定账号的权限码集合（异步），可与其它数据的加载互相重叠，加载完成后同样会写入权限缓存
+	 *
+	 * @param loginId 指定账号id
+	 * @return /
+	 */
+	public CompletableFuture<List<String>> getPermissionListAsync(Object loginId) {
+		if(getConfigOrGlobal().getPermissionCacheTimeout() != 0) {
+			return getPermissionCache().getAsync(SaPermissionCache.TYPE_PERMISSION, loginId, () -> SaManager.getStpInterface().getPermissionListAsync(loginId, loginType));
+		}
+		return SaManager.getStpInterface().getPermissionListAsync(loginId, loginType);
+	}
+
+	/**
+	 * 获取：多个账号的权限码集合（批量），开启权限缓存时只加载缓存未命中的账号
+	 *
+	 * @param loginIds 账号id集合
+	 * @return 账号id -> 权限码集合 （顺序与 loginIds 一致）
+	 */
+	public Map<Object, List<String>> getPermissionListBatch(List<Object> loginIds) {
+		if(getConfigOrGlobal().getPermissionCacheTimeout() != 0) {
+			return getPermissionCache().getBatch(SaPermissionCache.TYPE_PERMISSION, loginIds, ids -> SaManager.getStpInterface().getPermissionListBatch(ids, loginType));
+		}
+		Map<Object, List<String>> loadedMap = SaManager.getStpInterface().getPermissionListBatch(loginIds, loginType);
+		Map<Object, List<String>> map = new LinkedHashMap<>();
+		for (Object loginId : loginIds) {
+			List<String> list = loadedMap == null ? null : loadedMap.get(loginId);
+			map.put(loginId, list == null ? Collections.emptyList() : list);
+		}
+		return map;
+	}
+
 	/**
 	 * 判断：当前账号是否含有指定权限, 返回 true 或 false
 	 *
@@ -2281,6 +2562,92 @@ public class StpLogic {
 		throw new NotPermissionException(permissionArray[0], this.loginType).setCode(SaErrorCode.CODE_11051);
 	}
 
+	/**
+	 * 校验：当前账号是否同时满足指定的角色要求与权限要求
+	 *
+	 * <p> 角色集合与权限码集合通过 StpInterface 的异步方法同时发起加载，数据源支持异步查询时，两次加载可以互相重叠 </p>
+	 *
+	 * @param mode 角色、权限各自的校验模式（AND=必须全部验证通过，OR=只要其一验证通过即可）
+	 * @param roleArray 角色标识数组
+	 * @param permissionArray 权限码数组
+	 */
+	public void checkRoleAndPermission(SaMode mode, String[] roleArray, String[] permissionArray) {
+		// 先获取当前是哪个账号id
+		Object loginId = getLoginId();
+
+		// 先同时发起两者的加载，再逐个校验
+		boolean isCheckRole = roleArray != null && roleArray.length > 0;
+		boolean isCheckPermission = permissionArray != null && permissionArray.length > 0;
+		CompletableFuture<List<String>> roleFuture = isCheckRole ? getRoleListAsync(loginId) : null;
+		CompletableFuture<List<String>> permissionFuture = isCheckPermission ? getPermissionListAsync(loginId) : null;
+
+		// 校验角色
+		if(isCheckRole) {
+			List<String> roleList = joinAsync(roleFuture);
+			if(mode == SaMode.OR) {
+				if( ! hasAnyElement(roleList, roleArray)) {
+					throw new NotRoleException(roleArray[0], this.loginType).setCode(SaErrorCode.CODE_11041);
+				}
+			} else {
+				for (String role : roleArray) {
+					if(!hasElement(roleList, role)) {
+						throw new NotRoleException(role, this.loginType).setCode(SaErrorCode.CODE_11041);
+					}
+				}
+			}
+		}
+
+		// 校验权限
+		if(isCheckPermission) {
+			List<String> permissionList = joinAsync(permissionFuture);
+			if(mode == SaMode.OR) {
+				if( ! hasAnyElement(permissionList, permissionArray)) {
+					throw new NotPermissionException(permissionArray[0], this.loginType).setCode(SaErrorCode.CODE_11051);
+				}
+			} else {
+				for (String permission : permissionArray) {
+					if(!hasElement(permissionList, permission)) {
+						throw new NotPermissionException(permission, this.loginType).setCode(SaErrorCode.CODE_11051);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 判断：集合中是否包含数组中的任意一个元素（模糊匹配）
+	 *
+	 * @param list 集合
+	 * @param elementArray 元素数组
+	 * @return /
+	 */
+	protected boolean hasAnyElement(List<String> list, String[] elementArray) {
+		for (String element : elementArray) {
+			if(hasElement(list, element)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 等待异步加载完成并返回结果，加载时抛出的异常原样抛出
+	 *
+	 * @param future 异步加载结果
+	 * @return /
+	 * @param <T> 结果类型
+	 */
+	protected <T> T joinAsync(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
 
 
 	// ------------------- id 反查 token 相关操作 -------------------
@@ -2539,6 +2906,36 @@ public class StpLogic {
 		return getSaTokenDao().searchData(splicingKeyTokenSession(""), (keyword == null ? "" : keyword), start, size, sortType);
 	}
 
+	/**
+	 * 遍历缓存中所有符合条件的 token（不排序、不分页，Redis 等实现使用 SCAN 游标分批遍历，适合数据量较大时使用）
+	 *
+	 * @param keyword 关键字
+	 * @param consumer 处理每个 token 的函数（参数为完整的缓存 key）
+	 */
+	public void scanTokenValue(String keyword, SaParamFunction<String> consumer) {
+		getSaTokenDao().scanData(splicingKeyTokenValue(""), (keyword == null ? "" : keyword), consumer);
+	}
+
+	/**
+	 * 遍历缓存中所有符合条件的 SessionId（不排序、不分页，Redis 等实现使用 SCAN 游标分批遍历，适合数据量较大时使用）
+	 *
+	 * @param keyword 关键字
+	 * @param consumer 处理每个 SessionId 的函数
+	 */
+	public void scanSessionId(String keyword, SaParamFunction<String> consumer) {
+		getSaTokenDao().scanData(splicingKeySession(""), (keyword == null ? "" : keyword), consumer);
+	}
+
+	/**
+	 * 遍历缓存中所有符合条件的 Token-Session-Id（不排序、不分页，Redis 等实现使用 SCAN 游标分批遍历，适合数据量较大时使用）
+	 *
+	 * @param keyword 关键字
+	 * @param consumer 处理每个 Token-Session-Id 的函数
+	 */
+	public void scanTokenSessionId(String keyword, SaParamFunction<String> consumer) {
+		getSaTokenDao().scanData(splicingKeyTokenSession(""), (keyword == null ? "" : keyword), consumer);
+	}
+
 
 	// ------------------- 账号封禁 -------------------
 
@@ -2807,6 +3204,171 @@ public class StpLogic {
 	}
 
 
+	// ------------------- 登录失败限制 -------------------
+
+	/**
+	 * 记录：指定账号登录失败一次，累计失败次数达到 loginFailThreshold 时自动锁定登录（锁定时长随失败次数指数增长）
+	 * <p> 未开启登录失败限制（loginFailThreshold=0）时调用此方法无任何效果
+	 *
+	 * @param loginId 账号id
+	 * @return 统计周期内累计的失败次数
+	 */
+	public long recordLoginFail(Object loginId) {
+		return recordLoginFailByService(loginId, SaTokenConsts.LOGIN_FAIL_DISABLE_SERVICE);
+	}
+
+	/**
+	 * 校验：指定账号是否因登录失败次数过多而被锁定，如果是则抛出异常（只读取一次持久层，无需查询用户数据）
+	 *
+	 * @param loginId 账号id
+	 */
+	public void checkLoginFail(Object loginId) {
+		checkLoginFailByService(loginId, SaTokenConsts.LOGIN_FAIL_DISABLE_SERVICE);
+	}
+
+	/**
+	 * 清除：指定账号的登录失败次数（不会解除已经生效的锁定）
+	 *
+	 * @param loginId 账号id
+	 */
+	public void clearLoginFail(Object loginId) {
+		getSaTokenDao().delete(splicingKeyLoginFail(loginId, SaTokenConsts.LOGIN_FAIL_DISABLE_SERVICE));
+	}
+
+	/**
+	 * 获取：指定账号在统计周期内累计的登录失败次数
+	 *
+	 * @param loginId 账号id
+	 * @return /
+	 */
+	public long getLoginFailCount(Object loginId) {
+		return getLoginFailCountByService(loginId, SaTokenConsts.LOGIN_FAIL_DISABLE_SERVICE);
+	}
+
+	/**
+	 * 校验：指定账号与 IP 是否因登录失败次数过多而被锁定，任一被锁定则抛出异常
+	 * <p> 请在校验密码之前调用：锁定期间不再比对密码，攻击者无法通过锁定期间的尝试判断密码是否正确
+	 *
+	 * @param loginId 账号id（为 null 时不校验）
+	 * @param ip 客户端 IP（为 null 时不校验）
+	 */
+	public void checkLoginFail(Object loginId, String ip) {
+		if(loginId != null) {
+			checkLoginFail(loginId);
+		}
+		if(ip != null) {
+			checkLoginFailByIp(ip);
+		}
+	}
+
+	/**
+	 * 记录：指定账号与 IP 各登录失败一次
+	 *
+	 * @param loginId 账号id（为 null 时不记录）
+	 * @param ip 客户端 IP（为 null 时不记录）
+	 * @return 账号与 IP 两者中较大的累计失败次数
+	 */
+	public long recordLoginFail(Object loginId, String ip) {
+		long count = loginId == null ? 0 : recordLoginFail(loginId);
+		long ipCount = ip == null ? 0 : recordLoginFailByIp(ip);
+		return Math.max(count, ipCount);
+	}
+
+	/**
+	 * 记录：指定 IP 登录失败一次，累计失败次数达到 loginFailThreshold 时自动锁定此 IP 的登录
+	 *
+	 * @param ip 客户端 IP
+	 * @return 统计周期内累计的失败次数
+	 */
+	public long recordLoginFailByIp(String ip) {
+		return recordLoginFailByService(ip, SaTokenConsts.LOGIN_FAIL_IP_DISABLE_SERVICE);
+	}
+
+	/**
+	 * 校验：指定 IP 是否因登录失败次数过多而被锁定，如果是则抛出异常
+	 *
+	 * @param ip 客户端 IP
+	 */
+	public void checkLoginFailByIp(String ip) {
+		checkLoginFailByService(ip, SaTokenConsts.LOGIN_FAIL_IP_DISABLE_SERVICE);
+	}
+
+	/**
+	 * 清除：指定 IP 的登录失败次数（不会解除已经生效的锁定）
+	 *
+	 * @param ip 客户端 IP
+	 */
+	public void clearLoginFailByIp(String ip) {
+		getSaTokenDao().delete(splicingKeyLoginFail(ip, SaTokenConsts.LOGIN_FAIL_IP_DISABLE_SERVICE));
+	}
+
+	/**
+	 * 记录：指定对象（账号id、IP 等）登录失败一次，达到阈值时使用指定的封禁服务锁定
+	 *
+	 * @param target 计数对象
+	 * @param service 锁定时使用的封禁服务
+	 * @return 统计周期内累计的失败次数
+	 */
+	public long recordLoginFailByService(Object target, String service) {
+		SaTokenConfig config = getConfigOrGlobal();
+		int threshold = config.getLoginFailThreshold();
+		if(threshold <= 0) {
+			return 0;
+		}
+
+		// 1、失败次数 +1，每次失败都重新开始计算统计周期（持久层支持时原子计数，并发失败不会丢失次数）
+		String key = splicingKeyLoginFail(target, service);
+		SaTokenDao dao = getSaTokenDao();
+		long count = (dao instanceof SaCounterDao) ?
+				((SaCounterDao) dao).increment(key, config.getLoginFailWindow()) :
+				SaCounterDao.incrementByGetSet(dao, key, config.getLoginFailWindow());
+
+		// 2、达到阈值后锁定，此后每多失败一次，锁定时长翻倍（永久锁定时无需翻倍）
+		if(count >= threshold) {
+			long lockTime = config.getLoginFailLockTime();
+			if(lockTime != SaTokenDao.NEVER_EXPIRE) {
+				int shift = (int) Math.min(count - threshold, 30);
+				lockTime = lockTime > (Long.MAX_VALUE >> shift) ? Long.MAX_VALUE : lockTime << shift;
+				long maxLockTime = config.getLoginFailMaxLockTime();
+				if(maxLockTime > 0 && lockTime > maxLockTime) {
+					lockTime = maxLockTime;
+				}
+			}
+			disable(target, service, lockTime);
+		}
+		return count;
+	}
+
+	/**
+	 * 校验：指定对象是否因登录失败次数过多而被锁定，如果是则抛出异常
+	 * <p> 锁定信息只由 recordLoginFailByService 写入缓存，因此这里只读缓存，不会回源 StpInterface#isDisabled 查询用户数据
+	 *
+	 * @param target 计数对象
+	 * @param service 锁定时使用的封禁服务
+	 */
+	public void checkLoginFailByService(Object target, String service) {
+		String value = getSaTokenDao().get(splicingKeyDisable(target, service));
+		if(SaFoxUtil.isEmpty(value)) {
+			return;
+		}
+		int disableLevel = SaFoxUtil.getValueByType(value, int.class);
+		throw new DisableServiceException(loginType, target, service, disableLevel, SaTokenConsts.MIN_DISABLE_LEVEL, getDisableTime(target, service))
+				.setCode(SaErrorCode.CODE_11061);
+	}
+
+	/**
+	 * 获取：指定对象在统计周期内累计的登录失败次数
+	 *
+	 * @param target 计数对象
+	 * @param service 锁定时使用的封禁服务
+	 * @return /
+	 */
+	public long getLoginFailCountByService(Object target, String service) {
+		String value = getSaTokenDao().get(splicingKeyLoginFail(target, service));
+		return SaFoxUtil.isEmpty(value) ? 0 : Long.parseLong(value);
+	}
+
+
 	// ------------------- 临时身份切换 -------------------
 
 	/**
@@ -3079,6 +3641,17 @@ public class StpLogic {
 		return SaTokenConsts.JUST_CREATED;
 	}
 
+	/**
+	 * 拼接： 在保存权限缓存版本号时，应该使用的 key
+	 *
+	 * @param type 缓存类型（permission、role）
+	 * @param loginId 账号id
+	 * @return key
+	 */
+	public String splicingKeyPermissionCacheVersion(String type, Object loginId) {
+		return getConfigOrGlobal().getTokenName() + ":" + loginType + ":" + type + "-cache-version:" + loginId;
+	}
+
 	/**
 	 * 拼接： 在保存服务封禁标记时，应该使用的 key
 	 *
@@ -3090,6 +3663,17 @@ public class StpLogic {
 		return getConfigOrGlobal().getTokenName() + ":" + loginType + ":disable:" + service + ":" + loginId;
 	}
 
+	/**
+	 * 拼接： 在保存登录失败次数时，应该使用的 key
+	 *
+	 * @param target 计数对象（账号id、IP 等）
+	 * @param service 锁定时使用的封禁服务
+	 * @return key
+	 */
+	public String splicingKeyLoginFail(Object target, String service) {
+		return getConfigOrGlobal().getTokenName() + ":" + loginType + ":login-fail-count:" + service + ":" + target;
+	}
+
 	/**
 	 * 拼接： 在保存业务二级认证标记时，应该使用的 key
 	 *
@@ -3107,12 +3691,12 @@ public class StpLogic {
 	// ------------------- Bean 对象、字段代理 -------------------
 
 	/**
-	 * 返回当前 StpLogic 使用的持久化对象
+	 * 返回当前 StpLogic 使用的持久化对象 （如果开启了请求级读缓存，则返回绑定在本次请求上的读缓存代理）
 	 *
 	 * @return /
 	 */
 	public SaTokenDao getSaTokenDao() {
-		return SaManager.getSaTokenDao();
+		return SaTokenDaoForRequestMemo.current(SaManager.getSaTokenDao());
 	}
 
 	/**
@@ -3195,6 +3779,46 @@ public class StpLogic {
 		return new SaLogoutParameter(getConfigOrGlobal());
 	}
 
+	/**
+	 * 判断：当前 StpLogic 的子类是否重写了指定的单个 token 钩子方法（结果按类缓存，不会在每次调用时反射）
+	 *
+	 * @param methodName 方法名称，取值见 TOKEN_HOOKS
+	 * @return /
+	 */
+	protected boolean isOverrideTokenHook(String methodName) {
+		return OVERRIDDEN_TOKEN_HOOKS.get(getClass()).contains(methodName);
+	}
+
+	/**
+	 * 批量方法所对应的单个 token 钩子方法：方法名称 -> 参数类型
+	 */
+	static final Map<String, Class<?>[]> TOKEN_HOOKS = new LinkedHashMap<>();
+	static {
+		TOKEN_HOOKS.put("updateTokenToIdMapping", new Class<?>[]{String.class, Object.class});
+		TOKEN_HOOKS.put("deleteTokenToIdMapping", new Class<?>[]{String.class});
+		TOKEN_HOOKS.put("deleteTokenSession", new Class<?>[]{String.class});
+		TOKEN_HOOKS.put("clearLastActive", new Class<?>[]{String.class});
+	}
+
+	/**
+	 * 每个 StpLogic 子类重写了哪些单个 token 钩子方法，每个类只计算一次
+	 */
+	static final ClassValue<Set<String>> OVERRIDDEN_TOKEN_HOOKS = new ClassValue<Set<String>>() {
+		@Override
+		protected Set<String> computeValue(Class<?> type) {
+			Set<String> set = new HashSet<>();
+			for (Class<?> c = type; c != StpLogic.class && c != null; c = c.getSuperclass()) {
+				for (Method method : c.getDeclaredMethods()) {
+					Class<?>[] parameterTypes = TOKEN_HOOKS.get(method.getName());
+					if(parameterTypes != null && Arrays.equals(parameterTypes, method.getParameterTypes())) {
+						set.add(method.getName());
+					}
+				}
+			}
+			return set;
+		}
+	};
+
 
 
 	// ------------------- 过期方法 -------------------
@@ -16,7 +16,9 @@
 package cn.dev33.satoken.stp;
 
 import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.annotation.SaMode;
 import cn.dev33.satoken.fun.SaFunction;
+import cn.dev33.satoken.fun.SaParamFunction;
 import cn.dev33.satoken.fun.SaTwoParamFunction;
 import cn.dev33.satoken.listener.SaTokenEventCenter;
 import cn.dev33.satoken.session.SaSession;
@@ -25,6 +27,8 @@ import cn.dev33.satoken.stp.parameter.SaLoginParameter;
 import cn.dev33.satoken.stp.parameter.SaLogoutParameter;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Sa-Token 权限认证工具类
@@ -777,6 +781,35 @@ public class StpUtil {
 		return stpLogic.getRoleList(loginId);
 	}
 
+	/**
+	 * 刷新：丢弃指定账号已缓存的角色集合，下次校验时重新从 StpInterface 加载（未开启权限缓存时调用此方法无任何效果）
+	 *
+	 * @param loginId 指定账号id
+	 */
+	public static void refreshRole(Object loginId) {
+		stpLogic.refreshRole(loginId);
+	}
+
+	/**
+	 * 获取：指定账号的角色集合（异步）
+	 *
+	 * @param loginId 指定账号id
+	 * @return /
+	 */
+	public static CompletableFuture<List<String>> getRoleListAsync(Object loginId) {
+		return stpLogic.getRoleListAsync(loginId);
+	}
+
+	/**
+	 * 获取：多个账号的角色集合（批量）
+	 *
+	 * @param loginIds 账号id集合
+	 * @return 账号id -> 角色集合
+	 */
+	public static Map<Object, List<String>> getRoleListBatch(List<Object> loginIds) {
+		return stpLogic.getRoleListBatch(loginIds);
+	}
+
 	/**
 	 * 判断：当前账号是否拥有指定角色, 返回 true 或 false
 	 *
@@ -867,6 +900,35 @@ public class StpUtil {
 		return stpLogic.getPermissionList(loginId);
 	}
 
+	/**
+	 * 刷新：丢弃指定账号已缓存的权限码集合，下次校验时重新从 StpInterface 加载（未开启权限缓存时调用此方法无任何效果）
+	 *
+	 * @param loginId 指定账号id
+	 */
+	public static void refreshPermission(Object loginId) {
+		stpLogic.refreshPermission(loginId);
+	}
+
+	/**
+	 * 获取：指定账号的权限码集合（异步）
+	 *
+	 * @param loginId 指定账号id
+	 * @return /
+	 */
+	public static CompletableFuture<List<String>> getPermissionListAsync(Object loginId) {
+		return stpLogic.getPermissionListAsync(loginId);
+	}
+
+	/**
+	 * 获取：多个账号的权限码集合（批量）
+	 *
+	 * @param loginIds 账号id集合
+	 * @return 账号id -> 权限码集合
+	 */
+	public static Map<Object, List<String>> getPermissionListBatch(List<Object> loginIds) {
+		return stpLogic.getPermissionListBatch(loginIds);
+	}
+
 	/**
 	 * 判断：当前账号是否含有指定权限, 返回 true 或 false
 	 *
@@ -935,6 +997,17 @@ public class StpUtil {
 		stpLogic.checkPermissionOr(permissionArray);
 	}
 
+	/**
+	 * 校验：当前账号是否同时满足指定的角色要求与权限要求（角色集合与权限码集合同时发起加载）
+	 *
+	 * @param mode 角色、权限各自的校验模式（AND=必须全部验证通过，OR=只要其一验证通过即可）
+	 * @param roleArray 角色标识数组
+	 * @param permissionArray 权限码数组
+	 */
+	public static void checkRoleAndPermission(SaMode mode, String[] roleArray, String[] permissionArray) {
+		stpLogic.checkRoleAndPermission(mode, roleArray, permissionArray);
+	}
+
 
 	// ------------------- id 反查 token 相关操作 -------------------
 
@@ -1131,6 +1204,36 @@ public class StpUtil {
 		return stpLogic.searchTokenSessionId(keyword, start, size, sortType);
 	}
 
+	/**
+	 * 遍历缓存中所有符合条件的 token（不排序、不分页，Redis 等实现使用 SCAN 游标分批遍历，适合数据量较大时使用）
+	 *
+	 * @param keyword 关键字
+	 * @param consumer 处理每个 token 的函数（参数为完整的缓存 key）
+	 */
+	public static void scanTokenValue(String keyword, SaParamFunction<String> consumer) {
+		stpLogic.scanTokenValue(keyword, consumer);
+	}
+
+	/**
+	 * 遍历缓存中所有符合条件的 SessionId（不排序、不分页，Redis 等实现使用 SCAN 游标分批遍历，适合数据量较大时使用）
+	 *
+	 * @param keyword 关键字
+	 * @param consumer 处理每个 SessionId 的函数
+	 */
+	public static void scanSessionId(String keyword, SaParamFunction<String> consumer) {
+		stpLogic.scanSessionId(keyword, consumer);
+	}
+
+	/**
+	 * 遍历缓存中所有符合条件的 Token-Session-Id（不排序、不分页，Redis 等实现使用 SCAN 游标分批遍历，适合数据量较大时使用）
+	 *
+	 * @param keyword 关键字
+	 * @param consumer 处理每个 Token-Session-Id 的函数
+	 */
+	public static void scanTokenSessionId(String keyword, SaParamFunction<String> consumer) {
+		stpLogic.scanTokenSessionId(keyword, consumer);
+	}
+
 	
 	// ------------------- 账号封禁 -------------------  
 
@@ -1241,6 +1344,96 @@ public class StpUtil {
 	}
 
 
+	// ------------------- 登录失败限制 -------------------
+
+	/**
+	 * 记录：指定账号登录失败一次，累计失败次数达到 loginFailThreshold 时自动锁定登录（锁定时长随失败次数指数增长）
+	 *
+	 * @param loginId 账号id
+	 * @return 统计周期内累计的失败次数
+	 */
+	public static long recordLoginFail(Object loginId) {
+		return stpLogic.recordLoginFail(loginId);
+	}
+
+	/**
+	 * 校验：指定账号是否因登录失败次数过多而被锁定，如果是则抛出异常
+	 *
+	 * @param loginId 账号id
+	 */
+	public static void checkLoginFail(Object loginId) {
+		stpLogic.checkLoginFail(loginId);
+	}
+
+	/**
+	 * 清除：指定账号的登录失败次数（不会解除已经生效的锁定）
+	 *
+	 * @param loginId 账号id
+	 */
+	public static void clearLoginFail(Object loginId) {
+		stpLogic.clearLoginFail(loginId);
+	}
+
+	/**
+	 * 获取：指定账号在统计周期内累计的登录失败次数
+	 *
+	 * @param loginId 账号id
+	 * @return /
+	 */
+	public static long getLoginFailCount(Object loginId) {
+		return stpLogic.getLoginFailCount(loginId);
+	}
+
+	/**
+	 * 校验：指定账号与 IP 是否因登录失败次数过多而被锁定，任一被锁定则抛出异常（请在校验密码之前调用）
+	 *
+	 * @param loginId 账号id（为 null 时不校验）
+	 * @param ip 客户端 IP（为 null 时不校验）
+	 */
+	public static void checkLoginFail(Object loginId, String ip) {
+		stpLogic.checkLoginFail(loginId, ip);
+	}
+
+	/**
+	 * 记录：指定账号与 IP 各登录失败一次
+	 *
+	 * @param loginId 账号id（为 null 时不记录）
+	 * @param ip 客户端 IP（为 null 时不记录）
+	 * @return 账号与 IP 两者中较大的累计失败次数
+	 */
+	public static long recordLoginFail(Object loginId, String ip) {
+		return stpLogic.recordLoginFail(loginId, ip);
+	}
+
+	/**
+	 * 记录：指定 IP 登录失败一次，累计失败次数达到 loginFailThreshold 时自动锁定此 IP 的登录
+	 *
+	 * @param ip 客户端 IP
+	 * @return 统计周期内累计的失败次数
+	 */
+	public static long recordLoginFailByIp(String ip) {
+		return stpLogic.recordLoginFailByIp(ip);
+	}
+
+	/**
+	 * 校验：指定 IP 是否因登录失败次数过多而被锁定，如果是则抛出异常
+	 *
+	 * @param ip 客户端 IP
+	 */
+	public static void checkLoginFailByIp(String ip) {
+		stpLogic.checkLoginFailByIp(ip);
+	}
+
+	/**
+	 * 清除：指定 IP 的登录失败次数（不会解除已经生效的锁定）
+	 *
+	 * @param ip 客户端 IP
+	 */
+	public static void clearLoginFailByIp(String ip) {
+		stpLogic.clearLoginFailByIp(ip);
+	}
+
+
 	// ------------------- 阶梯封禁 -------------------  
 
 	/**
@@ -22,7 +22,10 @@ import cn.dev33.satoken.listener.SaTokenEventCenter;
 import cn.dev33.satoken.router.SaRouter;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Sa-Token 注解鉴权相关策略
@@ -61,6 +64,7 @@ public final class SaAnnotationStrategy {
 		annotationHandlerMap.put(SaCheckHttpBasic.class, new SaCheckHttpBasicHandler());
 		annotationHandlerMap.put(SaCheckHttpDigest.class, new SaCheckHttpDigestHandler());
 		annotationHandlerMap.put(SaCheckOr.class, new SaCheckOrHandler());
+		clearCheckPlanCache();
 	}
 
 	/**
@@ -68,6 +72,7 @@ public final class SaAnnotationStrategy {
 	 */
 	public void registerAnnotationHandler(SaAnnotationHandlerInterface<?> handler) {
 		annotationHandlerMap.put(handler.getHandlerAnnotationClass(), handler);
+		clearCheckPlanCache();
 		SaTokenEventCenter.doRegisterAnnotationHandler(handler);
 	}
 
@@ -79,6 +84,7 @@ public final class SaAnnotationStrategy {
 		newMap.put(handler.getHandlerAnnotationClass(), handler);
 		newMap.putAll(annotationHandlerMap);
 		this.annotationHandlerMap = newMap;
+		clearCheckPlanCache();
 		SaTokenEventCenter.doRegisterAnnotationHandler(handler);
 	}
 
@@ -87,6 +93,83 @@ public final class SaAnnotationStrategy {
 	 */
 	public void removeAnnotationHandler(Class<?> cls) {
 		annotationHandlerMap.remove(cls);
+		clearCheckPlanCache();
+	}
+
+	/**
+	 * 注解校验计划缓存，Method -> 预先解析好的校验计划
+	 *
+	 * <p> 注解处理器集合变动时会自动清空；如果在运行期间替换了 getAnnotation 等策略函数，请手动调用 clearCheckPlanCache() </p>
+	 */
+	public final Map<Method, SaAnnotationCheckPlan> checkPlanCache = new ConcurrentHashMap<>();
+
+	/**
+	 * 清空注解校验计划缓存
+	 */
+	public void clearCheckPlanCache() {
+		checkPlanCache.clear();
+	}
+
+	/**
+	 * 获取一个 [Method] 对象的注解校验计划，首次获取时解析并缓存
+	 *
+	 * @param method /
+	 * @return /
+	 */
+	public SaAnnotationCheckPlan getCheckPlan(Method method) {
+		SaAnnotationCheckPlan plan = checkPlanCache.get(method);
+		if(plan == null) {
+			plan = buildCheckPlan(method);
+			checkPlanCache.put(method, plan);
+		}
+		return plan;
+	}
+
+	/**
+	 * 解析一个 [Method] 对象的注解校验计划，解析顺序与 checkElementAnnotation 完全一致：先 Class 后 Method
+	 *
+	 * @param method /
+	 * @return /
+	 */
+	public SaAnnotationCheckPlan buildCheckPlan(Method method) {
+		if(isAnnotationPresent.apply(method, SaIgnore.class)) {
+			return SaAnnotationCheckPlan.IGNORE;
+		}
+		List<SaAnnotationCheckPlan.Item> items = new ArrayList<>();
+		addCheckPlanItems(items, method.getDeclaringClass());
+		addCheckPlanItems(items, method);
+		return new SaAnnotationCheckPlan(false, items);
+	}
+
+	/**
+	 * 解析一个 [Element] 对象上需要执行的校验项
+	 *
+	 * @param items 校验项集合
+	 * @param element /
+	 */
+	@SuppressWarnings("unchecked")
+	protected void addCheckPlanItems(List<SaAnnotationCheckPlan.Item> items, AnnotatedElement element) {
+		List<Class<? extends Annotation>> ignoreClassList = new ArrayList<>();
+		SaCheckOr checkOr = (SaCheckOr)getAnnotation.apply(element, SaCheckOr.class);
+		if(checkOr != null) {
+			ignoreClassList = Arrays.asList(checkOr.append());
+		}
+		for (Map.Entry<Class<?>, SaAnnotationHandlerInterface<?>> entry: annotationHandlerMap.entrySet()) {
+			Class<Annotation> atClass = (Class<Annotation>)entry.getKey();
+			if(ignoreClassList.contains(atClass)) {
+				continue;
+			}
+			Annotation annotation = getAnnotation.apply(element, atClass);
+			if(annotation == null) {
+				continue;
+			}
+			// 默认的 @SaCheckOr 处理器：预先展开其候选注解，运行时不再读取 append 指定的注解
+			List<Annotation> orAnnotationList = null;
+			if(entry.getValue().getClass() == SaCheckOrHandler.class) {
+				orAnnotationList = SaCheckOrHandler.getAnnotationList((SaCheckOr) annotation, element);
+			}
+			items.add(new SaAnnotationCheckPlan.Item(entry.getValue(), annotation, element, orAnnotationList));
+		}
 	}
 
 	/**
@@ -94,6 +177,12 @@ public final class SaAnnotationStrategy {
 	 */
 	public SaCheckMethodAnnotationFunction checkMethodAnnotation = (method) -> {
 
+		// 未替换 checkElementAnnotation 时，直接执行预先解析好的校验计划，避免每次请求都反射读取注解
+		if(instance.checkElementAnnotation == instance.defaultCheckElementAnnotation) {
+			instance.getCheckPlan(method).check();
+			return;
+		}
+
 		// 如果 Method 或其所属 Class 上有 @SaIgnore 注解，则直接跳过整个校验过程
 		if(instance.isAnnotationPresent.apply(method, SaIgnore.class)) {
 			SaRouter.stop();
@@ -107,10 +196,10 @@ public final class SaAnnotationStrategy {
 	};
 
 	/**
-	 * 对一个 [Element] 对象进行注解校验 （注解鉴权内部实现）
+	 * 默认的 [Element] 注解校验函数，checkElementAnnotation 未被替换时，checkMethodAnnotation 会改为执行等价的校验计划
 	 */
 	@SuppressWarnings("unchecked")
-	public SaCheckElementAnnotationFunction checkElementAnnotation = (element) -> {
+	private final SaCheckElementAnnotationFunction defaultCheckElementAnnotation = (element) -> {
 		// 如果此元素上标注了 @SaCheckOr，则必须在后续判断中忽略掉其指定的 append() 类型注解判断
 		List<Class<? extends Annotation>> ignoreClassList = new ArrayList<>();
 		SaCheckOr checkOr = (SaCheckOr)instance.getAnnotation.apply(element, SaCheckOr.class);
@@ -132,6 +221,11 @@ public final class SaAnnotationStrategy {
 		}
 	};
 
+	/**
+	 * 对一个 [Element] 对象进行注解校验 （注解鉴权内部实现）
+	 */
+	public SaCheckElementAnnotationFunction checkElementAnnotation = defaultCheckElementAnnotation;
+
 	/**
 	 * 从元素上获取注解
 	 */
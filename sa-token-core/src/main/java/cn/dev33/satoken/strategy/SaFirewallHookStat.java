@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.strategy;
+
+import cn.dev33.satoken.strategy.hooks.SaFirewallCheckHook;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 防火墙校验 hook 的执行统计：执行次数、拦截次数、累计耗时
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaFirewallHookStat {
+
+	/**
+	 * 对应的 hook
+	 */
+	public final SaFirewallCheckHook hook;
+
+	/**
+	 * 执行次数
+	 */
+	final LongAdder invokeCount = new LongAdder();
+
+	/**
+	 * 拦截次数（抛出异常的次数，白名单放行不计入）
+	 */
+	final LongAdder rejectCount = new LongAdder();
+
+	/**
+	 * 累计耗时（单位: 纳秒）
+	 */
+	final LongAdder totalNanos = new LongAdder();
+
+	public SaFirewallHookStat(SaFirewallCheckHook hook) {
+		this.hook = hook;
+	}
+
+	/**
+	 * 记录一次执行
+	 *
+	 * @param nanos 本次耗时（单位: 纳秒）
+	 * @param reject 本次是否拦截了请求
+	 */
+	public void record(long nanos, boolean reject) {
+		invokeCount.increment();
+		totalNanos.add(nanos);
+		if(reject) {
+			rejectCount.increment();
+		}
+	}
+
+	/**
+	 * 获取执行次数
+	 *
+	 * @return /
+	 */
+	public long getInvokeCount() {
+		return invokeCount.sum();
+	}
+
+	/**
+	 * 获取拦截次数
+	 *
+	 * @return /
+	 */
+	public long getRejectCount() {
+		return rejectCount.sum();
+	}
+
+	/**
+	 * 获取累计耗时（单位: 纳秒）
+	 *
+	 * @return /
+	 */
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	/**
+	 * 获取平均耗时（单位: 纳秒）
+	 *
+	 * @return /
+	 */
+	public long getAvgNanos() {
+		long count = getInvokeCount();
+		return count == 0 ? 0 : getTotalNanos() / count;
+	}
+
+	@Override
+	public String toString() {
+		return "SaFirewallHookStat ["
+				+ "hook=" + hook.getClass().getName()
+				+ ", cost=" + hook.getCost()
+				+ ", invokeCount=" + getInvokeCount()
+				+ ", rejectCount=" + getRejectCount()
+				+ ", totalNanos=" + getTotalNanos()
+				+ ", avgNanos=" + getAvgNanos()
+				+ "]";
+	}
+
+}
@@ -16,12 +16,16 @@
 package cn.dev33.satoken.strategy;
 
 import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.exception.StopMatchException;
 import cn.dev33.satoken.fun.strategy.SaFirewallCheckFailHandleFunction;
 import cn.dev33.satoken.fun.strategy.SaFirewallCheckFunction;
 import cn.dev33.satoken.strategy.hooks.*;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Sa-Token 防火墙策略
@@ -52,6 +56,7 @@ public final class SaFirewallStrategy {
 		checkHooks.add(SaFirewallCheckHookForHttpMethod.instance);
 		checkHooks.add(SaFirewallCheckHookForHeader.instance);
 		checkHooks.add(SaFirewallCheckHookForParameter.instance);
+		checkHooks.add(SaFirewallCheckHookForRateLimit.instance);
 	}
 
 	/**
@@ -61,6 +66,7 @@ public final class SaFirewallStrategy {
 	public void registerHook(SaFirewallCheckHook checkHook) {
 		SaManager.getLog().info("防火墙校验 hook 注册成功: " + checkHook.getClass());
 		checkHooks.add(checkHook);
+		pipeline = null;
 	}
 
 	/**
@@ -71,6 +77,7 @@ public final class SaFirewallStrategy {
 	public void registerHookToFirst(SaFirewallCheckHook checkHook) {
 		SaManager.getLog().info("防火墙校验 hook 注册成功: " + checkHook.getClass());
 		checkHooks.add(0, checkHook);
+		pipeline = null;
 	}
 
 	/**
@@ -80,6 +87,7 @@ public final class SaFirewallStrategy {
 	public void registerHookToSecond(SaFirewallCheckHook checkHook) {
 		SaManager.getLog().info("防火墙校验 hook 注册成功: " + checkHook.getClass());
 		checkHooks.add(1, checkHook);
+		pipeline = null;
 	}
 
 	/**
@@ -90,21 +98,135 @@ public final class SaFirewallStrategy {
 		for (SaFirewallCheckHook hook : checkHooks) {
 			if (hook.getClass().equals(hookClass)) {
 				checkHooks.remove(hook);
+				pipeline = null;
 				SaManager.getLog().info("防火墙校验 hook 移除成功: " + hookClass);
 				return;
 			}
 		}
 	}
 
+	/**
+	 * 是否按照 hook 声明的开销从低到高排序执行（开销相同时保持注册顺序，未声明开销的 hook 保持原位），关闭后严格按照 checkHooks 的顺序执行
+	 */
+	public boolean sortByCost = true;
+
+	/**
+	 * 是否统计每个 hook 的执行次数、拦截次数与耗时，默认关闭
+	 */
+	public boolean enableHookStat = false;
+
+	/**
+	 * 各个 hook 的执行统计
+	 */
+	public final Map<SaFirewallCheckHook, SaFirewallHookStat> hookStats = new ConcurrentHashMap<>();
+
+	/**
+	 * 排序后的 hook 执行链，checkHooks 变动后重建
+	 */
+	protected volatile SaFirewallPipeline pipeline;
+
+	/**
+	 * 获取排序后的 hook 执行链
+	 *
+	 * <p> 通过 register*、removeHook 变动 hook 时会立即重建；直接修改 checkHooks 列表时，会在列表被替换或数量变化后重建 </p>
+	 *
+	 * @return /
+	 */
+	public SaFirewallCheckHook[] getPipeline() {
+		SaFirewallPipeline current = pipeline;
+		List<SaFirewallCheckHook> hooks = checkHooks;
+		if(current == null || current.source != hooks || current.size != hooks.size() || current.sorted != sortByCost) {
+			current = new SaFirewallPipeline(hooks, sortByCost);
+			pipeline = current;
+		}
+		return current.hooks;
+	}
+
+	/**
+	 * 获取各个 hook 的执行统计，按执行链顺序排列（需开启 enableHookStat）
+	 *
+	 * @return /
+	 */
+	public List<SaFirewallHookStat> getHookStats() {
+		List<SaFirewallHookStat> list = new ArrayList<>();
+		for (SaFirewallCheckHook hook : getPipeline()) {
+			SaFirewallHookStat stat = hookStats.get(hook);
+			if(stat != null) {
+				list.add(stat);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * 清空各个 hook 的执行统计
+	 */
+	public void resetHookStats() {
+		hookStats.clear();
+	}
+
 	/**
 	 * 防火墙校验函数
 	 */
 	public SaFirewallCheckFunction check = (req, res, extArg) -> {
-		for (SaFirewallCheckHook checkHook : checkHooks) {
-			checkHook.execute(req, res, extArg);
+		for (SaFirewallCheckHook checkHook : instance.getPipeline()) {
+			if( ! checkHook.isApplicable(req)) {
+				continue;
+			}
+			if( ! instance.enableHookStat) {
+				checkHook.execute(req, res, extArg);
+				continue;
+			}
+			SaFirewallHookStat stat = instance.hookStats.computeIfAbsent(checkHook, SaFirewallHookStat::new);
+			long start = System.nanoTime();
+			boolean reject = false;
+			try {
+				checkHook.execute(req, res, extArg);
+			} catch (StopMatchException e) {
+				throw e;
+			} catch (RuntimeException e) {
+				reject = true;
+				throw e;
+			} finally {
+				stat.record(System.nanoTime() - start, reject);
+			}
 		}
 	};
 
+	/**
+	 * 排序后的 hook 执行链，以及排序时所依据的 hook 列表
+	 */
+	protected static class SaFirewallPipeline {
+
+		final List<SaFirewallCheckHook> source;
+
+		final int size;
+
+		final boolean sorted;
+
+		final SaFirewallCheckHook[] hooks;
+
+		SaFirewallPipeline(List<SaFirewallCheckHook> source, boolean sorted) {
+			this.source = source;
+			this.size = source.size();
+			this.sorted = sorted;
+			List<SaFirewallCheckHook> list = new ArrayList<>(source);
+			if(sorted) {
+				// 未声明开销的 hook 作为分隔点保持原位，只对分隔点之间声明了开销的 hook 排序
+				// List.sort 为稳定排序，开销相同的 hook 保持注册顺序
+				int start = 0;
+				for (int i = 0; i <= list.size(); i++) {
+					if(i == list.size() || list.get(i).getCost() < 0) {
+						list.subList(start, i).sort(Comparator.comparingInt(SaFirewallCheckHook::getCost));
+						start = i + 1;
+					}
+				}
+			}
+			this.hooks = list.toArray(new SaFirewallCheckHook[0]);
+		}
+
+	}
+
 	/**
 	 * 当请求 path 校验不通过时地处理方案，自定义示例：
 	 * <pre>
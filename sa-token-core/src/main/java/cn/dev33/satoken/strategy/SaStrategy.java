@@ -22,6 +22,7 @@ import cn.dev33.satoken.exception.SaTokenException;
 import cn.dev33.satoken.fun.strategy.*;
 import cn.dev33.satoken.session.SaSession;
 import cn.dev33.satoken.stp.StpLogic;
+import cn.dev33.satoken.util.SaElementSet;
 import cn.dev33.satoken.util.SaFoxUtil;
 import cn.dev33.satoken.util.SaTokenConsts;
 
@@ -118,6 +119,12 @@ public final class SaStrategy {
 			return false;
 		}
 
+		// 集合携带了预编译集合时（例如权限缓存中的集合），精确匹配走哈希，模糊匹配只处理前缀命中的候选元素
+		SaElementSet compiled = SaElementSet.getCompiled(list);
+		if (compiled != null) {
+			return compiled.match(element);
+		}
+
 		// 先尝试一下简单匹配，如果可以匹配成功则无需继续模糊匹配
 		if (list.contains(element)) {
 			return true;
@@ -27,6 +27,11 @@ import cn.dev33.satoken.context.model.SaResponse;
 @FunctionalInterface
 public interface SaFirewallCheckHook {
 
+    /**
+     * 未声明开销
+     */
+    int UNDECLARED_COST = -1;
+
     /**
      * 执行的方法
      *
@@ -36,4 +41,26 @@ public interface SaFirewallCheckHook {
      */
     void execute(SaRequest req, SaResponse res, Object extArg);
 
+    /**
+     * 预估的执行开销，防火墙按开销从低到高依次执行各个 hook（开销相同时保持注册顺序）
+     *
+     * <p> 默认返回 UNDECLARED_COST（负数）：未声明开销的 hook 严格保持在 checkHooks 中的位置，
+     * 排在它前面的 hook 不会被排到它后面，排在它后面的 hook 也不会被排到它前面 </p>
+     *
+     * @return /
+     */
+    default int getCost() {
+        return UNDECLARED_COST;
+    }
+
+    /**
+     * 在当前配置下此 hook 是否需要执行，返回 false 时直接跳过（例如未配置任何禁止的请求头时，无需执行请求头检测）
+     *
+     * @param req 请求对象
+     * @return /
+     */
+    default boolean isApplicable(SaRequest req) {
+        return true;
+    }
+
 }
@@ -50,6 +50,27 @@ public class SaFirewallCheckHookForBlackPath implements SaFirewallCheckHook {
         this.blackPaths.addAll(Arrays.asList(paths));
     }
 
+    /**
+     * 预估的执行开销
+     *
+     * @return /
+     */
+    @Override
+    public int getCost() {
+        return 10;
+    }
+
+    /**
+     * 在当前配置下此 hook 是否需要执行
+     *
+     * @param req 请求对象
+     * @return /
+     */
+    @Override
+    public boolean isApplicable(SaRequest req) {
+        return ! blackPaths.isEmpty();
+    }
+
     /**
      * 执行的方法
      *
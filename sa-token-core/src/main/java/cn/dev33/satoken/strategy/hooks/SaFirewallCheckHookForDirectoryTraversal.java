@@ -32,6 +32,16 @@ public class SaFirewallCheckHookForDirectoryTraversal implements SaFirewallCheck
      */
     public static SaFirewallCheckHookForDirectoryTraversal instance = new SaFirewallCheckHookForDirectoryTraversal();
 
+    /**
+     * 预估的执行开销
+     *
+     * @return /
+     */
+    @Override
+    public int getCost() {
+        return 40;
+    }
+
     /**
      * 执行的方法
      *
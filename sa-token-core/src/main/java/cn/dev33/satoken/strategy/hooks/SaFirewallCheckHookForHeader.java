@@ -53,6 +53,27 @@ public class SaFirewallCheckHookForHeader implements SaFirewallCheckHook {
         this.notAllowHeaderNames.addAll(Arrays.asList(notAllowHeaderNames));
     }
 
+    /**
+     * 预估的执行开销
+     *
+     * @return /
+     */
+    @Override
+    public int getCost() {
+        return 50;
+    }
+
+    /**
+     * 在当前配置下此 hook 是否需要执行
+     *
+     * @param req 请求对象
+     * @return /
+     */
+    @Override
+    public boolean isApplicable(SaRequest req) {
+        return ! notAllowHeaderNames.isEmpty();
+    }
+
     /**
      * 执行的方法
      *
@@ -58,6 +58,27 @@ public class SaFirewallCheckHookForHost implements SaFirewallCheckHook {
         this.allowHosts.addAll(Arrays.asList(allowHosts));
     }
 
+    /**
+     * 预估的执行开销
+     *
+     * @return /
+     */
+    @Override
+    public int getCost() {
+        return 20;
+    }
+
+    /**
+     * 在当前配置下此 hook 是否需要执行
+     *
+     * @param req 请求对象
+     * @return /
+     */
+    @Override
+    public boolean isApplicable(SaRequest req) {
+        return isCheckHost;
+    }
+
     /**
      * 执行的方法
      *
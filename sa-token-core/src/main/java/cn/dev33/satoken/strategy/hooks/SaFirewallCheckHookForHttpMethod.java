@@ -71,6 +71,27 @@ public class SaFirewallCheckHookForHttpMethod implements SaFirewallCheckHook {
         this.allowMethods.addAll(Arrays.asList(methods));
     }
 
+    /**
+     * 预估的执行开销
+     *
+     * @return /
+     */
+    @Override
+    public int getCost() {
+        return 10;
+    }
+
+    /**
+     * 在当前配置下此 hook 是否需要执行
+     *
+     * @param req 请求对象
+     * @return /
+     */
+    @Override
+    public boolean isApplicable(SaRequest req) {
+        return isCheckMethod;
+    }
+
     /**
      * 执行的方法
      *
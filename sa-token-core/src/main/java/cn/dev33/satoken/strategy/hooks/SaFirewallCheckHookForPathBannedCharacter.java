@@ -46,6 +46,16 @@ public class SaFirewallCheckHookForPathBannedCharacter implements SaFirewallChec
         this.bannedPercentage = bannedPercentage;
     }
 
+    /**
+     * 预估的执行开销
+     *
+     * @return /
+     */
+    @Override
+    public int getCost() {
+        return 20;
+    }
+
     /**
      * 执行的方法
      *
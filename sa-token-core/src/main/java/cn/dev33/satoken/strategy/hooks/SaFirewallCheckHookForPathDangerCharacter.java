@@ -18,6 +18,7 @@ package cn.dev33.satoken.strategy.hooks;
 import cn.dev33.satoken.context.model.SaRequest;
 import cn.dev33.satoken.context.model.SaResponse;
 import cn.dev33.satoken.exception.RequestPathInvalidException;
+import cn.dev33.satoken.util.SaAhoCorasick;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -54,12 +55,91 @@ public class SaFirewallCheckHookForPathDangerCharacter implements SaFirewallChec
             "\u2029"    // 段分隔符
     ));
 
+    /**
+     * 危险字符预编译成的多模式匹配自动机，dangerCharacter 被替换、增删或修改元素后自动重建
+     */
+    protected volatile CompiledMatcher compiledMatcher;
+
     /**
      * 重载配置
      * @param character 危险字符列表
      */
     public void resetConfig(String... character) {
         this.dangerCharacter = Arrays.asList(character);
+        this.compiledMatcher = new CompiledMatcher(dangerCharacter);
+    }
+
+    /**
+     * 获取危险字符的多模式匹配自动机
+     *
+     * <p> 每次获取时都会将 dangerCharacter 与编译时的快照逐个比对元素引用，列表被原地修改后同样会重建 </p>
+     *
+     * @return /
+     */
+    public SaAhoCorasick getDangerCharacterMatcher() {
+        CompiledMatcher compiled = compiledMatcher;
+        List<String> list = dangerCharacter;
+        if(compiled == null || ! compiled.isSnapshotOf(list)) {
+            compiled = new CompiledMatcher(list);
+            compiledMatcher = compiled;
+        }
+        return compiled.matcher;
+    }
+
+    /**
+     * 预编译的自动机，以及编译时危险字符列表的快照
+     */
+    protected static class CompiledMatcher {
+
+        final String[] snapshot;
+
+        final SaAhoCorasick matcher;
+
+        CompiledMatcher(List<String> source) {
+            this.snapshot = source.toArray(new String[0]);
+            this.matcher = new SaAhoCorasick(Arrays.asList(snapshot));
+        }
+
+        /**
+         * 判断此自动机是否由指定列表的当前内容编译而来（逐个比对元素引用）
+         *
+         * @param list /
+         * @return /
+         */
+        boolean isSnapshotOf(List<String> list) {
+            if(list.size() != snapshot.length) {
+                return false;
+            }
+            int i = 0;
+            for (String item : list) {
+                if(item != snapshot[i++]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * 预估的执行开销
+     *
+     * @return /
+     */
+    @Override
+    public int getCost() {
+        return 30;
+    }
+
+    /**
+     * 在当前配置下此 hook 是否需要执行
+     *
+     * @param req 请求对象
+     * @return /
+     */
+    @Override
+    public boolean isApplicable(SaRequest req) {
+        return ! dangerCharacter.isEmpty();
     }
 
     /**
@@ -72,10 +152,8 @@ public class SaFirewallCheckHookForPathDangerCharacter implements SaFirewallChec
     @Override
     public void execute(SaRequest req, SaResponse res, Object extArg) {
         String requestPath = req.getRequestPath();
-        for (String item : dangerCharacter) {
-            if (requestPath.contains(item)) {
-                throw new RequestPathInvalidException("非法请求：" + requestPath, requestPath);
-            }
+        if (getDangerCharacterMatcher().containsAny(requestPath)) {
+            throw new RequestPathInvalidException("非法请求：" + requestPath, requestPath);
         }
     }
 
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.strategy.hooks;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.config.SaTokenConfig;
+import cn.dev33.satoken.context.model.SaRequest;
+import cn.dev33.satoken.context.model.SaResponse;
+import cn.dev33.satoken.dao.SaRateLimitDao;
+import cn.dev33.satoken.dao.SaRateLimitDaoDefaultImpl;
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.dao.SaTokenDaoForNearCache;
+import cn.dev33.satoken.error.SaErrorCode;
+import cn.dev33.satoken.exception.RateLimitException;
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.secure.SaSecureUtil;
+import cn.dev33.satoken.util.SaFoxUtil;
+import cn.dev33.satoken.util.SaTokenConsts;
+
+/**
+ * 防火墙策略校验钩子函数：请求限流
+ *
+ * <p> 按照 SaTokenConfig 中的 rateLimit* 配置，以 ip、loginId、token、route 或其组合为维度进行限流，默认不开启 </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaFirewallCheckHookForRateLimit implements SaFirewallCheckHook {
+
+    /**
+     * 默认实例
+     */
+    public static SaFirewallCheckHookForRateLimit instance = new SaFirewallCheckHookForRateLimit();
+
+    /**
+     * 本机内存限流计数（未开启 rateLimitUseDao，或持久层不支持限流计数时使用）
+     */
+    public SaRateLimitDao localDao = new SaRateLimitDaoDefaultImpl();
+
+    /**
+     * 执行的方法
+     *
+     * @param req 请求对象
+     * @param res 响应对象
+     * @param extArg 预留扩展参数
+     */
+    @Override
+    public void execute(SaRequest req, SaResponse res, Object extArg) {
+        SaTokenConfig config = SaManager.getConfig();
+        if(config.getRateLimitPeriod() <= 0) {
+            throw new SaTokenException("无效的限流统计周期：" + config.getRateLimitPeriod()).setCode(SaErrorCode.CODE_12504);
+        }
+        String limitKey = getLimitKey(req, config);
+        // 无法获取客户端 ip 时不进行限流，避免所有请求共用同一个计数器
+        if(limitKey == null) {
+            return;
+        }
+        boolean allow = getRateLimitDao(config).tryAcquire(limitKey, config.getRateLimitAlgorithm(),
+                config.getRateLimitCapacity(), config.getRateLimitPeriod() * 1000);
+        if( ! allow) {
+            throw new RateLimitException("请求过于频繁，请稍后再试", limitKey).setCode(SaErrorCode.CODE_12501);
+        }
+    }
+
+    /**
+     * 预估的执行开销
+     *
+     * @return /
+     */
+    @Override
+    public int getCost() {
+        return 70;
+    }
+
+    /**
+     * 在当前配置下此 hook 是否需要执行
+     *
+     * @param req 请求对象
+     * @return /
+     */
+    @Override
+    public boolean isApplicable(SaRequest req) {
+        return SaManager.getConfig().getRateLimitCapacity() > 0;
+    }
+
+    /**
+     * 获取本次请求使用的限流计数器
+     *
+     * @param config 全局配置
+     * @return /
+     */
+    public SaRateLimitDao getRateLimitDao(SaTokenConfig config) {
+        if(Boolean.TRUE.equals(config.getRateLimitUseDao())) {
+            SaTokenDao dao = SaManager.getSaTokenDao();
+            // 两级缓存模式下，限流计数直接交给二级缓存
+            if(dao instanceof SaTokenDaoForNearCache) {
+                dao = ((SaTokenDaoForNearCache) dao).target;
+            }
+            if(dao instanceof SaRateLimitDao) {
+                return (SaRateLimitDao) dao;
+            }
+        }
+        return localDao;
+    }
+
+    /**
+     * 计算本次请求的限流 key，格式样例：satoken:rate-limit:ip:127.0.0.1:route:/user/info
+     *
+     * <p> 防火墙在鉴权之前执行，计算限流 key 时不访问持久层：按 token 限流时使用 token 的摘要计数（不校验 token 是否有效）；
+     * 按 loginId 限流时，只有 getLoginIdWithoutDao 能直接得到 loginId 才按账号计数，否则与 token 维度相同；
+     * 请求未携带 token 时改为按 ip 计数 </p>
+     *
+     * @param req 请求对象
+     * @param config 全局配置
+     * @return 需要按 ip 计数但无法获取客户端 ip 时返回 null，代表本次请求不进行限流
+     */
+    public String getLimitKey(SaRequest req, SaTokenConfig config) {
+        StringBuilder sb = new StringBuilder(config.getTokenName()).append(":rate-limit");
+        String tokenValue = null;
+        Object loginId = null;
+        boolean resolved = false;
+        for (String keyType : config.getRateLimitKeyType().split(",")) {
+            keyType = keyType.trim();
+            if( ! resolved && ("token".equals(keyType) || "loginId".equals(keyType))) {
+                tokenValue = getTokenValue(req, config);
+                loginId = SaFoxUtil.isEmpty(tokenValue) ? null : getLoginIdWithoutDao(req, tokenValue);
+                resolved = true;
+            }
+            if("route".equals(keyType)) {
+                sb.append(":route:").append(req.getRequestPath());
+            } else if("loginId".equals(keyType) && loginId != null) {
+                sb.append(":login:").append(loginId);
+            } else if(("token".equals(keyType) || "loginId".equals(keyType)) && SaFoxUtil.isNotEmpty(tokenValue)) {
+                sb.append(":token:").append(SaSecureUtil.sha256(tokenValue));
+            } else if("ip".equals(keyType) || "token".equals(keyType) || "loginId".equals(keyType)) {
+                String ip = req.getRemoteAddr();
+                if(SaFoxUtil.isEmpty(ip)) {
+                    return null;
+                }
+                sb.append(":ip:").append(ip);
+            } else {
+                throw new SaTokenException("无效的限流维度：" + keyType).setCode(SaErrorCode.CODE_12503);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 不访问持久层，直接从请求中得到 token 对应的 loginId（例如自行解析无状态的 JWT），无法得到时返回 null
+     *
+     * <p> 默认返回 null，即按 loginId 限流时退化为按 token 摘要限流 </p>
+     *
+     * @param req 请求对象
+     * @param tokenValue 请求携带的 token
+     * @return /
+     */
+    public Object getLoginIdWithoutDao(SaRequest req, String tokenValue) {
+        return null;
+    }
+
+    /**
+     * 从请求中读取 token（防火墙执行时尚未初始化 Sa-Token 上下文，因此直接从 SaRequest 中读取，读取顺序与 StpLogic 一致）
+     *
+     * @param req 请求对象
+     * @param config 全局配置
+     * @return /
+     */
+    public String getTokenValue(SaRequest req, SaTokenConfig config) {
+        String tokenName = config.getTokenName();
+        String tokenValue = null;
+        if(config.getIsReadBody()) {
+            tokenValue = req.getParam(tokenName);
+        }
+        if(SaFoxUtil.isEmpty(tokenValue) && config.getIsReadHeader()) {
+            tokenValue = req.getHeader(tokenName);
+        }
+        if(SaFoxUtil.isEmpty(tokenValue) && config.getIsReadCookie()) {
+            return req.getCookieValue(tokenName);
+        }
+        String tokenPrefix = config.getTokenPrefix();
+        String fullPrefix = tokenPrefix + SaTokenConsts.TOKEN_CONNECTOR_CHAT;
+        if(SaFoxUtil.isNotEmpty(tokenPrefix) && tokenValue != null && tokenValue.startsWith(fullPrefix)) {
+            tokenValue = tokenValue.substring(fullPrefix.length());
+        }
+        return tokenValue;
+    }
+
+}
@@ -50,6 +50,28 @@ public class SaFirewallCheckHookForWhitePath implements SaFirewallCheckHook {
         this.whitePaths.addAll(Arrays.asList(paths));
     }
 
+    /**
+     * 预估的执行开销
+     *
+     * @return /
+     */
+    @Override
+    public int getCost() {
+        // 白名单放行必须最先执行
+        return 0;
+    }
+
+    /**
+     * 在当前配置下此 hook 是否需要执行
+     *
+     * @param req 请求对象
+     * @return /
+     */
+    @Override
+    public boolean isApplicable(SaRequest req) {
+        return ! whitePaths.isEmpty();
+    }
+
     /**
      * 执行的方法
      *
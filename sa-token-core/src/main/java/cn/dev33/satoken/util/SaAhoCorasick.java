@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多模式字符串匹配自动机（Aho-Corasick），一次扫描即可判断文本中是否包含任意一个模式串
+ *
+ * <p>
+ *     ASCII 字符的状态转移预先展开为数组，扫描时每个字符只需一次数组寻址；非 ASCII 字符沿失配指针查找。
+ *     匹配结果与逐个调用 String.contains 完全一致（包括空模式串：任何文本都视为包含空串）。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaAhoCorasick {
+
+	/**
+	 * 预先展开状态转移的字符范围
+	 */
+	static final int ASCII_SIZE = 128;
+
+	/**
+	 * ASCII 字符的状态转移表，状态 -> 字符 -> 下一状态
+	 */
+	final int[][] asciiNext;
+
+	/**
+	 * 非 ASCII 字符的状态转移（仅包含模式串中实际出现的边，可能为 null）
+	 */
+	final Map<Character, Integer>[] otherNext;
+
+	/**
+	 * 失配指针
+	 */
+	final int[] fail;
+
+	/**
+	 * 到达此状态时命中的模式串（包括经由失配指针可达的模式串），未命中为 null
+	 */
+	final String[] output;
+
+	/**
+	 * 是否包含空模式串
+	 */
+	final boolean hasEmptyPattern;
+
+	/**
+	 * 模式串集合（副本）
+	 */
+	public final List<String> patterns;
+
+	/**
+	 * 构建一个多模式匹配自动机
+	 *
+	 * @param patterns 模式串集合，null 元素将被忽略
+	 */
+	@SuppressWarnings("unchecked")
+	public SaAhoCorasick(Collection<String> patterns) {
+		this.patterns = new ArrayList<>(patterns);
+
+		// 1、构建前缀树
+		List<int[]> asciiList = new ArrayList<>();
+		List<Map<Character, Integer>> otherList = new ArrayList<>();
+		List<String> outputList = new ArrayList<>();
+		asciiList.add(newRow());
+		otherList.add(null);
+		outputList.add(null);
+		boolean hasEmpty = false;
+		for (String pattern : this.patterns) {
+			if(pattern == null) {
+				continue;
+			}
+			if(pattern.isEmpty()) {
+				hasEmpty = true;
+				continue;
+			}
+			int state = 0;
+			for (int i = 0; i < pattern.length(); i++) {
+				char c = pattern.charAt(i);
+				int next = c < ASCII_SIZE ? asciiList.get(state)[c] : getOther(otherList.get(state), c);
+				if(next == -1) {
+					next = asciiList.size();
+					asciiList.add(newRow());
+					otherList.add(null);
+					outputList.add(null);
+					if(c < ASCII_SIZE) {
+						asciiList.get(state)[c] = next;
+					} else {
+						if(otherList.get(state) == null) {
+							otherList.set(state, new HashMap<>());
+						}
+						otherList.get(state).put(c, next);
+					}
+				}
+				state = next;
+			}
+			if(outputList.get(state) == null) {
+				outputList.set(state, pattern);
+			}
+		}
+		this.hasEmptyPattern = hasEmpty;
+		this.asciiNext = asciiList.toArray(new int[0][]);
+		this.otherNext = otherList.toArray(new Map[0]);
+		this.output = outputList.toArray(new String[0]);
+		this.fail = new int[asciiNext.length];
+
+		// 2、按层序计算失配指针，并将 ASCII 字符的缺失转移补全为失配后的转移
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int c = 0; c < ASCII_SIZE; c++) {
+			int next = asciiNext[0][c];
+			if(next == -1) {
+				asciiNext[0][c] = 0;
+			} else {
+				queue.add(next);
+			}
+		}
+		if(otherNext[0] != null) {
+			queue.addAll(otherNext[0].values());
+		}
+		while ( ! queue.isEmpty()) {
+			int state = queue.poll();
+			for (int c = 0; c < ASCII_SIZE; c++) {
+				int next = asciiNext[state][c];
+				if(next == -1) {
+					asciiNext[state][c] = asciiNext[fail[state]][c];
+				} else {
+					fail[next] = asciiNext[fail[state]][c];
+					inheritOutput(next);
+					queue.add(next);
+				}
+			}
+			if(otherNext[state] != null) {
+				for (Map.Entry<Character, Integer> entry : otherNext[state].entrySet()) {
+					int next = entry.getValue();
+					fail[next] = transitionOther(fail[state], entry.getKey());
+					inheritOutput(next);
+					queue.add(next);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 返回文本中最先出现的模式串（按结束位置），不包含任何模式串时返回 null
+	 *
+	 * @param text 文本
+	 * @return /
+	 */
+	public String findFirst(String text) {
+		if(hasEmptyPattern) {
+			return "";
+		}
+		int state = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			state = c < ASCII_SIZE ? asciiNext[state][c] : transitionOther(state, c);
+			if(output[state] != null) {
+				return output[state];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 判断文本中是否包含任意一个模式串
+	 *
+	 * @param text 文本
+	 * @return /
+	 */
+	public boolean containsAny(String text) {
+		return findFirst(text) != null;
+	}
+
+	/**
+	 * 非 ASCII 字符的状态转移：沿失配指针查找，直到根节点
+	 */
+	int transitionOther(int state, char c) {
+		for (;;) {
+			int next = getOther(otherNext[state], c);
+			if(next != -1) {
+				return next;
+			}
+			if(state == 0) {
+				return 0;
+			}
+			state = fail[state];
+		}
+	}
+
+	/**
+	 * 如果此状态本身不是模式串结尾，则继承失配状态命中的模式串
+	 */
+	void inheritOutput(int state) {
+		if(output[state] == null) {
+			output[state] = output[fail[state]];
+		}
+	}
+
+	static int getOther(Map<Character, Integer> map, char c) {
+		if(map == null) {
+			return -1;
+		}
+		Integer next = map.get(c);
+		return next == null ? -1 : next;
+	}
+
+	static int[] newRow() {
+		int[] row = new int[ASCII_SIZE];
+		Arrays.fill(row, -1);
+		return row;
+	}
+
+}
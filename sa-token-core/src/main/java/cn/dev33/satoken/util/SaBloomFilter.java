@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 布隆过滤器：以极小的内存判断一个字符串 "一定不存在" 或 "可能存在"
+ *
+ * <p> 只会误报、不会漏报，不支持删除元素；线程安全，写入时使用 CAS 设置位数组 </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaBloomFilter {
+
+	/**
+	 * 位数组长度
+	 */
+	public final int bitSize;
+
+	/**
+	 * 每个元素计算多少次哈希
+	 */
+	public final int hashCount;
+
+	/**
+	 * 位数组
+	 */
+	public final AtomicLongArray bits;
+
+	/**
+	 * 构建一个布隆过滤器
+	 *
+	 * @param bitSize 位数组长度
+	 * @param hashCount 每个元素计算多少次哈希
+	 */
+	public SaBloomFilter(int bitSize, int hashCount) {
+		this.bitSize = Math.max(bitSize, 64);
+		this.hashCount = Math.max(hashCount, 1);
+		this.bits = new AtomicLongArray((this.bitSize + 63) / 64);
+	}
+
+	/**
+	 * 根据预计元素数量与期望误报率，构建一个布隆过滤器
+	 *
+	 * @param expectedInsertions 预计登记多少个元素
+	 * @param fpp 期望的误报率（0 ~ 1 之间）
+	 * @return /
+	 */
+	public static SaBloomFilter create(int expectedInsertions, double fpp) {
+		int bitSize = optimalBitSize(expectedInsertions, fpp);
+		return new SaBloomFilter(bitSize, optimalHashCount(expectedInsertions, bitSize));
+	}
+
+	/**
+	 * 计算最优的位数组长度：m = -n * ln(p) / (ln2)^2
+	 *
+	 * @param expectedInsertions 预计登记多少个元素
+	 * @param fpp 期望的误报率（0 ~ 1 之间）
+	 * @return /
+	 */
+	public static int optimalBitSize(int expectedInsertions, double fpp) {
+		int n = Math.max(expectedInsertions, 1);
+		long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+		return (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+	}
+
+	/**
+	 * 计算最优的哈希次数：k = m / n * ln2
+	 *
+	 * @param expectedInsertions 预计登记多少个元素
+	 * @param bitSize 位数组长度
+	 * @return /
+	 */
+	public static int optimalHashCount(int expectedInsertions, int bitSize) {
+		return Math.max(1, (int) Math.round((double) bitSize / Math.max(expectedInsertions, 1) * Math.log(2)));
+	}
+
+	/**
+	 * 登记一个元素
+	 *
+	 * @param value 元素
+	 * @return 是否有位被改变（返回 false 代表登记前此元素已 "可能存在"）
+	 */
+	public boolean add(String value) {
+		long hash = hash(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		boolean changed = false;
+		for (int i = 0; i < hashCount; i++) {
+			int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitSize;
+			long mask = 1L << index;
+			for (;;) {
+				long word = bits.get(index >>> 6);
+				if((word & mask) != 0) {
+					break;
+				}
+				if(bits.compareAndSet(index >>> 6, word, word | mask)) {
+					changed = true;
+					break;
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * 判断一个元素是否可能存在
+	 *
+	 * @param value 元素
+	 * @return false=一定不存在，true=可能存在
+	 */
+	public boolean mightContain(String value) {
+		long hash = hash(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 0; i < hashCount; i++) {
+			int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitSize;
+			if((bits.get(index >>> 6) & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 计算 64 位哈希值（FNV-1a + 混淆），高低 32 位分别作为双重哈希的两个基础值
+	 *
+	 * @param value 元素
+	 * @return /
+	 */
+	public static long hash(String value) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			h ^= value.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * 预编译的元素集合（权限码、角色码等），用于快速判断集合中是否有元素可以匹配指定值
+ *
+ * <p>
+ *     不带 * 号的元素存入哈希集合，直接 O(1) 判断；带 * 号的元素按照首个 * 号之前的字面量前缀构建字符前缀树，
+ *     匹配时只对前缀命中的候选元素调用 SaFoxUtil.vagueMatch，匹配结果与逐个调用 SaFoxUtil.vagueMatch 完全一致。
+ * </p>
+ *
+ * <p>
+ *     例如：user.add、user.*、art.* 三个权限码，判断 user.delete 时只会对 user.* 进行模糊匹配。
+ * </p>
+ *
+ * <p>
+ *     编译本身需要遍历整个集合，只有集合被多次复用时才划算，因此预编译集合不做全局缓存，而是随集合一起保存：
+ *     toCompiledList 返回一个携带预编译集合的不可修改集合（例如 SaPermissionCache 的缓存项），SaStrategy.hasElement 遇到此类集合时直接使用预编译集合匹配，
+ *     其它集合（例如每次请求都从 StpInterface 新加载的集合）仍然逐个匹配。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaElementSet {
+
+	/**
+	 * 集合元素数量达到此值时，toCompiledList 才会预编译集合，数量较少时直接逐个匹配反而更快
+	 */
+	public static int compileThreshold = 16;
+
+	/**
+	 * 不带 * 号的元素
+	 */
+	final Set<String> exactSet = new HashSet<>();
+
+	/**
+	 * 带 * 号的元素，按字面量前缀构建的前缀树根节点
+	 */
+	final Node root = new Node();
+
+	/**
+	 * 集合中是否包含 null 元素
+	 */
+	boolean containsNull;
+
+	/**
+	 * 前缀树节点
+	 */
+	static class Node {
+
+		/**
+		 * 子节点，字符 -> 节点 （懒加载）
+		 */
+		Map<Character, Node> children;
+
+		/**
+		 * 字面量前缀恰好到此节点为止的带 * 号元素 （懒加载）
+		 */
+		List<String> patterns;
+
+	}
+
+	/**
+	 * 编译一个元素集合
+	 *
+	 * @param list 元素集合
+	 */
+	public SaElementSet(List<String> list) {
+		for (String element : list) {
+			add(element);
+		}
+	}
+
+	/**
+	 * 将元素集合复制为不可修改的集合，元素数量达到 compileThreshold 时，同时预编译并随集合一起保存
+	 *
+	 * @param list 元素集合
+	 * @return 不可修改的集合
+	 */
+	public static List<String> toCompiledList(List<String> list) {
+		String[] array = list.toArray(new String[0]);
+		SaElementSet set = array.length >= compileThreshold ? new SaElementSet(list) : null;
+		return new CompiledList(array, set);
+	}
+
+	/**
+	 * 获取集合携带的预编译集合
+	 *
+	 * @param list 元素集合
+	 * @return 集合不是由 toCompiledList 创建、或元素数量未达到 compileThreshold 时返回 null
+	 */
+	public static SaElementSet getCompiled(List<String> list) {
+		return list instanceof CompiledList ? ((CompiledList) list).set : null;
+	}
+
+	/**
+	 * 携带预编译集合的不可修改集合
+	 */
+	static class CompiledList extends AbstractList<String> implements RandomAccess {
+
+		final String[] array;
+
+		final SaElementSet set;
+
+		CompiledList(String[] array, SaElementSet set) {
+			this.array = array;
+			this.set = set;
+		}
+
+		@Override
+		public String get(int index) {
+			return array[index];
+		}
+
+		@Override
+		public int size() {
+			return array.length;
+		}
+
+	}
+
+	/**
+	 * 加入一个元素
+	 *
+	 * @param element 元素
+	 */
+	void add(String element) {
+		if(element == null) {
+			containsNull = true;
+			return;
+		}
+		int star = element.indexOf('*');
+		if(star == -1) {
+			exactSet.add(element);
+			return;
+		}
+		Node node = root;
+		for (int i = 0; i < star; i++) {
+			if(node.children == null) {
+				node.children = new HashMap<>();
+			}
+			node = node.children.computeIfAbsent(element.charAt(i), k -> new Node());
+		}
+		if(node.patterns == null) {
+			node.patterns = new ArrayList<>();
+		}
+		node.patterns.add(element);
+	}
+
+	/**
+	 * 判断集合中是否有元素可以匹配指定值（匹配规则同 SaFoxUtil.vagueMatch）
+	 *
+	 * @param str 指定值
+	 * @return /
+	 */
+	public boolean match(String str) {
+		if(str == null) {
+			return containsNull;
+		}
+		if(exactSet.contains(str)) {
+			return true;
+		}
+		Node node = root;
+		for (int i = 0; ; i++) {
+			if(node.patterns != null) {
+				for (String pattern : node.patterns) {
+					if(SaFoxUtil.vagueMatch(pattern, str)) {
+						return true;
+					}
+				}
+			}
+			if(i == str.length() || node.children == null) {
+				return false;
+			}
+			node = node.children.get(str.charAt(i));
+			if(node == null) {
+				return false;
+			}
+		}
+	}
+
+}
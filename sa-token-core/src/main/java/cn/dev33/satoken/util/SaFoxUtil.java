@@ -288,7 +288,7 @@ public class SaFoxUtil {
 	}
 
 	/**
-	 * 字符串模糊匹配
+	 * 字符串模糊匹配（双指针 + 回溯到上一个 * 号，不分配额外内存）
 	 *
 	 * @param pattern /
 	 * @param str    /
@@ -297,25 +297,28 @@ public class SaFoxUtil {
 	private static boolean vagueMatchMethod( String pattern, String str) {
 		int m = str.length();
 		int n = pattern.length();
-		boolean[][] dp = new boolean[m + 1][n + 1];
-		dp[0][0] = true;
-		for (int i = 1; i <= n; ++i) {
-			if (pattern.charAt(i - 1) == '*') {
-				dp[0][i] = true;
+		int i = 0, j = 0;
+		// 上一个 * 号在 pattern 中的位置，以及此 * 号当前匹配到 str 中的位置
+		int starJ = -1, starI = 0;
+		while (i < m) {
+			if (j < n && pattern.charAt(j) == '*') {
+				starJ = j++;
+				starI = i;
+			} else if (j < n && pattern.charAt(j) == str.charAt(i)) {
+				i++;
+				j++;
+			} else if (starJ != -1) {
+				// 匹配失败，让上一个 * 号多吞掉一个字符后重试
+				j = starJ + 1;
+				i = ++starI;
 			} else {
-				break;
+				return false;
 			}
 		}
-		for (int i = 1; i <= m; ++i) {
-			for (int j = 1; j <= n; ++j) {
-				if (pattern.charAt(j - 1) == '*') {
-					dp[i][j] = dp[i][j - 1] || dp[i - 1][j];
-				} else if (str.charAt(i - 1) == pattern.charAt(j - 1)) {
-					dp[i][j] = dp[i - 1][j - 1];
-				}
-			}
+		while (j < n && pattern.charAt(j) == '*') {
+			j++;
 		}
-		return dp[m][n];
+		return j == n;
 	}
 
 	/**
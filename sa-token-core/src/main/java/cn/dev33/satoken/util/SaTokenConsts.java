@@ -95,7 +95,27 @@ public class SaTokenConsts {
 	 * 常量 key 标记: 账号封禁级别，表示未被封禁 
 	 */
 	public static final int NOT_DISABLE_LEVEL = -2; 
+
+	/**
+	 * 常量 key 标记: 登录失败次数过多时，按账号锁定登录所使用的封禁服务类型
+	 */
+	public static final String LOGIN_FAIL_DISABLE_SERVICE = "login-fail";
+
+	/**
+	 * 常量 key 标记: 登录失败次数过多时，按 IP 锁定登录所使用的封禁服务类型
+	 */
+	public static final String LOGIN_FAIL_IP_DISABLE_SERVICE = "login-fail-ip";
 	
+	/**
+	 * 常量 key 标记: 在 SaStorage 中保存请求级持久层读缓存时使用的 key
+	 */
+	public static final String DAO_REQUEST_MEMO_KEY = "DAO_REQUEST_MEMO_KEY_";
+
+	/**
+	 * 常量 key 标记: 在 SaStorage 中保存 SaSession 延迟写入对象时使用的 key
+	 */
+	public static final String SESSION_WRITE_BEHIND_KEY = "SESSION_WRITE_BEHIND_KEY_";
+
 	/**
 	 * 常量 key 标记: 在进行临时身份切换时使用的 key
 	 */
@@ -180,6 +200,19 @@ public class SaTokenConsts {
 	public static final String SESSION_TYPE__CUSTOM = "Custom-Session";
 
 
+	// ------------------ 限流算法
+
+	/**
+	 * 限流算法: 令牌桶
+	 */
+	public static final String RATE_LIMIT_TOKEN_BUCKET = "token-bucket";
+
+	/**
+	 * 限流算法: 滑动窗口
+	 */
+	public static final String RATE_LIMIT_SLIDING_WINDOW = "sliding-window";
+
+
 	// ------------------ 其它
 
 	/**
@@ -1,5 +1,7 @@
 package com.pj.test;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -26,6 +28,26 @@ public class LoginController {
 		return SaResult.error("登录失败");
 	}
 
+	// 带登录失败限制的登录（需配置 sa-token.login-fail-threshold）  ---- http://localhost:8081/acc/doLoginWithFailLimit?name=zhang&pwd=123456
+	@RequestMapping("doLoginWithFailLimit")
+	public SaResult doLoginWithFailLimit(String name, String pwd, HttpServletRequest request) {
+		String ip = request.getRemoteAddr();
+
+		// 在比对密码之前校验账号与 IP 是否已被锁定，锁定期间无论密码是否正确都直接拒绝
+		StpUtil.checkLoginFail(name, ip);
+
+		// 此处仅作模拟示例，真实项目需要从数据库中查询数据进行比对
+		if("zhang".equals(name) && "123456".equals(pwd)) {
+			StpUtil.login(name);
+			StpUtil.clearLoginFailByIp(ip);
+			return SaResult.ok("登录成功");
+		}
+
+		// 账号与 IP 各记录一次失败，达到阈值时自动锁定
+		StpUtil.recordLoginFail(name, ip);
+		return SaResult.error("登录失败");
+	}
+
 	// 查询登录状态  ---- http://localhost:8081/acc/isLogin
 	@RequestMapping("isLogin")
 	public SaResult isLogin() {
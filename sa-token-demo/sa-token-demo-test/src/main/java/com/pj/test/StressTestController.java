@@ -1,6 +1,7 @@
 package com.pj.test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -8,6 +9,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.pj.util.Ttime;
 
+import cn.dev33.satoken.router.SaRouteTrie;
+import cn.dev33.satoken.router.SaRouter;
 import cn.dev33.satoken.stp.StpUtil;
 import cn.dev33.satoken.util.SaResult;
 
@@ -58,4 +61,53 @@ public class StressTestController {
 		return SaResult.ok();
 	}
 	
+	// 测试 路由匹配：逐个调用 routeMatcher  vs  SaRouteTrie 预编译结构   浏览器访问： http://localhost:8081/s-test/routeMatch
+	@RequestMapping("routeMatch")
+	public SaResult routeMatch() {
+		int patternCount = 400;	// 路由匹配符数量
+		int matchCount = 100000;	// 匹配多少次
+
+		List<String> patterns = new ArrayList<>();
+		for (int i = 0; i < patternCount / 2; i++) {
+			patterns.add("/module" + i + "/list");
+			patterns.add("/module" + i + "/info/*");
+		}
+		List<String> paths = Arrays.asList("/module0/list", "/module199/info/1", "/user/info", "/module100/add");
+
+		// 预热
+		for (int i = 0; i < 10000; i++) {
+			loopMatch(patterns, paths.get(i % paths.size()));
+			SaRouteTrie.of(patterns).isMatch(paths.get(i % paths.size()));
+		}
+
+		Ttime t = new Ttime().start();
+		for (int i = 0; i < matchCount; i++) {
+			loopMatch(patterns, paths.get(i % paths.size()));
+		}
+		t.end();
+		System.out.println("逐个匹配 " + patternCount + " 个路由匹配符 " + matchCount + " 次，用时：" + t);
+		long loopMs = t.returnMs();
+
+		t = new Ttime().start();
+		for (int i = 0; i < matchCount; i++) {
+			SaRouteTrie.of(patterns).isMatch(paths.get(i % paths.size()));
+		}
+		t.end();
+		System.out.println("预编译结构匹配 " + patternCount + " 个路由匹配符 " + matchCount + " 次，用时：" + t);
+
+		return SaResult.ok()
+				.set("loopMs", loopMs)
+				.set("trieMs", t.returnMs());
+	}
+
+	// 旧版路由匹配：逐个调用 routeMatcher
+	private boolean loopMatch(List<String> patterns, String path) {
+		for (String pattern : patterns) {
+			if(SaRouter.isMatch(pattern, path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 }
@@ -0,0 +1,75 @@
+package com.pj.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.dev33.satoken.dao.timedcache.SaMapPackageForConcurrentHashMap;
+import cn.dev33.satoken.dao.timedcache.SaTimedCache;
+
+/**
+ * 测试 SaTimedCache 堆内存占用（会多次触发 GC 并写入上百万个 key，请在独立进程中运行，不要放在 Web 请求中执行）
+ * <p> 对比：旧版 "数据 Map + 过期时间 Map" 双 Map 布局  vs  新版 "值 + 到期时间" 单 Map 布局
+ * <p> 运行方式：直接执行 main 方法，建议附加 JVM 参数 -Xmx2g
+ *
+ * @author click33
+ *
+ */
+public class TimedCacheFootprint {
+
+	public static void main(String[] args) {
+		int keyCount = 1000000;	// 写入多少个 key
+		String value = "10001";
+
+		// 旧版布局：两个 Map，过期时间以 Long 装箱存储
+		long before = usedHeap();
+		Map<String, Object> dataMap = new ConcurrentHashMap<>();
+		Map<String, Long> expireMap = new ConcurrentHashMap<>();
+		for (int i = 0; i < keyCount; i++) {
+			String key = "satoken:login:token:" + i;
+			dataMap.put(key, value);
+			expireMap.put(key, System.currentTimeMillis() + 3600 * 1000L);
+		}
+		long twoMapBytes = usedHeap() - before - keyBytes(keyCount);
+		System.out.println("双 Map 布局：" + (twoMapBytes / keyCount) + " 字节/key (" + dataMap.size() + "+" + expireMap.size() + ")");
+		dataMap = null;
+		expireMap = null;
+
+		// 新版布局：SaTimedCache 单 Map
+		before = usedHeap();
+		SaTimedCache timedCache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+		for (int i = 0; i < keyCount; i++) {
+			timedCache.setObject("satoken:login:token:" + i, value, 3600);
+		}
+		long oneMapBytes = usedHeap() - before - keyBytes(keyCount);
+		System.out.println("单 Map 布局：" + (oneMapBytes / keyCount) + " 字节/key (" + timedCache.keySet().size() + ")");
+	}
+
+	// 粗略估算所有 key 字符串本身占用的字节数，两种布局都需要存储它们，统计时将其扣除
+	private static long keyBytes(int keyCount) {
+		long before = usedHeap();
+		List<String> keys = new ArrayList<>(keyCount);
+		for (int i = 0; i < keyCount; i++) {
+			keys.add("satoken:login:token:" + i);
+		}
+		long bytes = usedHeap() - before - keyCount * 4L;
+		System.out.println("key 字符串：" + (bytes / keys.size()) + " 字节/key");
+		return bytes;
+	}
+
+	// 触发 GC 后获取当前已使用的堆内存
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
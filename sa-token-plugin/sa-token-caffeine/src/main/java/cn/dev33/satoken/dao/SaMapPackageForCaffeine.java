@@ -30,10 +30,23 @@ import java.util.concurrent.TimeUnit;
  */
 public class SaMapPackageForCaffeine<V> implements SaMapPackage<V> {
 
-	public Cache<String, V> cache = Caffeine.newBuilder()
-			.expireAfterWrite(Long.MAX_VALUE, TimeUnit.SECONDS)
-			.maximumSize(Integer.MAX_VALUE)
-			.build();
+	public Cache<String, V> cache;
+
+	public SaMapPackageForCaffeine() {
+		this.cache = Caffeine.newBuilder()
+				.expireAfterWrite(Long.MAX_VALUE, TimeUnit.SECONDS)
+				.maximumSize(Integer.MAX_VALUE)
+				.build();
+	}
+
+	/**
+	 * 使用自定义构建的 Caffeine Cache（例如带有容量上限的 Cache）
+	 *
+	 * @param cache /
+	 */
+	public SaMapPackageForCaffeine(Cache<String, V> cache) {
+		this.cache = cache;
+	}
 
 	@Override
 	public Object getSource() {
@@ -71,6 +84,43 @@ public class SaMapPackageForCaffeine<V> implements SaMapPackage<V> {
 		cache.invalidate(key);
 	}
 
+	/**
+	 * 当 key 不存在时写入
+	 *
+	 * @param key /
+	 * @param value /
+	 * @return 已存在的值，写入成功时返回 null
+	 */
+	@Override
+	public V putIfAbsent(String key, V value) {
+		return cache.asMap().putIfAbsent(key, value);
+	}
+
+	/**
+	 * 当 key 当前的值为指定值时删除
+	 *
+	 * @param key /
+	 * @param value 期望的当前值
+	 * @return 是否删除成功
+	 */
+	@Override
+	public boolean remove(String key, V value) {
+		return cache.asMap().remove(key, value);
+	}
+
+	/**
+	 * 当 key 当前的值为指定值时替换为新值
+	 *
+	 * @param key /
+	 * @param oldValue 期望的当前值
+	 * @param newValue 新值
+	 * @return 是否替换成功
+	 */
+	@Override
+	public boolean replace(String key, V oldValue, V newValue) {
+		return cache.asMap().replace(key, oldValue, newValue);
+	}
+
 	/**
 	 * 所有 key
 	 */
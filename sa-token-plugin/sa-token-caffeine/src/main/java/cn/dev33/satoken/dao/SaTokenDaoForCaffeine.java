@@ -16,9 +16,18 @@
 package cn.dev33.satoken.dao;
 
 
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.config.SaTokenConfig;
 import cn.dev33.satoken.dao.auto.SaTokenDaoByStringFollowObject;
 import cn.dev33.satoken.dao.timedcache.SaTimedCache;
-import cn.dev33.satoken.util.SaFoxUtil;
+import cn.dev33.satoken.dao.timedcache.SaTimedCacheBound;
+import cn.dev33.satoken.dao.timedcache.SaTimedCacheEntry;
+import cn.dev33.satoken.fun.SaParamFunction;
+import cn.dev33.satoken.listener.SaTokenEventCenter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 import java.util.List;
 
@@ -28,13 +37,25 @@ import java.util.List;
  * @author click33
  * @since 1.41.0
  */
-public class SaTokenDaoForCaffeine implements SaTokenDaoByStringFollowObject, SaTokenDao {
+public class SaTokenDaoForCaffeine implements SaTokenDaoByStringFollowObject, SaTokenDao, SaCounterDao {
 
 	public SaTimedCache timedCache = new SaTimedCache(
-			new SaMapPackageForCaffeine<>(),
 			new SaMapPackageForCaffeine<>()
 	);
 
+	// ------------------------ String 读写操作
+
+	@Override
+	public boolean setIfAbsent(String key, String value, long timeout) {
+		return timedCache.setObjectIfAbsent(key, value, timeout);
+	}
+
+	@Override
+	public long increment(String key, long timeout) {
+		return timedCache.incrementObject(key, timeout);
+	}
+
+
 	// ------------------------ Object 读写操作
 
 	@Override
@@ -78,7 +99,12 @@ public class SaTokenDaoForCaffeine implements SaTokenDaoByStringFollowObject, Sa
 
 	@Override
 	public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
-		return SaFoxUtil.searchList(timedCache.keySet(), prefix, keyword, start, size, sortType);
+		return timedCache.searchKeys(prefix, keyword, start, size, sortType);
+	}
+
+	@Override
+	public void scanData(String prefix, String keyword, SaParamFunction<String> consumer) {
+		timedCache.scanKeys(prefix, keyword, consumer);
 	}
 
 
@@ -89,9 +115,60 @@ public class SaTokenDaoForCaffeine implements SaTokenDaoByStringFollowObject, Sa
 	 */
 	@Override
 	public void init() {
+		// 如果配置了容量上限，则改用有上限的 Caffeine Cache，超出时由 Caffeine 按 W-TinyLFU 算法淘汰数据
+		SaTokenConfig config = SaManager.getConfig();
+		if(config.getDataMaxCount() > 0 || config.getDataMaxBytes() > 0) {
+			SaMapPackageForCaffeine<SaTimedCacheEntry> boundedMap = new SaMapPackageForCaffeine<>(createBoundedCache(config.getDataMaxCount(), config.getDataMaxBytes()));
+			for (String key : timedCache.keySet()) {
+				SaTimedCacheEntry entry = timedCache.dataMap.get(key);
+				if(entry != null) {
+					boundedMap.put(key, entry);
+				}
+			}
+			timedCache.dataMap = boundedMap;
+		}
+		// 如果配置了使用有序 key 索引，则会话检索时只扫描前缀所在的区间 （被 Caffeine 淘汰的 key 会在检索时顺带移出索引）
+		if(Boolean.TRUE.equals(config.getDataSearchUseIndex())) {
+			timedCache.enableKeyIndex();
+		}
 		timedCache.initRefreshThread();
 	}
 
+	/**
+	 * 构建一个有容量上限的 Caffeine Cache，被淘汰的数据会通过侦听器 doEvictData 事件通知
+	 *
+	 * @param maxCount 最大数据条数（小于等于 0 代表不限制）
+	 * @param maxBytes 最大预估字节数（小于等于 0 代表不限制，配置此项时 maxCount 不再生效）
+	 * @return /
+	 */
+	public Cache<String, SaTimedCacheEntry> createBoundedCache(long maxCount, long maxBytes) {
+		Caffeine<String, SaTimedCacheEntry> builder = Caffeine.newBuilder()
+				.recordStats()
+				.removalListener((String key, SaTimedCacheEntry entry, RemovalCause cause) -> {
+					if(cause == RemovalCause.SIZE && entry != null) {
+						SaTokenEventCenter.doEvictData(key, entry.value);
+					}
+				});
+		if(maxBytes > 0) {
+			SaTimedCacheBound estimator = new SaTimedCacheBound(maxCount, maxBytes);
+			builder.maximumWeight(maxBytes)
+					.weigher((String key, SaTimedCacheEntry entry) -> (int) Math.min(Integer.MAX_VALUE, estimator.estimateBytes(key, entry.value)));
+		} else {
+			builder.maximumSize(maxCount);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * 获取缓存统计信息（命中率、淘汰数量等），只有在配置了容量上限时才会记录
+	 *
+	 * @return /
+	 */
+	@SuppressWarnings("unchecked")
+	public CacheStats getStats() {
+		return ((Cache<String, ?>) timedCache.dataMap.getSource()).stats();
+	}
+
 	/**
 	 * 组件被卸载时，结束定时任务，不再定时清理过期数据
 	 */
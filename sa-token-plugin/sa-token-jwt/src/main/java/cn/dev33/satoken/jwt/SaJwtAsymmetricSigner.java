@@ -0,0 +1,312 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.jwt;
+
+import cn.dev33.satoken.jwt.error.SaJwtErrorCode;
+import cn.dev33.satoken.jwt.exception.SaJwtException;
+import cn.hutool.jwt.signers.JWTSigner;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 线程安全、可复用的非对称 jwt 签名器，支持 RS256、RS384、RS512、ES256、ES384、ES512、EdDSA
+ *
+ * <p>
+ *     与 SaJwtHmacSigner 相同，内部为签名、验签分别维护已初始化的 Signature 实例池。
+ *     只持有公钥时只能验签，适合只需校验 token、不应持有签名秘钥的微服务。
+ * </p>
+ *
+ * <p> 注意：EdDSA 需要 JDK 15 及以上版本（或注册了支持 EdDSA 的安全提供者） </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaJwtAsymmetricSigner implements JWTSigner {
+
+	/**
+	 * jwt 算法标识，例如：RS256
+	 */
+	final String algorithmId;
+
+	/**
+	 * JCA 签名算法名称，例如：SHA256withRSA
+	 */
+	final String algorithm;
+
+	/**
+	 * ECDSA 签名中 R、S 各自的字节长度，非 ECDSA 算法时为 0
+	 */
+	final int ecNumberSize;
+
+	/**
+	 * 私钥，只验签时为 null
+	 */
+	final PrivateKey privateKey;
+
+	/**
+	 * 公钥
+	 */
+	final PublicKey publicKey;
+
+	/**
+	 * 签名用 Signature 实例池
+	 */
+	final Queue<Signature> signPool = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * 验签用 Signature 实例池
+	 */
+	final Queue<Signature> verifyPool = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * 构建一个非对称 jwt 签名器
+	 *
+	 * @param algorithmId jwt 算法标识：RS256、RS384、RS512、ES256、ES384、ES512、EdDSA
+	 * @param privateKey 私钥，只验签时可以为 null
+	 * @param publicKey 公钥
+	 */
+	public SaJwtAsymmetricSigner(String algorithmId, PrivateKey privateKey, PublicKey publicKey) {
+		this.algorithmId = algorithmId;
+		this.algorithm = getJcaAlgorithm(algorithmId);
+		this.ecNumberSize = getEcNumberSize(algorithmId);
+		this.privateKey = privateKey;
+		this.publicKey = publicKey;
+		if(publicKey == null) {
+			throw new SaJwtException("创建 jwt 签名器失败，未提供公钥：" + algorithmId).setCode(SaJwtErrorCode.CODE_30207);
+		}
+		// 提前创建实例，算法与秘钥不匹配时尽早抛出异常
+		verifyPool.offer(createVerifySignature());
+		if(privateKey != null) {
+			signPool.offer(createSignSignature());
+		}
+	}
+
+	/**
+	 * 获取 jwt 算法标识对应的 JCA 签名算法名称
+	 *
+	 * @param algorithmId jwt 算法标识
+	 * @return /
+	 */
+	public static String getJcaAlgorithm(String algorithmId) {
+		switch (String.valueOf(algorithmId)) {
+			case "RS256": return "SHA256withRSA";
+			case "RS384": return "SHA384withRSA";
+			case "RS512": return "SHA512withRSA";
+			case "ES256": return "SHA256withECDSA";
+			case "ES384": return "SHA384withECDSA";
+			case "ES512": return "SHA512withECDSA";
+			case "EdDSA": return "EdDSA";
+			default: throw new SaJwtException("不支持的 jwt 签名算法：" + algorithmId).setCode(SaJwtErrorCode.CODE_30207);
+		}
+	}
+
+	/**
+	 * 获取 ECDSA 算法中 R、S 各自的字节长度
+	 *
+	 * @param algorithmId jwt 算法标识
+	 * @return 非 ECDSA 算法时返回 0
+	 */
+	static int getEcNumberSize(String algorithmId) {
+		switch (algorithmId) {
+			case "ES256": return 32;
+			case "ES384": return 48;
+			case "ES512": return 66;
+			default: return 0;
+		}
+	}
+
+	@Override
+	public String sign(String headerBase64, String payloadBase64) {
+		if(privateKey == null) {
+			throw new SaJwtException("此 jwt 签名器未提供私钥，只能用于验签").setCode(SaJwtErrorCode.CODE_30208);
+		}
+		Signature signature = signPool.poll();
+		if(signature == null) {
+			signature = createSignSignature();
+		}
+		byte[] sign;
+		try {
+			update(signature, headerBase64, payloadBase64);
+			sign = signature.sign();
+		} catch (GeneralSecurityException e) {
+			// 出错的实例状态不确定，直接丢弃
+			throw new SaJwtException("jwt 签名失败", e).setCode(SaJwtErrorCode.CODE_30207);
+		}
+		signPool.offer(signature);
+		if(ecNumberSize > 0) {
+			sign = derToConcat(sign, ecNumberSize);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(sign);
+	}
+
+	@Override
+	public boolean verify(String headerBase64, String payloadBase64, String signBase64) {
+		if(signBase64 == null) {
+			return false;
+		}
+		byte[] sign;
+		try {
+			sign = Base64.getUrlDecoder().decode(signBase64);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		// Base64 解码是宽松的（末位多余 bit、填充符都会被忽略），只接受规范格式（url 安全、无填充）的签名文本，保证同一个签名只有一种写法
+		if( ! Base64.getUrlEncoder().withoutPadding().encodeToString(sign).equals(signBase64)) {
+			return false;
+		}
+		if(ecNumberSize > 0) {
+			if(sign.length != ecNumberSize * 2) {
+				return false;
+			}
+			sign = concatToDer(sign);
+		}
+		Signature signature = verifyPool.poll();
+		if(signature == null) {
+			signature = createVerifySignature();
+		}
+		boolean result;
+		try {
+			update(signature, headerBase64, payloadBase64);
+			result = signature.verify(sign);
+		} catch (GeneralSecurityException e) {
+			// 签名格式错误等情况，实例状态不确定，直接丢弃
+			return false;
+		}
+		verifyPool.offer(signature);
+		return result;
+	}
+
+	@Override
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	@Override
+	public String getAlgorithmId() {
+		return algorithmId;
+	}
+
+	static void update(Signature signature, String headerBase64, String payloadBase64) throws GeneralSecurityException {
+		signature.update(headerBase64.getBytes(StandardCharsets.UTF_8));
+		signature.update((byte) '.');
+		signature.update(payloadBase64.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 创建一个已初始化的签名用 Signature 实例
+	 *
+	 * @return /
+	 */
+	protected Signature createSignSignature() {
+		try {
+			Signature signature = Signature.getInstance(algorithm);
+			signature.initSign(privateKey);
+			return signature;
+		} catch (GeneralSecurityException e) {
+			throw new SaJwtException("创建 jwt 签名器失败：" + algorithmId, e).setCode(SaJwtErrorCode.CODE_30207);
+		}
+	}
+
+	/**
+	 * 创建一个已初始化的验签用 Signature 实例
+	 *
+	 * @return /
+	 */
+	protected Signature createVerifySignature() {
+		try {
+			Signature signature = Signature.getInstance(algorithm);
+			signature.initVerify(publicKey);
+			return signature;
+		} catch (GeneralSecurityException e) {
+			throw new SaJwtException("创建 jwt 签名器失败：" + algorithmId, e).setCode(SaJwtErrorCode.CODE_30207);
+		}
+	}
+
+	// ------ ECDSA 签名格式转换：JCA 输出 DER 编码，JWS 规定为定长的 R || S
+
+	/**
+	 * DER 编码的 ECDSA 签名转为 R || S
+	 *
+	 * @param der DER 编码
+	 * @param size R、S 各自的字节长度
+	 * @return /
+	 */
+	static byte[] derToConcat(byte[] der, int size) {
+		// SEQUENCE 长度可能占 1 或 2 个字节
+		int offset = (der[1] & 0x80) != 0 ? 3 : 2;
+		byte[] result = new byte[size * 2];
+		offset = copyInteger(der, offset, result, 0, size);
+		copyInteger(der, offset, result, size, size);
+		return result;
+	}
+
+	static int copyInteger(byte[] der, int offset, byte[] dest, int destPos, int size) {
+		int len = der[offset + 1] & 0xff;
+		int start = offset + 2;
+		// 去掉为表示正数而补的前导 0
+		int skip = Math.max(len - size, 0);
+		System.arraycopy(der, start + skip, dest, destPos + size - (len - skip), len - skip);
+		return start + len;
+	}
+
+	/**
+	 * R || S 格式的 ECDSA 签名转为 DER 编码
+	 *
+	 * @param concat R || S
+	 * @return /
+	 */
+	static byte[] concatToDer(byte[] concat) {
+		int size = concat.length / 2;
+		byte[] r = toDerInteger(Arrays.copyOfRange(concat, 0, size));
+		byte[] s = toDerInteger(Arrays.copyOfRange(concat, size, concat.length));
+		int bodyLen = r.length + s.length;
+		int headerLen = bodyLen >= 128 ? 3 : 2;
+		byte[] der = new byte[headerLen + bodyLen];
+		der[0] = 0x30;
+		if(bodyLen >= 128) {
+			der[1] = (byte) 0x81;
+			der[2] = (byte) bodyLen;
+		} else {
+			der[1] = (byte) bodyLen;
+		}
+		System.arraycopy(r, 0, der, headerLen, r.length);
+		System.arraycopy(s, 0, der, headerLen + r.length, s.length);
+		return der;
+	}
+
+	static byte[] toDerInteger(byte[] value) {
+		int start = 0;
+		while (start < value.length - 1 && value[start] == 0) {
+			start++;
+		}
+		boolean pad = (value[start] & 0x80) != 0;
+		int len = value.length - start + (pad ? 1 : 0);
+		byte[] result = new byte[len + 2];
+		result[0] = 0x02;
+		result[1] = (byte) len;
+		System.arraycopy(value, start, result, 2 + (pad ? 1 : 0), value.length - start);
+		return result;
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.jwt;
+
+import cn.dev33.satoken.jwt.error.SaJwtErrorCode;
+import cn.dev33.satoken.jwt.exception.SaJwtException;
+import cn.hutool.jwt.signers.JWTSigner;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 线程安全、可复用的 HMAC jwt 签名器
+ *
+ * <p>
+ *     hutool 自带的 HMacJWTSigner 内部持有单个 Mac 实例，不能被多个线程同时使用，因此只能每次请求都新建一个。
+ *     本类为每个秘钥维护一个 Mac 实例池，签名、验签时从池中借出，用完归还，池的大小自然受限于同时签名的线程数。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaJwtHmacSigner implements JWTSigner {
+
+	/**
+	 * 签名算法，例如：HmacSHA256
+	 */
+	final String algorithm;
+
+	/**
+	 * 秘钥
+	 */
+	final SecretKeySpec key;
+
+	/**
+	 * Mac 实例池
+	 */
+	final Queue<Mac> macPool = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * 构建一个 HMAC jwt 签名器
+	 *
+	 * @param algorithm 签名算法，例如：HmacSHA256、HmacSHA384、HmacSHA512
+	 * @param key 秘钥
+	 */
+	public SaJwtHmacSigner(String algorithm, byte[] key) {
+		this.algorithm = algorithm;
+		try {
+			this.key = new SecretKeySpec(key, algorithm);
+		} catch (IllegalArgumentException e) {
+			throw new SaJwtException("创建 jwt 签名器失败，秘钥无效", e).setCode(SaJwtErrorCode.CODE_30207);
+		}
+		// 提前创建一个实例，算法或秘钥无效时尽早抛出异常
+		macPool.offer(createMac());
+	}
+
+	/**
+	 * 构建一个 HS256 签名器
+	 *
+	 * @param key 秘钥
+	 * @return /
+	 */
+	public static SaJwtHmacSigner hs256(byte[] key) {
+		return new SaJwtHmacSigner("HmacSHA256", key);
+	}
+
+	@Override
+	public String sign(String headerBase64, String payloadBase64) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(mac(headerBase64, payloadBase64));
+	}
+
+	/**
+	 * 验签：将期望的签名按规范格式（url 安全、无填充）编码后，与传入的签名文本做常量时间比较，不做任何 JSON 解析
+	 *
+	 * <p> 不先解码传入的签名，因为 Base64 解码是宽松的（末位多余 bit、填充符都会被忽略），同一个签名可以有多种文本写法 </p>
+	 */
+	@Override
+	public boolean verify(String headerBase64, String payloadBase64, String signBase64) {
+		if(signBase64 == null) {
+			return false;
+		}
+		String expected = sign(headerBase64, payloadBase64);
+		return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), signBase64.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * 计算 header.payload 的 HMAC 值
+	 *
+	 * @param headerBase64 header 部分
+	 * @param payloadBase64 payload 部分
+	 * @return /
+	 */
+	protected byte[] mac(String headerBase64, String payloadBase64) {
+		Mac mac = macPool.poll();
+		if(mac == null) {
+			mac = createMac();
+		}
+		try {
+			mac.update(headerBase64.getBytes(StandardCharsets.UTF_8));
+			mac.update((byte) '.');
+			mac.update(payloadBase64.getBytes(StandardCharsets.UTF_8));
+			return mac.doFinal();
+		} finally {
+			// doFinal 会重置 Mac 状态；如果中途抛出异常，这里也重置一次再归还
+			mac.reset();
+			macPool.offer(mac);
+		}
+	}
+
+	/**
+	 * 创建一个已初始化的 Mac 实例
+	 *
+	 * @return /
+	 */
+	protected Mac createMac() {
+		try {
+			Mac mac = Mac.getInstance(algorithm);
+			mac.init(key);
+			return mac;
+		} catch (GeneralSecurityException | IllegalArgumentException e) {
+			throw new SaJwtException("创建 jwt 签名器失败：" + algorithm, e).setCode(SaJwtErrorCode.CODE_30207);
+		}
+	}
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.jwt;
+
+import cn.dev33.satoken.jwt.error.SaJwtErrorCode;
+import cn.dev33.satoken.jwt.exception.SaJwtException;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import cn.hutool.jwt.signers.JWTSigner;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * jwt 密钥环：按 kid 索引的一组签名器，支持密钥轮换（新密钥签名，旧密钥仍可验签）
+ *
+ * <p>
+ *     所有密钥在加入密钥环时即完成解析与签名器初始化，验签时只需按 jwt header 中的 kid 查表，
+ *     不论密钥环中有多少个密钥，每次验签的开销都是固定的。
+ * </p>
+ *
+ * <pre>
+ *     // 签名服务：持有私钥
+ *     SaJwtKeyRing keyRing = new SaJwtKeyRing()
+ *         .addKey("2024-01", "RS256", oldPrivateKeyPem, oldPublicKeyPem)
+ *         .addKey("2024-06", "RS256", newPrivateKeyPem, newPublicKeyPem)
+ *         .setSignKid("2024-06");
+ *     // 验签服务：只持有公钥
+ *     SaJwtKeyRing keyRing = new SaJwtKeyRing()
+ *         .addKey("2024-01", "RS256", null, oldPublicKeyPem)
+ *         .addKey("2024-06", "RS256", null, newPublicKeyPem);
+ *     SaJwtUtil.getSaJwtTemplate().setKeyRing(keyRing);
+ * </pre>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaJwtKeyRing {
+
+	/**
+	 * header 解析结果缓存的上限，超出时清空重建
+	 */
+	public static int headerCacheMaxSize = 256;
+
+	/**
+	 * kid -> 签名器
+	 */
+	final Map<String, JWTSigner> signers = new ConcurrentHashMap<>();
+
+	/**
+	 * jwt header（Base64 原文） -> 签名器，同一个密钥签发的 jwt 的 header 完全相同，缓存后验签时无需再解析 header
+	 */
+	final Map<String, JWTSigner> headerCache = new ConcurrentHashMap<>();
+
+	/**
+	 * 用于签名的密钥 kid
+	 */
+	volatile String signKid;
+
+	/**
+	 * 版本号序列，所有密钥环共用，保证不同密钥环的版本号也互不相同
+	 */
+	static final AtomicLong VERSION_SEQ = new AtomicLong();
+
+	/**
+	 * 版本号，密钥环中的密钥每次变化都会更新，用于让 jwt 解析缓存中的旧数据失效
+	 */
+	volatile long version = VERSION_SEQ.incrementAndGet();
+
+	/**
+	 * 加入一个 HMAC 密钥（HS256、HS384、HS512）
+	 *
+	 * @param kid 密钥 id
+	 * @param algorithmId jwt 算法标识
+	 * @param secret 秘钥
+	 * @return 对象自身
+	 */
+	public SaJwtKeyRing addHmacKey(String kid, String algorithmId, String secret) {
+		String algorithm;
+		switch (String.valueOf(algorithmId)) {
+			case "HS256": algorithm = "HmacSHA256"; break;
+			case "HS384": algorithm = "HmacSHA384"; break;
+			case "HS512": algorithm = "HmacSHA512"; break;
+			default: throw new SaJwtException("不支持的 jwt 签名算法：" + algorithmId).setCode(SaJwtErrorCode.CODE_30207);
+		}
+		return addSigner(kid, new SaJwtHmacSigner(algorithm, secret.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * 加入一个非对称密钥（RS256、RS384、RS512、ES256、ES384、ES512、EdDSA），密钥使用 PEM 或 Base64 格式
+	 *
+	 * @param kid 密钥 id
+	 * @param algorithmId jwt 算法标识
+	 * @param privateKey 私钥（PKCS#8），只验签时可以为 null
+	 * @param publicKey 公钥（X.509）
+	 * @return 对象自身
+	 */
+	public SaJwtKeyRing addKey(String kid, String algorithmId, String privateKey, String publicKey) {
+		String keyAlgorithm = getKeyAlgorithm(algorithmId);
+		return addKey(kid, algorithmId,
+				privateKey == null ? null : parsePrivateKey(keyAlgorithm, privateKey),
+				parsePublicKey(keyAlgorithm, publicKey));
+	}
+
+	/**
+	 * 加入一个非对称密钥
+	 *
+	 * @param kid 密钥 id
+	 * @param algorithmId jwt 算法标识
+	 * @param privateKey 私钥，只验签时可以为 null
+	 * @param publicKey 公钥
+	 * @return 对象自身
+	 */
+	public SaJwtKeyRing addKey(String kid, String algorithmId, PrivateKey privateKey, PublicKey publicKey) {
+		return addSigner(kid, new SaJwtAsymmetricSigner(algorithmId, privateKey, publicKey));
+	}
+
+	/**
+	 * 加入一个自定义签名器（需保证线程安全）
+	 *
+	 * @param kid 密钥 id
+	 * @param signer 签名器
+	 * @return 对象自身
+	 */
+	public SaJwtKeyRing addSigner(String kid, JWTSigner signer) {
+		if(kid == null || kid.isEmpty()) {
+			throw new SaJwtException("jwt 密钥环中的密钥必须指定 kid").setCode(SaJwtErrorCode.CODE_30208);
+		}
+		signers.put(kid, signer);
+		changed();
+		return this;
+	}
+
+	/**
+	 * 移除一个密钥，此后由此密钥签发的 jwt 均无法通过验签
+	 *
+	 * @param kid 密钥 id
+	 * @return 对象自身
+	 */
+	public SaJwtKeyRing removeKey(String kid) {
+		if(kid.equals(signKid)) {
+			throw new SaJwtException("不能移除正在用于签名的密钥：" + kid).setCode(SaJwtErrorCode.CODE_30208);
+		}
+		signers.remove(kid);
+		changed();
+		return this;
+	}
+
+	/**
+	 * 指定用于签名的密钥（密钥轮换时，先加入新密钥，再调用此方法切换）
+	 *
+	 * @param kid 密钥 id
+	 * @return 对象自身
+	 */
+	public SaJwtKeyRing setSignKid(String kid) {
+		if( ! signers.containsKey(kid)) {
+			throw new SaJwtException("jwt 密钥环中不存在此 kid：" + kid).setCode(SaJwtErrorCode.CODE_30208);
+		}
+		this.signKid = kid;
+		changed();
+		return this;
+	}
+
+	/**
+	 * @return 用于签名的密钥 kid
+	 */
+	public String getSignKid() {
+		return signKid;
+	}
+
+	/**
+	 * 获取用于签名的签名器
+	 *
+	 * @return /
+	 */
+	public JWTSigner getSignSigner() {
+		String kid = signKid;
+		if(kid == null) {
+			throw new SaJwtException("jwt 密钥环未指定用于签名的密钥").setCode(SaJwtErrorCode.CODE_30208);
+		}
+		return signers.get(kid);
+	}
+
+	/**
+	 * 获取指定 kid 的签名器
+	 *
+	 * @param kid 密钥 id
+	 * @return 不存在时返回 null
+	 */
+	public JWTSigner getSigner(String kid) {
+		return kid == null ? null : signers.get(kid);
+	}
+
+	/**
+	 * 根据 jwt header 找到对应的验签器，header 中必须带有 kid，且 alg 与该密钥的算法一致（防止算法混淆攻击）
+	 *
+	 * @param headerBase64 jwt header 部分（Base64 原文）
+	 * @return 找不到时返回 null
+	 */
+	public JWTSigner getVerifier(String headerBase64) {
+		JWTSigner signer = headerCache.get(headerBase64);
+		if(signer != null) {
+			return signer;
+		}
+		JSONObject header;
+		try {
+			header = JSONUtil.parseObj(new String(Base64.getUrlDecoder().decode(headerBase64), StandardCharsets.UTF_8));
+		} catch (RuntimeException e) {
+			return null;
+		}
+		signer = getSigner(header.getStr("kid"));
+		if(signer == null || ! signer.getAlgorithmId().equals(header.getStr("alg"))) {
+			return null;
+		}
+		if(headerCache.size() >= headerCacheMaxSize) {
+			headerCache.clear();
+		}
+		headerCache.put(headerBase64, signer);
+		return signer;
+	}
+
+	/**
+	 * @return 版本号，密钥环中的密钥每次变化都会更新（全局唯一）
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * 密钥变化后，清空 header 缓存并更新版本号
+	 */
+	void changed() {
+		headerCache.clear();
+		version = VERSION_SEQ.incrementAndGet();
+	}
+
+	// ------ 密钥解析
+
+	/**
+	 * 获取 jwt 算法标识对应的密钥算法
+	 *
+	 * @param algorithmId jwt 算法标识
+	 * @return RSA、EC、EdDSA
+	 */
+	public static String getKeyAlgorithm(String algorithmId) {
+		String algorithm = SaJwtAsymmetricSigner.getJcaAlgorithm(algorithmId);
+		if(algorithm.endsWith("withRSA")) {
+			return "RSA";
+		}
+		if(algorithm.endsWith("withECDSA")) {
+			return "EC";
+		}
+		return "EdDSA";
+	}
+
+	/**
+	 * 解析 PEM 或 Base64 格式的公钥（X.509）
+	 *
+	 * @param keyAlgorithm 密钥算法：RSA、EC、EdDSA
+	 * @param key 公钥
+	 * @return /
+	 */
+	public static PublicKey parsePublicKey(String keyAlgorithm, String key) {
+		try {
+			return KeyFactory.getInstance(keyAlgorithm).generatePublic(new X509EncodedKeySpec(decodePem(key)));
+		} catch (GeneralSecurityException | IllegalArgumentException | NullPointerException e) {
+			throw new SaJwtException("jwt 公钥解析失败", e).setCode(SaJwtErrorCode.CODE_30208);
+		}
+	}
+
+	/**
+	 * 解析 PEM 或 Base64 格式的私钥（PKCS#8）
+	 *
+	 * @param keyAlgorithm 密钥算法：RSA、EC、EdDSA
+	 * @param key 私钥
+	 * @return /
+	 */
+	public static PrivateKey parsePrivateKey(String keyAlgorithm, String key) {
+		try {
+			return KeyFactory.getInstance(keyAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(decodePem(key)));
+		} catch (GeneralSecurityException | IllegalArgumentException | NullPointerException e) {
+			throw new SaJwtException("jwt 私钥解析失败", e).setCode(SaJwtErrorCode.CODE_30208);
+		}
+	}
+
+	/**
+	 * 去掉 PEM 的首尾标记与空白字符后，进行 Base64 解码
+	 *
+	 * @param pem PEM 或 Base64 文本
+	 * @return /
+	 */
+	static byte[] decodePem(String pem) {
+		String base64 = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+		return Base64.getDecoder().decode(base64);
+	}
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.jwt;
+
+import cn.dev33.satoken.dao.timedcache.SaMapPackageForConcurrentHashMap;
+import cn.dev33.satoken.dao.timedcache.SaTimedCache;
+import cn.hutool.jwt.JWT;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * jwt 解析结果的本地缓存：token 字符串 -> 已通过验签、loginType 校验的 JWT 对象
+ *
+ * <p>
+ *     stateless、mixin 模式下，同一个请求内多次调用 getLoginId()、getExtra()、getTokenTimeout() 等方法，
+ *     以及同一个 token 的多次请求，都需要重复 Base64 解码、计算 HMAC、解析 JSON，开启此缓存后，热点 token 只需处理一次。
+ * </p>
+ *
+ * <p>
+ *     缓存有效期不会超过 jwt 自身的 eff 有效期，命中时仍会按 eff 精确判断是否过期；
+ *     缓存项同时记录了验签时使用的秘钥与 loginType，秘钥更换后旧的缓存项自动失效。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaJwtParseCache {
+
+	/**
+	 * 本地缓存，token -> SaJwtParseCacheEntry
+	 */
+	public final SaTimedCache localCache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+
+	/**
+	 * 命中次数
+	 */
+	public final LongAdder hitCount = new LongAdder();
+
+	/**
+	 * 未命中次数
+	 */
+	public final LongAdder missCount = new LongAdder();
+
+	/**
+	 * 缓存项
+	 */
+	public static class SaJwtParseCacheEntry {
+
+		/**
+		 * 校验时的 loginType
+		 */
+		public final String loginType;
+
+		/**
+		 * 验签时使用的秘钥
+		 */
+		public final String keyt;
+
+		/**
+		 * 解析结果
+		 */
+		public final JWT jwt;
+
+		public SaJwtParseCacheEntry(String loginType, String keyt, JWT jwt) {
+			this.loginType = loginType;
+			this.keyt = keyt;
+			this.jwt = jwt;
+		}
+
+	}
+
+	/**
+	 * 构建一个 jwt 解析缓存
+	 *
+	 * @param maxCount 最多缓存多少个 jwt（小于等于 0 代表不限制）
+	 */
+	public SaJwtParseCache(long maxCount) {
+		if(maxCount > 0) {
+			// 缓存的只是 jwt 的解析结果，被淘汰时无需发布全局事件
+			localCache.enableBound(maxCount, -1);
+			localCache.bound.evictListener = (key, value) -> {};
+		}
+	}
+
+	/**
+	 * 获取指定 token 的解析结果
+	 *
+	 * @param token token 值
+	 * @param loginType 账号类型
+	 * @param keyt 秘钥
+	 * @return 未命中、或缓存项的秘钥、loginType 与本次不一致时返回 null
+	 */
+	public JWT get(String token, String loginType, String keyt) {
+		Object value = localCache.getObject(token);
+		if(value instanceof SaJwtParseCacheEntry) {
+			SaJwtParseCacheEntry entry = (SaJwtParseCacheEntry) value;
+			if(Objects.equals(entry.loginType, loginType) && Objects.equals(entry.keyt, keyt)) {
+				hitCount.increment();
+				return entry.jwt;
+			}
+		}
+		missCount.increment();
+		return null;
+	}
+
+	/**
+	 * 写入指定 token 的解析结果
+	 *
+	 * @param token token 值
+	 * @param loginType 账号类型
+	 * @param keyt 秘钥
+	 * @param jwt 解析结果
+	 * @param effTime jwt 的有效截止期（13 位时间戳，-1 代表永不过期）
+	 * @param timeout 缓存最长有效期（单位: 秒）
+	 */
+	public void put(String token, String loginType, String keyt, JWT jwt, long effTime, long timeout) {
+		if(effTime != SaJwtTemplate.NEVER_EXPIRE) {
+			// 向上取整到秒，命中时仍会按 eff 精确判断
+			long effTimeout = (effTime - System.currentTimeMillis() + 999) / 1000;
+			if(effTimeout <= 0) {
+				return;
+			}
+			timeout = Math.min(timeout, effTimeout);
+		}
+		localCache.setObject(token, new SaJwtParseCacheEntry(loginType, keyt, jwt), timeout);
+	}
+
+	/**
+	 * 删除指定 token 的解析结果
+	 *
+	 * @param token token 值
+	 */
+	public void remove(String token) {
+		localCache.deleteObject(token);
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void clear() {
+		new ArrayList<>(localCache.keySet()).forEach(localCache::deleteObject);
+	}
+
+	/**
+	 * 获取命中次数
+	 *
+	 * @return /
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * 获取未命中次数
+	 *
+	 * @return /
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * 获取命中率
+	 *
+	 * @return 0.0 ~ 1.0，没有任何读取时返回 0
+	 */
+	public double getHitRate() {
+		long hit = hitCount.sum();
+		long total = hit + missCount.sum();
+		return total == 0 ? 0 : (double) hit / total;
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.jwt;
+
+import cn.dev33.satoken.util.SaBloomFilter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * jwt 吊销过滤器：按 token 到期时间分区的布隆过滤器
+ *
+ * <p>
+ *     每个被吊销的 token 按其 eff 到期时间登记到对应的时间分区中，校验时 token 自身的 eff 已知，因此只需探测一个分区；
+ *     分区内的 token 全部到期后整个分区被丢弃，布隆过滤器虽然不支持删除，但也不会随时间无限膨胀。
+ * </p>
+ *
+ * <p>
+ *     布隆过滤器只会误报、不会漏报：探测结果为 false 时 token 一定未被吊销，为 true 时需要再查询持久层确认。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaJwtRevokeFilter {
+
+	/**
+	 * 永不过期的 token 所在的分区序号
+	 */
+	public static final long NEVER_EXPIRE_PARTITION = Long.MAX_VALUE;
+
+	/**
+	 * 每个分区覆盖的时间跨度（单位: 毫秒）
+	 */
+	public final long partitionMillis;
+
+	/**
+	 * 每个分区布隆过滤器的位数组长度
+	 */
+	public final int bitSize;
+
+	/**
+	 * 每个元素计算多少次哈希
+	 */
+	public final int hashCount;
+
+	/**
+	 * 分区集合，分区序号 -> 布隆过滤器 （按分区序号升序排列）
+	 */
+	public final ConcurrentSkipListMap<Long, SaBloomFilter> partitions = new ConcurrentSkipListMap<>();
+
+	/**
+	 * 构建一个 jwt 吊销过滤器
+	 *
+	 * @param partitionMillis 每个分区覆盖的时间跨度（单位: 毫秒）
+	 * @param expectedInsertions 每个分区预计登记多少个 token
+	 * @param fpp 期望的误报率（0 ~ 1 之间）
+	 */
+	public SaJwtRevokeFilter(long partitionMillis, int expectedInsertions, double fpp) {
+		this.partitionMillis = Math.max(partitionMillis, 1);
+		this.bitSize = SaBloomFilter.optimalBitSize(expectedInsertions, fpp);
+		this.hashCount = SaBloomFilter.optimalHashCount(expectedInsertions, bitSize);
+	}
+
+	/**
+	 * 计算指定到期时间所属的分区序号
+	 *
+	 * @param effTime 到期时间戳（13 位时间戳，-1 代表永不过期）
+	 * @return 分区序号
+	 */
+	public long getPartition(long effTime) {
+		return effTime == SaJwtTemplate.NEVER_EXPIRE ? NEVER_EXPIRE_PARTITION : effTime / partitionMillis;
+	}
+
+	/**
+	 * 登记一个被吊销的 token
+	 *
+	 * @param id token 的唯一标识
+	 * @param effTime token 的到期时间戳（13 位时间戳，-1 代表永不过期）
+	 */
+	public void add(String id, long effTime) {
+		partitions.computeIfAbsent(getPartition(effTime), k -> new SaBloomFilter(bitSize, hashCount)).add(id);
+	}
+
+	/**
+	 * 探测一个 token 是否可能已被吊销
+	 *
+	 * @param id token 的唯一标识
+	 * @param effTime token 的到期时间戳（13 位时间戳，-1 代表永不过期）
+	 * @return false=一定未被吊销，true=可能已被吊销
+	 */
+	public boolean mightContain(String id, long effTime) {
+		SaBloomFilter filter = partitions.get(getPartition(effTime));
+		return filter != null && filter.mightContain(id);
+	}
+
+	/**
+	 * 丢弃所有已经完整度过的分区
+	 *
+	 * @param now 当前时间戳（单位: 毫秒）
+	 * @return 本次丢弃的分区数量
+	 */
+	public int pruneExpired(long now) {
+		Map<Long, SaBloomFilter> expired = partitions.headMap(now / partitionMillis);
+		int count = expired.size();
+		expired.clear();
+		return count;
+	}
+
+	/**
+	 * 清空过滤器
+	 */
+	public void clear() {
+		partitions.clear();
+	}
+
+	/**
+	 * 获取当前分区的数量
+	 *
+	 * @return /
+	 */
+	public int getPartitionCount() {
+		return partitions.size();
+	}
+
+}
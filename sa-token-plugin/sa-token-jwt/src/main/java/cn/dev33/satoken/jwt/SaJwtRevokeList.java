@@ -0,0 +1,259 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.jwt;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.secure.SaSecureUtil;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * jwt 吊销列表：持久层保存被吊销的 token，本地布隆过滤器负责快速排除未吊销的 token
+ *
+ * <p>
+ *     持久层 key 格式：<前缀><eff 到期时间>:<token 标识>，value 为吊销原因（-2 注销、-4 顶下线、-5 踢下线），有效期与 token 剩余有效期一致。
+ *     由于 key 中包含了到期时间，同步时只需遍历 key 即可重建本地过滤器，不必逐个读取 value。
+ * </p>
+ *
+ * <p>
+ *     校验时先探测本地过滤器，探测未命中（绝大多数请求）直接放行，不会访问持久层；探测命中时再查询持久层确认，以排除布隆过滤器的误报。
+ *     其它节点吊销的 token 需要等待下一次定时同步后才能在本节点被拦截。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaJwtRevokeList {
+
+	/**
+	 * 持久层 key 前缀
+	 */
+	public final String keyPrefix;
+
+	/**
+	 * 本地布隆过滤器
+	 */
+	public final SaJwtRevokeFilter filter;
+
+	/**
+	 * 探测本地过滤器的次数
+	 */
+	public final LongAdder probeCount = new LongAdder();
+
+	/**
+	 * 探测命中后查询持久层的次数
+	 */
+	public final LongAdder daoQueryCount = new LongAdder();
+
+	/**
+	 * 执行定时同步的线程引用
+	 */
+	public Thread syncThread;
+
+	/**
+	 * 是否继续执行定时同步的线程标记
+	 */
+	public volatile boolean syncFlag;
+
+	/**
+	 * 构建一个 jwt 吊销列表，本地过滤器按 1 小时分区，每个分区预计 10000 个 token，误报率 0.1%
+	 *
+	 * @param keyPrefix 持久层 key 前缀
+	 */
+	public SaJwtRevokeList(String keyPrefix) {
+		this(keyPrefix, new SaJwtRevokeFilter(60 * 60 * 1000, 10000, 0.001));
+	}
+
+	/**
+	 * 构建一个 jwt 吊销列表
+	 *
+	 * @param keyPrefix 持久层 key 前缀
+	 * @param filter 本地布隆过滤器
+	 */
+	public SaJwtRevokeList(String keyPrefix, SaJwtRevokeFilter filter) {
+		this.keyPrefix = keyPrefix;
+		this.filter = filter;
+	}
+
+	/**
+	 * 获取 token 的唯一标识：header.payload 部分的 SHA-256 摘要
+	 *
+	 * <p> 不能直接使用签名段：同一个 header.payload 可能存在多个有效签名（例如 ECDSA 签名的 s 与 n-s 都能通过验签），
+	 * 改写签名即可绕过吊销；而 header.payload 受签名保护，无法在不破坏验签的前提下改写 </p>
+	 *
+	 * @param token token 值
+	 * @return /
+	 */
+	public static String getTokenId(String token) {
+		int index = token.lastIndexOf('.');
+		return SaSecureUtil.sha256(index == -1 ? token : token.substring(0, index));
+	}
+
+	/**
+	 * 拼接持久层 key
+	 *
+	 * @param tokenId token 的唯一标识
+	 * @param effTime token 的到期时间戳（13 位时间戳，-1 代表永不过期）
+	 * @return key
+	 */
+	public String splicingKey(String tokenId, long effTime) {
+		return keyPrefix + effTime + ":" + tokenId;
+	}
+
+	/**
+	 * 吊销一个 token
+	 *
+	 * @param token token 值
+	 * @param effTime token 的到期时间戳（13 位时间戳，-1 代表永不过期）
+	 * @param reason 吊销原因（-2 注销、-4 顶下线、-5 踢下线）
+	 */
+	public void revoke(String token, long effTime, String reason) {
+		long timeout = SaTokenDao.NEVER_EXPIRE;
+		if(effTime != SaJwtTemplate.NEVER_EXPIRE) {
+			timeout = (effTime - System.currentTimeMillis() + 999) / 1000;
+			// 已经过期的 token 本身就无法通过校验，无需吊销
+			if(timeout <= 0) {
+				return;
+			}
+		}
+		String tokenId = getTokenId(token);
+		// 先写持久层，再登记本地过滤器，保证过滤器命中时持久层一定能查到
+		SaManager.getSaTokenDao().set(splicingKey(tokenId, effTime), reason, timeout);
+		filter.add(tokenId, effTime);
+	}
+
+	/**
+	 * 获取一个 token 的吊销原因
+	 *
+	 * @param token token 值
+	 * @param effTime token 的到期时间戳（13 位时间戳，-1 代表永不过期）
+	 * @return 吊销原因（-2 注销、-4 顶下线、-5 踢下线），未被吊销时返回 null
+	 */
+	public String getRevokeReason(String token, long effTime) {
+		probeCount.increment();
+		String tokenId = getTokenId(token);
+		if( ! filter.mightContain(tokenId, effTime)) {
+			return null;
+		}
+		daoQueryCount.increment();
+		return SaManager.getSaTokenDao().get(splicingKey(tokenId, effTime));
+	}
+
+	/**
+	 * 判断一个 token 是否已被吊销
+	 *
+	 * @param token token 值
+	 * @param effTime token 的到期时间戳（13 位时间戳，-1 代表永不过期）
+	 * @return /
+	 */
+	public boolean isRevoked(String token, long effTime) {
+		return getRevokeReason(token, effTime) != null;
+	}
+
+	/**
+	 * 从持久层同步所有被吊销的 token 到本地过滤器，并丢弃已经到期的分区
+	 *
+	 * @return 本次从持久层读取到的 key 数量
+	 */
+	public int sync() {
+		long now = System.currentTimeMillis();
+		int[] count = {0};
+		SaManager.getSaTokenDao().scanData(keyPrefix, "", key -> {
+			String rest = key.substring(keyPrefix.length());
+			int index = rest.indexOf(':');
+			if(index <= 0) {
+				return;
+			}
+			long effTime;
+			try {
+				effTime = Long.parseLong(rest.substring(0, index));
+			} catch (NumberFormatException e) {
+				return;
+			}
+			if(effTime != SaJwtTemplate.NEVER_EXPIRE && effTime < now) {
+				return;
+			}
+			filter.add(rest.substring(index + 1), effTime);
+			count[0]++;
+		});
+		filter.pruneExpired(now);
+		return count[0];
+	}
+
+	/**
+	 * 初始化定时任务，定时从持久层同步被吊销的 token
+	 */
+	public void initSyncThread() {
+
+		// 如果开发者配置了 <=0 的值，则不启动定时同步
+		if(SaManager.getConfig().getJwtRevokeSyncPeriod() <= 0) {
+			return;
+		}
+
+		// 启动定时同步
+		this.syncFlag = true;
+		this.syncThread = new Thread(() -> {
+			for (;;) {
+				try {
+					// 休眠N秒
+					int syncPeriod = SaManager.getConfig().getJwtRevokeSyncPeriod();
+					if(syncPeriod <= 0) {
+						syncPeriod = 1;
+					}
+					Thread.sleep(syncPeriod * 1000L);
+					// 如果已经被标记为结束
+					if( ! syncFlag) {
+						return;
+					}
+					// 执行同步
+					sync();
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}, "sa-token-jwt-revoke-sync");
+		// 同步线程不应阻止 JVM 退出
+		this.syncThread.setDaemon(true);
+		this.syncThread.start();
+	}
+
+	/**
+	 * 结束定时任务
+	 */
+	public void endSyncThread() {
+		this.syncFlag = false;
+	}
+
+	/**
+	 * 获取探测本地过滤器的次数
+	 *
+	 * @return /
+	 */
+	public long getProbeCount() {
+		return probeCount.sum();
+	}
+
+	/**
+	 * 获取探测命中后查询持久层的次数
+	 *
+	 * @return /
+	 */
+	public long getDaoQueryCount() {
+		return daoQueryCount.sum();
+	}
+
+}
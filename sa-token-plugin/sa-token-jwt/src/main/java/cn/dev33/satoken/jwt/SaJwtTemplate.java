@@ -15,6 +15,8 @@
  */
 package cn.dev33.satoken.jwt;
 
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.config.SaTokenConfig;
 import cn.dev33.satoken.dao.SaTokenDao;
 import cn.dev33.satoken.jwt.error.SaJwtErrorCode;
 import cn.dev33.satoken.jwt.exception.SaJwtException;
@@ -23,11 +25,12 @@ import cn.hutool.json.JSONException;
 import cn.hutool.json.JSONObject;
 import cn.hutool.jwt.JWT;
 import cn.hutool.jwt.JWTException;
+import cn.hutool.jwt.JWTHeader;
 import cn.hutool.jwt.signers.JWTSigner;
-import cn.hutool.jwt.signers.JWTSignerUtil;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * jwt 操作模板方法封装
@@ -71,6 +74,26 @@ public class SaJwtTemplate {
 	 * 表示一个值不存在 
 	 */ 
 	public static final long NOT_VALUE_EXPIRE = SaTokenDao.NOT_VALUE_EXPIRE;
+
+	/**
+	 * 签名器缓存的上限，超出时清空重建（秘钥通常只有少数几个，此值只是为了防止异常用法撑爆缓存）
+	 */
+	public static int signerCacheMaxSize = 64;
+
+	/**
+	 * 签名器缓存，秘钥 -> 签名器（只缓存线程安全的 SaJwtHmacSigner）
+	 */
+	protected final Map<String, JWTSigner> signerCache = new ConcurrentHashMap<>();
+
+	/**
+	 * jwt 解析结果缓存（首次使用时按全局配置 jwtParseCacheMaxCount 创建）
+	 */
+	protected volatile SaJwtParseCache parseCache;
+
+	/**
+	 * jwt 密钥环，设置后签名、验签均由密钥环完成，不再使用 keyt 秘钥
+	 */
+	protected volatile SaJwtKeyRing keyRing;
 	
 	// ------ 创建
 
@@ -142,17 +165,108 @@ public class SaJwtTemplate {
 	 * @return 根据 JWT 对象和 keyt 秘钥，生成的 token 字符串
 	 */
 	public String generateToken (JWT jwt, String keyt) {
-		return jwt.setSigner(createSigner(keyt)).sign();
+		SaJwtKeyRing ring = this.keyRing;
+		if(ring != null) {
+			// kid 只读取一次，保证 header 中的 kid 与实际签名所用的密钥一致（签名密钥可能正在被并发切换）
+			String kid = ring.getSignKid();
+			JWTSigner signer = ring.getSigner(kid);
+			if(signer == null) {
+				throw new SaJwtException("jwt 密钥环未指定用于签名的密钥").setCode(SaJwtErrorCode.CODE_30208);
+			}
+			return jwt.setHeader(JWTHeader.KEY_ID, kid).setSigner(signer).sign();
+		}
+		return jwt.setSigner(getSigner(keyt)).sign();
 	}
 
 	/**
 	 * 返回 jwt 使用的签名算法
 	 *
+	 * <p> 返回 SaJwtHmacSigner 时，签名器会按秘钥缓存复用；返回其它签名器（例如 hutool 自带的非线程安全签名器）时，每次使用都会重新调用此方法 </p>
+	 *
 	 * @param keyt 秘钥
 	 * @return /
 	 */
 	public JWTSigner createSigner (String keyt) {
-		return JWTSignerUtil.hs256(keyt.getBytes());
+		return SaJwtHmacSigner.hs256(keyt.getBytes());
+	}
+
+	/**
+	 * 获取指定秘钥的签名器，优先从缓存中获取
+	 *
+	 * @param keyt 秘钥
+	 * @return /
+	 */
+	public JWTSigner getSigner (String keyt) {
+		JWTSigner signer = signerCache.get(keyt);
+		if(signer == null) {
+			signer = createSigner(keyt);
+			if(signer instanceof SaJwtHmacSigner) {
+				if(signerCache.size() >= signerCacheMaxSize) {
+					signerCache.clear();
+				}
+				signerCache.put(keyt, signer);
+			}
+		}
+		return signer;
+	}
+
+	/**
+	 * 清空签名器缓存（重写 createSigner 改变了签名算法时，需调用此方法使其生效）
+	 */
+	public void clearSignerCache() {
+		signerCache.clear();
+	}
+
+	/**
+	 * 在解析 JSON 之前，直接对 jwt 字符串的原始 header.payload 部分校验签名，伪造的 token 无需任何 JSON 解析即被拒绝
+	 *
+	 * @param token jwt 字符串
+	 * @param keyt 秘钥
+	 * @return 0=签名有效，1=格式错误，2=签名无效
+	 */
+	protected int verifySign(String token, String keyt) {
+		int dot1 = token.indexOf('.');
+		int dot2 = dot1 < 0 ? -1 : token.indexOf('.', dot1 + 1);
+		if(dot2 < 0 || token.indexOf('.', dot2 + 1) >= 0) {
+			return 1;
+		}
+		String header = token.substring(0, dot1);
+		SaJwtKeyRing ring = this.keyRing;
+		JWTSigner signer = ring != null ? ring.getVerifier(header) : getSigner(keyt);
+		if(signer == null) {
+			return 2;
+		}
+		boolean verify = signer.verify(header, token.substring(dot1 + 1, dot2), token.substring(dot2 + 1));
+		return verify ? 0 : 2;
+	}
+
+	/**
+	 * 获取 jwt 密钥环
+	 *
+	 * @return 未设置时返回 null
+	 */
+	public SaJwtKeyRing getKeyRing() {
+		return keyRing;
+	}
+
+	/**
+	 * 设置 jwt 密钥环，设置后签名、验签均由密钥环完成，不再使用 keyt 秘钥，传入 null 恢复使用 keyt 秘钥
+	 *
+	 * @param keyRing 密钥环
+	 */
+	public void setKeyRing(SaJwtKeyRing keyRing) {
+		this.keyRing = keyRing;
+	}
+
+	/**
+	 * 获取解析缓存项用于比对的秘钥标识：使用密钥环时为密钥环的版本，密钥环中的密钥变化后旧缓存项自动失效
+	 *
+	 * @param keyt 秘钥
+	 * @return /
+	 */
+	protected String getCacheKeyt(String keyt) {
+		SaJwtKeyRing ring = this.keyRing;
+		return ring == null ? keyt : "key-ring:" + ring.getVersion();
 	}
 
 	// ------ 解析 
@@ -169,7 +283,7 @@ public class SaJwtTemplate {
     public JWT parseToken(String token, String loginType, String keyt, boolean isCheckTimeout) {
 
     	// 秘钥不可以为空
-    	if(SaFoxUtil.isEmpty(keyt)) {
+    	if(SaFoxUtil.isEmpty(keyt) && keyRing == null) {
     		throw new SaJwtException("请配置 jwt 秘钥");
     	}
 
@@ -177,7 +291,28 @@ public class SaJwtTemplate {
     	if(token == null) {
     		throw new SaJwtException("jwt 字符串不可为空");
     	}
+
+    	// 如果开启了解析缓存，命中时跳过验签与解析，只需再判断一次有效期
+		long cacheTimeout = SaManager.getConfig().getJwtParseCacheTimeout();
+		if(cacheTimeout > 0) {
+			JWT cached = getParseCache().get(token, loginType, getCacheKeyt(keyt));
+			if(cached != null) {
+				if(isCheckTimeout) {
+					checkEffTime(token, cached.getPayloads());
+				}
+				return cached;
+			}
+		}
     	
+    	// 先校验 Token 签名，签名无效时无需解析 JSON
+		int verifyResult = verifySign(token, keyt);
+		if(verifyResult == 1) {
+			throw new SaJwtException("jwt 解析失败：" + token).setCode(SaJwtErrorCode.CODE_30201);
+		}
+    	if(verifyResult == 2) {
+    		throw new SaJwtException("jwt 签名无效：" + token).setCode(SaJwtErrorCode.CODE_30202);
+    	}
+
     	// 解析 
     	JWT jwt;
     	try {
@@ -186,32 +321,61 @@ public class SaJwtTemplate {
     		throw new SaJwtException("jwt 解析失败：" + token, e).setCode(SaJwtErrorCode.CODE_30201);
 		}
     	JSONObject payloads = jwt.getPayloads();
-    	
-    	// 校验 Token 签名
-		boolean verify = jwt.setSigner(createSigner(keyt)).verify();
-    	if( ! verify) {
-    		throw new SaJwtException("jwt 签名无效：" + token).setCode(SaJwtErrorCode.CODE_30202);
-    	}
 
     	// 校验 loginType 
     	if( ! Objects.equals(loginType, payloads.getStr(LOGIN_TYPE))) {
     		throw new SaJwtException("jwt loginType 无效：" + token).setCode(SaJwtErrorCode.CODE_30203);
     	}
     	
+    	// 写入解析缓存（没有 eff 字段的 jwt 按永不过期处理，与 isCheckTimeout=false 时的语义一致）
+		if(cacheTimeout > 0) {
+			getParseCache().put(token, loginType, getCacheKeyt(keyt), jwt, payloads.getLong(EFF, NEVER_EXPIRE), cacheTimeout);
+		}
+
     	// 校验 Token 有效期
     	if(isCheckTimeout) {
-    		Long effTime = payloads.getLong(EFF, 0L);
-        	if(effTime != NEVER_EXPIRE) {
-        		if(effTime == null || effTime < System.currentTimeMillis()) {
-        			throw new SaJwtException("jwt 已过期：" + token).setCode(SaJwtErrorCode.CODE_30204);
-        		}
-        	}
+    		checkEffTime(token, payloads);
     	}
     	
         // 返回 
         return jwt;
     }
 
+	/**
+	 * 校验 jwt 的 eff 有效期，已过期时抛出异常
+	 *
+	 * @param token Jwt-Token值
+	 * @param payloads 载荷
+	 */
+	protected void checkEffTime(String token, JSONObject payloads) {
+		Long effTime = payloads.getLong(EFF, 0L);
+		if(effTime != NEVER_EXPIRE) {
+			if(effTime == null || effTime < System.currentTimeMillis()) {
+				throw new SaJwtException("jwt 已过期：" + token).setCode(SaJwtErrorCode.CODE_30204);
+			}
+		}
+	}
+
+	/**
+	 * 获取 jwt 解析结果缓存（即使未开启 jwtParseCacheTimeout，也会返回一个空的缓存对象，以便读取统计数据）
+	 *
+	 * @return /
+	 */
+	public SaJwtParseCache getParseCache() {
+		SaJwtParseCache cache = this.parseCache;
+		if(cache == null) {
+			synchronized (this) {
+				cache = this.parseCache;
+				if(cache == null) {
+					SaTokenConfig config = SaManager.getConfig();
+					cache = new SaJwtParseCache(config.getJwtParseCacheMaxCount());
+					this.parseCache = cache;
+				}
+			}
+		}
+		return cache;
+	}
+
     /**
      * 获取 jwt 数据载荷 （校验 sign、loginType、timeout） 
      * @param token token值
@@ -274,26 +438,13 @@ public class SaJwtTemplate {
     		return NOT_VALUE_EXPIRE;
     	}
     	
-    	// 取出数据 
-    	JWT jwt;
+    	// 取出数据（格式错误、签名无效、loginType 无效时都视为无效 token，开启解析缓存时优先从缓存中获取）
+    	JSONObject payloads;
     	try {
-    		jwt = JWT.of(token);
-		} catch (JWTException e) {
-			// 解析失败 
+    		payloads = parseToken(token, loginType, keyt, false).getPayloads();
+		} catch (SaJwtException e) {
 			return NOT_VALUE_EXPIRE;
 		}
-    	JSONObject payloads = jwt.getPayloads();
-    	
-    	// 如果签名无效 
-    	boolean verify = jwt.setSigner(createSigner(keyt)).verify();
-    	if( ! verify) {
-    		return NOT_VALUE_EXPIRE;
-    	}
-
-    	// 如果 loginType  无效 
-    	if( ! Objects.equals(loginType, payloads.getStr(LOGIN_TYPE))) {
-    		return NOT_VALUE_EXPIRE;
-    	}
     	
     	// 如果被设置为：永不过期 
     	Long effTime = payloads.get(EFF, Long.class);
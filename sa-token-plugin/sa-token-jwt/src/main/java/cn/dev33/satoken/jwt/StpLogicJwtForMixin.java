@@ -63,7 +63,10 @@ public class StpLogicJwtForMixin extends StpLogic {
 	 */
 	public String jwtSecretKey() {
 		String keyt = getConfigOrGlobal().getJwtSecretKey();
-		SaJwtException.throwByNull(keyt, "请配置jwt秘钥", SaJwtErrorCode.CODE_30205);
+		// 使用密钥环时，签名、验签均由密钥环完成，可以不配置 jwt 秘钥
+		if(SaJwtUtil.getSaJwtTemplate().getKeyRing() == null) {
+			SaJwtException.throwByNull(keyt, "请配置jwt秘钥", SaJwtErrorCode.CODE_30205);
+		}
 		return keyt;
 	}
 	
@@ -192,6 +195,20 @@ public class StpLogicJwtForMixin extends StpLogic {
 	public void updateTokenToIdMapping(String tokenValue, Object loginId) {
 		// not action 
 	}
+	/**
+	 * 批量删除 Token-Id 映射
+	 */
+	@Override
+	protected void deleteTokenToIdMappingBatch(List<String> tokenValueList) {
+		// not action
+	}
+	/**
+	 * 批量更改 Token 指向的 账号Id 值
+	 */
+	@Override
+	protected void updateTokenToIdMappingBatch(List<String> tokenValueList, Object loginId) {
+		// not action
+	}
 	/**
 	 * 存储 Token-Id 映射 
 	 */
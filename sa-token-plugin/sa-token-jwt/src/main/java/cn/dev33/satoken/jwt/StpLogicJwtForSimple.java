@@ -51,7 +51,10 @@ public class StpLogicJwtForSimple extends StpLogic {
 	 */
 	public String jwtSecretKey() {
 		String keyt = getConfigOrGlobal().getJwtSecretKey();
-		SaJwtException.throwByNull(keyt, "请配置jwt秘钥", SaJwtErrorCode.CODE_30205);
+		// 使用密钥环时，签名、验签均由密钥环完成，可以不配置 jwt 秘钥
+		if(SaJwtUtil.getSaJwtTemplate().getKeyRing() == null) {
+			SaJwtException.throwByNull(keyt, "请配置jwt秘钥", SaJwtErrorCode.CODE_30205);
+		}
 		return keyt;
 	}
 	
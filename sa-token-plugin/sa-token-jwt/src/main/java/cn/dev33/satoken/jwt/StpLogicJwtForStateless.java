@@ -23,10 +23,13 @@ import cn.dev33.satoken.jwt.error.SaJwtErrorCode;
 import cn.dev33.satoken.jwt.exception.SaJwtException;
 import cn.dev33.satoken.listener.SaTokenEventCenter;
 import cn.dev33.satoken.stp.parameter.SaLoginParameter;
+import cn.dev33.satoken.stp.parameter.SaLogoutParameter;
+import cn.dev33.satoken.stp.parameter.enums.SaLogoutMode;
 import cn.dev33.satoken.stp.SaTokenInfo;
 import cn.dev33.satoken.stp.StpLogic;
 import cn.dev33.satoken.stp.StpUtil;
 import cn.dev33.satoken.util.SaFoxUtil;
+import cn.hutool.jwt.JWT;
 
 import java.util.Map;
 
@@ -38,6 +41,11 @@ import java.util.Map;
  */
 public class StpLogicJwtForStateless extends StpLogic {
 
+	/**
+	 * jwt 吊销列表（首次使用时创建，并启动定时同步）
+	 */
+	protected volatile SaJwtRevokeList revokeList;
+
 	/**
 	 * Sa-Token 整合 jwt -- Stateless 无状态 
 	 */
@@ -59,9 +67,49 @@ public class StpLogicJwtForStateless extends StpLogic {
 	 */
 	public String jwtSecretKey() {
 		String keyt = getConfigOrGlobal().getJwtSecretKey();
-		SaJwtException.throwByNull(keyt, "请配置jwt秘钥", SaJwtErrorCode.CODE_30205);
+		// 使用密钥环时，签名、验签均由密钥环完成，可以不配置 jwt 秘钥
+		if(SaJwtUtil.getSaJwtTemplate().getKeyRing() == null) {
+			SaJwtException.throwByNull(keyt, "请配置jwt秘钥", SaJwtErrorCode.CODE_30205);
+		}
 		return keyt;
 	}
+
+	/**
+	 * 是否启用了 jwt 吊销列表
+	 * @return /
+	 */
+	public boolean isOpenRevoke() {
+		return getConfigOrGlobal().getIsJwtRevoke();
+	}
+
+	/**
+	 * 获取 jwt 吊销列表
+	 * @return /
+	 */
+	public SaJwtRevokeList getRevokeList() {
+		SaJwtRevokeList list = this.revokeList;
+		if(list == null) {
+			synchronized (this) {
+				list = this.revokeList;
+				if(list == null) {
+					list = new SaJwtRevokeList(splicingKeyJwtRevoke());
+					// 首次创建时先全量同步一次，之后定时同步其它节点吊销的 token
+					list.sync();
+					list.initSyncThread();
+					this.revokeList = list;
+				}
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * 拼接： 在保存 jwt 吊销标记时，应该使用的 key 前缀
+	 * @return key 前缀
+	 */
+	public String splicingKeyJwtRevoke() {
+		return getConfigOrGlobal().getTokenName() + ":" + loginType + ":jwt-revoke:";
+	}
 	
 	// 
 	// ------ 重写方法 
@@ -127,8 +175,16 @@ public class StpLogicJwtForStateless extends StpLogic {
 	@Override
 	public String getLoginIdNotHandle(String tokenValue) {
 		try {
-			Object loginId = SaJwtUtil.getLoginId(tokenValue, loginType, jwtSecretKey());
-			return String.valueOf(loginId);
+			JWT jwt = SaJwtUtil.parseToken(tokenValue, loginType, jwtSecretKey(), true);
+			// 已被吊销的 token：注销时视为无效 token，踢下线、顶下线时返回对应的场景值
+			if(isOpenRevoke()) {
+				long effTime = jwt.getPayloads().getLong(SaJwtUtil.EFF, SaJwtUtil.NEVER_EXPIRE);
+				String reason = getRevokeList().getRevokeReason(tokenValue, effTime);
+				if(reason != null) {
+					return NotLoginException.INVALID_TOKEN.equals(reason) ? null : reason;
+				}
+			}
+			return String.valueOf(jwt.getPayloads().get(SaJwtUtil.LOGIN_ID));
 		} catch (SaJwtException e) {
 			// CODE == 30204 时，代表token已过期，此时返回-3，以便外层更精确的显示异常信息
 			if(e.getCode() == SaJwtErrorCode.CODE_30204) {
@@ -149,6 +205,11 @@ public class StpLogicJwtForStateless extends StpLogic {
  			return;
  		}
 
+ 		// 启用吊销列表时，将此 token 吊销
+ 		if(isOpenRevoke()) {
+ 			logoutByTokenValue(tokenValue);
+ 		}
+
  		// 从当前 [storage存储器] 里删除 
  		SaHolder.getStorage().delete(splicingKeyJustCreatedSave());
  		
@@ -158,6 +219,41 @@ public class StpLogicJwtForStateless extends StpLogic {
 		}
 	}
 
+	/**
+	 * 注销下线，根据指定 token 、注销参数 （需启用 jwt 吊销列表）
+	 */
+	@Override
+	public void _logoutByTokenValue(String tokenValue, SaLogoutParameter logoutParameter) {
+		if( ! isOpenRevoke()) {
+			super._logoutByTokenValue(tokenValue, logoutParameter);
+			return;
+		}
+
+		// 无效、已过期的 token 无需吊销
+		JWT jwt;
+		try {
+			jwt = SaJwtUtil.parseToken(tokenValue, loginType, jwtSecretKey(), true);
+		} catch (SaJwtException e) {
+			return;
+		}
+		Object loginId = jwt.getPayloads().get(SaJwtUtil.LOGIN_ID);
+		long effTime = jwt.getPayloads().getLong(SaJwtUtil.EFF, SaJwtUtil.NEVER_EXPIRE);
+
+		// 写入吊销列表，发布事件通知
+		if(logoutParameter.getMode() == SaLogoutMode.LOGOUT) {
+			getRevokeList().revoke(tokenValue, effTime, NotLoginException.INVALID_TOKEN);
+			SaTokenEventCenter.doLogout(loginType, loginId, tokenValue);
+		}
+		if(logoutParameter.getMode() == SaLogoutMode.KICKOUT) {
+			getRevokeList().revoke(tokenValue, effTime, NotLoginException.KICK_OUT);
+			SaTokenEventCenter.doKickout(loginType, loginId, tokenValue);
+		}
+		if(logoutParameter.getMode() == SaLogoutMode.REPLACED) {
+			getRevokeList().revoke(tokenValue, effTime, NotLoginException.BE_REPLACED);
+			SaTokenEventCenter.doReplaced(loginType, loginId, tokenValue);
+		}
+	}
+
 	/**
 	 * 获取当前 Token 的扩展信息 
 	 */
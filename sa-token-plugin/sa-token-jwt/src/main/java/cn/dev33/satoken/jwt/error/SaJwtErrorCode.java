@@ -41,4 +41,10 @@ public interface SaJwtErrorCode {
 	/** 登录时提供的账号id为空 */
 	int CODE_30206 = 30206;
 
+	/** 创建 jwt 签名器失败 */
+	int CODE_30207 = 30207;
+
+	/** jwt 密钥环配置无效 */
+	int CODE_30208 = 30208;
+
 }
@@ -111,17 +111,21 @@ public class SaOAuth2Dao implements SaTtlMethods {
 	 * @param token 待添加的 token
 	 * @param timeout 添加的 token 其过期时间
 	 * @param maxTokenCount 允许的最多 token 数量，超出的将被删除 (-1=不限制)
-	 * @param removeFun 执行删除 token 的函数
+	 * @param removeListFun 执行批量删除 token 的函数
 	 */
-	protected void addTokenIndex_AndAdjust(SaSession session, String tokenIndexMapSaveKey, String token, long timeout, int maxTokenCount, SaParamFunction<String> removeFun) {
+	protected void addTokenIndex_AndAdjust(SaSession session, String tokenIndexMapSaveKey, String token, long timeout, int maxTokenCount, SaParamFunction<List<String>> removeListFun) {
 		Map<String, Long> tokenIndexMap = session.get(tokenIndexMapSaveKey, this::newTokenIndexMap);
 		if(! tokenIndexMap.containsKey(token)) {
 			// 添加
 			tokenIndexMap.put(token, ttlToExpireTime(timeout));
 			// 剔除过期的
 			tokenIndexMap = _removeExpiredIndex(tokenIndexMap);
-			// 删掉溢出的
-			tokenIndexMap = _removeOverflowIndex(tokenIndexMap, maxTokenCount, removeFun);
+			// 删掉溢出的 (先收集，再一次性批量删除)
+			List<String> overflowList = new ArrayList<>();
+			tokenIndexMap = _removeOverflowIndex(tokenIndexMap, maxTokenCount, overflowList::add);
+			if( ! overflowList.isEmpty()) {
+				removeListFun.run(overflowList);
+			}
 			// 保存
 			session.set(tokenIndexMapSaveKey, tokenIndexMap);
 			// 更新 TTL
@@ -344,6 +348,22 @@ public class SaOAuth2Dao implements SaTtlMethods {
 		}
 	}
 
+	/**
+	 * 删除：多个 AccessTokenModel（通过 SaTokenDao 批量删除，只访问一次持久层）
+	 * @param accessTokenList /
+	 */
+	public void deleteAccessTokenList(List<String> accessTokenList) {
+		List<String> keyList = new ArrayList<>(accessTokenList.size());
+		for (String accessToken : accessTokenList) {
+			if(accessToken != null) {
+				keyList.add(splicingAccessTokenSaveKey(accessToken));
+			}
+		}
+		if( ! keyList.isEmpty()) {
+			getSaTokenDao().deleteBatch(keyList);
+		}
+	}
+
 	/**
 	 * 获取：AccessTokenModel
 	 * @param accessToken /
@@ -370,7 +390,7 @@ public class SaOAuth2Dao implements SaTtlMethods {
 			return;
 		}
 		SaSession session = getRawSessionByAccessToken(at.clientId, at.loginId, true);
-		addTokenIndex_AndAdjust(session, ACCESS_TOKEN_MAP, at.accessToken, at.getExpiresIn(), maxAccessTokenCount, this::deleteAccessToken);
+		addTokenIndex_AndAdjust(session, ACCESS_TOKEN_MAP, at.accessToken, at.getExpiresIn(), maxAccessTokenCount, this::deleteAccessTokenList);
 	}
 
 	/**
@@ -445,6 +465,22 @@ public class SaOAuth2Dao implements SaTtlMethods {
 		}
 	}
 
+	/**
+	 * 删除：多个 RefreshTokenModel（通过 SaTokenDao 批量删除，只访问一次持久层）
+	 * @param refreshTokenList /
+	 */
+	public void deleteRefreshTokenList(List<String> refreshTokenList) {
+		List<String> keyList = new ArrayList<>(refreshTokenList.size());
+		for (String refreshToken : refreshTokenList) {
+			if(refreshToken != null) {
+				keyList.add(splicingRefreshTokenSaveKey(refreshToken));
+			}
+		}
+		if( ! keyList.isEmpty()) {
+			getSaTokenDao().deleteBatch(keyList);
+		}
+	}
+
 	/**
 	 * 获取：RefreshTokenModel
 	 * @param refreshToken /
@@ -471,7 +507,7 @@ public class SaOAuth2Dao implements SaTtlMethods {
 			return;
 		}
 		SaSession session = getRawSessionByRefreshToken(rt.clientId, rt.loginId, true);
-		addTokenIndex_AndAdjust(session, REFRESH_TOKEN_MAP, rt.refreshToken, rt.getExpiresIn(), maxRefreshTokenCount, this::deleteRefreshToken);
+		addTokenIndex_AndAdjust(session, REFRESH_TOKEN_MAP, rt.refreshToken, rt.getExpiresIn(), maxRefreshTokenCount, this::deleteRefreshTokenList);
 	}
 
 	/**
@@ -546,6 +582,22 @@ public class SaOAuth2Dao implements SaTtlMethods {
 		}
 	}
 
+	/**
+	 * 删除：多个 ClientTokenModel（通过 SaTokenDao 批量删除，只访问一次持久层）
+	 * @param clientTokenList /
+	 */
+	public void deleteClientTokenList(List<String> clientTokenList) {
+		List<String> keyList = new ArrayList<>(clientTokenList.size());
+		for (String clientToken : clientTokenList) {
+			if(clientToken != null) {
+				keyList.add(splicingClientTokenSaveKey(clientToken));
+			}
+		}
+		if( ! keyList.isEmpty()) {
+			getSaTokenDao().deleteBatch(keyList);
+		}
+	}
+
 	/**
 	 * 获取：ClientTokenModel
 	 * @param clientToken /
@@ -572,7 +624,7 @@ public class SaOAuth2Dao implements SaTtlMethods {
 			return;
 		}
 		SaSession session = getRawSessionByClientToken(ct.clientId, true);
-		addTokenIndex_AndAdjust(session, CLIENT_TOKEN_MAP, ct.clientToken, ct.getExpiresIn(), maxClientTokenCount, this::deleteClientToken);
+		addTokenIndex_AndAdjust(session, CLIENT_TOKEN_MAP, ct.clientToken, ct.getExpiresIn(), maxClientTokenCount, this::deleteClientTokenList);
 	}
 
 	/**
@@ -527,9 +527,7 @@ public class SaOAuth2Template {
 		List<String> accessTokenList = getAccessTokenValueList(clientId, loginId);
 		if( ! accessTokenList.isEmpty()) {
 			// 删 AT
-			for (String accessToken : accessTokenList) {
-				dao.deleteAccessToken(accessToken);
-			}
+			dao.deleteAccessTokenList(accessTokenList);
 			// 删索引
 			dao.deleteAccessTokenIndex(clientId, loginId);
 		}
@@ -602,9 +600,7 @@ public class SaOAuth2Template {
 		List<String> refreshTokenList = getRefreshTokenValueList(clientId, loginId);
 		if( ! refreshTokenList.isEmpty()) {
 			// 删 RT
-			for (String refreshToken : refreshTokenList) {
-				dao.deleteRefreshToken(refreshToken);
-			}
+			dao.deleteRefreshTokenList(refreshTokenList);
 			// 删索引
 			dao.deleteRefreshTokenIndex(clientId, loginId);
 		}
@@ -718,9 +714,7 @@ public class SaOAuth2Template {
 		List<String> clientTokenList = getClientTokenValueList(clientId);
 		if( ! clientTokenList.isEmpty()) {
 			// 删 AT
-			for (String clientToken : clientTokenList) {
-				dao.deleteClientToken(clientToken);
-			}
+			dao.deleteClientTokenList(clientTokenList);
 			// 删索引
 			dao.deleteClientTokenIndex(clientId);
 		}
@@ -16,13 +16,25 @@
 package cn.dev33.satoken.dao;
 
 import cn.dev33.satoken.dao.auto.SaTokenDaoByObjectFollowString;
+import cn.dev33.satoken.fun.SaParamFunction;
 import cn.dev33.satoken.util.SaFoxUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.DecoratedRedisConnection;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -37,6 +49,11 @@ public class SaTokenDaoForRedisTemplate implements SaTokenDaoByObjectFollowStrin
 
 	public StringRedisTemplate stringRedisTemplate;
 
+	/**
+	 * 遍历数据时，每次 SCAN 命令建议 Redis 返回的 key 数量
+	 */
+	public int scanCount = 1000;
+
 	/**
 	 * 标记：当前 redis 连接信息是否已初始化成功
 	 */
@@ -90,6 +107,24 @@ public class SaTokenDaoForRedisTemplate implements SaTokenDaoByObjectFollowStrin
 		}
 	}
 
+	/**
+	 * 当 key 不存在时写入Value，并设定存活时间 (单位: 秒)，对应 Redis 的 SET key value NX EX timeout
+	 */
+	@Override
+	public boolean setIfAbsent(String key, String value, long timeout) {
+		if(timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE)  {
+			return false;
+		}
+		Boolean result;
+		// 判断是否为永不过期 
+		if(timeout == SaTokenDao.NEVER_EXPIRE) {
+			result = stringRedisTemplate.opsForValue().setIfAbsent(key, value);
+		} else {
+			result = stringRedisTemplate.opsForValue().setIfAbsent(key, value, timeout, TimeUnit.SECONDS);
+		}
+		return Boolean.TRUE.equals(result);
+	}
+
 	/**
 	 * 修改指定key-value键值对 (过期时间不变) 
 	 */
@@ -145,16 +180,158 @@ public class SaTokenDaoForRedisTemplate implements SaTokenDaoByObjectFollowStrin
 	}
 
 
+
+	/**
+	 * 批量获取Value (MGET)
+	 */
+	@Override
+	public List<String> getBatch(List<String> keys) {
+		if(keys.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return stringRedisTemplate.opsForValue().multiGet(keys);
+	}
+
+	/**
+	 * 批量写入Value，并设定相同的存活时间 (单位: 秒) (pipeline)
+	 */
+	@Override
+	public void setBatch(Map<String, String> map, long timeout) {
+		if(map.isEmpty() || timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE)  {
+			return;
+		}
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection conn = (StringRedisConnection) connection;
+			for (Map.Entry<String, String> entry : map.entrySet()) {
+				if(timeout == SaTokenDao.NEVER_EXPIRE) {
+					conn.set(entry.getKey(), entry.getValue());
+				} else {
+					conn.setEx(entry.getKey(), timeout, entry.getValue());
+				}
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * 批量修改key-value键值对 (过期时间不变) (两次 pipeline：先批量查询剩余存活时间，再批量写入)
+	 */
+	@Override
+	public void updateBatch(Map<String, String> map) {
+		if(map.isEmpty()) {
+			return;
+		}
+		List<String> keys = new ArrayList<>(map.keySet());
+		List<Object> expireList = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection conn = (StringRedisConnection) connection;
+			for (String key : keys) {
+				conn.pTtl(key);
+			}
+			return null;
+		});
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection conn = (StringRedisConnection) connection;
+			for (int i = 0; i < keys.size(); i++) {
+				long expireMs = ((Number) expireList.get(i)).longValue();
+				// -2 = 无此键
+				if (expireMs == SaTokenDao.NOT_VALUE_EXPIRE) {
+					continue;
+				}
+				// -1 = 永不过期
+				if(expireMs == SaTokenDao.NEVER_EXPIRE) {
+					conn.set(keys.get(i), map.get(keys.get(i)));
+				} else {
+					conn.pSetEx(keys.get(i), expireMs, map.get(keys.get(i)));
+				}
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * 批量删除Value (DEL key1 key2 ...)
+	 */
+	@Override
+	public void deleteBatch(Collection<String> keys) {
+		if(keys.isEmpty()) {
+			return;
+		}
+		stringRedisTemplate.delete(keys);
+	}
+
+	/**
+	 * 批量修改Value的剩余存活时间 (单位: 秒) (pipeline)
+	 */
+	@Override
+	public void updateTimeoutBatch(Collection<String> keys, long timeout) {
+		if(keys.isEmpty()) {
+			return;
+		}
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection conn = (StringRedisConnection) connection;
+			for (String key : keys) {
+				// 设置为永久时直接移除过期时间，与逐个调用 updateTimeout 的效果一致
+				if(timeout == SaTokenDao.NEVER_EXPIRE) {
+					conn.persist(key);
+				} else {
+					conn.expire(key, timeout);
+				}
+			}
+			return null;
+		});
+	}
+
 	
 	/**
-	 * 搜索数据 
+	 * 搜索数据 (基于 SCAN 遍历，不使用会阻塞 Redis 的 KEYS 命令)
 	 */
 	@Override
 	public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
-		Set<String> keys = stringRedisTemplate.keys(prefix + "*" + keyword + "*");
+		Set<String> keys = new LinkedHashSet<>();
+		scanData(prefix, keyword, keys::add);
 		List<String> list = new ArrayList<>(keys);
 		return SaFoxUtil.searchList(list, start, size, sortType);
 	}
+
+	/**
+	 * 遍历数据 (SCAN 游标分批遍历，集群模式下依次遍历每个主节点)
+	 */
+	@Override
+	public void scanData(String prefix, String keyword, SaParamFunction<String> consumer) {
+		ScanOptions options = ScanOptions.scanOptions().match(prefix + "*" + keyword + "*").count(scanCount).build();
+		stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+			// StringRedisTemplate 会将原始连接包装为 StringRedisConnection，需取出原始连接才能判断是否为集群连接
+			RedisConnection rawConnection = connection;
+			while (rawConnection instanceof DecoratedRedisConnection) {
+				rawConnection = ((DecoratedRedisConnection) rawConnection).getDelegate();
+			}
+			if(rawConnection instanceof RedisClusterConnection) {
+				RedisClusterConnection clusterConnection = (RedisClusterConnection) rawConnection;
+				for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+					if(node.isMaster()) {
+						scanCursor(clusterConnection.scan(node, options), consumer);
+					}
+				}
+			} else {
+				scanCursor(connection.scan(options), consumer);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * 读取 SCAN 游标中的所有 key，交给 consumer 处理，读取完毕后关闭游标
+	 *
+	 * @param cursor 游标
+	 * @param consumer 处理每个 key 的函数
+	 */
+	protected void scanCursor(Cursor<byte[]> cursor, SaParamFunction<String> consumer) {
+		try (Cursor<byte[]> c = cursor) {
+			while (c.hasNext()) {
+				consumer.run(stringRedisTemplate.getStringSerializer().deserialize(c.next()));
+			}
+		}
+	}
 	
 	
 }
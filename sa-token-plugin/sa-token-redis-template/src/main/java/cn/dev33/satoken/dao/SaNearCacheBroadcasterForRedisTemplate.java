@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.dao;
+
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.fun.SaParamFunction;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * 两级缓存失效广播器 [ Redis 发布/订阅 ] (可用环境: SpringBoot2、SpringBoot3)
+ *
+ * <p> 配合 SaTokenDaoForNearCache 使用，任一节点写入或删除数据时，通过 Redis 频道通知所有节点丢弃本地缓存 </p>
+ *
+ * <p> 批量广播时，多个 key 以换行符拼接为一条消息发送 </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaNearCacheBroadcasterForRedisTemplate implements SaNearCacheBroadcaster {
+
+	/**
+	 * 默认的广播频道名称
+	 */
+	public static final String DEFAULT_CHANNEL = "satoken:near-cache:invalidate";
+
+	/**
+	 * 批量广播时，多个 key 之间的分隔符
+	 */
+	public static final String KEY_SEPARATOR = "\n";
+
+	/**
+	 * 广播频道名称
+	 */
+	public final String channel;
+
+	public final StringRedisTemplate stringRedisTemplate;
+
+	public final RedisMessageListenerContainer listenerContainer;
+
+	public SaNearCacheBroadcasterForRedisTemplate(RedisConnectionFactory connectionFactory) {
+		this(connectionFactory, DEFAULT_CHANNEL);
+	}
+
+	public SaNearCacheBroadcasterForRedisTemplate(RedisConnectionFactory connectionFactory, String channel) {
+		this.channel = channel;
+
+		StringRedisTemplate stringTemplate = new StringRedisTemplate();
+		stringTemplate.setConnectionFactory(connectionFactory);
+		stringTemplate.afterPropertiesSet();
+		this.stringRedisTemplate = stringTemplate;
+
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		this.listenerContainer = container;
+	}
+
+	@Override
+	public void publish(String key) {
+		stringRedisTemplate.convertAndSend(channel, key);
+	}
+
+	@Override
+	public void publishBatch(Collection<String> keys) {
+		stringRedisTemplate.convertAndSend(channel, String.join(KEY_SEPARATOR, keys));
+	}
+
+	@Override
+	public void subscribe(SaParamFunction<String> listener) {
+		listenerContainer.addMessageListener(
+				(message, pattern) -> {
+					for (String key : new String(message.getBody(), StandardCharsets.UTF_8).split(KEY_SEPARATOR)) {
+						listener.run(key);
+					}
+				},
+				new ChannelTopic(channel)
+		);
+		listenerContainer.afterPropertiesSet();
+		listenerContainer.start();
+	}
+
+	@Override
+	public void close() {
+		try {
+			listenerContainer.destroy();
+		} catch (Exception e) {
+			throw new SaTokenException(e);
+		}
+	}
+
+}
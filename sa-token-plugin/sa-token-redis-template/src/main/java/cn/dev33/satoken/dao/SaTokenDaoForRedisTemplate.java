@@ -15,15 +15,38 @@
  */
 package cn.dev33.satoken.dao;
 
+import cn.dev33.satoken.SaManager;
 import cn.dev33.satoken.dao.auto.SaTokenDaoByObjectFollowString;
+import cn.dev33.satoken.error.SaErrorCode;
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.fun.SaParamFunction;
+import cn.dev33.satoken.serializer.SaSerializerTemplate;
+import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.strategy.SaStrategy;
 import cn.dev33.satoken.util.SaFoxUtil;
+import cn.dev33.satoken.util.SaTokenConsts;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.DecoratedRedisConnection;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -32,10 +55,98 @@ import java.util.concurrent.TimeUnit;
  * @author click33
  * @since 1.34.0
  */
-public class SaTokenDaoForRedisTemplate implements SaTokenDaoByObjectFollowString, SaTokenDao {
+public class SaTokenDaoForRedisTemplate implements SaTokenDaoByObjectFollowString, SaTokenDao, SaSessionFieldDao, SaRateLimitDao, SaCounterDao {
 
 	public StringRedisTemplate stringRedisTemplate;
 
+	/**
+	 * 遍历数据时，每次 SCAN 命令建议 Redis 返回的 key 数量
+	 */
+	public int scanCount = 1000;
+
+	/**
+	 * 字段级存储 SaSession 时，Hash 中存放 SaSession 自身属性（不含挂载数据）的字段名
+	 */
+	public static final String SESSION_META_FIELD = "__session__";
+
+	/**
+	 * 字段级存储 SaSession 时，Hash 中存放挂载数据的字段名前缀
+	 */
+	public static final String SESSION_DATA_FIELD_PREFIX = "data:";
+
+	/**
+	 * 脚本：整体写入 SaSession Hash，并设定存活时间 (ARGV[1]=过期时间(秒)，-1 代表永不过期，其后为 field、value 交替排列)
+	 */
+	static final RedisScript<Long> SET_SESSION_SCRIPT = new DefaultRedisScript<>(
+			"redis.call('DEL', KEYS[1]) " +
+			"redis.call('HSET', KEYS[1], unpack(ARGV, 2)) " +
+			"if tonumber(ARGV[1]) > 0 then redis.call('EXPIRE', KEYS[1], ARGV[1]) end " +
+			"return 1", Long.class);
+
+	/**
+	 * 脚本：整体覆盖已存在的 SaSession Hash，过期时间不变 (ARGV 为 field、value 交替排列)
+	 */
+	static final RedisScript<Long> UPDATE_SESSION_SCRIPT = new DefaultRedisScript<>(
+			"local ttl = redis.call('PTTL', KEYS[1]) " +
+			"if ttl == -2 then return 0 end " +
+			"redis.call('DEL', KEYS[1]) " +
+			"redis.call('HSET', KEYS[1], unpack(ARGV)) " +
+			"if ttl > 0 then redis.call('PEXPIRE', KEYS[1], ttl) end " +
+			"return 1", Long.class);
+
+	/**
+	 * 脚本：写入已存在的 SaSession Hash 的单个字段，避免 SaSession 已过期时凭空写出一个没有过期时间的 key
+	 */
+	static final RedisScript<Long> SET_SESSION_FIELD_SCRIPT = new DefaultRedisScript<>(
+			"if redis.call('EXISTS', KEYS[1]) == 1 then " +
+			"redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) return 1 end " +
+			"return 0", Long.class);
+
+	/**
+	 * 脚本：计数 +1 并重置有效期 (ARGV[1]=有效期(秒)，-1 代表永久存储)
+	 */
+	static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+			"local count = redis.call('INCR', KEYS[1]) " +
+			"if tonumber(ARGV[1]) > 0 then redis.call('EXPIRE', KEYS[1], ARGV[1]) else redis.call('PERSIST', KEYS[1]) end " +
+			"return count", Long.class);
+
+	/**
+	 * 脚本：令牌桶限流 (GCRA 算法，以 Redis 服务器时间为准，ARGV[1]=容量，ARGV[2]=统计周期(毫秒))
+	 */
+	static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>(
+			"if redis.replicate_commands then redis.replicate_commands() end " +
+			"local t = redis.call('TIME') " +
+			"local now = tonumber(t[1]) * 1000000 + tonumber(t[2]) " +
+			"local period = tonumber(ARGV[2]) * 1000 " +
+			"local interval = math.max(math.floor(period / tonumber(ARGV[1])), 1) " +
+			"local tat = tonumber(redis.call('GET', KEYS[1])) " +
+			"if tat == nil or tat < now then tat = now end " +
+			"local newTat = tat + interval " +
+			"if newTat - now > period then return 0 end " +
+			"redis.call('SET', KEYS[1], string.format('%.0f', newTat), 'PX', math.ceil((newTat - now) / 1000) + 1) " +
+			"return 1", Long.class);
+
+	/**
+	 * 脚本：滑动窗口限流 (双窗口加权计数，以 Redis 服务器时间为准，ARGV[1]=容量，ARGV[2]=统计周期(毫秒))
+	 */
+	static final RedisScript<Long> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>(
+			"if redis.replicate_commands then redis.replicate_commands() end " +
+			"local t = redis.call('TIME') " +
+			"local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) " +
+			"local capacity = tonumber(ARGV[1]) " +
+			"local period = tonumber(ARGV[2]) " +
+			"local idx = math.floor(now / period) " +
+			"local v = redis.call('HMGET', KEYS[1], 'idx', 'prev', 'cur') " +
+			"local sidx = tonumber(v[1]) " +
+			"local prev = 0 " +
+			"local cur = 0 " +
+			"if sidx == idx then prev = tonumber(v[2]) cur = tonumber(v[3]) " +
+			"elseif sidx == idx - 1 then prev = tonumber(v[3]) end " +
+			"if prev * (1 - (now - idx * period) / period) + cur + 1 > capacity then return 0 end " +
+			"redis.call('HSET', KEYS[1], 'idx', string.format('%.0f', idx), 'prev', prev, 'cur', cur + 1) " +
+			"redis.call('PEXPIRE', KEYS[1], period * 2) " +
+			"return 1", Long.class);
+
 	/**
 	 * 标记：当前 redis 连接信息是否已初始化成功
 	 */
@@ -89,6 +200,24 @@ public class SaTokenDaoForRedisTemplate implements SaTokenDaoByObjectFollowStrin
 		}
 	}
 
+	/**
+	 * 当 key 不存在时写入Value，并设定存活时间 (单位: 秒)，对应 Redis 的 SET key value NX EX timeout
+	 */
+	@Override
+	public boolean setIfAbsent(String key, String value, long timeout) {
+		if(timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE)  {
+			return false;
+		}
+		Boolean result;
+		// 判断是否为永不过期 
+		if(timeout == SaTokenDao.NEVER_EXPIRE) {
+			result = stringRedisTemplate.opsForValue().setIfAbsent(key, value);
+		} else {
+			result = stringRedisTemplate.opsForValue().setIfAbsent(key, value, timeout, TimeUnit.SECONDS);
+		}
+		return Boolean.TRUE.equals(result);
+	}
+
 	/**
 	 * 修改指定key-value键值对 (过期时间不变) 
 	 */
@@ -144,16 +273,433 @@ public class SaTokenDaoForRedisTemplate implements SaTokenDaoByObjectFollowStrin
 	}
 
 
-	
+
+	/**
+	 * 批量获取Value (MGET)
+	 */
+	@Override
+	public List<String> getBatch(List<String> keys) {
+		if(keys.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return stringRedisTemplate.opsForValue().multiGet(keys);
+	}
+
+	/**
+	 * 批量写入Value，并设定相同的存活时间 (单位: 秒) (pipeline)
+	 */
+	@Override
+	public void setBatch(Map<String, String> map, long timeout) {
+		if(map.isEmpty() || timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE)  {
+			return;
+		}
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection conn = (StringRedisConnection) connection;
+			for (Map.Entry<String, String> entry : map.entrySet()) {
+				if(timeout == SaTokenDao.NEVER_EXPIRE) {
+					conn.set(entry.getKey(), entry.getValue());
+				} else {
+					conn.setEx(entry.getKey(), timeout, entry.getValue());
+				}
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * 批量修改key-value键值对 (过期时间不变) (两次 pipeline：先批量查询剩余存活时间，再批量写入)
+	 */
+	@Override
+	public void updateBatch(Map<String, String> map) {
+		if(map.isEmpty()) {
+			return;
+		}
+		List<String> keys = new ArrayList<>(map.keySet());
+		List<Object> expireList = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection conn = (StringRedisConnection) connection;
+			for (String key : keys) {
+				conn.pTtl(key);
+			}
+			return null;
+		});
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection conn = (StringRedisConnection) connection;
+			for (int i = 0; i < keys.size(); i++) {
+				long expireMs = ((Number) expireList.get(i)).longValue();
+				// -2 = 无此键
+				if (expireMs == SaTokenDao.NOT_VALUE_EXPIRE) {
+					continue;
+				}
+				// -1 = 永不过期
+				if(expireMs == SaTokenDao.NEVER_EXPIRE) {
+					conn.set(keys.get(i), map.get(keys.get(i)));
+				} else {
+					conn.pSetEx(keys.get(i), expireMs, map.get(keys.get(i)));
+				}
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * 批量删除Value (DEL key1 key2 ...)
+	 */
+	@Override
+	public void deleteBatch(Collection<String> keys) {
+		if(keys.isEmpty()) {
+			return;
+		}
+		stringRedisTemplate.delete(keys);
+	}
+
+	/**
+	 * 批量修改Value的剩余存活时间 (单位: 秒) (pipeline)
+	 */
+	@Override
+	public void updateTimeoutBatch(Collection<String> keys, long timeout) {
+		if(keys.isEmpty()) {
+			return;
+		}
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection conn = (StringRedisConnection) connection;
+			for (String key : keys) {
+				// 设置为永久时直接移除过期时间，与逐个调用 updateTimeout 的效果一致
+				if(timeout == SaTokenDao.NEVER_EXPIRE) {
+					conn.persist(key);
+				} else {
+					conn.expire(key, timeout);
+				}
+			}
+			return null;
+		});
+	}
+
+
+
+	// --------------------- SaSession 字段级存储 (sa-token.session-field-store=true 时生效) ---------------------
+	// 字段级存储依赖一次写入多个字段的 HSET 命令，需要 Redis 4.0 及以上版本
+	// 切换此配置前写入的 SaSession 类型不同（字符串 / Hash），读写时遇到 WRONGTYPE 错误会自动读取旧格式并改写为当前格式
+
+	/**
+	 * 是否启用字段级存储：每个 SaSession 存储为一个 Hash，修改挂载数据时只写入变动的字段 (HSET / HDEL)
+	 */
+	@Override
+	public boolean isSessionFieldEnabled() {
+		return Boolean.TRUE.equals(SaManager.getConfig().getSessionFieldStore());
+	}
+
+	/**
+	 * 获取 SaSession，如无返空 (字段级存储时：HGETALL)
+	 */
+	@Override
+	public SaSession getSession(String sessionId) {
+		if( ! isSessionFieldEnabled()) {
+			try {
+				return SaTokenDaoByObjectFollowString.super.getSession(sessionId);
+			} catch (RuntimeException e) {
+				if( ! isWrongType(e)) {
+					throw e;
+				}
+				return migrateSessionToString(sessionId);
+			}
+		}
+		try {
+			return getSessionFromHash(sessionId);
+		} catch (RuntimeException e) {
+			if( ! isWrongType(e)) {
+				throw e;
+			}
+			return migrateSessionToHash(sessionId);
+		}
+	}
+
 	/**
-	 * 搜索数据 
+	 * 从 Hash 中读取 SaSession (HGETALL)，如无返空
+	 *
+	 * @param sessionId /
+	 * @return /
+	 */
+	protected SaSession getSessionFromHash(String sessionId) {
+		Map<Object, Object> hash = stringRedisTemplate.opsForHash().entries(sessionId);
+		Object meta = hash.get(SESSION_META_FIELD);
+		if(meta == null) {
+			return null;
+		}
+		SaSerializerTemplate serializer = SaManager.getSaSerializerTemplate();
+		SaSession session = serializer.stringToObject((String) meta, SaStrategy.instance.sessionClassType);
+		if(session.getDataMap() == null) {
+			session.setDataMap(new ConcurrentHashMap<>());
+		}
+		for (Map.Entry<Object, Object> entry : hash.entrySet()) {
+			String field = (String) entry.getKey();
+			if(field.startsWith(SESSION_DATA_FIELD_PREFIX)) {
+				Object value = serializer.stringToObject((String) entry.getValue());
+				if(value != null) {
+					session.getDataMap().put(field.substring(SESSION_DATA_FIELD_PREFIX.length()), value);
+				}
+			}
+		}
+		return session;
+	}
+
+	/**
+	 * 写入 SaSession，并设定存活时间 (单位: 秒) (字段级存储时：DEL + HSET + EXPIRE，在一个脚本中原子执行)
+	 */
+	@Override
+	public void setSession(SaSession session, long timeout) {
+		if( ! isSessionFieldEnabled()) {
+			SaTokenDaoByObjectFollowString.super.setSession(session, timeout);
+			return;
+		}
+		if(timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE)  {
+			return;
+		}
+		List<String> args = new ArrayList<>();
+		args.add(String.valueOf(timeout));
+		args.addAll(toSessionHashArgs(session));
+		stringRedisTemplate.execute(SET_SESSION_SCRIPT, Collections.singletonList(session.getId()), args.toArray());
+	}
+
+	/**
+	 * 更新 SaSession (过期时间不变) (字段级存储时：整体覆盖 Hash，在一个脚本中原子执行)
+	 */
+	@Override
+	public void updateSession(SaSession session) {
+		if( ! isSessionFieldEnabled()) {
+			SaTokenDaoByObjectFollowString.super.updateSession(session);
+			return;
+		}
+		stringRedisTemplate.execute(UPDATE_SESSION_SCRIPT, Collections.singletonList(session.getId()), toSessionHashArgs(session).toArray());
+	}
+
+	/**
+	 * 修改 SaSession 剩余存活时间 (单位: 秒) (字段级存储时：PERSIST / EXPIRE)
+	 */
+	@Override
+	public void updateSessionTimeout(String sessionId, long timeout) {
+		if( ! isSessionFieldEnabled()) {
+			SaTokenDaoByObjectFollowString.super.updateSessionTimeout(sessionId, timeout);
+			return;
+		}
+		if(timeout == SaTokenDao.NEVER_EXPIRE) {
+			stringRedisTemplate.persist(sessionId);
+		} else {
+			stringRedisTemplate.expire(sessionId, timeout, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * 写入 SaSession 的单个挂载数据 (HSET，SaSession 不存在时不写入)
+	 */
+	@Override
+	public void setSessionField(SaSession session, String key, Object value) {
+		String str = SaManager.getSaSerializerTemplate().objectToString(value);
+		try {
+			stringRedisTemplate.execute(SET_SESSION_FIELD_SCRIPT, Collections.singletonList(session.getId()), SESSION_DATA_FIELD_PREFIX + key, str);
+		} catch (RuntimeException e) {
+			if( ! isWrongType(e)) {
+				throw e;
+			}
+			migrateSessionToHash(session.getId());
+			stringRedisTemplate.execute(SET_SESSION_FIELD_SCRIPT, Collections.singletonList(session.getId()), SESSION_DATA_FIELD_PREFIX + key, str);
+		}
+	}
+
+	/**
+	 * 删除 SaSession 的单个挂载数据 (HDEL)
+	 */
+	@Override
+	public void deleteSessionField(SaSession session, String key) {
+		try {
+			stringRedisTemplate.opsForHash().delete(session.getId(), SESSION_DATA_FIELD_PREFIX + key);
+		} catch (RuntimeException e) {
+			if( ! isWrongType(e)) {
+				throw e;
+			}
+			migrateSessionToHash(session.getId());
+			stringRedisTemplate.opsForHash().delete(session.getId(), SESSION_DATA_FIELD_PREFIX + key);
+		}
+	}
+
+	/**
+	 * 将开启字段级存储之前以字符串形式写入的 SaSession 改写为 Hash，剩余存活时间不变
+	 *
+	 * @param sessionId /
+	 * @return 改写后的 SaSession，如无返空
+	 */
+	protected SaSession migrateSessionToHash(String sessionId) {
+		long timeout = getTimeout(sessionId);
+		SaSession session = SaTokenDaoByObjectFollowString.super.getSession(sessionId);
+		if(session != null) {
+			setSession(session, timeout);
+		}
+		return session;
+	}
+
+	/**
+	 * 将关闭字段级存储之前以 Hash 形式写入的 SaSession 改写为字符串，剩余存活时间不变
+	 *
+	 * @param sessionId /
+	 * @return 改写后的 SaSession，如无返空
+	 */
+	protected SaSession migrateSessionToString(String sessionId) {
+		long timeout = getTimeout(sessionId);
+		SaSession session = getSessionFromHash(sessionId);
+		if(session != null) {
+			SaTokenDaoByObjectFollowString.super.setSession(session, timeout);
+		}
+		return session;
+	}
+
+	/**
+	 * 判断异常是否由 Redis 的 WRONGTYPE 错误引起（key 中已存在的数据类型与命令不符）
+	 *
+	 * @param e /
+	 * @return /
+	 */
+	protected boolean isWrongType(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if(t.getMessage() != null && t.getMessage().contains("WRONGTYPE")) {
+				return true;
+			}
+			if(t.getCause() == t) {
+				break;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 将 SaSession 转换为 Hash 的 field、value 交替排列的参数列表
+	 *
+	 * @param session /
+	 * @return /
+	 */
+	protected List<String> toSessionHashArgs(SaSession session) {
+		SaSerializerTemplate serializer = SaManager.getSaSerializerTemplate();
+		List<String> args = new ArrayList<>();
+		args.add(SESSION_META_FIELD);
+		args.add(serializer.objectToString(toMetaSession(session)));
+		for (Map.Entry<String, Object> entry : session.getDataMap().entrySet()) {
+			args.add(SESSION_DATA_FIELD_PREFIX + entry.getKey());
+			args.add(serializer.objectToString(entry.getValue()));
+		}
+		return args;
+	}
+
+	/**
+	 * 复制一个不含挂载数据的 SaSession，用于存储在 Hash 的 SESSION_META_FIELD 字段中
+	 *
+	 * <p> 如果自定义的 SaSession 子类增加了额外的属性，请重写此方法一并复制 </p>
+	 *
+	 * @param session /
+	 * @return /
+	 */
+	protected SaSession toMetaSession(SaSession session) {
+		SaSession meta;
+		try {
+			// 使用无参构造方法，避免发布 SaSession 创建事件
+			meta = session.getClass().getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new SaTokenException(e);
+		}
+		meta.setId(session.getId())
+				.setType(session.getType())
+				.setLoginType(session.getLoginType())
+				.setLoginId(session.getLoginId())
+				.setToken(session.getToken())
+				.setCreateTime(session.getCreateTime());
+		meta.setHistoryTerminalCount(session.getHistoryTerminalCount());
+		meta.setTerminalList(session.getTerminalList());
+		return meta;
+	}
+
+
+	/**
+	 * 搜索数据 (基于 SCAN 遍历，不使用会阻塞 Redis 的 KEYS 命令)
 	 */
 	@Override
 	public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
-		Set<String> keys = stringRedisTemplate.keys(prefix + "*" + keyword + "*");
+		Set<String> keys = new LinkedHashSet<>();
+		scanData(prefix, keyword, keys::add);
 		List<String> list = new ArrayList<>(keys);
 		return SaFoxUtil.searchList(list, start, size, sortType);
 	}
-	
-	
+
+	/**
+	 * 遍历数据 (SCAN 游标分批遍历，集群模式下依次遍历每个主节点)
+	 */
+	@Override
+	public void scanData(String prefix, String keyword, SaParamFunction<String> consumer) {
+		ScanOptions options = ScanOptions.scanOptions().match(prefix + "*" + keyword + "*").count(scanCount).build();
+		stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+			// StringRedisTemplate 会将原始连接包装为 StringRedisConnection，需取出原始连接才能判断是否为集群连接
+			RedisConnection rawConnection = connection;
+			while (rawConnection instanceof DecoratedRedisConnection) {
+				rawConnection = ((DecoratedRedisConnection) rawConnection).getDelegate();
+			}
+			if(rawConnection instanceof RedisClusterConnection) {
+				RedisClusterConnection clusterConnection = (RedisClusterConnection) rawConnection;
+				for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+					if(node.isMaster()) {
+						scanCursor(clusterConnection.scan(node, options), consumer);
+					}
+				}
+			} else {
+				scanCursor(connection.scan(options), consumer);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * 读取 SCAN 游标中的所有 key，交给 consumer 处理，读取完毕后关闭游标
+	 *
+	 * @param cursor 游标
+	 * @param consumer 处理每个 key 的函数
+	 */
+	protected void scanCursor(Cursor<byte[]> cursor, SaParamFunction<String> consumer) {
+		try (Cursor<byte[]> c = cursor) {
+			while (c.hasNext()) {
+				consumer.run(stringRedisTemplate.getStringSerializer().deserialize(c.next()));
+			}
+		}
+	}
+
+
+	// --------------------- 限流计数 (sa-token.rate-limit-use-dao=true 时生效) ---------------------
+
+	/**
+	 * 尝试为指定 key 获取一次访问许可（Lua 脚本原子执行，所有节点共享计数）
+	 */
+	@Override
+	public boolean tryAcquire(String key, String algorithm, long capacity, long periodMillis) {
+		RedisScript<Long> script;
+		if(SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET.equals(algorithm)) {
+			script = TOKEN_BUCKET_SCRIPT;
+		} else if(SaTokenConsts.RATE_LIMIT_SLIDING_WINDOW.equals(algorithm)) {
+			script = SLIDING_WINDOW_SCRIPT;
+		} else {
+			throw new SaTokenException("无效的限流算法：" + algorithm).setCode(SaErrorCode.CODE_12502);
+		}
+		Long result = stringRedisTemplate.execute(script, Collections.singletonList(key), String.valueOf(capacity), String.valueOf(periodMillis));
+		return result != null && result == 1;
+	}
+
+
+
+	// --------------------- 原子计数 ---------------------
+
+	/**
+	 * 计数 +1 并重置有效期（Lua 脚本原子执行，所有节点共享计数）
+	 */
+	@Override
+	public long increment(String key, long timeout) {
+		if(timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE) {
+			return 0;
+		}
+		Long result = stringRedisTemplate.execute(INCREMENT_SCRIPT, Collections.singletonList(key), String.valueOf(timeout));
+		return result == null ? 0 : result;
+	}
+
 }
@@ -16,6 +16,7 @@
 package cn.dev33.satoken.dao;
 
 import cn.dev33.satoken.dao.auto.SaTokenDaoByObjectFollowString;
+import cn.dev33.satoken.fun.SaParamFunction;
 import cn.dev33.satoken.util.SaFoxUtil;
 import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
@@ -23,7 +24,10 @@ import org.redisson.api.RBucketAsync;
 import org.redisson.api.RedissonClient;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -41,6 +45,11 @@ public class SaTokenDaoForRedisson implements SaTokenDaoByObjectFollowString, Sa
 	 */
 	public final RedissonClient redissonClient;
 
+	/**
+	 * 遍历数据时，每次 SCAN 命令建议 Redis 返回的 key 数量
+	 */
+	public int scanCount = 1000;
+
 	public SaTokenDaoForRedisson(RedissonClient redissonClient) {
 		this.redissonClient = redissonClient;
 	}
@@ -76,6 +85,22 @@ public class SaTokenDaoForRedisson implements SaTokenDaoByObjectFollowString, Sa
 		}
 	}
 
+	/**
+	 * 当 key 不存在时写入Value，并设定存活时间 (单位: 秒)，对应 Redis 的 SET key value NX EX timeout
+	 */
+	@Override
+	public boolean setIfAbsent(String key, String value, long timeout) {
+		if(timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE)  {
+			return false;
+		}
+		RBucket<String> bucket = redissonClient.getBucket(key);
+		// 判断是否为永不过期
+		if(timeout == SaTokenDao.NEVER_EXPIRE) {
+			return bucket.setIfAbsent(value);
+		}
+		return bucket.setIfAbsent(value, Duration.ofSeconds(timeout));
+	}
+
 	/**
 	 * 修修改指定key-value键值对 (过期时间不变) 
 	 */
@@ -127,14 +152,125 @@ public class SaTokenDaoForRedisson implements SaTokenDaoByObjectFollowString, Sa
 		rBucket.expire(Duration.ofSeconds(timeout));
 	}
 
+
+	/**
+	 * 批量获取Value，如无返空 (batch)
+	 */
+	@Override
+	public List<String> getBatch(List<String> keys) {
+		if(keys.isEmpty()) {
+			return new ArrayList<>();
+		}
+		RBatch batch = redissonClient.createBatch();
+		for (String key : keys) {
+			batch.<String>getBucket(key).getAsync();
+		}
+		List<String> list = new ArrayList<>(keys.size());
+		for (Object value : batch.execute().getResponses()) {
+			list.add((String) value);
+		}
+		return list;
+	}
+
+	/**
+	 * 批量写入Value，并设定相同的存活时间 (单位: 秒) (batch)
+	 */
+	@Override
+	public void setBatch(Map<String, String> map, long timeout) {
+		if(map.isEmpty() || timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE)  {
+			return;
+		}
+		RBatch batch = redissonClient.createBatch();
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			RBucketAsync<String> bucket = batch.getBucket(entry.getKey());
+			bucket.setAsync(entry.getValue());
+			if(timeout != SaTokenDao.NEVER_EXPIRE) {
+				bucket.expireAsync(Duration.ofSeconds(timeout));
+			}
+		}
+		batch.execute();
+	}
+
+	/**
+	 * 批量修改key-value键值对 (过期时间不变) (两次 batch：先批量查询剩余存活时间，再批量写入)
+	 */
+	@Override
+	public void updateBatch(Map<String, String> map) {
+		if(map.isEmpty()) {
+			return;
+		}
+		List<String> keys = new ArrayList<>(map.keySet());
+		RBatch ttlBatch = redissonClient.createBatch();
+		for (String key : keys) {
+			ttlBatch.getBucket(key).remainTimeToLiveAsync();
+		}
+		List<?> ttlList = ttlBatch.execute().getResponses();
+
+		RBatch batch = redissonClient.createBatch();
+		for (int i = 0; i < keys.size(); i++) {
+			long ttl = ((Number) ttlList.get(i)).longValue();
+			// -2 = 无此键
+			if(ttl == SaTokenDao.NOT_VALUE_EXPIRE) {
+				continue;
+			}
+			RBucketAsync<String> bucket = batch.getBucket(keys.get(i));
+			bucket.setAsync(map.get(keys.get(i)));
+			if(ttl != SaTokenDao.NEVER_EXPIRE) {
+				bucket.expireAsync(Duration.ofMillis(ttl));
+			}
+		}
+		batch.execute();
+	}
+
+	/**
+	 * 批量删除Value
+	 */
+	@Override
+	public void deleteBatch(Collection<String> keys) {
+		if(keys.isEmpty()) {
+			return;
+		}
+		redissonClient.getKeys().delete(keys.toArray(new String[0]));
+	}
+
+	/**
+	 * 批量修改Value的剩余存活时间 (单位: 秒) (batch)
+	 */
+	@Override
+	public void updateTimeoutBatch(Collection<String> keys, long timeout) {
+		if(keys.isEmpty()) {
+			return;
+		}
+		RBatch batch = redissonClient.createBatch();
+		for (String key : keys) {
+			// 设置为永久时直接移除过期时间，与逐个调用 updateTimeout 的效果一致
+			if(timeout == SaTokenDao.NEVER_EXPIRE) {
+				batch.getBucket(key).clearExpireAsync();
+			} else {
+				batch.getBucket(key).expireAsync(Duration.ofSeconds(timeout));
+			}
+		}
+		batch.execute();
+	}
+
 	
 	/**
 	 * 搜索数据 
 	 */
 	@Override
 	public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
-		Stream<String> stream = redissonClient.getKeys().getKeysStreamByPattern(prefix + "*" + keyword + "*");
-		List<String> list = stream.collect(Collectors.toList());
+		Stream<String> stream = redissonClient.getKeys().getKeysStreamByPattern(prefix + "*" + keyword + "*", scanCount);
+		List<String> list = stream.distinct().collect(Collectors.toList());
 		return SaFoxUtil.searchList(list, start, size, sortType);
 	}
+
+	/**
+	 * 遍历数据 (SCAN 游标分批遍历，集群模式下由 Redisson 依次遍历每个主节点)
+	 */
+	@Override
+	public void scanData(String prefix, String keyword, SaParamFunction<String> consumer) {
+		for (String key : redissonClient.getKeys().getKeysByPattern(prefix + "*" + keyword + "*", scanCount)) {
+			consumer.run(key);
+		}
+	}
 }
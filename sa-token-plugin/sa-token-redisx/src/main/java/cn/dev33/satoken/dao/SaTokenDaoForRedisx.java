@@ -16,12 +16,21 @@
 package cn.dev33.satoken.dao;
 
 import cn.dev33.satoken.dao.auto.SaTokenDaoByObjectFollowString;
+import cn.dev33.satoken.fun.SaParamFunction;
 import cn.dev33.satoken.util.SaFoxUtil;
 import org.noear.redisx.RedisClient;
 import org.noear.redisx.plus.RedisBucket;
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanIteration;
+import redis.clients.jedis.params.SetParams;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -33,13 +42,20 @@ import java.util.Set;
  * @since 1.41.0
  */
 public class SaTokenDaoForRedisx implements SaTokenDaoByObjectFollowString, SaTokenDao {
+    private final RedisClient redisClient;
     private final RedisBucket redisBucket;
 
+    /**
+     * 遍历数据时，每次 SCAN 命令建议 Redis 返回的 key 数量
+     */
+    public int scanCount = 1000;
+
     public SaTokenDaoForRedisx(Properties props) {
         this(new RedisClient(props));
     }
 
     public SaTokenDaoForRedisx(RedisClient redisClient) {
+        this.redisClient = redisClient;
         redisBucket = redisClient.getBucket();
     }
 
@@ -68,6 +84,23 @@ public class SaTokenDaoForRedisx implements SaTokenDaoByObjectFollowString, SaTo
         }
     }
 
+    /**
+     * 当 key 不存在时写入Value，并设定存活时间 (单位: 秒)，对应 Redis 的 SET key value NX EX timeout
+     */
+    @Override
+    public boolean setIfAbsent(String key, String value, long timeout) {
+        if (timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE) {
+            return false;
+        }
+
+        // 永不过期时不设置 EX 参数
+        SetParams params = SetParams.setParams().nx();
+        if (timeout != SaTokenDao.NEVER_EXPIRE) {
+            params.ex(timeout);
+        }
+        return redisClient.openAndGet(session -> "OK".equals(session.jedis().set(key, value, params)));
+    }
+
     /**
      * 修改指定key-value键值对 (过期时间不变)
      */
@@ -119,13 +152,130 @@ public class SaTokenDaoForRedisx implements SaTokenDaoByObjectFollowString, SaTo
         redisBucket.delay(key, (int) timeout);
     }
 
+    /**
+     * 批量获取Value (MGET)
+     */
+    @Override
+    public List<String> getBatch(List<String> keys) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return redisBucket.getMore(keys.toArray(new String[0]));
+    }
+
+    /**
+     * 批量写入Value，并设定相同的存活时间 (单位: 秒) (pipeline)
+     */
+    @Override
+    public void setBatch(Map<String, String> map, long timeout) {
+        if (map.isEmpty() || timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE) {
+            return;
+        }
+        redisClient.open(session -> {
+            try (AbstractPipeline pipeline = session.jedis().pipelined()) {
+                for (Map.Entry<String, String> entry : map.entrySet()) {
+                    if (timeout == SaTokenDao.NEVER_EXPIRE) {
+                        pipeline.set(entry.getKey(), entry.getValue());
+                    } else {
+                        pipeline.setex(entry.getKey(), timeout, entry.getValue());
+                    }
+                }
+                pipeline.sync();
+            }
+        });
+    }
+
+    /**
+     * 批量修改key-value键值对 (过期时间不变) (两次 pipeline：先批量查询剩余存活时间，再批量写入)
+     */
+    @Override
+    public void updateBatch(Map<String, String> map) {
+        if (map.isEmpty()) {
+            return;
+        }
+        redisClient.open(session -> {
+            Map<String, Response<Long>> ttlMap = new LinkedHashMap<>();
+            try (AbstractPipeline pipeline = session.jedis().pipelined()) {
+                for (String key : map.keySet()) {
+                    ttlMap.put(key, pipeline.pttl(key));
+                }
+                pipeline.sync();
+            }
+            try (AbstractPipeline pipeline = session.jedis().pipelined()) {
+                for (Map.Entry<String, Response<Long>> entry : ttlMap.entrySet()) {
+                    long ttl = entry.getValue().get();
+                    // -2 = 无此键
+                    if (ttl == SaTokenDao.NOT_VALUE_EXPIRE) {
+                        continue;
+                    }
+                    if (ttl == SaTokenDao.NEVER_EXPIRE) {
+                        pipeline.set(entry.getKey(), map.get(entry.getKey()));
+                    } else {
+                        pipeline.psetex(entry.getKey(), ttl, map.get(entry.getKey()));
+                    }
+                }
+                pipeline.sync();
+            }
+        });
+    }
+
+    /**
+     * 批量删除Value (DEL key1 key2 ...)
+     */
+    @Override
+    public void deleteBatch(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        redisBucket.remove(keys);
+    }
+
+    /**
+     * 批量修改Value的剩余存活时间 (单位: 秒) (pipeline)
+     */
+    @Override
+    public void updateTimeoutBatch(Collection<String> keys, long timeout) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        redisClient.open(session -> {
+            try (AbstractPipeline pipeline = session.jedis().pipelined()) {
+                for (String key : keys) {
+                    // 设置为永久时直接移除过期时间，与逐个调用 updateTimeout 的效果一致
+                    if (timeout == SaTokenDao.NEVER_EXPIRE) {
+                        pipeline.persist(key);
+                    } else {
+                        pipeline.expire(key, timeout);
+                    }
+                }
+                pipeline.sync();
+            }
+        });
+    }
+
     /**
      * 搜索数据
      */
     @Override
     public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
-        Set<String> keys = redisBucket.keys(prefix + "*" + keyword + "*");
+        Set<String> keys = new LinkedHashSet<>();
+        scanData(prefix, keyword, keys::add);
         List<String> list = new ArrayList<>(keys);
         return SaFoxUtil.searchList(list, start, size, sortType);
     }
+
+    /**
+     * 遍历数据 (SCAN 游标分批遍历，集群模式下由 jedis 依次遍历每个节点)
+     */
+    @Override
+    public void scanData(String prefix, String keyword, SaParamFunction<String> consumer) {
+        redisClient.open(session -> {
+            ScanIteration iteration = session.jedis().scanIteration(scanCount, prefix + "*" + keyword + "*");
+            while (!iteration.isIterationCompleted()) {
+                for (String key : iteration.nextBatchList()) {
+                    consumer.run(key);
+                }
+            }
+        });
+    }
 }
\ No newline at end of file
@@ -45,6 +45,20 @@ public class SaSignConfig {
      */
     private String digestAlgo = "md5";
 
+    /**
+     * 是否在校验 nonce 时启用本地布隆过滤器，启用后本节点已见过的 nonce 将被直接拒绝，无需访问持久层
+     *
+     * <p> 布隆过滤器存在极低的误报率，误报时一个从未使用过的 nonce 也会被拒绝，客户端需更换 nonce 重试 </p>
+     */
+    private Boolean isNonceFilter = false;
+
+    /**
+     * nonce 本地过滤器每个时间桶（覆盖一个 nonce 有效期）预计登记的 nonce 数量，决定过滤器的内存占用
+     *
+     * <p> 某个时间桶登记的 nonce 超过此数量后，其误报率会快速上升，此时不再信任该桶的命中结果，改由持久层判断 </p>
+     */
+    private Integer nonceFilterExpectedInsertions = 100000;
+
     public SaSignConfig() {
     }
 
@@ -83,6 +97,8 @@ public class SaSignConfig {
         obj.secretKey = this.secretKey;
         obj.timestampDisparity = this.timestampDisparity;
         obj.digestAlgo = this.digestAlgo;
+        obj.isNonceFilter = this.isNonceFilter;
+        obj.nonceFilterExpectedInsertions = this.nonceFilterExpectedInsertions;
         obj.digestMethod = this.digestMethod;
         return obj;
     }
@@ -198,11 +214,55 @@ public class SaSignConfig {
         return this;
     }
 
+    /**
+     * 获取 是否在校验 nonce 时启用本地布隆过滤器
+     *
+     * @return /
+     */
+    public Boolean getIsNonceFilter() {
+        return this.isNonceFilter;
+    }
+
+    /**
+     * 设置 是否在校验 nonce 时启用本地布隆过滤器，启用后本节点已见过的 nonce 将被直接拒绝，无需访问持久层
+     *
+     * <p> 布隆过滤器存在极低的误报率，误报时一个从未使用过的 nonce 也会被拒绝，客户端需更换 nonce 重试 </p>
+     *
+     * @param isNonceFilter /
+     * @return 对象自身
+     */
+    public SaSignConfig setIsNonceFilter(Boolean isNonceFilter) {
+        this.isNonceFilter = isNonceFilter;
+        return this;
+    }
+
+    /**
+     * 获取 nonce 本地过滤器每个时间桶预计登记的 nonce 数量
+     *
+     * @return /
+     */
+    public Integer getNonceFilterExpectedInsertions() {
+        return this.nonceFilterExpectedInsertions;
+    }
+
+    /**
+     * 设置 nonce 本地过滤器每个时间桶预计登记的 nonce 数量，某个时间桶登记的 nonce 超过此数量后，该桶的命中结果将改由持久层判断
+     *
+     * @param nonceFilterExpectedInsertions /
+     * @return 对象自身
+     */
+    public SaSignConfig setNonceFilterExpectedInsertions(Integer nonceFilterExpectedInsertions) {
+        this.nonceFilterExpectedInsertions = nonceFilterExpectedInsertions;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "SaSignConfig ["
                 + "secretKey=" + secretKey
                 + ", timestampDisparity=" + timestampDisparity
+                + ", isNonceFilter=" + isNonceFilter
+                + ", nonceFilterExpectedInsertions=" + nonceFilterExpectedInsertions
                 + "]";
     }
 
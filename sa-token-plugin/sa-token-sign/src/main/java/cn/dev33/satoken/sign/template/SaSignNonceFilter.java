@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.sign.template;
+
+import cn.dev33.satoken.util.SaBloomFilter;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * nonce 本地过滤器：按时间分桶的布隆过滤器，用于在访问持久层之前拦截本节点已见过的 nonce
+ *
+ * <p>
+ *     新登记的 nonce 写入当前时间桶，探测时检查所有仍在保留期内的桶，超出保留期的桶整个丢弃，
+ *     因此布隆过滤器虽然不支持删除，内存占用也不会随时间无限增长。
+ * </p>
+ *
+ * <p>
+ *     过滤器只是一道前置拦截，nonce 是否真正被使用过仍以持久层的原子写入结果为准：其它节点使用过的 nonce 不在本地过滤器中，
+ *     会继续交给持久层判断；反过来，布隆过滤器的误报会导致极少数从未使用过的 nonce 被拒绝。
+ * </p>
+ *
+ * <p>
+ *     每个时间桶记录已登记的 nonce 数量，超过预计数量后该桶的误报率会快速上升，此时不再信任该桶的命中结果，
+ *     交由持久层判断，避免流量突增时大量正常 nonce 被误拒。
+ * </p>
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaSignNonceFilter {
+
+	/**
+	 * 每个时间桶覆盖的时间跨度（单位: 毫秒）
+	 */
+	public final long bucketMillis;
+
+	/**
+	 * 最多保留多少个时间桶（包含当前桶）
+	 */
+	public final int bucketCount;
+
+	/**
+	 * 每个时间桶预计登记多少个 nonce，超过此数量后不再信任该桶的命中结果
+	 */
+	public final int expectedInsertions;
+
+	/**
+	 * 每个时间桶布隆过滤器的位数组长度
+	 */
+	public final int bitSize;
+
+	/**
+	 * 每个元素计算多少次哈希
+	 */
+	public final int hashCount;
+
+	/**
+	 * 时间桶集合，桶序号 -> 布隆过滤器 （按桶序号升序排列）
+	 */
+	public final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+
+	/**
+	 * 构建一个 nonce 本地过滤器
+	 *
+	 * @param bucketMillis 每个时间桶覆盖的时间跨度（单位: 毫秒）
+	 * @param bucketCount 最多保留多少个时间桶（包含当前桶）
+	 * @param expectedInsertions 每个时间桶预计登记多少个 nonce
+	 * @param fpp 期望的误报率（0 ~ 1 之间）
+	 */
+	public SaSignNonceFilter(long bucketMillis, int bucketCount, int expectedInsertions, double fpp) {
+		this.bucketMillis = Math.max(bucketMillis, 1);
+		this.bucketCount = Math.max(bucketCount, 1);
+		this.expectedInsertions = expectedInsertions;
+		this.bitSize = SaBloomFilter.optimalBitSize(expectedInsertions, fpp);
+		this.hashCount = SaBloomFilter.optimalHashCount(expectedInsertions, bitSize);
+	}
+
+	/**
+	 * 如果此 nonce 不在过滤器中，则登记到当前时间桶
+	 *
+	 * <p> 已超出预计数量的时间桶，其命中结果不可信，会被跳过，此时返回 true，由调用方继续交给持久层判断 </p>
+	 *
+	 * @param nonce 随机字符串
+	 * @return true=登记成功（需继续交给持久层判断），false=此 nonce 已被本节点见过
+	 */
+	public boolean addIfAbsent(String nonce) {
+		long currBucket = System.currentTimeMillis() / bucketMillis;
+		buckets.headMap(currBucket - bucketCount + 1).clear();
+		for (Bucket bucket : buckets.values()) {
+			if( ! bucket.isOverCapacity() && bucket.filter.mightContain(nonce)) {
+				return false;
+			}
+		}
+		Bucket bucket = buckets.computeIfAbsent(currBucket, k -> new Bucket(new SaBloomFilter(bitSize, hashCount), expectedInsertions));
+		if(bucket.filter.add(nonce)) {
+			bucket.count.incrementAndGet();
+		}
+		return true;
+	}
+
+	/**
+	 * 判断此 nonce 是否可能已被见过
+	 *
+	 * @param nonce 随机字符串
+	 * @return false=一定未见过，true=可能已见过
+	 */
+	public boolean mightContain(String nonce) {
+		long minBucket = System.currentTimeMillis() / bucketMillis - bucketCount + 1;
+		for (Bucket bucket : buckets.tailMap(minBucket).values()) {
+			if(bucket.filter.mightContain(nonce)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 清空过滤器
+	 */
+	public void clear() {
+		buckets.clear();
+	}
+
+	/**
+	 * 获取当前时间桶的数量
+	 *
+	 * @return /
+	 */
+	public int getBucketCount() {
+		return buckets.size();
+	}
+
+	/**
+	 * 时间桶：布隆过滤器 + 已登记的 nonce 数量
+	 */
+	public static class Bucket {
+
+		/**
+		 * 布隆过滤器
+		 */
+		public final SaBloomFilter filter;
+
+		/**
+		 * 已登记的 nonce 数量
+		 */
+		public final AtomicInteger count = new AtomicInteger();
+
+		/**
+		 * 预计登记的 nonce 数量
+		 */
+		public final int capacity;
+
+		public Bucket(SaBloomFilter filter, int capacity) {
+			this.filter = filter;
+			this.capacity = capacity;
+		}
+
+		/**
+		 * 已登记的 nonce 是否超出了预计数量（超出后命中结果不可信）
+		 *
+		 * @return /
+		 */
+		public boolean isOverCapacity() {
+			return count.get() > capacity;
+		}
+
+	}
+
+}
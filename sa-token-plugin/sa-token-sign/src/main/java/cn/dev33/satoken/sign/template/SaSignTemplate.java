@@ -102,6 +102,36 @@ public class SaSignTemplate {
 	}
 
 
+	/**
+	 * nonce 本地过滤器（首次使用时按 saveNonceExpire 创建）
+	 */
+	protected volatile SaSignNonceFilter nonceFilter;
+
+	/**
+	 * 获取：nonce 本地过滤器
+	 *
+	 * <p> 每个时间桶覆盖 saveNonceExpire 秒，保留 3 个桶，覆盖 nonce 在持久层中的全部有效期；每桶预计登记 nonceFilterExpectedInsertions 个 nonce，误报率百万分之一 </p>
+	 *
+	 * @return /
+	 */
+	public SaSignNonceFilter getNonceFilter() {
+		SaSignNonceFilter filter = this.nonceFilter;
+		if(filter == null) {
+			synchronized (this) {
+				filter = this.nonceFilter;
+				if(filter == null) {
+					SaSignConfig config = getSignConfigOrGlobal();
+					long bucketMillis = Math.max(config.getSaveNonceExpire(), 1) * 1000;
+					int expectedInsertions = Math.max(config.getNonceFilterExpectedInsertions(), 1);
+					filter = new SaSignNonceFilter(bucketMillis, 3, expectedInsertions, 0.000001);
+					this.nonceFilter = filter;
+				}
+			}
+		}
+		return filter;
+	}
+
+
 	// ----------- 自定义使用的参数名称 (不声明final，允许开发者自定义修改)
 
 	public static String key = "key";
@@ -271,14 +301,17 @@ public class SaSignTemplate {
 			throw new SaSignException("nonce 为空，无效");
 		}
 
-		// 校验此 nonce 是否已被使用过
-		String key = splicingNonceSaveKey(nonce);
-		if(SaManager.getSaTokenDao().get(key) != null) {
+		// 如果启用了本地过滤器，本节点已见过的 nonce 直接拒绝，无需访问持久层（过滤器不确定时仍会交给持久层判断）
+		SaSignConfig config = getSignConfigOrGlobal();
+		if(Boolean.TRUE.equals(config.getIsNonceFilter()) && ! getNonceFilter().addIfAbsent(nonce)) {
 			throw new SaSignException("此 nonce 已被使用过，不可重复使用：" + nonce);
 		}
 
-		// 校验通过后，将此 nonce 保存在缓存中，保证下次校验无法通过
-		SaManager.getSaTokenDao().set(key, nonce, getSignConfigOrGlobal().getSaveNonceExpire() * 2 + 2);
+		// 校验并保存此 nonce：判断是否已被使用过、保存到缓存中 是一次原子操作，并发重放时只有一个请求可以校验通过
+		String key = splicingNonceSaveKey(nonce);
+		if( ! SaManager.getSaTokenDao().setIfAbsent(key, nonce, config.getSaveNonceExpire() * 2 + 2)) {
+			throw new SaSignException("此 nonce 已被使用过，不可重复使用：" + nonce);
+		}
 	}
 
 	/**
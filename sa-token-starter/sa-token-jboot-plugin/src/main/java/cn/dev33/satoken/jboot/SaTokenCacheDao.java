@@ -25,6 +25,7 @@ import io.jboot.exception.JbootIllegalConfigException;
 import io.jboot.support.redis.JbootRedisConfig;
 import io.jboot.utils.ConfigUtil;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.params.SetParams;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -106,6 +107,26 @@ public class SaTokenCacheDao implements SaTokenDaoBySessionFollowObject {
         }
     }
 
+    /**
+     * 当 key 不存在时写入Value，并设定存活时间 (单位: 秒)，对应 Redis 的 SET key value NX EX timeout
+     */
+    @Override
+    public boolean setIfAbsent(String key, String value, long timeout) {
+        if (timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE) {
+            return false;
+        }
+        SetParams params = SetParams.setParams().nx();
+        if (timeout != SaTokenDao.NEVER_EXPIRE) {
+            params.ex(timeout);
+        }
+        Jedis jedis = saRedisCache.getJedis();
+        try {
+            return "OK".equals(jedis.set(key, value, params));
+        } finally {
+            saRedisCache.returnResource(jedis);
+        }
+    }
+
     @Override
     public void update(String key, String value) {
         long expire = getTimeout(key);
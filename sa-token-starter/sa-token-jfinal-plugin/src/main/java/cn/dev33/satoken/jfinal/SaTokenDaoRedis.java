@@ -22,6 +22,7 @@ import com.jfinal.plugin.redis.Cache;
 import com.jfinal.plugin.redis.Redis;
 import com.jfinal.plugin.redis.serializer.ISerializer;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.params.SetParams;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -74,6 +75,26 @@ public class SaTokenDaoRedis implements SaTokenDaoBySessionFollowObject {
         }
     }
 
+    /**
+     * 当 key 不存在时写入Value，并设定存活时间 (单位: 秒)，对应 Redis 的 SET key value NX EX timeout
+     */
+    @Override
+    public boolean setIfAbsent(String key, String value, long timeout) {
+        if (timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE) {
+            return false;
+        }
+        SetParams params = SetParams.setParams().nx();
+        if (timeout != SaTokenDao.NEVER_EXPIRE) {
+            params.ex(timeout);
+        }
+        Jedis jedis = getJedis();
+        try {
+            return "OK".equals(jedis.set(key, value, params));
+        } finally {
+            close(jedis);
+        }
+    }
+
     /**
      * 修改指定key-value键值对 (过期时间不变)
      */
@@ -24,6 +24,7 @@ import cn.dev33.satoken.filter.SaFilterErrorStrategy;
 import cn.dev33.satoken.reactor.context.SaReactorSyncHolder;
 import cn.dev33.satoken.reactor.util.SaReactorOperateUtil;
 import cn.dev33.satoken.router.SaRouter;
+import cn.dev33.satoken.router.SaRouteRuleRegistry;
 import cn.dev33.satoken.util.SaTokenConsts;
 import org.springframework.core.annotation.Order;
 import org.springframework.web.server.ServerWebExchange;
@@ -140,6 +141,9 @@ public class SaReactorFilter implements SaFilter, WebFilter {
 			SaReactorSyncHolder.setContext(exchange);
 			beforeAuth.run(null);
 			SaRouter.match(includeList).notMatch(excludeList).check(r -> auth.run(null));
+
+			// 声明式路由规则校验
+			SaRouteRuleRegistry.instance.check();
 		}
 		catch (StopMatchException ignored) {}
 		catch (BackResultException e) {
@@ -15,7 +15,10 @@
  */
 package cn.dev33.satoken.reactor.filter;
 
+import cn.dev33.satoken.SaManager;
 import cn.dev33.satoken.reactor.context.SaReactorHolder;
+import cn.dev33.satoken.reactor.context.SaReactorSyncHolder;
+import cn.dev33.satoken.session.SaSessionWriteBehind;
 import cn.dev33.satoken.util.SaTokenConsts;
 import org.springframework.core.annotation.Order;
 import org.springframework.web.server.ServerWebExchange;
@@ -34,10 +37,24 @@ public class SaTokenContextFilterForReactor implements WebFilter {
 
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+			// 如果开启了 SaSession 延迟写入，则本次请求内的修改在流式操作结束时统一写入
+			boolean writeBehind = Boolean.TRUE.equals(SaManager.getConfig().getSessionWriteBehind());
+			if(writeBehind) {
+				SaReactorSyncHolder.setContext(exchange, () -> {
+					SaSessionWriteBehind.begin();
+					return null;
+				});
+			}
 			return chain.filter(exchange)
 					.contextWrite(ctx -> SaReactorHolder.setContext(ctx, exchange, chain))
 					.doFinally(r -> {
 						// 在流式上下文中保存的数据会随着流式操作的结束而销毁，所以此处无需手动清除数据
+						if(writeBehind) {
+							SaReactorSyncHolder.setContext(exchange, () -> {
+								SaSessionWriteBehind.flush();
+								return null;
+							});
+						}
 					});
 	}
 
@@ -27,6 +27,7 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilterChain;
 
+import java.net.InetSocketAddress;
 import java.util.Collection;
 import java.util.Map;
 
@@ -179,6 +180,18 @@ public class SaRequestForReactor implements SaRequest {
 		return request.getURI().getHost();
 	}
 
+	/**
+	 * 查询客户端 IP 地址
+	 */
+	@Override
+	public String getRemoteAddr() {
+		InetSocketAddress address = request.getRemoteAddress();
+		if(address == null || address.getAddress() == null) {
+			return null;
+		}
+		return address.getAddress().getHostAddress();
+	}
+
 	/**
 	 * 转发请求 
 	 */
@@ -181,6 +181,14 @@ public class SaRequestForServlet implements SaRequest {
 		return request.getServerName();
 	}
 
+	/**
+	 * 查询客户端 IP 地址
+	 */
+	@Override
+	public String getRemoteAddr() {
+		return request.getRemoteAddr();
+	}
+
 	/**
 	 * 转发请求 
 	 */
@@ -15,6 +15,7 @@
  */
 package cn.dev33.satoken.solon.integration;
 
+import cn.dev33.satoken.session.SaSessionWriteBehind;
 import cn.dev33.satoken.solon.util.SaTokenContextSolonUtil;
 import org.noear.solon.core.handle.Context;
 import org.noear.solon.core.handle.Filter;
@@ -32,9 +33,15 @@ public class SaTokenContextFilterForSolon implements Filter {
 	public void doFilter(Context ctx, FilterChain chain) throws Throwable {
 		try {
 			SaTokenContextSolonUtil.setContext(ctx);
+			// 如果开启了 SaSession 延迟写入，则本次请求内的修改在请求结束时统一写入
+			SaSessionWriteBehind.begin();
 			chain.doFilter(ctx);
 		} finally {
-			SaTokenContextSolonUtil.clearContext();
+			try {
+				SaSessionWriteBehind.flush();
+			} finally {
+				SaTokenContextSolonUtil.clearContext();
+			}
 		}
 	}
 
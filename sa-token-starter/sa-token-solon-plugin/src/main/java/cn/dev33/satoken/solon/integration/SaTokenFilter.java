@@ -22,6 +22,7 @@ import cn.dev33.satoken.filter.SaFilter;
 import cn.dev33.satoken.filter.SaFilterAuthStrategy;
 import cn.dev33.satoken.filter.SaFilterErrorStrategy;
 import cn.dev33.satoken.router.SaRouter;
+import cn.dev33.satoken.router.SaRouteRuleRegistry;
 import cn.dev33.satoken.solon.util.SaSolonOperateUtil;
 import cn.dev33.satoken.strategy.SaAnnotationStrategy;
 import org.noear.solon.Solon;
@@ -179,6 +180,9 @@ public class SaTokenFilter implements SaFilter, Filter { //之所以改名，为
 				if(authAnno(action)) {
 					//3.执行规则处理（如果没有被 @SaIgnore 忽略）
 					auth.run(finalMainHandler);
+
+					//4.执行声明式路由规则校验
+					SaRouteRuleRegistry.instance.check();
 				}
 			});
 		}
@@ -117,6 +117,11 @@ public class SaRequestForSolon implements SaRequest {
         return ctx.uri().getHost();
     }
 
+    @Override
+    public String getRemoteAddr() {
+        return ctx.remoteIp();
+    }
+
     @Override
     public Object forward(String path) {
         ctx.forward(path);
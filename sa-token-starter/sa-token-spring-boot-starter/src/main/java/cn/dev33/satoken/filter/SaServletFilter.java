@@ -19,6 +19,7 @@ import cn.dev33.satoken.exception.BackResultException;
 import cn.dev33.satoken.exception.SaTokenException;
 import cn.dev33.satoken.exception.StopMatchException;
 import cn.dev33.satoken.router.SaRouter;
+import cn.dev33.satoken.router.SaRouteRuleRegistry;
 import cn.dev33.satoken.servlet.util.SaServletOperateUtil;
 import cn.dev33.satoken.util.SaTokenConsts;
 import org.springframework.core.annotation.Order;
@@ -128,6 +129,9 @@ public class SaServletFilter implements SaFilter, Filter {
 			SaRouter.match(includeList).notMatch(excludeList).check(r -> {
 				auth.run(null);
 			});
+
+			// 声明式路由规则校验
+			SaRouteRuleRegistry.instance.check();
 		}
 		catch (StopMatchException ignored) {}
 		catch (BackResultException e) {
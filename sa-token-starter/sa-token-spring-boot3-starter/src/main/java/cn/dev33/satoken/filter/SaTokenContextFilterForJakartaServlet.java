@@ -15,6 +15,7 @@
  */
 package cn.dev33.satoken.filter;
 
+import cn.dev33.satoken.session.SaSessionWriteBehind;
 import cn.dev33.satoken.servlet.util.SaTokenContextJakartaServletUtil;
 import cn.dev33.satoken.util.SaTokenConsts;
 import jakarta.servlet.*;
@@ -37,9 +38,15 @@ public class SaTokenContextFilterForJakartaServlet implements Filter {
 	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
 		try {
 			SaTokenContextJakartaServletUtil.setContext((HttpServletRequest) request, (HttpServletResponse) response);
+			// 如果开启了 SaSession 延迟写入，则本次请求内的修改在请求结束时统一写入
+			SaSessionWriteBehind.begin();
 			chain.doFilter(request, response);
 		} finally {
-			SaTokenContextJakartaServletUtil.clearContext();
+			try {
+				SaSessionWriteBehind.flush();
+			} finally {
+				SaTokenContextJakartaServletUtil.clearContext();
+			}
 		}
 	}
 
@@ -18,6 +18,7 @@ package cn.dev33.satoken.interceptor;
 import cn.dev33.satoken.exception.BackResultException;
 import cn.dev33.satoken.exception.StopMatchException;
 import cn.dev33.satoken.fun.SaParamFunction;
+import cn.dev33.satoken.router.SaRouteRuleRegistry;
 import cn.dev33.satoken.strategy.SaAnnotationStrategy;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -100,6 +101,9 @@ public class SaInterceptor implements HandlerInterceptor {
 			
 			// Auth 校验  
 			auth.run(handler);
+
+			// 声明式路由规则校验
+			SaRouteRuleRegistry.instance.check();
 			
 		} catch (StopMatchException e) {
 			// StopMatchException 异常代表：停止匹配，进入Controller
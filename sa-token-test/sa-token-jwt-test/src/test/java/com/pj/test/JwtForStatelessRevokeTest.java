@@ -0,0 +1,129 @@
+package com.pj.test;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.exception.NotLoginException;
+import cn.dev33.satoken.jwt.SaJwtRevokeFilter;
+import cn.dev33.satoken.jwt.SaJwtRevokeList;
+import cn.dev33.satoken.jwt.SaJwtUtil;
+import cn.dev33.satoken.jwt.StpLogicJwtForStateless;
+import cn.dev33.satoken.servlet.util.SaTokenContextServletUtil;
+import cn.dev33.satoken.spring.SpringMVCUtil;
+import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.jwt.JWT;
+import org.junit.jupiter.api.*;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Sa-Token 整合 jwt：stateless 模式 吊销列表 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+@SpringBootTest(classes = StartUpApplication.class)
+public class JwtForStatelessRevokeTest {
+
+	static StpLogicJwtForStateless stpLogic;
+
+	@BeforeAll
+	public static void beforeClass() {
+		stpLogic = new StpLogicJwtForStateless();
+	}
+
+	@AfterAll
+	public static void afterClass() {
+		SaManager.getConfig().setIsJwtRevoke(false);
+		stpLogic.getRevokeList().endSyncThread();
+	}
+
+	// 单独运行此类时，Spring 容器在 @BeforeAll 之后才启动，会覆盖全局配置，因此在每个用例前设置
+	@BeforeEach
+	public void beforeEach() {
+		SaManager.getConfig().setIsJwtRevoke(true);
+		StpUtil.setStpLogic(stpLogic);
+		SaTokenContextServletUtil.setContext(SpringMVCUtil.getRequest(), SpringMVCUtil.getResponse());
+	}
+
+	@AfterEach
+	public void afterEach() {
+		SaTokenContextServletUtil.clearContext();
+	}
+
+	// 注销、踢下线、顶下线后 token 失效，其它 token 不受影响
+	@Test
+	public void revoke() {
+		String token1 = StpUtil.createLoginSession(10001);
+		String token2 = StpUtil.createLoginSession(10001);
+		String token3 = StpUtil.createLoginSession(10001);
+		String token4 = StpUtil.createLoginSession(10001);
+
+		StpUtil.logoutByTokenValue(token1);
+		StpUtil.kickoutByTokenValue(token2);
+		StpUtil.replacedByTokenValue(token3);
+		Assertions.assertNull(StpUtil.getLoginIdByToken(token1));
+		Assertions.assertNull(stpLogic.getLoginIdNotHandle(token1));
+		Assertions.assertEquals(stpLogic.getLoginIdNotHandle(token2), NotLoginException.KICK_OUT);
+		Assertions.assertEquals(stpLogic.getLoginIdNotHandle(token3), NotLoginException.BE_REPLACED);
+		Assertions.assertEquals(stpLogic.getLoginIdNotHandle(token4), "10001");
+
+		// 未被吊销的 token 只探测本地过滤器，不查询持久层
+		long daoQueryCount = stpLogic.getRevokeList().getDaoQueryCount();
+		for (int i = 0; i < 100; i++) {
+			stpLogic.getLoginIdNotHandle(token4);
+		}
+		Assertions.assertEquals(stpLogic.getRevokeList().getDaoQueryCount(), daoQueryCount);
+
+		// 其它节点通过同步持久层感知到被吊销的 token
+		SaJwtRevokeList otherNode = new SaJwtRevokeList(stpLogic.splicingKeyJwtRevoke());
+		long effTime = JWT.of(token1).getPayloads().getLong(SaJwtUtil.EFF);
+		Assertions.assertFalse(otherNode.isRevoked(token1, effTime));
+		Assertions.assertTrue(otherNode.sync() >= 3);
+		Assertions.assertTrue(otherNode.isRevoked(token1, effTime));
+		Assertions.assertFalse(otherNode.isRevoked(token4, effTime));
+
+		// 吊销记录以 header.payload 为准，改写签名段不能绕过吊销
+		String header = token1.substring(0, token1.lastIndexOf('.') + 1);
+		Assertions.assertEquals(SaJwtRevokeList.getTokenId(token1), SaJwtRevokeList.getTokenId(header + "AAAA"));
+		Assertions.assertTrue(otherNode.isRevoked(header + "AAAA", effTime));
+		Assertions.assertNotEquals(SaJwtRevokeList.getTokenId(token1), SaJwtRevokeList.getTokenId(token4));
+	}
+
+	// 当前会话注销
+	@Test
+	public void logout() {
+		StpUtil.login(10002);
+		String token = StpUtil.getTokenValue();
+		Assertions.assertTrue(StpUtil.isLogin());
+		StpUtil.logout();
+		Assertions.assertNull(stpLogic.getLoginIdNotHandle(token));
+	}
+
+	// 布隆过滤器：不漏报，误报率可控，到期分区被丢弃
+	@Test
+	public void filter() {
+		SaJwtRevokeFilter filter = new SaJwtRevokeFilter(1000, 10000, 0.01);
+		long effTime = System.currentTimeMillis() + 5000;
+		for (int i = 0; i < 10000; i++) {
+			filter.add("token-" + i, effTime);
+		}
+		for (int i = 0; i < 10000; i++) {
+			Assertions.assertTrue(filter.mightContain("token-" + i, effTime));
+		}
+		int falsePositive = 0;
+		for (int i = 10000; i < 20000; i++) {
+			if(filter.mightContain("token-" + i, effTime)) {
+				falsePositive++;
+			}
+		}
+		Assertions.assertTrue(falsePositive < 300, "误报数：" + falsePositive);
+
+		// 其它分区的 token 不受影响
+		Assertions.assertFalse(filter.mightContain("token-1", effTime + 10000));
+
+		filter.add("never", SaJwtUtil.NEVER_EXPIRE);
+		Assertions.assertEquals(filter.getPartitionCount(), 2);
+		Assertions.assertEquals(filter.pruneExpired(effTime + 2000), 1);
+		Assertions.assertFalse(filter.mightContain("token-1", effTime));
+		Assertions.assertTrue(filter.mightContain("never", SaJwtUtil.NEVER_EXPIRE));
+	}
+
+}
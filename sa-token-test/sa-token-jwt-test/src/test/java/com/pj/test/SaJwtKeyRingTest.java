@@ -0,0 +1,135 @@
+package com.pj.test;
+
+import cn.dev33.satoken.jwt.SaJwtKeyRing;
+import cn.dev33.satoken.jwt.SaJwtTemplate;
+import cn.dev33.satoken.jwt.error.SaJwtErrorCode;
+import cn.dev33.satoken.jwt.exception.SaJwtException;
+import cn.hutool.jwt.JWT;
+import cn.hutool.jwt.signers.JWTSignerUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+/**
+ * SaJwtKeyRing 非对称签名、密钥轮换 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaJwtKeyRingTest {
+
+	// 各算法签名、验签
+	@Test
+	public void algorithms() throws Exception {
+		check("RS256", rsa());
+		check("RS512", rsa());
+		check("ES256", ec("secp256r1"));
+		check("ES384", ec("secp384r1"));
+		check("ES512", ec("secp521r1"));
+		check("EdDSA", KeyPairGenerator.getInstance("Ed25519").generateKeyPair());
+	}
+
+	private void check(String algorithmId, KeyPair keyPair) {
+		SaJwtTemplate signTemplate = new SaJwtTemplate();
+		signTemplate.setKeyRing(new SaJwtKeyRing().addKey("k1", algorithmId, keyPair.getPrivate(), keyPair.getPublic()).setSignKid("k1"));
+		String token = signTemplate.createToken("login", 10001, "PC", 3600, null, null);
+		Assertions.assertEquals(JWT.of(token).getHeader("kid"), "k1");
+		Assertions.assertEquals(JWT.of(token).getHeader("alg"), algorithmId);
+
+		// 只持有公钥（PEM 格式）的服务可以验签，但不能签名
+		SaJwtTemplate verifyTemplate = new SaJwtTemplate();
+		verifyTemplate.setKeyRing(new SaJwtKeyRing().addKey("k1", algorithmId, null, pem(keyPair.getPublic().getEncoded())));
+		Assertions.assertEquals(String.valueOf(verifyTemplate.getLoginId(token, "login", null)), "10001");
+		Assertions.assertThrows(SaJwtException.class, () -> verifyTemplate.createToken("login", 10001, "PC", 3600, null, null));
+
+		// 篡改签名
+		String forged = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+		SaJwtException e = Assertions.assertThrows(SaJwtException.class, () -> verifyTemplate.getLoginId(forged, "login", null));
+		Assertions.assertEquals(e.getCode(), SaJwtErrorCode.CODE_30202);
+
+		// 签名的非规范写法
+		if(keyPair.getPublic().getAlgorithm().equals("RSA")) {
+			String[] parts = token.split("\\.");
+			for (String sign : SaJwtTemplateTest.nonCanonical(parts[2])) {
+				String variant = parts[0] + "." + parts[1] + "." + sign;
+				Assertions.assertThrows(SaJwtException.class, () -> verifyTemplate.getLoginId(variant, "login", null));
+			}
+		}
+	}
+
+	// ES256 签名格式与 hutool 互通
+	@Test
+	public void ecCompatible() throws Exception {
+		KeyPair keyPair = ec("secp256r1");
+		SaJwtTemplate template = new SaJwtTemplate();
+		template.setKeyRing(new SaJwtKeyRing().addKey("k1", "ES256", keyPair.getPrivate(), keyPair.getPublic()).setSignKid("k1"));
+		String token = template.createToken("login", 10001, "PC", 3600, null, null);
+		Assertions.assertTrue(JWT.of(token).setSigner(JWTSignerUtil.es256(keyPair.getPublic())).verify());
+
+		String token2 = JWT.create().setHeader("kid", "k1")
+				.setPayload("loginType", "login").setPayload("loginId", 10002).setPayload("eff", -1)
+				.setSigner(JWTSignerUtil.es256(keyPair.getPrivate())).sign();
+		Assertions.assertEquals(String.valueOf(template.getLoginId(token2, "login", null)), "10002");
+	}
+
+	// 密钥轮换：新密钥签名，旧密钥仍可验签，移除后旧 token 失效
+	@Test
+	public void rotate() throws Exception {
+		KeyPair oldPair = rsa();
+		KeyPair newPair = rsa();
+		SaJwtKeyRing keyRing = new SaJwtKeyRing().addKey("old", "RS256", oldPair.getPrivate(), oldPair.getPublic()).setSignKid("old");
+		SaJwtTemplate template = new SaJwtTemplate();
+		template.setKeyRing(keyRing);
+		String oldToken = template.createToken("login", 10001, "PC", 3600, null, null);
+
+		keyRing.addKey("new", "RS256", newPair.getPrivate(), newPair.getPublic()).setSignKid("new");
+		String newToken = template.createToken("login", 10002, "PC", 3600, null, null);
+		Assertions.assertEquals(JWT.of(newToken).getHeader("kid"), "new");
+		Assertions.assertEquals(String.valueOf(template.getLoginId(oldToken, "login", null)), "10001");
+		Assertions.assertEquals(String.valueOf(template.getLoginId(newToken, "login", null)), "10002");
+
+		// 正在签名的密钥不能移除
+		Assertions.assertThrows(SaJwtException.class, () -> keyRing.removeKey("new"));
+		keyRing.removeKey("old");
+		Assertions.assertThrows(SaJwtException.class, () -> template.getLoginId(oldToken, "login", null));
+		Assertions.assertEquals(String.valueOf(template.getLoginId(newToken, "login", null)), "10002");
+	}
+
+	// 算法混淆：用公钥当作 HMAC 秘钥伪造的 token 无法通过验签
+	@Test
+	public void algorithmConfusion() throws Exception {
+		KeyPair keyPair = rsa();
+		SaJwtTemplate template = new SaJwtTemplate();
+		template.setKeyRing(new SaJwtKeyRing().addKey("k1", "RS256", null, keyPair.getPublic()));
+		String forged = JWT.create().setHeader("kid", "k1")
+				.setPayload("loginType", "login").setPayload("loginId", 1).setPayload("eff", -1)
+				.setSigner(JWTSignerUtil.hs256(keyPair.getPublic().getEncoded())).sign();
+		SaJwtException e = Assertions.assertThrows(SaJwtException.class, () -> template.getLoginId(forged, "login", null));
+		Assertions.assertEquals(e.getCode(), SaJwtErrorCode.CODE_30202);
+
+		// 没有 kid、kid 不存在
+		String noKid = JWT.create().setPayload("loginType", "login").setSigner(JWTSignerUtil.hs256("abc".getBytes())).sign();
+		Assertions.assertThrows(SaJwtException.class, () -> template.getLoginId(noKid, "login", null));
+	}
+
+	private static KeyPair rsa() throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		return generator.generateKeyPair();
+	}
+
+	private static KeyPair ec(String curve) throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+		generator.initialize(new ECGenParameterSpec(curve));
+		return generator.generateKeyPair();
+	}
+
+	private static String pem(byte[] encoded) {
+		return "-----BEGIN PUBLIC KEY-----\n" + Base64.getMimeEncoder().encodeToString(encoded) + "\n-----END PUBLIC KEY-----";
+	}
+
+}
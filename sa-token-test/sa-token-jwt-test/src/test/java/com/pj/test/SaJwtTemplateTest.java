@@ -0,0 +1,207 @@
+package com.pj.test;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.config.SaTokenConfig;
+import cn.dev33.satoken.jwt.SaJwtHmacSigner;
+import cn.dev33.satoken.jwt.SaJwtParseCache;
+import cn.dev33.satoken.jwt.SaJwtTemplate;
+import cn.dev33.satoken.jwt.StpLogicJwtForStateless;
+import cn.dev33.satoken.jwt.error.SaJwtErrorCode;
+import cn.dev33.satoken.jwt.exception.SaJwtException;
+import cn.hutool.jwt.JWT;
+import cn.hutool.jwt.signers.JWTSignerUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SaJwtTemplate 签名器缓存、先验签后解析 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaJwtTemplateTest {
+
+	static final String KEYT = "asdasdasifhueuiwyurfewbfjsdafjk";
+
+	// 与 hutool 自带的 HS256 签名器互相兼容
+	@Test
+	public void compatible() {
+		SaJwtTemplate template = new SaJwtTemplate();
+		String token = template.createToken("login", 10001, "PC", 3600, null, KEYT);
+		Assertions.assertTrue(JWT.of(token).setSigner(JWTSignerUtil.hs256(KEYT.getBytes())).verify());
+		Assertions.assertEquals(JWT.of(token).getHeader("alg"), "HS256");
+
+		String token2 = JWT.create().setPayload("loginType", "login").setPayload("loginId", 10002).setPayload("eff", -1)
+				.setSigner(JWTSignerUtil.hs256(KEYT.getBytes())).sign();
+		Assertions.assertEquals(String.valueOf(template.getLoginId(token2, "login", KEYT)), "10002");
+
+		// 同一秘钥复用同一个签名器
+		Assertions.assertSame(template.getSigner(KEYT), template.getSigner(KEYT));
+	}
+
+	// 伪造的 token 在解析 JSON 之前即被拒绝
+	@Test
+	public void verifyBeforeParse() {
+		SaJwtTemplate template = new SaJwtTemplate();
+		String token = template.createToken("login", 10001, "PC", 3600, null, KEYT);
+		String[] parts = token.split("\\.");
+
+		// 篡改 payload
+		String payload = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"loginType\":\"login\",\"loginId\":1}".getBytes());
+		SaJwtException e = Assertions.assertThrows(SaJwtException.class, () -> template.getLoginId(parts[0] + "." + payload + "." + parts[2], "login", KEYT));
+		Assertions.assertEquals(e.getCode(), SaJwtErrorCode.CODE_30202);
+
+		// payload 不是合法 JSON 时，同样在验签阶段就被拒绝
+		e = Assertions.assertThrows(SaJwtException.class, () -> template.getLoginId(parts[0] + ".!!!." + parts[2], "login", KEYT));
+		Assertions.assertEquals(e.getCode(), SaJwtErrorCode.CODE_30202);
+
+		// 格式错误
+		e = Assertions.assertThrows(SaJwtException.class, () -> template.getLoginId("abc.def", "login", KEYT));
+		Assertions.assertEquals(e.getCode(), SaJwtErrorCode.CODE_30201);
+		Assertions.assertEquals(template.getTimeout(parts[0] + "." + payload + "." + parts[2], "login", KEYT), SaJwtTemplate.NOT_VALUE_EXPIRE);
+
+		// 签名不是合法的 base64
+		Assertions.assertFalse(SaJwtHmacSigner.hs256(KEYT.getBytes()).verify(parts[0], parts[1], "***"));
+
+		// 签名的非规范写法（带填充符、末位多余 bit 被改动）解码后字节相同，但同样不能通过验签
+		for (String sign : nonCanonical(parts[2])) {
+			Assertions.assertFalse(SaJwtHmacSigner.hs256(KEYT.getBytes()).verify(parts[0], parts[1], sign));
+		}
+	}
+
+	/**
+	 * 返回与指定签名解码结果相同、但文本不同的写法
+	 */
+	static List<String> nonCanonical(String sign) {
+		List<String> list = new ArrayList<>();
+		list.add(Base64.getUrlEncoder().encodeToString(Base64.getUrlDecoder().decode(sign)));
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+		int last = alphabet.indexOf(sign.charAt(sign.length() - 1));
+		list.add(sign.substring(0, sign.length() - 1) + alphabet.charAt(last ^ 1));
+		list.removeIf(s -> s.equals(sign));
+		Assertions.assertEquals(list.size(), 2);
+		for (String s : list) {
+			Assertions.assertArrayEquals(Base64.getUrlDecoder().decode(s), Base64.getUrlDecoder().decode(sign));
+		}
+		return list;
+	}
+
+	// 解析缓存
+	@Test
+	public void parseCache() {
+		long oldTimeout = SaManager.getConfig().getJwtParseCacheTimeout();
+		SaManager.getConfig().setJwtParseCacheTimeout(60);
+		try {
+			SaJwtTemplate template = new SaJwtTemplate();
+			String token = template.createToken("login", 10001, "PC", 3600, null, KEYT);
+			SaJwtParseCache cache = template.getParseCache();
+
+			// 首次解析未命中，之后命中，且返回同一个解析结果
+			JWT jwt = template.parseToken(token, "login", KEYT, true);
+			Assertions.assertSame(template.parseToken(token, "login", KEYT, true), jwt);
+			Assertions.assertTrue(template.getTimeout(token, "login", KEYT) > 3500);
+			Assertions.assertEquals(cache.getMissCount(), 1);
+			Assertions.assertEquals(cache.getHitCount(), 2);
+			Assertions.assertTrue(cache.localCache.getObjectTimeout(token) <= 60);
+
+			// 秘钥、loginType 不一致时不会命中
+			Assertions.assertThrows(SaJwtException.class, () -> template.parseToken(token, "login", KEYT + "x", true));
+			Assertions.assertThrows(SaJwtException.class, () -> template.parseToken(token, "user", KEYT, true));
+			Assertions.assertEquals(cache.getMissCount(), 3);
+
+			// 已过期的 jwt 不会被缓存
+			String expired = template.createToken("login", 10002, "PC", -100, null, KEYT);
+			SaJwtException e = Assertions.assertThrows(SaJwtException.class, () -> template.parseToken(expired, "login", KEYT, true));
+			Assertions.assertEquals(e.getCode(), SaJwtErrorCode.CODE_30204);
+			Assertions.assertNull(cache.localCache.getObject(expired));
+
+			cache.clear();
+			Assertions.assertNull(cache.localCache.getObject(token));
+		} finally {
+			SaManager.getConfig().setJwtParseCacheTimeout(oldTimeout);
+		}
+	}
+
+	// 多线程共用同一个签名器
+	@Test
+	public void concurrent() throws Exception {
+		SaJwtTemplate template = new SaJwtTemplate();
+		List<String> tokens = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			tokens.add(template.createToken("login", i, "PC", 3600, null, KEYT));
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(pool.submit(() -> {
+					for (int round = 0; round < 50; round++) {
+						for (int i = 0; i < tokens.size(); i++) {
+							if( ! String.valueOf(i).equals(String.valueOf(template.getLoginId(tokens.get(i), "login", KEYT)))) {
+								return false;
+							}
+						}
+					}
+					return true;
+				}));
+			}
+			for (Future<Boolean> future : futures) {
+				Assertions.assertTrue(future.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	// 吞吐量对比：StpLogicJwtForStateless.getLoginIdNotHandle（缓存签名器 + 先验签） vs 每次新建 hutool 签名器 + 先解析
+	// 计时结果受机器负载影响，仅供手动运行对比，不参与日常单元测试
+	@Disabled
+	@Test
+	public void throughput() {
+		StpLogicJwtForStateless stpLogic = new StpLogicJwtForStateless("login");
+		stpLogic.setConfig(new SaTokenConfig().setJwtSecretKey(KEYT));
+		String token = stpLogic.createTokenValue(10001, "PC", 3600, null);
+		String forged = token.substring(0, token.lastIndexOf('.') + 1) + "AAAA";
+		int count = 20000;
+
+		// 预热
+		for (int i = 0; i < count; i++) {
+			stpLogic.getLoginIdNotHandle(token);
+			legacyGetLoginId(token);
+		}
+
+		long cached = measure(count, () -> stpLogic.getLoginIdNotHandle(token));
+		long legacy = measure(count, () -> legacyGetLoginId(token));
+		long cachedForged = measure(count, () -> stpLogic.getLoginIdNotHandle(forged));
+		long legacyForged = measure(count, () -> legacyGetLoginId(forged));
+
+		System.out.println("getLoginIdNotHandle x " + count + "，有效 token：" + cached / 1000000 + "ms（旧实现 " + legacy / 1000000 + "ms），"
+				+ "伪造 token：" + cachedForged / 1000000 + "ms（旧实现 " + legacyForged / 1000000 + "ms）");
+	}
+
+	// 旧实现：每次先完整解析 JSON，再新建签名器验签
+	private static Object legacyGetLoginId(String token) {
+		JWT jwt = JWT.of(token);
+		if( ! jwt.setSigner(JWTSignerUtil.hs256(KEYT.getBytes())).verify()) {
+			return null;
+		}
+		return jwt.getPayloads().get("loginId");
+	}
+
+	private static long measure(int count, Runnable runnable) {
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			runnable.run();
+		}
+		return System.nanoTime() - start;
+	}
+
+}
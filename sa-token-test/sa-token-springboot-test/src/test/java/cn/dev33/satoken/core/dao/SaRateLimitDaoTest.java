@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.dao;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.context.mock.SaRequestForMock;
+import cn.dev33.satoken.context.model.SaRequest;
+import cn.dev33.satoken.dao.SaRateLimitDaoDefaultImpl;
+import cn.dev33.satoken.error.SaErrorCode;
+import cn.dev33.satoken.exception.RateLimitException;
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.secure.SaSecureUtil;
+import cn.dev33.satoken.strategy.hooks.SaFirewallCheckHookForRateLimit;
+import cn.dev33.satoken.util.SaTokenConsts;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 限流计数 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaRateLimitDaoTest {
+
+	// 令牌桶：允许 capacity 次突发，之后被拒绝
+	@Test
+	public void tokenBucket() {
+		SaRateLimitDaoDefaultImpl dao = new SaRateLimitDaoDefaultImpl();
+		for (int i = 0; i < 5; i++) {
+			Assertions.assertTrue(dao.tryAcquire("k1", SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET, 5, 60000));
+		}
+		Assertions.assertFalse(dao.tryAcquire("k1", SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET, 5, 60000));
+		// 不同 key 分别计数
+		Assertions.assertTrue(dao.tryAcquire("k2", SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET, 5, 60000));
+	}
+
+	// 滑动窗口：同一周期内最多 capacity 次
+	@Test
+	public void slidingWindow() {
+		SaRateLimitDaoDefaultImpl dao = new SaRateLimitDaoDefaultImpl();
+		for (int i = 0; i < 3; i++) {
+			Assertions.assertTrue(dao.tryAcquire("k1", SaTokenConsts.RATE_LIMIT_SLIDING_WINDOW, 3, 60000));
+		}
+		Assertions.assertFalse(dao.tryAcquire("k1", SaTokenConsts.RATE_LIMIT_SLIDING_WINDOW, 3, 60000));
+	}
+
+	// key 数量超出上限时，清理空闲的 key（以同步方式执行清理任务，便于断言）
+	@Test
+	public void maxKeyCount() {
+		SaRateLimitDaoDefaultImpl dao = new SaRateLimitDaoDefaultImpl() {
+			@Override
+			protected void runCleanTask(Runnable task) {
+				task.run();
+			}
+		};
+		dao.maxKeyCount = 10;
+		for (int i = 0; i < 30; i++) {
+			dao.tryAcquire("k" + i, SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET, 1, 1);
+		}
+		Assertions.assertTrue(dao.tokenBucketMap.size() <= 10);
+
+		// 清理空闲 key 后依然超出上限时，只淘汰最久未活跃的 key，正在被限流的 key 依然保持计数
+		dao.tokenBucketMap.clear();
+		Assertions.assertTrue(dao.tryAcquire("hot", SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET, 1, 60000));
+		Assertions.assertFalse(dao.tryAcquire("hot", SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET, 1, 60000));
+		for (int i = 0; i < 30; i++) {
+			dao.tryAcquire("k" + i, SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET, 1000, 60000);
+		}
+		Assertions.assertTrue(dao.tokenBucketMap.size() <= 10);
+		Assertions.assertFalse(dao.tryAcquire("hot", SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET, 1, 60000));
+	}
+
+	// 默认在后台线程中清理，不阻塞请求线程
+	@Test
+	public void maxKeyCountAsync() throws Exception {
+		SaRateLimitDaoDefaultImpl dao = new SaRateLimitDaoDefaultImpl();
+		dao.maxKeyCount = 10;
+		for (int i = 0; i < 30; i++) {
+			dao.tryAcquire("k" + i, SaTokenConsts.RATE_LIMIT_TOKEN_BUCKET, 1000, 60000);
+		}
+		for (int i = 0; i < 500 && dao.cleaning.get(); i++) {
+			Thread.sleep(10);
+		}
+		Assertions.assertFalse(dao.cleaning.get());
+		dao.cleanKeys();
+		Assertions.assertTrue(dao.tokenBucketMap.size() <= 10);
+	}
+
+	// 防火墙 hook：按 ip + route 组合限流
+	@Test
+	public void rateLimitHook() {
+		long oldCapacity = SaManager.getConfig().getRateLimitCapacity();
+		String oldKeyType = SaManager.getConfig().getRateLimitKeyType();
+		SaManager.getConfig().setRateLimitCapacity(2).setRateLimitPeriod(60).setRateLimitKeyType("ip, route");
+		try {
+			SaFirewallCheckHookForRateLimit hook = new SaFirewallCheckHookForRateLimit();
+			SaRequestForMock req = new SaRequestForMock();
+			req.remoteAddr = "10.0.0.1";
+			req.requestPath = "/user/info";
+			Assertions.assertTrue(hook.isApplicable(req));
+			Assertions.assertEquals(hook.getLimitKey(req, SaManager.getConfig()), "satoken:rate-limit:ip:10.0.0.1:route:/user/info");
+			hook.execute(req, null, null);
+			hook.execute(req, null, null);
+			RateLimitException e = Assertions.assertThrows(RateLimitException.class, () -> hook.execute(req, null, null));
+			Assertions.assertEquals(e.getLimitKey(), "satoken:rate-limit:ip:10.0.0.1:route:/user/info");
+
+			// 换一个接口，重新计数
+			req.requestPath = "/user/list";
+			hook.execute(req, null, null);
+		} finally {
+			SaManager.getConfig().setRateLimitCapacity(oldCapacity).setRateLimitKeyType(oldKeyType);
+		}
+	}
+
+	// 防火墙 hook：按 token 摘要计数（不访问持久层）、未携带 token 时按 ip 计数、无法获取 ip 时不限流、无效的统计周期
+	@Test
+	public void rateLimitHookFallback() {
+		long oldCapacity = SaManager.getConfig().getRateLimitCapacity();
+		long oldPeriod = SaManager.getConfig().getRateLimitPeriod();
+		String oldKeyType = SaManager.getConfig().getRateLimitKeyType();
+		SaManager.getConfig().setRateLimitCapacity(2).setRateLimitPeriod(60).setRateLimitKeyType("token");
+		try {
+			SaFirewallCheckHookForRateLimit hook = new SaFirewallCheckHookForRateLimit();
+			SaRequestForMock req = new SaRequestForMock();
+			req.remoteAddr = "10.0.0.2";
+			Assertions.assertEquals(hook.getLimitKey(req, SaManager.getConfig()), "satoken:rate-limit:ip:10.0.0.2");
+			req.headerMap.put(SaManager.getConfig().getTokenName(), "some-token");
+			Assertions.assertEquals(hook.getLimitKey(req, SaManager.getConfig()), "satoken:rate-limit:token:" + SaSecureUtil.sha256("some-token"));
+
+			// loginId 维度：能直接得到 loginId 时按账号计数，否则按 token 摘要计数
+			SaManager.getConfig().setRateLimitKeyType("loginId");
+			Assertions.assertEquals(hook.getLimitKey(req, SaManager.getConfig()), "satoken:rate-limit:token:" + SaSecureUtil.sha256("some-token"));
+			SaFirewallCheckHookForRateLimit jwtHook = new SaFirewallCheckHookForRateLimit() {
+				@Override
+				public Object getLoginIdWithoutDao(SaRequest req, String tokenValue) {
+					return 10001;
+				}
+			};
+			Assertions.assertEquals(jwtHook.getLimitKey(req, SaManager.getConfig()), "satoken:rate-limit:login:10001");
+			req.headerMap.clear();
+
+			req.remoteAddr = null;
+			Assertions.assertNull(hook.getLimitKey(req, SaManager.getConfig()));
+			for (int i = 0; i < 5; i++) {
+				hook.execute(req, null, null);
+			}
+
+			SaManager.getConfig().setRateLimitPeriod(0);
+			SaTokenException e = Assertions.assertThrows(SaTokenException.class, () -> hook.execute(req, null, null));
+			Assertions.assertEquals(e.getCode(), SaErrorCode.CODE_12504);
+		} finally {
+			SaManager.getConfig().setRateLimitCapacity(oldCapacity).setRateLimitPeriod(oldPeriod).setRateLimitKeyType(oldKeyType);
+		}
+	}
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.dao;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.dao.timedcache.SaMapPackageForConcurrentHashMap;
+import cn.dev33.satoken.dao.timedcache.SaTimedCache;
+import cn.dev33.satoken.dao.timedcache.SaTimedCacheEntry;
+import cn.dev33.satoken.listener.SaTokenEventCenter;
+import cn.dev33.satoken.listener.SaTokenListenerForSimple;
+import cn.dev33.satoken.session.SaSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * SaTimedCache 定时缓存 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaTimedCacheTest {
+
+	// 使用过期时间索引清理过期数据
+	@Test
+	public void refreshByExpireIndex() {
+		SaTimedCache cache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+		cache.setObject("k1", "v1", 60);
+		cache.enableExpireIndex(1000);
+		cache.setObject("k2", "v2", 60);
+		cache.setObject("k3", "v3", SaTokenDao.NEVER_EXPIRE);
+		Assertions.assertEquals(cache.expireIndex.getBucketCount(), 1);
+
+		// 将 k1、k2 的到期时间改为过去，定时清理时应被移除，永不过期的 k3 不受影响
+		cache.updateObjectTimeout("k1", -10);
+		cache.updateObjectTimeout("k2", -10);
+		cache.refreshDataMap();
+		Assertions.assertNull(cache.dataMap.get("k1"));
+		Assertions.assertNull(cache.dataMap.get("k2"));
+		Assertions.assertEquals(cache.getObject("k3"), "v3");
+		Assertions.assertEquals(cache.getObjectTimeout("k3"), SaTokenDao.NEVER_EXPIRE);
+
+		// 删除 key 后，索引中也不再残留
+		cache.setObject("k4", "v4", 60);
+		cache.deleteObject("k4");
+		cache.expireIndex.buckets.values().forEach(bucket -> Assertions.assertFalse(bucket.contains("k4")));
+
+		// 关闭索引后，恢复全量扫描
+		cache.setObject("k5", "v5", 60);
+		cache.disableExpireIndex();
+		cache.updateObjectTimeout("k5", -10);
+		cache.refreshDataMap();
+		Assertions.assertNull(cache.dataMap.get("k5"));
+	}
+
+	// 定时清理与并发写入同一 key：清理只移除已过期的旧值，新值及其索引登记不受影响
+	@Test
+	public void refreshConcurrentSet() throws Exception {
+		SaTimedCache cache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+		cache.enableExpireIndex(1000);
+		for (int i = 0; i < 500; i++) {
+			cache.setObject("k1", "old", 60);
+			cache.updateObjectTimeout("k1", -10);
+
+			CyclicBarrier barrier = new CyclicBarrier(2);
+			Thread sweeper = new Thread(() -> {
+				await(barrier);
+				cache.refreshDataMap();
+			});
+			sweeper.start();
+			await(barrier);
+			cache.setObject("k1", "new", 60);
+			sweeper.join();
+
+			Assertions.assertEquals(cache.getObject("k1"), "new");
+			Assertions.assertTrue(cache.expireIndex.buckets.values().stream().anyMatch(bucket -> bucket.contains("k1")));
+		}
+	}
+
+	// 修改值或过期时间时替换整个缓存数据，并发修改同一 key 后，索引登记与当前数据保持一致
+	@Test
+	public void updateReplacesEntry() throws Exception {
+		SaTimedCache cache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+		cache.enableExpireIndex(1000);
+		cache.setObject("k1", "v1", 60);
+		SaTimedCacheEntry oldEntry = cache.dataMap.get("k1");
+		cache.updateObjectTimeout("k1", 7200);
+		cache.updateObject("k1", "v2");
+		Assertions.assertNotSame(cache.dataMap.get("k1"), oldEntry);
+		Assertions.assertEquals(oldEntry.value, "v1");
+		Assertions.assertEquals(cache.getObject("k1"), "v2");
+		Assertions.assertEquals(cache.getObjectTimeout("k1"), 7200, 1);
+
+		for (int i = 0; i < 200; i++) {
+			CyclicBarrier barrier = new CyclicBarrier(2);
+			int n = i;
+			Thread writer = new Thread(() -> {
+				await(barrier);
+				cache.setObject("k1", "v" + n, 60);
+			});
+			writer.start();
+			await(barrier);
+			cache.updateObjectTimeout("k1", 3600);
+			writer.join();
+
+			long tick = cache.expireIndex.getTick(cache.dataMap.get("k1").expireTime);
+			Assertions.assertTrue(cache.expireIndex.buckets.get(tick).contains("k1"));
+		}
+	}
+
+	private static void await(CyclicBarrier barrier) {
+		try {
+			barrier.await();
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	// 值与过期时间合并存储
+	@Test
+	public void entry() {
+		SaTimedCache cache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+		cache.setObject("k1", "v1", 60);
+		Assertions.assertEquals(cache.dataMap.get("k1").value, "v1");
+		Assertions.assertTrue(cache.dataMap.get("k1").expireTime > System.currentTimeMillis());
+
+		// 修改值，过期时间不变
+		long expireTime = cache.dataMap.get("k1").expireTime;
+		cache.updateObject("k1", "v2");
+		Assertions.assertEquals(cache.getObject("k1"), "v2");
+		Assertions.assertEquals(cache.dataMap.get("k1").expireTime, expireTime);
+
+		// 修改不存在的 key 的过期时间，不会凭空写入数据
+		cache.updateObjectTimeout("k2", 60);
+		Assertions.assertNull(cache.dataMap.get("k2"));
+		Assertions.assertEquals(cache.getObjectTimeout("k2"), SaTokenDao.NOT_VALUE_EXPIRE);
+
+		// 已过期的 key 在读取时被惰性清除
+		cache.updateObjectTimeout("k1", -10);
+		Assertions.assertNull(cache.getObject("k1"));
+		Assertions.assertNull(cache.dataMap.get("k1"));
+	}
+
+	// 定时清理的全量扫描不属于访问，不会让只写不读的数据获得二次机会
+	@Test
+	public void refreshNotMarkAccessed() {
+		SaTimedCache cache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+		cache.enableBound(2, -1);
+		cache.bound.evictListener = (key, value) -> {};
+		cache.setObject("k1", "v1", 60);
+		cache.setObject("k2", "v2", 60);
+		cache.getObject("k2");
+		cache.refreshDataMap();
+
+		// k1 从未被读取，即使经过了定时清理，也应先于 k2 被淘汰
+		cache.setObject("k3", "v3", 60);
+		Assertions.assertNull(cache.getObject("k1"));
+		Assertions.assertEquals(cache.getObject("k2"), "v2");
+	}
+
+	// key 不存在时才写入
+	@Test
+	public void setIfAbsent() {
+		SaTimedCache cache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+		cache.enableExpireIndex(1000);
+		Assertions.assertTrue(cache.setObjectIfAbsent("k1", "v1", 60));
+		Assertions.assertFalse(cache.setObjectIfAbsent("k1", "v2", 60));
+		Assertions.assertEquals(cache.getObject("k1"), "v1");
+
+		// 已过期但尚未被清理的旧数据，视为不存在
+		cache.updateObjectTimeout("k1", -10);
+		Assertions.assertTrue(cache.setObjectIfAbsent("k1", "v3", 60));
+		Assertions.assertEquals(cache.getObject("k1"), "v3");
+		Assertions.assertTrue(cache.getObjectTimeout("k1") > 0);
+
+		// 无效的 timeout 不写入
+		Assertions.assertFalse(cache.setObjectIfAbsent("k2", "v2", 0));
+		Assertions.assertNull(cache.getObject("k2"));
+	}
+
+	// 有序 key 索引：按前缀分页检索
+	@Test
+	public void searchByKeyIndex() {
+		SaTimedCache cache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+		cache.setObject("satoken:login:token:c", "1", 60);
+		cache.enableKeyIndex();
+		cache.setObject("satoken:login:token:a", "1", 60);
+		cache.setObject("satoken:login:token:b", "2", 60);
+		cache.setObject("satoken:login:token:d", "2", 60);
+		cache.setObject("satoken:login:session:1", "1", 60);
+		cache.setObject("satoken:login:tokenx", "1", 60);
+
+		// 只返回前缀区间内的数据，按字典序分页
+		Assertions.assertEquals(cache.searchKeys("satoken:login:token:", "", 0, -1, true),
+				Arrays.asList("satoken:login:token:a", "satoken:login:token:b", "satoken:login:token:c", "satoken:login:token:d"));
+		Assertions.assertEquals(cache.searchKeys("satoken:login:token:", "", 1, 2, true),
+				Arrays.asList("satoken:login:token:b", "satoken:login:token:c"));
+		Assertions.assertEquals(cache.searchKeys("satoken:login:token:", "", 0, 1, false),
+				Arrays.asList("satoken:login:token:d"));
+		Assertions.assertEquals(cache.searchKeys("satoken:login:token:", "b", 0, -1, true),
+				Arrays.asList("satoken:login:token:b"));
+
+		// 删除、过期的数据不会被检索到
+		cache.deleteObject("satoken:login:token:a");
+		cache.updateObjectTimeout("satoken:login:token:b", -10);
+		Assertions.assertEquals(cache.searchKeys("satoken:login:token:", "", 0, -1, true),
+				Arrays.asList("satoken:login:token:c", "satoken:login:token:d"));
+		Assertions.assertFalse(cache.keyIndex.keys.contains("satoken:login:token:a"));
+
+		// 绕过 SaTimedCache 直接从底层 Map 移除的数据，会在检索时顺带移出索引
+		cache.dataMap.remove("satoken:login:token:c");
+		List<String> list = new ArrayList<>();
+		cache.scanKeys("satoken:login:token:", "", list::add);
+		Assertions.assertEquals(list, Arrays.asList("satoken:login:token:d"));
+		Assertions.assertFalse(cache.keyIndex.keys.contains("satoken:login:token:c"));
+	}
+
+	// 容量上限：超出时淘汰未被访问过的数据
+	@Test
+	public void bound() {
+		List<String> evictKeys = new ArrayList<>();
+		SaTokenListenerForSimple listener = new SaTokenListenerForSimple() {
+			@Override
+			public void doEvictData(String key, Object value) {
+				evictKeys.add(key);
+			}
+		};
+		SaTokenEventCenter.registerListener(listener);
+		try {
+			SaTimedCache cache = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+			cache.enableBound(3, -1);
+			cache.setObject("k1", "v1", 60);
+			cache.setObject("k2", "v2", 60);
+			cache.setObject("k3", "v3", 60);
+
+			// k1 被访问过，获得二次机会，k2 被淘汰
+			cache.getObject("k1");
+			cache.setObject("k4", "v4", 60);
+			Assertions.assertEquals(cache.getObject("k1"), "v1");
+			Assertions.assertNull(cache.getObject("k2"));
+			Assertions.assertEquals(cache.bound.getEvictCount(), 1);
+			Assertions.assertEquals(evictKeys.size(), 1);
+			Assertions.assertEquals(evictKeys.get(0), "k2");
+
+			// 被删除的数据不占用额度，也不会触发淘汰事件
+			cache.deleteObject("k3");
+			cache.setObject("k5", "v5", 60);
+			Assertions.assertEquals(cache.bound.getEvictCount(), 1);
+			Assertions.assertEquals(cache.getObject("k4"), "v4");
+
+			// 按预估字节数限制
+			SaTimedCache cache2 = new SaTimedCache(new SaMapPackageForConcurrentHashMap<>());
+			SaSession session = new SaSession("session-1001");
+			cache2.enableBound(-1, 2000);
+			cache2.setObject("session-1001", session, 60);
+			Assertions.assertTrue(cache2.bound.getBytes() > 0);
+			for (int i = 0; i < 50; i++) {
+				cache2.setObject("key-" + i, "value-" + i, 60);
+			}
+			Assertions.assertTrue(cache2.bound.getBytes() <= 2000);
+			Assertions.assertTrue(cache2.bound.getEvictCount() > 0);
+			Assertions.assertNull(cache2.getObject("session-1001"));
+			Assertions.assertTrue(evictKeys.contains("session-1001"));
+		} finally {
+			SaTokenEventCenter.removeListener(listener);
+		}
+	}
+
+}
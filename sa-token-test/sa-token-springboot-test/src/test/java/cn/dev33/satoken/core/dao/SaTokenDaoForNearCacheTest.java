@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.dao;
+
+import cn.dev33.satoken.dao.SaNearCacheBroadcaster;
+import cn.dev33.satoken.dao.SaTokenDaoDefaultImpl;
+import cn.dev33.satoken.dao.SaTokenDaoForNearCache;
+import cn.dev33.satoken.fun.SaParamFunction;
+import cn.dev33.satoken.session.SaSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * SaTokenDaoForNearCache 两级缓存 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaTokenDaoForNearCacheTest {
+
+	// 读取时优先命中本地缓存
+	@Test
+	public void get() {
+		CountDao target = new CountDao();
+		SaTokenDaoForNearCache dao = new SaTokenDaoForNearCache(target, 60, 1000);
+
+		target.set("name", "zhangsan", 60);
+		Assertions.assertEquals(dao.get("name"), "zhangsan");
+		Assertions.assertEquals(dao.get("name"), "zhangsan");
+		Assertions.assertEquals(target.readCount, 1);
+
+		// 不存在的 key 也会被缓存
+		Assertions.assertNull(dao.get("age"));
+		Assertions.assertNull(dao.get("age"));
+		Assertions.assertEquals(target.readCount, 2);
+		Assertions.assertEquals(dao.getHitRate(), 0.5);
+
+		// 写入后本地缓存失效
+		dao.update("name", "lisi");
+		Assertions.assertEquals(dao.get("name"), "lisi");
+		dao.set("age", "18", 60);
+		Assertions.assertEquals(dao.get("age"), "18");
+		dao.delete("age");
+		Assertions.assertNull(dao.get("age"));
+		Assertions.assertEquals(target.readCount, 5);
+	}
+
+	// 读取 L2 期间 key 被丢弃时，读到的旧值不会写入本地缓存
+	@Test
+	public void invalidateDuringLoad() {
+		SaTokenDaoDefaultImpl target = new SaTokenDaoDefaultImpl();
+		SaTokenDaoForNearCache[] holder = new SaTokenDaoForNearCache[1];
+		SaTokenDaoDefaultImpl slowTarget = new SaTokenDaoDefaultImpl() {
+			@Override
+			public Object getObject(String key) {
+				Object value = target.getObject(key);
+				// 模拟：读到旧值之后、写入本地缓存之前，另一个线程写入了新值
+				target.set(key, "new", 60);
+				holder[0].onInvalidate(key);
+				return value;
+			}
+		};
+		holder[0] = new SaTokenDaoForNearCache(slowTarget, 60, -1);
+		target.set("name", "old", 60);
+		Assertions.assertEquals(holder[0].get("name"), "old");
+		Assertions.assertNull(holder[0].localCache.getObject("name"));
+		Assertions.assertTrue(holder[0].loadingMap.isEmpty());
+	}
+
+	// SaSession 读写
+	@Test
+	public void getSession() {
+		CountDao target = new CountDao();
+		SaTokenDaoForNearCache dao = new SaTokenDaoForNearCache(target, 60, -1);
+
+		dao.setSession(new SaSession("session-1001"), 60);
+		Assertions.assertEquals(dao.getSession("session-1001").getId(), "session-1001");
+		Assertions.assertEquals(dao.getSession("session-1001").getId(), "session-1001");
+		Assertions.assertEquals(target.readCount, 1);
+
+		// 同一个 key 的字符串缓存与对象缓存互不干扰
+		target.set("token", "10001", 60);
+		Assertions.assertEquals(dao.get("token"), "10001");
+		Assertions.assertEquals(dao.getObject("token"), "10001");
+
+		dao.deleteSession("session-1001");
+		Assertions.assertNull(dao.getSession("session-1001"));
+	}
+
+	// 多节点之间的失效广播
+	@Test
+	public void broadcast() {
+		CountDao target = new CountDao();
+		LocalBroadcaster broadcaster = new LocalBroadcaster();
+		SaTokenDaoForNearCache node1 = new SaTokenDaoForNearCache(target, 60, -1).setBroadcaster(broadcaster);
+		SaTokenDaoForNearCache node2 = new SaTokenDaoForNearCache(target, 60, -1).setBroadcaster(broadcaster);
+		broadcaster.subscribe(node1::onInvalidate);
+		broadcaster.subscribe(node2::onInvalidate);
+
+		node1.set("name", "zhangsan", 60);
+		Assertions.assertEquals(node2.get("name"), "zhangsan");
+
+		// 节点 1 修改数据后，节点 2 的本地缓存被通知失效
+		node1.update("name", "lisi");
+		Assertions.assertEquals(node2.get("name"), "lisi");
+
+		// 延长存活时间不广播，缩短到本地缓存有效期以内时广播
+		broadcaster.publishCount = 0;
+		node1.updateTimeout("name", 120);
+		Assertions.assertEquals(broadcaster.publishCount, 0);
+		Assertions.assertNotNull(node2.localCache.getObject("name"));
+		node1.updateTimeout("name", 10);
+		Assertions.assertEquals(broadcaster.publishCount, 1);
+		Assertions.assertNull(node2.localCache.getObject("name"));
+		node2.setObject("obj", "v", 60);
+		node2.getObject("obj");
+		node1.updateObjectTimeout("obj", 10);
+		Assertions.assertNull(node2.localCache.getObject("obj"));
+
+		// 批量写入合并为一次广播
+		broadcaster.publishCount = 0;
+		Assertions.assertEquals(node2.getBatch(Arrays.asList("name", "obj")).get(0), "lisi");
+		node1.updateTimeoutBatch(Arrays.asList("name", "obj"), 5);
+		Assertions.assertEquals(broadcaster.publishCount, 1);
+		Assertions.assertNull(node2.localCache.getObject("name"));
+	}
+
+	// 每次请求都会写入的 key 不经过本地缓存，也不广播
+	@Test
+	public void notLocalCacheable() {
+		CountDao target = new CountDao();
+		LocalBroadcaster broadcaster = new LocalBroadcaster();
+		SaTokenDaoForNearCache dao = new SaTokenDaoForNearCache(target, 60, -1).setBroadcaster(broadcaster);
+		String key = "satoken:login:last-active:token-1001";
+		dao.set(key, "1000", 60);
+		Assertions.assertEquals(dao.get(key), "1000");
+		Assertions.assertEquals(dao.get(key), "1000");
+		Assertions.assertEquals(target.readCount, 2);
+		Assertions.assertNull(dao.localCache.getObject(key));
+		dao.update(key, "2000");
+		dao.updateTimeout(key, 1);
+		Assertions.assertEquals(broadcaster.publishCount, 0);
+	}
+
+	/**
+	 * 统计读取次数的 SaTokenDao
+	 */
+	static class CountDao extends SaTokenDaoDefaultImpl {
+		int readCount;
+		@Override
+		public Object getObject(String key) {
+			readCount++;
+			return super.getObject(key);
+		}
+	}
+
+	/**
+	 * 进程内的失效广播器
+	 */
+	static class LocalBroadcaster implements SaNearCacheBroadcaster {
+		List<SaParamFunction<String>> listeners = new ArrayList<>();
+		int publishCount;
+		@Override
+		public void publish(String key) {
+			publishCount++;
+			listeners.forEach(listener -> listener.run(key));
+		}
+		@Override
+		public void publishBatch(Collection<String> keys) {
+			publishCount++;
+			keys.forEach(key -> listeners.forEach(listener -> listener.run(key)));
+		}
+		@Override
+		public void subscribe(SaParamFunction<String> listener) {
+			listeners.add(listener);
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.dao;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.context.SaTokenContext;
+import cn.dev33.satoken.context.SaTokenContextForThreadLocal;
+import cn.dev33.satoken.context.mock.SaTokenContextMockUtil;
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.dao.SaTokenDaoDefaultImpl;
+import cn.dev33.satoken.dao.SaTokenDaoForRequestMemo;
+import cn.dev33.satoken.session.SaSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SaTokenDaoForRequestMemo 请求级读缓存 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaTokenDaoForRequestMemoTest {
+
+	// 同一个 key 只读取一次，写入后失效
+	@Test
+	public void memo() {
+		CountDao target = new CountDao();
+		SaTokenDaoForRequestMemo dao = new SaTokenDaoForRequestMemo(target);
+
+		target.set("name", "zhangsan", 60);
+		Assertions.assertEquals(dao.get("name"), "zhangsan");
+		Assertions.assertEquals(dao.get("name"), "zhangsan");
+		Assertions.assertNull(dao.get("disable"));
+		Assertions.assertNull(dao.get("disable"));
+		Assertions.assertEquals(target.readCount, 2);
+
+		dao.update("name", "lisi");
+		Assertions.assertEquals(dao.get("name"), "lisi");
+		Assertions.assertEquals(target.readCount, 3);
+
+		// SaSession
+		dao.setSession(new SaSession("session-1001"), 60);
+		Assertions.assertEquals(dao.getSession("session-1001").getId(), "session-1001");
+		Assertions.assertEquals(dao.getSession("session-1001").getId(), "session-1001");
+		Assertions.assertEquals(target.readCount, 4);
+		dao.deleteSession("session-1001");
+		Assertions.assertNull(dao.getSession("session-1001"));
+	}
+
+	// 只有在开启配置且处于 Web 上下文中时才生效，且同一次请求内复用同一个对象
+	@Test
+	public void current() {
+		SaTokenDao target = new SaTokenDaoDefaultImpl();
+		Boolean oldValue = SaManager.getConfig().getDaoRequestMemo();
+		SaTokenContext oldContext = SaManager.getSaTokenContext();
+		try {
+			SaManager.setSaTokenContext(new SaTokenContextForThreadLocal());
+			SaManager.getConfig().setDaoRequestMemo(false);
+			SaTokenContextMockUtil.setMockContext(() -> {
+				Assertions.assertSame(SaTokenDaoForRequestMemo.current(target), target);
+			});
+
+			SaManager.getConfig().setDaoRequestMemo(true);
+			Assertions.assertSame(SaTokenDaoForRequestMemo.current(target), target);
+			SaTokenContextMockUtil.setMockContext(() -> {
+				SaTokenDao memo = SaTokenDaoForRequestMemo.current(target);
+				Assertions.assertTrue(memo instanceof SaTokenDaoForRequestMemo);
+				Assertions.assertSame(SaTokenDaoForRequestMemo.current(target), memo);
+			});
+		} finally {
+			SaManager.getConfig().setDaoRequestMemo(oldValue);
+			SaManager.setSaTokenContext(oldContext);
+		}
+	}
+
+	/**
+	 * 统计读取次数的 SaTokenDao
+	 */
+	static class CountDao extends SaTokenDaoDefaultImpl {
+		int readCount;
+		@Override
+		public Object getObject(String key) {
+			readCount++;
+			return super.getObject(key);
+		}
+	}
+
+}
@@ -18,6 +18,13 @@ package cn.dev33.satoken.core.dao;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import cn.dev33.satoken.SaManager;
 import cn.dev33.satoken.dao.SaTokenDao;
 import cn.dev33.satoken.dao.SaTokenDaoDefaultImpl;
 import cn.dev33.satoken.session.SaSession;
@@ -149,6 +156,109 @@ public class SaTokenDaoTest {
     	Assertions.assertNull(dao.getSession("session-1001"));
     }
 
+    // 批量读写
+    @Test
+    public void batch() {
+    	Map<String, String> map = new LinkedHashMap<>();
+    	map.put("k1", "v1");
+    	map.put("k2", "v2");
+    	dao.setBatch(map, 60);
+    	dao.set("k3", "v3", SaTokenDao.NEVER_EXPIRE);
+
+    	// 批量获取，不存在的 key 对应 null
+    	List<String> list = dao.getBatch(Arrays.asList("k1", "k2", "k3", "k4"));
+    	Assertions.assertEquals(list, Arrays.asList("v1", "v2", "v3", null));
+
+    	// 批量更新，过期时间不变，不存在的 key 被忽略
+    	map.clear();
+    	map.put("k1", "v11");
+    	map.put("k3", "v33");
+    	map.put("k4", "v44");
+    	dao.updateBatch(map);
+    	Assertions.assertEquals(dao.get("k1"), "v11");
+    	Assertions.assertEquals(dao.get("k3"), "v33");
+    	Assertions.assertEquals(dao.getTimeout("k3"), SaTokenDao.NEVER_EXPIRE);
+    	Assertions.assertNull(dao.get("k4"));
+
+    	// 批量修改过期时间
+    	dao.updateTimeoutBatch(Arrays.asList("k1", "k3"), 100);
+    	Assertions.assertTrue(dao.getTimeout("k1") > 60);
+    	Assertions.assertTrue(dao.getTimeout("k3") > 60);
+
+    	// 批量删除
+    	dao.deleteBatch(Arrays.asList("k1", "k2"));
+    	Assertions.assertEquals(dao.getBatch(Arrays.asList("k1", "k2", "k3")), Arrays.asList(null, null, "v33"));
+    }
+
+    // 遍历数据
+    @Test
+    public void scanData() {
+    	dao.set("satoken:login:token:aaa-1001", "1001", 60);
+    	dao.set("satoken:login:token:bbb-1002", "1002", 60);
+    	dao.set("satoken:login:session:1001", "1001", 60);
+
+    	List<String> list = new ArrayList<>();
+    	dao.scanData("satoken:login:token:", "", list::add);
+    	Assertions.assertEquals(list.size(), 2);
+
+    	list.clear();
+    	dao.scanData("satoken:login:token:", "1002", list::add);
+    	Assertions.assertEquals(list, Arrays.asList("satoken:login:token:bbb-1002"));
+    }
+
+    // SaSession 字段级写入
+    @Test
+    public void sessionField() {
+    	List<String> calls = new ArrayList<>();
+    	SaTokenDaoDefaultImpl fieldDao = new SaTokenDaoDefaultImpl() {
+    		@Override
+    		public void setSessionField(SaSession session, String key, Object value) {
+    			calls.add("set:" + key);
+    			super.setSessionField(session, key, value);
+    		}
+    		@Override
+    		public void deleteSessionField(SaSession session, String key) {
+    			calls.add("delete:" + key);
+    			super.deleteSessionField(session, key);
+    		}
+    		@Override
+    		public void updateSession(SaSession session) {
+    			calls.add("update");
+    			super.updateSession(session);
+    		}
+    	};
+    	Boolean oldFieldStore = SaManager.getConfig().getSessionFieldStore();
+    	try {
+    		SaSession session = new SaSession("session-field-1001") {
+    			@Override
+    			protected SaTokenDao currentSaTokenDao() {
+    				return fieldDao;
+    			}
+    		};
+    		fieldDao.setSession(session, 60);
+
+    		// 关闭时：整体更新
+    		SaManager.getConfig().setSessionFieldStore(false);
+    		session.set("name", "zhangsan");
+    		Assertions.assertEquals(calls, Arrays.asList("update"));
+
+    		// 开启时：set / delete 只写入单个字段，clear 仍整体更新
+    		calls.clear();
+    		SaManager.getConfig().setSessionFieldStore(true);
+    		session.set("age", 18);
+    		session.setByNull("age", 20);
+    		session.delete("name");
+    		session.clear();
+    		Assertions.assertEquals(calls, Arrays.asList("set:age", "delete:name", "update"));
+
+    		// 内存存储的就是对象本身，字段级写入后读取到的数据一致
+    		session.set("sex", "1");
+    		Assertions.assertEquals(fieldDao.getSession("session-field-1001").get("sex"), "1");
+    	} finally {
+    		SaManager.getConfig().setSessionFieldStore(oldFieldStore);
+    	}
+    }
+
     // TO-DO 和时间相关的测试 
     
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.router;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.context.SaTokenContext;
+import cn.dev33.satoken.context.SaTokenContextForThreadLocal;
+import cn.dev33.satoken.context.mock.SaRequestForMock;
+import cn.dev33.satoken.context.mock.SaTokenContextMockUtil;
+import cn.dev33.satoken.exception.NotLoginException;
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.fun.strategy.SaRouteMatchFunction;
+import cn.dev33.satoken.router.SaRouteRule;
+import cn.dev33.satoken.router.SaRouteRuleRegistry;
+import cn.dev33.satoken.stp.StpUtil;
+import cn.dev33.satoken.strategy.SaStrategy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SaRouteRuleRegistry 声明式路由规则 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaRouteRuleRegistryTest {
+
+	static SaRouteMatchFunction oldMatcher;
+
+	static SaTokenContext oldContext;
+
+	@BeforeAll
+	public static void beforeAll() {
+		AntPathMatcher antPathMatcher = new AntPathMatcher();
+		oldMatcher = SaStrategy.instance.routeMatcher;
+		SaStrategy.instance.routeMatcher = antPathMatcher::match;
+		oldContext = SaManager.getSaTokenContext();
+		SaManager.setSaTokenContext(new SaTokenContextForThreadLocal());
+		// 确保默认的 StpLogic 已注册到 SaManager（单独运行此测试类时，StpUtil 可能尚未初始化）
+		SaManager.putStpLogic(StpUtil.getStpLogic());
+	}
+
+	@AfterAll
+	public static void afterAll() {
+		SaStrategy.instance.routeMatcher = oldMatcher;
+		SaManager.setSaTokenContext(oldContext);
+	}
+
+	@Test
+	public void loadAndCheck() {
+		SaRouteRuleRegistry registry = new SaRouteRuleRegistry();
+		registry.load(Arrays.asList(
+				new SaRouteRule().setPath(Arrays.asList("/user/**")).setExcludePath(Arrays.asList("/user/doLogin")).setCheckLogin(true),
+				new SaRouteRule().setPath(Arrays.asList("/goods/**")).setMethod(Arrays.asList("POST")).setCheckLogin(true)
+		));
+		SaTokenContextMockUtil.setMockContext(() -> {
+			// 匹配到的规则生效，排除路径、未匹配的请求方式不受影响
+			Assertions.assertThrows(NotLoginException.class, () -> registry.check(request("/user/info", "GET")));
+			registry.check(request("/user/doLogin", "GET"));
+			registry.check(request("/goods/list", "GET"));
+			Assertions.assertThrows(NotLoginException.class, () -> registry.check(request("/goods/add", "POST")));
+			registry.check(request("/art/list", "GET"));
+
+			// 编译失败时抛出异常，当前规则保持不变
+			Assertions.assertThrows(SaTokenException.class, () -> registry.load(Collections.singletonList(new SaRouteRule())));
+			Assertions.assertThrows(SaTokenException.class, () -> registry.load(Collections.singletonList(
+					new SaRouteRule().setPath(Arrays.asList("/**")).setMethod(Arrays.asList("FOO")))));
+			Assertions.assertEquals(registry.getRules().size(), 2);
+
+			// 整体替换规则
+			registry.load(Collections.singletonList(new SaRouteRule().setPath(Arrays.asList("/art/**")).setCheckLogin(true)));
+			registry.check(request("/user/info", "GET"));
+			Assertions.assertThrows(NotLoginException.class, () -> registry.check(request("/art/list", "GET")));
+		});
+	}
+
+	@Test
+	public void followConfig() {
+		List<SaRouteRule> oldRules = SaManager.getConfig().getRouteRules();
+		SaRouteRuleRegistry registry = new SaRouteRuleRegistry();
+		try {
+			SaTokenContextMockUtil.setMockContext(() -> {
+				SaManager.getConfig().setRouteRules(new ArrayList<>());
+				registry.check(request("/admin/index", "GET"));
+
+				// 配置中的规则列表变化后，下一次请求自动重新编译
+				SaManager.getConfig().getRouteRules().add(new SaRouteRule().setPath(Arrays.asList("/admin/**")).setRole(Arrays.asList("admin")));
+				Assertions.assertThrows(NotLoginException.class, () -> registry.check(request("/admin/index", "GET")));
+
+				// 手动加载后不再跟随配置，reset 后恢复
+				registry.load(new ArrayList<>());
+				registry.check(request("/admin/index", "GET"));
+				registry.reset();
+				Assertions.assertThrows(NotLoginException.class, () -> registry.check(request("/admin/index", "GET")));
+			});
+		} finally {
+			SaManager.getConfig().setRouteRules(oldRules);
+		}
+	}
+
+	@Test
+	public void configCompileFail() {
+		List<SaRouteRule> oldRules = SaManager.getConfig().getRouteRules();
+		SaRouteRuleRegistry registry = new SaRouteRuleRegistry();
+		try {
+			SaTokenContextMockUtil.setMockContext(() -> {
+				// 没有编译成功过的规则：拒绝请求，而不是放行
+				SaManager.getConfig().setRouteRules(new ArrayList<>(Collections.singletonList(new SaRouteRule())));
+				Assertions.assertThrows(SaTokenException.class, () -> registry.check(request("/admin/index", "GET")));
+				Assertions.assertThrows(SaTokenException.class, () -> registry.check(request("/user/info", "GET")));
+
+				// 修正配置后恢复
+				List<SaRouteRule> rules = new ArrayList<>();
+				rules.add(new SaRouteRule().setPath(Arrays.asList("/admin/**")).setCheckLogin(true));
+				SaManager.getConfig().setRouteRules(rules);
+				registry.check(request("/user/info", "GET"));
+				Assertions.assertThrows(NotLoginException.class, () -> registry.check(request("/admin/index", "GET")));
+
+				// 此后配置出错：沿用上一次编译成功的规则
+				rules.add(new SaRouteRule());
+				Assertions.assertThrows(NotLoginException.class, () -> registry.check(request("/admin/index", "GET")));
+				registry.check(request("/user/info", "GET"));
+				Assertions.assertEquals(registry.getRules().size(), 1);
+			});
+		} finally {
+			SaManager.getConfig().setRouteRules(oldRules);
+		}
+	}
+
+	private static SaRequestForMock request(String path, String method) {
+		SaRequestForMock req = new SaRequestForMock();
+		req.requestPath = path;
+		req.method = method;
+		return req;
+	}
+
+}
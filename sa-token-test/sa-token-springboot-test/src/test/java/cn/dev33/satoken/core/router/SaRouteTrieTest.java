@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.router;
+
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.fun.strategy.SaRouteMatchFunction;
+import cn.dev33.satoken.router.SaRouteTrie;
+import cn.dev33.satoken.router.SaRouter;
+import cn.dev33.satoken.strategy.SaStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SaRouteTrie 路由预编译结构 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaRouteTrieTest {
+
+	@Test
+	public void isMatch() {
+		AntPathMatcher antPathMatcher = new AntPathMatcher();
+		AtomicInteger matchCount = new AtomicInteger();
+		SaRouteMatchFunction oldMatcher = SaStrategy.instance.routeMatcher;
+		SaStrategy.instance.routeMatcher = (pattern, path) -> {
+			matchCount.incrementAndGet();
+			return antPathMatcher.match(pattern, path);
+		};
+		try {
+			List<String> patterns = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				patterns.add("/module" + i + "/list");
+				patterns.add("/module" + i + "/info/*");
+			}
+			patterns.addAll(Arrays.asList("/user/**", "/*.html", "/api/{version}/doc", "/favicon.ico"));
+			SaRouteTrie trie = new SaRouteTrie(patterns);
+
+			// 匹配结果与逐个调用 routeMatcher 一致
+			List<String> paths = Arrays.asList("/module5/list", "/module5/list/", "/module5/info/1", "/module5/info",
+					"/module99/info/1/2", "/user", "/user/a/b", "/index.html", "/a/index.html", "/api/v1/doc",
+					"/api/v1/doc2", "/favicon.ico", "/module100/list", "/", "", "/MODULE5/list", "/user/info.json", "//module5//list");
+			for (String path : paths) {
+				boolean expected = false;
+				for (String pattern : patterns) {
+					expected = expected || antPathMatcher.match(pattern, path);
+				}
+				Assertions.assertEquals(trie.isMatch(path), expected, path);
+				Assertions.assertEquals(SaRouter.isMatch(patterns, path), expected, path);
+			}
+
+			// 只对候选者调用 routeMatcher
+			matchCount.set(0);
+			Assertions.assertTrue(trie.isMatch("/module5/info/1"));
+			Assertions.assertTrue(matchCount.get() < 10);
+
+			// 同一个集合对象：第一次只做记录，第二次起使用预编译结构
+			List<String> orderPatterns = new ArrayList<>(patterns);
+			Assertions.assertNull(SaRouteTrie.lookup(orderPatterns));
+			Assertions.assertNotNull(SaRouteTrie.lookup(orderPatterns));
+			Assertions.assertSame(SaRouteTrie.lookup(orderPatterns), SaRouteTrie.lookup(orderPatterns));
+
+			// 集合内容变化后（包括原地替换元素）自动重新编译
+			Assertions.assertFalse(SaRouter.isMatch(orderPatterns, "/order/list"));
+			orderPatterns.add("/order/list");
+			Assertions.assertTrue(SaRouter.isMatch(orderPatterns, "/order/list"));
+			orderPatterns.set(orderPatterns.size() - 1, "/order/add");
+			Assertions.assertFalse(SaRouter.isMatch(orderPatterns, "/order/list"));
+			Assertions.assertTrue(SaRouter.isMatch(orderPatterns, "/order/add"));
+		} finally {
+			SaStrategy.instance.routeMatcher = oldMatcher;
+		}
+	}
+
+	@Test
+	public void specialPath() {
+		// 会对路径段做额外处理的 routeMatcher（忽略大小写、去除首尾空格）：候选者只多不少，结果与逐个匹配一致
+		AntPathMatcher trimMatcher = new AntPathMatcher();
+		trimMatcher.setTrimTokens(true);
+		trimMatcher.setCaseSensitive(false);
+		SaRouteMatchFunction oldMatcher = SaStrategy.instance.routeMatcher;
+		SaStrategy.instance.routeMatcher = trimMatcher::match;
+		try {
+			List<String> patterns = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				patterns.add("/module" + i + "/list");
+			}
+			patterns.add("/admin/**");
+			SaRouteTrie trie = new SaRouteTrie(patterns);
+			Assertions.assertTrue(trie.isMatch("/admin /users"));
+			Assertions.assertTrue(trie.isMatch("/ADMIN/users"));
+			Assertions.assertTrue(trie.isMatch("/Module3/LIST"));
+			Assertions.assertFalse(trie.isMatch("/module3/info"));
+		} finally {
+			SaStrategy.instance.routeMatcher = oldMatcher;
+		}
+	}
+
+	@Test
+	public void config() {
+		Assertions.assertTrue(SaRouteTrie.isEnable());
+		Assertions.assertThrows(SaTokenException.class, () -> SaRouteTrie.setCompileThreshold(0));
+		Assertions.assertThrows(SaTokenException.class, () -> SaRouteTrie.setCacheMaxSize(-1));
+		Assertions.assertEquals(SaRouteTrie.getCompileThreshold(), 8);
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.session;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.context.SaTokenContext;
+import cn.dev33.satoken.context.SaTokenContextForThreadLocal;
+import cn.dev33.satoken.context.mock.SaTokenContextMockUtil;
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.dao.SaTokenDaoDefaultImpl;
+import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.session.SaSessionWriteBehind;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SaSession 请求级延迟写入 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaSessionWriteBehindTest {
+
+	@Test
+	public void flush() {
+		CountDao dao = new CountDao();
+		Boolean oldValue = SaManager.getConfig().getSessionWriteBehind();
+		SaTokenContext oldContext = SaManager.getSaTokenContext();
+		try {
+			SaManager.setSaTokenContext(new SaTokenContextForThreadLocal());
+			SaManager.getConfig().setSessionWriteBehind(true);
+			SaSession session = new SaSession("session-write-behind-1001") {
+				@Override
+				protected SaTokenDao currentSaTokenDao() {
+					return dao;
+				}
+			};
+			dao.setSession(session, 60);
+
+			// 未经过 begin() 的请求：立即写入
+			SaTokenContextMockUtil.setMockContext(() -> {
+				session.set("name", "zhangsan");
+				Assertions.assertEquals(dao.updateCount, 1);
+			});
+
+			// 经过 begin() 的请求：多次修改只在 flush() 时写入一次
+			dao.updateCount = 0;
+			SaTokenContextMockUtil.setMockContext(() -> {
+				SaSessionWriteBehind.begin();
+				session.set("age", 18);
+				session.set("sex", "1");
+				session.delete("name");
+				Assertions.assertEquals(dao.updateCount, 0);
+				Assertions.assertEquals(SaSessionWriteBehind.current().getDirtyCount(), 1);
+				Assertions.assertSame(SaSessionWriteBehind.getSession(dao, session.getId()), session);
+
+				SaSessionWriteBehind.flush();
+				SaSessionWriteBehind.flush();
+				Assertions.assertEquals(dao.updateCount, 1);
+			});
+
+			// 注销的 SaSession 不再写入
+			dao.updateCount = 0;
+			SaTokenContextMockUtil.setMockContext(() -> {
+				SaSessionWriteBehind.begin();
+				session.set("age", 20);
+				session.logout();
+				SaSessionWriteBehind.flush();
+				Assertions.assertEquals(dao.updateCount, 0);
+			});
+
+			// 同一 SaSession 的多个实例：单字段修改合并到第一个实例上，整体更新时先写入第一个实例，再由后一个实例覆盖
+			SaSession first = newSession(dao, "session-write-behind-1002");
+			SaSession second = newSession(dao, "session-write-behind-1002");
+			dao.setSession(first, 60);
+			dao.updateCount = 0;
+			SaTokenContextMockUtil.setMockContext(() -> {
+				SaSessionWriteBehind.begin();
+				first.set("a", 1);
+				second.set("b", 2);
+				Assertions.assertEquals(SaSessionWriteBehind.current().getDirtyCount(), 1);
+				Assertions.assertSame(SaSessionWriteBehind.getSession(dao, first.getId()), first);
+				Assertions.assertEquals(first.get("b"), 2);
+
+				second.update();
+				Assertions.assertEquals(dao.updateCount, 1);
+				SaSessionWriteBehind.flush();
+				Assertions.assertEquals(dao.updateCount, 2);
+				Assertions.assertSame(dao.getSession(first.getId()), second);
+			});
+
+			// 关闭配置后：begin() 不生效
+			SaManager.getConfig().setSessionWriteBehind(false);
+			SaTokenContextMockUtil.setMockContext(() -> {
+				SaSessionWriteBehind.begin();
+				Assertions.assertNull(SaSessionWriteBehind.current());
+			});
+		} finally {
+			SaManager.getConfig().setSessionWriteBehind(oldValue);
+			SaManager.setSaTokenContext(oldContext);
+		}
+	}
+
+	private static SaSession newSession(SaTokenDao dao, String id) {
+		return new SaSession(id) {
+			@Override
+			protected SaTokenDao currentSaTokenDao() {
+				return dao;
+			}
+		};
+	}
+
+	/**
+	 * 统计 updateSession 次数的 SaTokenDao
+	 */
+	static class CountDao extends SaTokenDaoDefaultImpl {
+		int updateCount;
+		@Override
+		public void updateSession(SaSession session) {
+			updateCount++;
+			super.updateSession(session);
+		}
+	}
+
+}
@@ -15,12 +15,19 @@
  */
 package cn.dev33.satoken.core.sign;
 
+import cn.dev33.satoken.SaManager;
 import cn.dev33.satoken.sign.SaSignManager;
 import cn.dev33.satoken.sign.config.SaSignConfig;
+import cn.dev33.satoken.sign.exception.SaSignException;
+import cn.dev33.satoken.sign.template.SaSignTemplate;
+import cn.dev33.satoken.util.SaFoxUtil;
 import cn.dev33.satoken.util.SoMap;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * API 接口签名测试 
  * 
@@ -59,5 +66,68 @@ public class SaSignTemplateTest {
 		String sign2 = SaSignManager.getSaSignTemplate().createSign(map);
 		Assertions.assertEquals(sign, sign2);
 	}
+
+	// nonce 只能被校验通过一次，并发重放时也只有一个请求可以通过
+	@Test
+	public void testCheckNonce() throws InterruptedException {
+		SaSignTemplate template = new SaSignTemplate(new SaSignConfig().setSecretKey(key));
+		String nonce = SaFoxUtil.getRandomString(32);
+		template.checkNonce(nonce);
+		Assertions.assertThrows(SaSignException.class, () -> template.checkNonce(nonce));
+
+		String nonce2 = SaFoxUtil.getRandomString(32);
+		AtomicInteger passCount = new AtomicInteger();
+		CountDownLatch latch = new CountDownLatch(16);
+		for (int i = 0; i < 16; i++) {
+			new Thread(() -> {
+				try {
+					template.checkNonce(nonce2);
+					passCount.incrementAndGet();
+				} catch (SaSignException e) {
+					// 重放被拒绝
+				} finally {
+					latch.countDown();
+				}
+			}).start();
+		}
+		latch.await();
+		Assertions.assertEquals(passCount.get(), 1);
+	}
+
+	// nonce 本地过滤器：本节点已见过的 nonce 不经过持久层直接拒绝
+	@Test
+	public void testNonceFilter() {
+		SaSignTemplate template = new SaSignTemplate(new SaSignConfig().setSecretKey(key).setIsNonceFilter(true));
+		String nonce = SaFoxUtil.getRandomString(32);
+		template.checkNonce(nonce);
+		Assertions.assertTrue(template.getNonceFilter().mightContain(nonce));
+
+		// 即使持久层中的记录已不存在，本地过滤器仍然可以拦截重放
+		SaManager.getSaTokenDao().delete(template.splicingNonceSaveKey(nonce));
+		Assertions.assertThrows(SaSignException.class, () -> template.checkNonce(nonce));
+
+		// 本地过滤器中没有的 nonce（如其它节点使用过的），仍由持久层判断
+		String nonce2 = SaFoxUtil.getRandomString(32);
+		SaManager.getSaTokenDao().set(template.splicingNonceSaveKey(nonce2), nonce2, 60);
+		Assertions.assertThrows(SaSignException.class, () -> template.checkNonce(nonce2));
+	}
+
+	// nonce 本地过滤器：时间桶超出预计数量后，命中结果改由持久层判断
+	@Test
+	public void testNonceFilterOverCapacity() {
+		SaSignTemplate template = new SaSignTemplate(new SaSignConfig().setSecretKey(key).setIsNonceFilter(true).setNonceFilterExpectedInsertions(2));
+		String nonce = SaFoxUtil.getRandomString(32);
+		template.checkNonce(nonce);
+		template.checkNonce(SaFoxUtil.getRandomString(32));
+		template.checkNonce(SaFoxUtil.getRandomString(32));
+
+		// 持久层中已不存在的 nonce，过滤器虽然命中，但该桶已超出预计数量，不再直接拒绝
+		SaManager.getSaTokenDao().delete(template.splicingNonceSaveKey(nonce));
+		Assertions.assertTrue(template.getNonceFilter().mightContain(nonce));
+		template.checkNonce(nonce);
+
+		// 持久层依然可以拦截重放
+		Assertions.assertThrows(SaSignException.class, () -> template.checkNonce(nonce));
+	}
 	
 }
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.stp;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.annotation.SaMode;
+import cn.dev33.satoken.config.SaTokenConfig;
+import cn.dev33.satoken.exception.NotPermissionException;
+import cn.dev33.satoken.exception.NotRoleException;
+import cn.dev33.satoken.stp.SaPermissionCache;
+import cn.dev33.satoken.stp.StpInterface;
+import cn.dev33.satoken.stp.StpLogic;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SaPermissionCache 权限缓存 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaPermissionCacheTest {
+
+	@Test
+	public void getAndRefresh() {
+		StpLogic stpLogic = new StpLogic("perm-cache-test");
+		stpLogic.setConfig(new SaTokenConfig().setPermissionCacheTimeout(60));
+		try {
+			AtomicInteger loadCount = new AtomicInteger();
+			SaPermissionCache cache = stpLogic.getPermissionCache();
+
+			// 有效期内只加载一次
+			List<String> list = cache.get(SaPermissionCache.TYPE_PERMISSION, 10001, () -> {
+				loadCount.incrementAndGet();
+				return Arrays.asList("user.add", "user.delete");
+			});
+			cache.get(SaPermissionCache.TYPE_PERMISSION, 10001, () -> {
+				loadCount.incrementAndGet();
+				return Arrays.asList("user.add");
+			});
+			Assertions.assertEquals(loadCount.get(), 1);
+			Assertions.assertEquals(list, Arrays.asList("user.add", "user.delete"));
+			Assertions.assertThrows(UnsupportedOperationException.class, () -> list.add("user.get"));
+
+			// 权限码与角色码分开缓存
+			cache.get(SaPermissionCache.TYPE_ROLE, 10001, () -> {
+				loadCount.incrementAndGet();
+				return Arrays.asList("admin");
+			});
+			Assertions.assertEquals(loadCount.get(), 2);
+
+			// 主动刷新后重新加载
+			stpLogic.refreshPermission(10001);
+			cache.get(SaPermissionCache.TYPE_PERMISSION, 10001, () -> {
+				loadCount.incrementAndGet();
+				return Arrays.asList("user.add");
+			});
+			Assertions.assertEquals(loadCount.get(), 3);
+
+			// 版本号保存在 SaTokenDao 中：其它节点生成新版本号后，本地缓存失效
+			stpLogic.getConfig().setPermissionCacheUseDao(true);
+			cache.get(SaPermissionCache.TYPE_ROLE, 10002, () -> {
+				loadCount.incrementAndGet();
+				return Arrays.asList("admin");
+			});
+			Assertions.assertEquals(loadCount.get(), 4);
+			String versionKey = stpLogic.splicingKeyPermissionCacheVersion(SaPermissionCache.TYPE_ROLE, 10002);
+			SaManager.getSaTokenDao().set(versionKey, "other-node-version", 120);
+			cache.get(SaPermissionCache.TYPE_ROLE, 10002, () -> {
+				loadCount.incrementAndGet();
+				return Arrays.asList("admin");
+			});
+			Assertions.assertEquals(loadCount.get(), 5);
+
+			// refreshRole 会生成新的版本号
+			stpLogic.refreshRole(10002);
+			Assertions.assertNotEquals(SaManager.getSaTokenDao().get(versionKey), "other-node-version");
+			Assertions.assertEquals(SaManager.getSaTokenDao().getTimeout(versionKey), 120, 1);
+			SaManager.getSaTokenDao().delete(versionKey);
+		} finally {
+			SaManager.removeStpLogic("perm-cache-test");
+		}
+	}
+
+	@Test
+	public void getAsyncAndBatch() {
+		StpLogic stpLogic = new StpLogic("perm-cache-batch-test");
+		stpLogic.setConfig(new SaTokenConfig().setPermissionCacheTimeout(60).setPermissionCacheUseDao(true));
+		try {
+			List<List<Object>> batchArgs = new ArrayList<>();
+			SaPermissionCache cache = stpLogic.getPermissionCache();
+
+			// 异步加载完成后写入缓存
+			List<String> list = cache.getAsync(SaPermissionCache.TYPE_ROLE, 20001,
+					() -> CompletableFuture.completedFuture(Arrays.asList("admin"))).join();
+			Assertions.assertEquals(list, Arrays.asList("admin"));
+			Assertions.assertEquals(cache.get(SaPermissionCache.TYPE_ROLE, 20001, () -> Arrays.asList("other")), Arrays.asList("admin"));
+
+			// 批量加载：只把未命中的账号交给 loader，且只调用一次
+			Map<Object, List<String>> map = cache.getBatch(SaPermissionCache.TYPE_ROLE, Arrays.asList(20003, 20001, 20002), ids -> {
+				batchArgs.add(ids);
+				Map<Object, List<String>> loaded = new HashMap<>();
+				loaded.put(20002, Arrays.asList("user"));
+				return loaded;
+			});
+			Assertions.assertEquals(batchArgs.size(), 1);
+			Assertions.assertEquals(batchArgs.get(0), Arrays.asList(20003, 20002));
+			Assertions.assertEquals(new ArrayList<>(map.keySet()), Arrays.asList(20003, 20001, 20002));
+			Assertions.assertEquals(map.get(20001), Arrays.asList("admin"));
+			Assertions.assertEquals(map.get(20002), Arrays.asList("user"));
+			Assertions.assertEquals(map.get(20003), Collections.emptyList());
+
+			// 再次批量获取时全部命中，不再调用 loader
+			cache.getBatch(SaPermissionCache.TYPE_ROLE, Arrays.asList(20001, 20002, 20003), ids -> {
+				batchArgs.add(ids);
+				return null;
+			});
+			Assertions.assertEquals(batchArgs.size(), 1);
+
+			// 刷新其中一个账号后，只有该账号需要重新加载
+			stpLogic.refreshRole(20002);
+			cache.getBatch(SaPermissionCache.TYPE_ROLE, Arrays.asList(20001, 20002, 20003), ids -> {
+				batchArgs.add(ids);
+				return null;
+			});
+			Assertions.assertEquals(batchArgs.get(1), Arrays.asList(20002));
+			SaManager.getSaTokenDao().delete(stpLogic.splicingKeyPermissionCacheVersion(SaPermissionCache.TYPE_ROLE, 20002));
+		} finally {
+			SaManager.removeStpLogic("perm-cache-batch-test");
+		}
+	}
+
+	@Test
+	public void refreshDuringLoad() throws Exception {
+		StpLogic stpLogic = new StpLogic("perm-cache-race-test");
+		stpLogic.setConfig(new SaTokenConfig().setPermissionCacheTimeout(60));
+		try {
+			SaPermissionCache cache = stpLogic.getPermissionCache();
+
+			// 同步加载：加载期间发生 refresh，旧数据只返回给本次调用方，不写入缓存
+			CountDownLatch loading = new CountDownLatch(1);
+			CountDownLatch refreshed = new CountDownLatch(1);
+			CompletableFuture<List<String>> slowGet = CompletableFuture.supplyAsync(() ->
+					cache.get(SaPermissionCache.TYPE_PERMISSION, 40001, () -> {
+						loading.countDown();
+						await(refreshed);
+						return Arrays.asList("user.delete");
+					}));
+			await(loading);
+			stpLogic.refreshPermission(40001);
+			refreshed.countDown();
+			Assertions.assertEquals(slowGet.get(5, TimeUnit.SECONDS), Arrays.asList("user.delete"));
+			Assertions.assertEquals(cache.get(SaPermissionCache.TYPE_PERMISSION, 40001, () -> Arrays.asList("user.add")), Arrays.asList("user.add"));
+
+			// 异步加载同理
+			CompletableFuture<List<String>> pending = new CompletableFuture<>();
+			CompletableFuture<List<String>> slowAsync = cache.getAsync(SaPermissionCache.TYPE_ROLE, 40002, () -> pending);
+			stpLogic.refreshRole(40002);
+			pending.complete(Arrays.asList("admin"));
+			Assertions.assertEquals(slowAsync.join(), Arrays.asList("admin"));
+			Assertions.assertEquals(cache.get(SaPermissionCache.TYPE_ROLE, 40002, () -> Arrays.asList("user")), Arrays.asList("user"));
+
+			// 批量加载同理，clear 使所有进行中的加载都不再写入
+			Map<Object, List<String>> map = cache.getBatch(SaPermissionCache.TYPE_ROLE, Arrays.asList(40003, 40004), ids -> {
+				cache.clear();
+				Map<Object, List<String>> loaded = new HashMap<>();
+				loaded.put(40003, Arrays.asList("admin"));
+				loaded.put(40004, Arrays.asList("admin"));
+				return loaded;
+			});
+			Assertions.assertEquals(map.get(40003), Arrays.asList("admin"));
+			Assertions.assertEquals(cache.get(SaPermissionCache.TYPE_ROLE, 40003, () -> Arrays.asList("user")), Arrays.asList("user"));
+			Assertions.assertEquals(cache.get(SaPermissionCache.TYPE_ROLE, 40004, () -> Arrays.asList("user")), Arrays.asList("user"));
+		} finally {
+			SaManager.removeStpLogic("perm-cache-race-test");
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Test
+	public void checkRoleAndPermission() {
+		StpInterface oldStpInterface = SaManager.getStpInterface();
+		List<String> asyncCalls = new ArrayList<>();
+		SaManager.setStpInterface(new StpInterface() {
+			@Override
+			public List<String> getPermissionList(Object loginId, String loginType) {
+				return Arrays.asList("user.add", "user.delete");
+			}
+			@Override
+			public List<String> getRoleList(Object loginId, String loginType) {
+				return Arrays.asList("admin");
+			}
+			@Override
+			public CompletableFuture<List<String>> getPermissionListAsync(Object loginId, String loginType) {
+				asyncCalls.add("permission");
+				return StpInterface.super.getPermissionListAsync(loginId, loginType);
+			}
+			@Override
+			public CompletableFuture<List<String>> getRoleListAsync(Object loginId, String loginType) {
+				asyncCalls.add("role");
+				return StpInterface.super.getRoleListAsync(loginId, loginType);
+			}
+			@Override
+			public Map<Object, List<String>> getRoleListBatch(List<Object> loginIds, String loginType) {
+				return new HashMap<>();
+			}
+		});
+		StpLogic stpLogic = new StpLogic("perm-check-combined-test") {
+			@Override
+			public Object getLoginId() {
+				return 30001;
+			}
+		};
+		try {
+			// 角色与权限通过异步方法同时发起加载
+			stpLogic.checkRoleAndPermission(SaMode.AND, new String[]{"admin"}, new String[]{"user.add", "user.delete"});
+			Assertions.assertEquals(asyncCalls, Arrays.asList("role", "permission"));
+			stpLogic.checkRoleAndPermission(SaMode.OR, new String[]{"super-admin", "admin"}, new String[]{"user.get", "user.add"});
+			Assertions.assertThrows(NotRoleException.class, () ->
+					stpLogic.checkRoleAndPermission(SaMode.AND, new String[]{"admin", "super-admin"}, new String[]{"user.add"}));
+			Assertions.assertThrows(NotPermissionException.class, () ->
+					stpLogic.checkRoleAndPermission(SaMode.OR, new String[]{"admin"}, new String[]{"user.get", "user.update"}));
+
+			// 只指定其中一项时，只加载该项
+			asyncCalls.clear();
+			stpLogic.checkRoleAndPermission(SaMode.AND, null, new String[]{"user.add"});
+			Assertions.assertEquals(asyncCalls, Arrays.asList("permission"));
+
+			// 未开启权限缓存时，批量加载未包含的账号同样返回空集合
+			Assertions.assertEquals(stpLogic.getRoleListBatch(Arrays.asList(30001, 30002)).get(30002), Collections.emptyList());
+		} finally {
+			SaManager.setStpInterface(oldStpInterface);
+			SaManager.removeStpLogic("perm-check-combined-test");
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.stp;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.config.SaTokenConfig;
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.exception.DisableServiceException;
+import cn.dev33.satoken.exception.SaTokenException;
+import cn.dev33.satoken.stp.StpLogic;
+import cn.dev33.satoken.util.SaTokenConsts;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 登录失败限制 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class StpLogicLoginFailTest {
+
+	@Test
+	public void recordAndLock() {
+		StpLogic stpLogic = new StpLogic("login-fail-test");
+		stpLogic.setConfig(new SaTokenConfig().setLoginFailThreshold(3).setLoginFailLockTime(60).setLoginFailMaxLockTime(100));
+		try {
+			// 未达到阈值时不锁定
+			Assertions.assertEquals(stpLogic.recordLoginFail(10001), 1);
+			Assertions.assertEquals(stpLogic.recordLoginFail(10001), 2);
+			stpLogic.checkLoginFail(10001);
+
+			// 达到阈值后锁定，且不影响管理员封禁服务
+			Assertions.assertEquals(stpLogic.recordLoginFail(10001), 3);
+			Assertions.assertThrows(DisableServiceException.class, () -> stpLogic.checkLoginFail(10001));
+			Assertions.assertEquals(stpLogic.getDisableTime(10001, SaTokenConsts.LOGIN_FAIL_DISABLE_SERVICE), 60, 1);
+			Assertions.assertFalse(stpLogic.isDisable(10001));
+
+			// 继续失败，锁定时长翻倍，但不超过上限
+			stpLogic.recordLoginFail(10001);
+			Assertions.assertEquals(stpLogic.getDisableTime(10001, SaTokenConsts.LOGIN_FAIL_DISABLE_SERVICE), 100, 1);
+
+			// 锁定期间 login 直接拒绝
+			Assertions.assertThrows(DisableServiceException.class, () -> stpLogic.login(10001));
+
+			// 解除锁定、清除失败次数
+			stpLogic.untieDisable(10001, SaTokenConsts.LOGIN_FAIL_DISABLE_SERVICE);
+			stpLogic.checkLoginFail(10001);
+			Assertions.assertEquals(stpLogic.getLoginFailCount(10001), 4);
+			stpLogic.clearLoginFail(10001);
+			Assertions.assertEquals(stpLogic.getLoginFailCount(10001), 0);
+
+			// 按 IP 计数
+			for (int i = 0; i < 3; i++) {
+				stpLogic.recordLoginFailByIp("127.0.0.1");
+			}
+			Assertions.assertThrows(DisableServiceException.class, () -> stpLogic.checkLoginFailByIp("127.0.0.1"));
+			stpLogic.checkLoginFailByIp("127.0.0.2");
+			stpLogic.untieDisable("127.0.0.1", SaTokenConsts.LOGIN_FAIL_IP_DISABLE_SERVICE);
+			stpLogic.clearLoginFailByIp("127.0.0.1");
+		} finally {
+			SaManager.removeStpLogic("login-fail-test");
+		}
+	}
+
+	// 并发记录失败次数时不会丢失计数
+	@Test
+	public void concurrentRecord() throws Exception {
+		StpLogic stpLogic = new StpLogic("login-fail-concurrent-test");
+		stpLogic.setConfig(new SaTokenConfig().setLoginFailThreshold(100000).setLoginFailLockTime(60));
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(pool.submit(() -> {
+					for (int j = 0; j < 200; j++) {
+						stpLogic.recordLoginFail(10002);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			Assertions.assertEquals(stpLogic.getLoginFailCount(10002), 1600);
+		} finally {
+			pool.shutdown();
+			stpLogic.clearLoginFail(10002);
+			SaManager.removeStpLogic("login-fail-concurrent-test");
+		}
+	}
+
+	// 账号与 IP 同时校验；永久锁定；无效配置
+	@Test
+	public void checkBeforeAuthAndNeverExpire() {
+		StpLogic stpLogic = new StpLogic("login-fail-never-test");
+		stpLogic.setConfig(new SaTokenConfig().setLoginFailThreshold(2).setLoginFailLockTime(SaTokenDao.NEVER_EXPIRE));
+		try {
+			Assertions.assertEquals(stpLogic.recordLoginFail(10003, "127.0.0.3"), 1);
+			stpLogic.checkLoginFail(10003, "127.0.0.3");
+			Assertions.assertEquals(stpLogic.recordLoginFail(10003, "127.0.0.3"), 2);
+			Assertions.assertThrows(DisableServiceException.class, () -> stpLogic.checkLoginFail(10003, null));
+			Assertions.assertThrows(DisableServiceException.class, () -> stpLogic.checkLoginFail(null, "127.0.0.3"));
+
+			// 永久锁定：继续失败也不会因移位变为负数
+			stpLogic.recordLoginFail(10003, null);
+			Assertions.assertEquals(stpLogic.getDisableTime(10003, SaTokenConsts.LOGIN_FAIL_DISABLE_SERVICE), SaTokenDao.NEVER_EXPIRE);
+
+			Assertions.assertThrows(SaTokenException.class, () -> new SaTokenConfig().setLoginFailLockTime(0));
+			Assertions.assertThrows(SaTokenException.class, () -> new SaTokenConfig().setLoginFailLockTime(-2));
+		} finally {
+			stpLogic.untieDisable(10003, SaTokenConsts.LOGIN_FAIL_DISABLE_SERVICE);
+			stpLogic.untieDisable("127.0.0.3", SaTokenConsts.LOGIN_FAIL_IP_DISABLE_SERVICE);
+			stpLogic.clearLoginFail(10003);
+			stpLogic.clearLoginFailByIp("127.0.0.3");
+			SaManager.removeStpLogic("login-fail-never-test");
+		}
+	}
+
+	@Test
+	public void disabledByDefault() {
+		StpLogic stpLogic = new StpLogic("login-fail-off-test");
+		stpLogic.setConfig(new SaTokenConfig());
+		try {
+			Assertions.assertEquals(stpLogic.recordLoginFail(10001), 0);
+			Assertions.assertEquals(stpLogic.getLoginFailCount(10001), 0);
+		} finally {
+			SaManager.removeStpLogic("login-fail-off-test");
+		}
+	}
+
+}
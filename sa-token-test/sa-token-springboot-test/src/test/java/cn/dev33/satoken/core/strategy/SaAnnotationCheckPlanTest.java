@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.strategy;
+
+import cn.dev33.satoken.annotation.*;
+import cn.dev33.satoken.annotation.handler.SaAnnotationCheckPlan;
+import cn.dev33.satoken.annotation.handler.SaCheckLoginHandler;
+import cn.dev33.satoken.strategy.SaAnnotationStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+/**
+ * 注解校验计划 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaAnnotationCheckPlanTest {
+
+	@SaCheckLogin
+	public static class TestController {
+
+		@SaCheckOr(role = @SaCheckRole("admin"), append = SaCheckPermission.class)
+		@SaCheckPermission("user.add")
+		@SaCheckSafe
+		public void orMethod() {
+		}
+
+		@SaIgnore
+		public void ignoreMethod() {
+		}
+
+	}
+
+	@Test
+	public void getCheckPlan() throws Exception {
+		SaAnnotationStrategy strategy = SaAnnotationStrategy.instance;
+		Method orMethod = TestController.class.getMethod("orMethod");
+
+		// 先 Class 后 Method；被 @SaCheckOr append 的注解不再单独校验，而是并入 @SaCheckOr 的候选注解
+		SaAnnotationCheckPlan plan = strategy.getCheckPlan(orMethod);
+		Assertions.assertFalse(plan.ignore);
+		Assertions.assertEquals(plan.items.size(), 3);
+		Assertions.assertEquals(plan.items.get(0).annotation.annotationType(), SaCheckLogin.class);
+		Assertions.assertEquals(plan.items.get(0).element, TestController.class);
+		Assertions.assertEquals(plan.items.get(1).annotation.annotationType(), SaCheckSafe.class);
+		Assertions.assertEquals(plan.items.get(2).annotation.annotationType(), SaCheckOr.class);
+		Assertions.assertEquals(plan.items.get(2).orAnnotationList.size(), 2);
+		Assertions.assertEquals(plan.items.get(2).orAnnotationList.get(1).annotationType(), SaCheckPermission.class);
+
+		// 第二次获取直接命中缓存
+		Assertions.assertSame(strategy.getCheckPlan(orMethod), plan);
+
+		// @SaIgnore 直接跳过
+		Assertions.assertSame(strategy.getCheckPlan(TestController.class.getMethod("ignoreMethod")), SaAnnotationCheckPlan.IGNORE);
+
+		// 注解处理器变动后，缓存被清空
+		strategy.registerAnnotationHandler(new SaCheckLoginHandler());
+		Assertions.assertTrue(strategy.checkPlanCache.isEmpty());
+		Assertions.assertNotSame(strategy.getCheckPlan(orMethod), plan);
+	}
+
+}
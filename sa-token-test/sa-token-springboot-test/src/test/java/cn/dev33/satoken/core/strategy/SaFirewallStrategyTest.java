@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.strategy;
+
+import cn.dev33.satoken.context.model.SaRequest;
+import cn.dev33.satoken.context.model.SaResponse;
+import cn.dev33.satoken.exception.FirewallCheckException;
+import cn.dev33.satoken.strategy.SaFirewallHookStat;
+import cn.dev33.satoken.strategy.SaFirewallStrategy;
+import cn.dev33.satoken.strategy.hooks.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 防火墙 hook 执行链 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaFirewallStrategyTest {
+
+	// 按开销从低到高排序，白名单始终最先执行，未声明开销的 hook 保持注册位置
+	@Test
+	public void pipelineOrder() {
+		SaFirewallStrategy strategy = SaFirewallStrategy.instance;
+		SaFirewallCheckHook[] pipeline = strategy.getPipeline();
+		Assertions.assertSame(pipeline[0], SaFirewallCheckHookForWhitePath.instance);
+		Assertions.assertSame(pipeline[pipeline.length - 1], SaFirewallCheckHookForRateLimit.instance);
+		for (int i = 1; i < pipeline.length; i++) {
+			Assertions.assertTrue(pipeline[i - 1].getCost() <= pipeline[i].getCost());
+		}
+
+		SaFirewallCheckHook customHook = (req, res, extArg) -> {};
+		strategy.registerHookToSecond(customHook);
+		try {
+			Assertions.assertSame(strategy.getPipeline()[1], customHook);
+		} finally {
+			strategy.checkHooks.remove(customHook);
+		}
+		Assertions.assertNotSame(strategy.getPipeline()[1], customHook);
+
+		// 追加到末尾的 hook 不会被排到内置 hook 之前
+		strategy.registerHook(customHook);
+		try {
+			SaFirewallCheckHook[] hooks = strategy.getPipeline();
+			Assertions.assertSame(hooks[hooks.length - 1], customHook);
+		} finally {
+			strategy.checkHooks.remove(customHook);
+		}
+	}
+
+	// 跳过不适用的 hook，并统计执行次数、拦截次数
+	@Test
+	public void hookStat() {
+		SaFirewallStrategy strategy = SaFirewallStrategy.instance;
+		List<SaFirewallCheckHook> oldHooks = strategy.checkHooks;
+		List<String> executed = new ArrayList<>();
+		SaFirewallCheckHook expensiveHook = new SaFirewallCheckHook() {
+			@Override
+			public void execute(SaRequest req, SaResponse res, Object extArg) {
+				executed.add("expensive");
+				if("deny".equals(extArg)) {
+					throw new FirewallCheckException("deny");
+				}
+			}
+			@Override
+			public int getCost() {
+				return 100;
+			}
+		};
+		SaFirewallCheckHook cheapHook = new SaFirewallCheckHook() {
+			@Override
+			public void execute(SaRequest req, SaResponse res, Object extArg) {
+				executed.add("cheap");
+			}
+			@Override
+			public int getCost() {
+				return 10;
+			}
+		};
+		SaFirewallCheckHook skipHook = new SaFirewallCheckHook() {
+			@Override
+			public void execute(SaRequest req, SaResponse res, Object extArg) {
+				executed.add("skip");
+			}
+			@Override
+			public boolean isApplicable(SaRequest req) {
+				return false;
+			}
+		};
+		strategy.checkHooks = new ArrayList<>(Arrays.asList(expensiveHook, cheapHook, skipHook));
+		strategy.enableHookStat = true;
+		strategy.resetHookStats();
+		try {
+			strategy.check.execute(null, null, null);
+			Assertions.assertEquals(executed, Arrays.asList("cheap", "expensive"));
+			Assertions.assertThrows(FirewallCheckException.class, () -> strategy.check.execute(null, null, "deny"));
+
+			List<SaFirewallHookStat> stats = strategy.getHookStats();
+			Assertions.assertEquals(stats.size(), 2);
+			Assertions.assertSame(stats.get(0).hook, cheapHook);
+			Assertions.assertEquals(stats.get(0).getInvokeCount(), 2);
+			Assertions.assertEquals(stats.get(0).getRejectCount(), 0);
+			Assertions.assertSame(stats.get(1).hook, expensiveHook);
+			Assertions.assertEquals(stats.get(1).getInvokeCount(), 2);
+			Assertions.assertEquals(stats.get(1).getRejectCount(), 1);
+		} finally {
+			strategy.checkHooks = oldHooks;
+			strategy.enableHookStat = false;
+			strategy.resetHookStats();
+		}
+	}
+
+}
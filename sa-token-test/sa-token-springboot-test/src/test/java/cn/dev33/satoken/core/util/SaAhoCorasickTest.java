@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.util;
+
+import cn.dev33.satoken.strategy.hooks.SaFirewallCheckHookForPathDangerCharacter;
+import cn.dev33.satoken.util.SaAhoCorasick;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SaAhoCorasick 多模式匹配自动机 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaAhoCorasickTest {
+
+	@Test
+	public void findFirst() {
+		SaAhoCorasick matcher = new SaAhoCorasick(Arrays.asList("he", "she", "his", "hers", " ", "%2e"));
+		Assertions.assertEquals(matcher.findFirst("ushers"), "she");
+		Assertions.assertEquals(matcher.findFirst("ahishers"), "his");
+		Assertions.assertEquals(matcher.findFirst("/a b"), " ");
+		Assertions.assertEquals(matcher.findFirst("/user/%2e%2e/"), "%2e");
+		Assertions.assertNull(matcher.findFirst("/user/info"));
+		Assertions.assertNull(matcher.findFirst(""));
+
+		// 空模式串与 String.contains 一致：任何文本都包含空串
+		Assertions.assertTrue(new SaAhoCorasick(Arrays.asList("abc", "")).containsAny("xyz"));
+		Assertions.assertFalse(new SaAhoCorasick(Arrays.asList()).containsAny("xyz"));
+	}
+
+	// 随机数据：结果与逐个调用 String.contains 一致
+	@Test
+	public void sameAsContains() {
+		Random random = new Random(2025);
+		char[] chars = {'a', 'b', '/', '%', ' ', '中'};
+		for (int round = 0; round < 200; round++) {
+			String[] patterns = new String[1 + random.nextInt(6)];
+			for (int i = 0; i < patterns.length; i++) {
+				patterns[i] = randomString(random, chars, 1 + random.nextInt(3));
+			}
+			List<String> patternList = Arrays.asList(patterns);
+			SaAhoCorasick matcher = new SaAhoCorasick(patternList);
+			for (int i = 0; i < 20; i++) {
+				String text = randomString(random, chars, random.nextInt(10));
+				boolean expected = patternList.stream().anyMatch(text::contains);
+				Assertions.assertEquals(matcher.containsAny(text), expected, patternList + " / " + text);
+			}
+		}
+	}
+
+	// 危险字符列表变动后自动重建
+	@Test
+	public void dangerCharacterHook() {
+		SaFirewallCheckHookForPathDangerCharacter hook = new SaFirewallCheckHookForPathDangerCharacter();
+		Assertions.assertTrue(hook.getDangerCharacterMatcher().containsAny("/a//b"));
+		Assertions.assertFalse(hook.getDangerCharacterMatcher().containsAny("/a/b"));
+		hook.dangerCharacter.add("/b");
+		Assertions.assertTrue(hook.getDangerCharacterMatcher().containsAny("/a/b"));
+
+		// 原地替换元素，数量不变
+		hook.dangerCharacter.set(hook.dangerCharacter.size() - 1, "/c");
+		Assertions.assertFalse(hook.getDangerCharacterMatcher().containsAny("/a/b"));
+		Assertions.assertTrue(hook.getDangerCharacterMatcher().containsAny("/a/c"));
+		hook.resetConfig("x");
+		Assertions.assertFalse(hook.getDangerCharacterMatcher().containsAny("/a//b"));
+		Assertions.assertTrue(hook.getDangerCharacterMatcher().containsAny("/x"));
+	}
+
+	private static String randomString(Random random, char[] chars, int length) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sb.append(chars[random.nextInt(chars.length)]);
+		}
+		return sb.toString();
+	}
+
+}
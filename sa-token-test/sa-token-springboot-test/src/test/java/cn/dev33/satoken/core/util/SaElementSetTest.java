@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020-2099 sa-token.cc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.dev33.satoken.core.util;
+
+import cn.dev33.satoken.strategy.SaStrategy;
+import cn.dev33.satoken.util.SaElementSet;
+import cn.dev33.satoken.util.SaFoxUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SaElementSet 预编译元素集合 测试
+ *
+ * @author click33
+ * @since 1.43.0
+ */
+public class SaElementSetTest {
+
+	@Test
+	public void match() {
+		List<String> list = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			list.add("module" + i + ".list");
+			list.add("module" + i + ".info.*");
+		}
+		list.addAll(Arrays.asList("user*", "*.delete", "art:*:get", "*", "goods.add"));
+		SaElementSet set = new SaElementSet(list);
+
+		// 匹配结果与逐个调用 SaFoxUtil.vagueMatch 一致
+		List<String> values = Arrays.asList("module5.list", "module5.list.x", "module5.info.", "module5.info.1.2",
+				"module5.info", "user", "user-add", "u", "order.delete", "art:1:get", "art::get", "art:1:get2",
+				"goods.add", "goods.update", "", "module100.list");
+		for (String value : values) {
+			boolean expected = false;
+			for (String element : list) {
+				expected = expected || SaFoxUtil.vagueMatch(element, value);
+			}
+			Assertions.assertEquals(set.match(value), expected, value);
+		}
+		Assertions.assertTrue(set.match("anything"));
+
+		// 去掉通配所有的 * 之后再比较一次
+		list.remove("*");
+		set = new SaElementSet(list);
+		for (String value : values) {
+			boolean expected = false;
+			for (String element : list) {
+				expected = expected || SaFoxUtil.vagueMatch(element, value);
+			}
+			Assertions.assertEquals(set.match(value), expected, value);
+			Assertions.assertEquals(SaStrategy.instance.hasElement.apply(list, value), expected, value);
+			Assertions.assertEquals(SaStrategy.instance.hasElement.apply(SaElementSet.toCompiledList(list), value), expected, value);
+		}
+		Assertions.assertFalse(set.match(null));
+
+		// 只有 toCompiledList 创建的集合携带预编译集合，且为原集合的不可修改副本
+		Assertions.assertNull(SaElementSet.getCompiled(list));
+		List<String> compiledList = SaElementSet.toCompiledList(list);
+		Assertions.assertNotNull(SaElementSet.getCompiled(compiledList));
+		Assertions.assertNull(SaElementSet.getCompiled(SaElementSet.toCompiledList(Arrays.asList("a", "b"))));
+		Assertions.assertEquals(compiledList, list);
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> compiledList.add("order.*"));
+		list.add("order.*");
+		Assertions.assertTrue(SaStrategy.instance.hasElement.apply(list, "order.add"));
+		Assertions.assertFalse(SaStrategy.instance.hasElement.apply(compiledList, "order.add"));
+	}
+
+	// 模糊匹配不再依赖 DP 表，多个 * 号与回溯场景
+	@Test
+	public void vagueMatch() {
+		Assertions.assertTrue(SaFoxUtil.vagueMatch("a*b*c", "abc"));
+		Assertions.assertTrue(SaFoxUtil.vagueMatch("a*b*c", "axxbyyc"));
+		Assertions.assertTrue(SaFoxUtil.vagueMatch("a*b*c", "abcbc"));
+		Assertions.assertFalse(SaFoxUtil.vagueMatch("a*b*c", "abcb"));
+		Assertions.assertTrue(SaFoxUtil.vagueMatch("**a", "a"));
+		Assertions.assertTrue(SaFoxUtil.vagueMatch("*a*", "bab"));
+		Assertions.assertFalse(SaFoxUtil.vagueMatch("*a*", "bbb"));
+		Assertions.assertTrue(SaFoxUtil.vagueMatch("*aab", "aaab"));
+	}
+
+}
@@ -27,6 +27,8 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -196,4 +198,54 @@ public class ManyLoginTest {
     	Assertions.assertNotNull(StpUtil.getLoginIdByToken(token1));
     	Assertions.assertNull(stp.getLoginIdByToken(token1));
     }
+
+    // 测试：批量注销多个客户端时，子类重写的单个清理方法依然生效
+    @Test
+    public void login8() {
+    	SaManager.setConfig(new SaTokenConfig());
+
+    	List<String> deleted = new ArrayList<>();
+    	StpLogic stp = new StpLogic("many-login-8") {
+    		@Override
+    		public void deleteTokenSession(String tokenValue) {
+    			deleted.add(tokenValue);
+    			super.deleteTokenSession(tokenValue);
+    		}
+    	};
+
+    	stp.login(10001, "APP");
+    	String token1 = stp.getTokenValue();
+    	stp.login(10001, "PC");
+    	String token2 = stp.getTokenValue();
+    	stp.login(10001, "h5");
+    	String token3 = stp.getTokenValue();
+
+    	stp.logout(10001);
+
+    	Assertions.assertEquals(3, deleted.size());
+    	Assertions.assertTrue(deleted.containsAll(Arrays.asList(token1, token2, token3)));
+    	Assertions.assertNull(dao.get("many-login-8:login:token:" + token1));
+    }
+
+    // 测试：子类重写批量方法时，批量注销只调用一次批量方法
+    @Test
+    public void login9() {
+    	SaManager.setConfig(new SaTokenConfig());
+
+    	List<List<String>> batches = new ArrayList<>();
+    	StpLogic stp = new StpLogic("many-login-9") {
+    		@Override
+    		protected void deleteTokenSessionBatch(List<String> tokenValueList) {
+    			batches.add(new ArrayList<>(tokenValueList));
+    			super.deleteTokenSessionBatch(tokenValueList);
+    		}
+    	};
+
+    	stp.login(10001, "APP");
+    	stp.login(10001, "PC");
+    	stp.logout(10001);
+
+    	Assertions.assertEquals(1, batches.size());
+    	Assertions.assertEquals(2, batches.get(0).size());
+    }
 }